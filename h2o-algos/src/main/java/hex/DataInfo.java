@@ -1278,6 +1278,91 @@ public class DataInfo extends Keyed<DataInfo> {
       row.offset = chunks[offsetChunkId()].atd(rid);
     return row;
   }
+
+  /**
+   * Block version of {@link #extractDenseRow(Chunk[], int, Row)}: extracts the rows [from, from + rows.length)
+   * column by column using the Chunk bulk decoders instead of per-row accessors.
+   * Rows are filled exactly as by extractDenseRow; frames with interactions fall back to per-row extraction.
+   */
+  public final Row[] extractDenseRows(Chunk[] chunks, int from, Row[] rows) {
+    final int n = rows.length;
+    if (_interactions != null || _interactionVecs != null) {
+      for (int r = 0; r < n; ++r)
+        extractDenseRow(chunks, from + r, rows[r]);
+      return rows;
+    }
+    final long start = chunks[0].start();
+    double[] vals = ChunkBuffers.doubles(n);
+    int[] ivals = ChunkBuffers.ints(n);
+    boolean[] done = new boolean[n]; // rows skipped by extractDenseRow after weights/NA check
+    try {
+      for (int r = 0; r < n; ++r) {
+        Row row = rows[r];
+        row.predictors_bad = false;
+        row.response_bad = false;
+        row.rid = from + r + start;
+        row.cid = from + r;
+        row.nBins = 0;
+      }
+      if (_weights) {
+        chunks[weightChunkId()].getDoubles(vals, from, from + n);
+        for (int r = 0; r < n; ++r)
+          rows[r].weight = vals[r];
+      }
+      for (int r = 0; r < n; ++r)
+        done[r] = rows[r].weight == 0;
+      if (_skipMissing) {
+        for (int i = 0; i < _cats + _nums; ++i) {
+          chunks[i].getDoubles(vals, from, from + n);
+          for (int r = 0; r < n; ++r)
+            if (!done[r] && Double.isNaN(vals[r]))
+              done[r] = rows[r].predictors_bad = true;
+        }
+      }
+      for (int i = 0; i < _cats; ++i) {
+        chunks[i].getIntegers(ivals, from, from + n, -1);
+        for (int r = 0; r < n; ++r) {
+          if (done[r]) continue;
+          int cid = getCategoricalId(i, ivals[r] == -1 ? _catNAFill[i] : ivals[r]);
+          if (cid >= 0)
+            rows[r].binIds[rows[r].nBins++] = cid;
+        }
+      }
+      final boolean norm = _normMul != null && _normSub != null;
+      for (int i = 0; i < _nums; ++i) {
+        chunks[_cats + i].getDoubles(vals, from, from + n, _numNAFill[i]);
+        for (int r = 0; r < n; ++r) {
+          if (done[r]) continue;
+          rows[r].numVals[i] = norm ? (vals[r] - _normSub[i]) * _normMul[i] : vals[r];
+        }
+      }
+      for (int i = 0; i < _responses; ++i) {
+        chunks[responseChunkId(i)].getDoubles(vals, from, from + n);
+        for (int r = 0; r < n; ++r) {
+          Row row = rows[r];
+          if (done[r] || row.response_bad) continue;
+          row.response[i] = vals[r];
+          if (Double.isNaN(vals[r])) {
+            row.response_bad = true;
+            continue;
+          }
+          if (_normRespMul != null)
+            row.response[i] = (row.response[i] - _normRespSub[i]) * _normRespMul[i];
+        }
+      }
+      if (_offset) {
+        chunks[offsetChunkId()].getDoubles(vals, from, from + n);
+        for (int r = 0; r < n; ++r)
+          if (!done[r])
+            rows[r].offset = vals[r];
+      }
+    } finally {
+      ChunkBuffers.release(vals);
+      ChunkBuffers.release(ivals);
+    }
+    return rows;
+  }
+
   public int getInteractionOffset(Chunk[] chunks, int cid, int rid) {
     boolean useAllFactors = ((InteractionWrappedVec)chunks[cid].vec())._useAllFactorLevels;
     InteractionWrappedVec.InteractionWrappedChunk c = (InteractionWrappedVec.InteractionWrappedChunk)chunks[cid];
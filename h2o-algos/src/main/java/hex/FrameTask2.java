@@ -8,6 +8,8 @@ import water.MRTask;
 import water.fvec.Chunk;
 import water.util.FrameUtils;
 
+import java.util.Arrays;
+
 /**
  * Created by tomasnykodym on 6/1/15.
  *
@@ -18,6 +20,7 @@ import water.util.FrameUtils;
  *
  */
 public abstract class FrameTask2<T extends FrameTask2<T>> extends MRTask<T> {
+  private static final int ROW_BLOCK = 256; // dense rows extracted at once
   protected boolean _sparse;
   final Key<Job> _jobKey;
   protected final DataInfo _dinfo;
@@ -61,11 +64,17 @@ public abstract class FrameTask2<T extends FrameTask2<T>> extends MRTask<T> {
           processRow(r);
       }
     } else {
-      Row row = _dinfo.newDenseRow();
-      for(int r = 0 ; r < chks[0]._len; ++r) {
-        _dinfo.extractDenseRow(chks, r, row);
-        if(!row.isBad() && row.weight != 0)
-          processRow(row);
+      // extract the rows in blocks, column by column, using the bulk chunk decoders
+      final int len = chks[0]._len;
+      Row[] rows = new Row[Math.min(len, ROW_BLOCK)];
+      for(int i = 0; i < rows.length; ++i)
+        rows[i] = _dinfo.newDenseRow();
+      for(int from = 0 ; from < len; from += rows.length) {
+        if(len - from < rows.length)
+          rows = Arrays.copyOf(rows, len - from);
+        for(Row row:_dinfo.extractDenseRows(chks, from, rows))
+          if(!row.isBad() && row.weight != 0)
+            processRow(row);
       }
     }
     chunkDone();
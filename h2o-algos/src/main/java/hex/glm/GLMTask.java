@@ -13,6 +13,7 @@ import water.*;
 import water.H2O.H2OCountedCompleter;
 import water.fvec.C0DChunk;
 import water.fvec.Chunk;
+import water.fvec.ChunkBuffers;
 import water.fvec.Frame;
 import water.util.ArrayUtils;
 import water.util.FrameUtils;
@@ -532,8 +533,8 @@ public abstract class GLMTask  {
       _gradient = MemoryManager.malloc8d(_beta.length);
       Chunk response = chks[chks.length-_dinfo._responses];
       Chunk weights = _dinfo._weights?chks[_dinfo.weightChunkId()]:new C0DChunk(1,response._len);
-      double [] ws = weights.getDoubles(MemoryManager.malloc8d(weights._len),0,weights._len);
-      double [] ys = response.getDoubles(MemoryManager.malloc8d(weights._len),0,response._len);
+      double [] ws = weights.getDoubles(ChunkBuffers.doubles(weights._len),0,weights._len);
+      double [] ys = response.getDoubles(ChunkBuffers.doubles(weights._len),0,response._len);
       double [] etas = MemoryManager.malloc8d(response._len);
       if(_dinfo._offset)
         chks[_dinfo.offsetChunkId()].getDoubles(etas,0,etas.length);
@@ -544,14 +545,18 @@ public abstract class GLMTask  {
           if(chks[_dinfo._cats + i].isSparseZero())
             sparseOffset -= _beta[numStart + i]*_dinfo._normSub[i]*_dinfo._normMul[i];
       ArrayUtils.add(etas,sparseOffset + _beta[_beta.length-1]);
-      double [] vals = MemoryManager.malloc8d(response._len);
-      int [] ids = MemoryManager.malloc4(response._len);
+      double [] vals = ChunkBuffers.doubles(response._len);
+      int [] ids = ChunkBuffers.ints(response._len);
       computeCategoricalEtas(chks,etas,vals,ids);
       computeNumericEtas(chks,etas,vals,ids);
       computeGradientMultipliers(etas,ys,ws);
       // walk the chunks again, add to the gradient
       computeCategoricalGrads(chks,etas,vals,ids);
       computeNumericGrads(chks,etas,vals,ids);
+      ChunkBuffers.release(ws);
+      ChunkBuffers.release(ys);
+      ChunkBuffers.release(vals);
+      ChunkBuffers.release(ids);
       // add intercept
       _gradient[_gradient.length-1] = ArrayUtils.sum(etas);
       if(_dinfo._normSub != null) {
@@ -1060,16 +1065,19 @@ public abstract class GLMTask  {
       for (int i = 0; i < chks[0]._len; ++i)
         System.arraycopy(offsets, 0, etas[i], 0, K);
       Chunk response = chks[_dinfo.responseChunkId(0)];
-      double [] ws = MemoryManager.malloc8d(M);
+      double [] ws = ChunkBuffers.doubles(M);
       if(_dinfo._weights) ws = chks[_dinfo.weightChunkId()].getDoubles(ws,0,M);
       else Arrays.fill(ws,1);
       chks = Arrays.copyOf(chks,chks.length-1-(_dinfo._weights?1:0));
-      double [] vals = MemoryManager.malloc8d(M);
-      int [] ids = MemoryManager.malloc4(M);
+      double [] vals = ChunkBuffers.doubles(M);
+      int [] ids = ChunkBuffers.ints(M);
       computeCategoricalEtas(chks,etas,vals,ids);
       computeNumericEtas(chks,etas,vals,ids);
 
       calMultipliersNGradients(etas, etasOffset, ws, vals, ids, response, chks, M, P, numStart);
+      ChunkBuffers.release(ws);
+      ChunkBuffers.release(vals);
+      ChunkBuffers.release(ids);
 
     }
     public abstract void calMultipliersNGradients(double[][] etas, double[][] etasOffset, double[] ws, double[] vals,
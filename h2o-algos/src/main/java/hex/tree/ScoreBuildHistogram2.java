@@ -238,10 +238,11 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
           Chunk resChk = chks[_workIdx];
           int len = resChk.len();
           final double[] y;
-          if(resChk instanceof C8DVolatileChunk){
+          final boolean pooled = !(resChk instanceof C8DVolatileChunk);
+          if(!pooled){
             y = ((C8DVolatileChunk)resChk).getValues();
           } else 
-            y = resChk.getDoubles(MemoryManager.malloc8d(len), 0, len);
+            y = resChk.getDoubles(ChunkBuffers.doubles(len), 0, len);
           int[] nh = _nhs[id];
           _ys[id] = MemoryManager.malloc8d(len);
           // Important optimization that helps to avoid cache misses when working on larger datasets
@@ -260,6 +261,8 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
               _ys[id][i] = y[_rss[id][i]];
             }
           }
+          if (pooled)
+            ChunkBuffers.release(y);
           // Only allocate weights if weight columns is actually used. It is faster to handle null case
           // in binning that to represent the weights using a constant array (it still needs to be in memory
           // and is accessed frequently - waste of CPU cache). 
@@ -615,6 +615,72 @@ public class DataInfoTest extends TestUtil {
 //  }
 
 
+  @Test public void testExtractDenseRowsMatchesExtractDenseRow() {
+    Scope.enter();
+    try {
+      final int n = 1000;
+      String[] cat = new String[n];
+      double[] num1 = new double[n], num2 = new double[n], w = new double[n], y = new double[n];
+      java.util.Random rnd = new java.util.Random(42);
+      for (int i = 0; i < n; i++) {
+        cat[i] = rnd.nextInt(10) == 0 ? null : "l" + rnd.nextInt(5);
+        num1[i] = rnd.nextInt(10) == 0 ? Double.NaN : rnd.nextGaussian();
+        num2[i] = rnd.nextInt(100);
+        w[i] = rnd.nextInt(5) == 0 ? 0 : rnd.nextDouble();
+        y[i] = rnd.nextInt(20) == 0 ? Double.NaN : rnd.nextDouble();
+      }
+      Frame fr = new TestFrameBuilder()
+              .withColNames("cat", "num1", "num2", "w", "y")
+              .withVecTypes(Vec.T_CAT, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, cat)
+              .withDataForCol(1, num1)
+              .withDataForCol(2, num2)
+              .withDataForCol(3, w)
+              .withDataForCol(4, y)
+              .withChunkLayout(300, 300, 400)
+              .build();
+      for (boolean skipMissing : new boolean[]{true, false}) {
+        for (DataInfo.TransformType tt : new DataInfo.TransformType[]{DataInfo.TransformType.NONE, DataInfo.TransformType.STANDARDIZE}) {
+          final DataInfo di = new DataInfo(fr.clone(), null, 1, false, tt, DataInfo.TransformType.NONE,
+                  skipMissing, !skipMissing, false, true, false, false, null);
+          Scope.track_generic(di);
+          new MRTask() {
+            @Override public void map(Chunk[] cs) {
+              DataInfo.Row expected = di.newDenseRow();
+              DataInfo.Row[] rows = new DataInfo.Row[64];
+              for (int i = 0; i < rows.length; i++)
+                rows[i] = di.newDenseRow();
+              for (int from = 0; from < cs[0]._len; from += rows.length) {
+                int len = Math.min(rows.length, cs[0]._len - from);
+                if (len < rows.length)
+                  rows = java.util.Arrays.copyOf(rows, len);
+                di.extractDenseRows(cs, from, rows);
+                for (int r = 0; r < len; r++) {
+                  DataInfo.Row act = rows[r];
+                  di.extractDenseRow(cs, from + r, expected);
+                  assertEquals(expected.rid, act.rid);
+                  assertEquals(expected.cid, act.cid);
+                  assertEquals(expected.weight, act.weight, 0);
+                  assertEquals(expected.predictors_bad, act.predictors_bad);
+                  if (expected.weight == 0 || expected.predictors_bad) continue;
+                  assertEquals(expected.response_bad, act.response_bad);
+                  assertEquals(expected.nBins, act.nBins);
+                  for (int j = 0; j < expected.nBins; j++)
+                    assertEquals(expected.binIds[j], act.binIds[j]);
+                  Assert.assertArrayEquals(expected.numVals, act.numVals, 0);
+                  if (!expected.response_bad)
+                    Assert.assertArrayEquals(expected.response, act.response, 0);
+                }
+              }
+            }
+          }.doAll(di._adaptedFrame);
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
   private static void printVals(DataInfo di, DataInfo.Row denseRow, DataInfo.Row sparseRow) {
     System.out.println("col|dense|sparse|sparseScaled");
     double sparseScaled;
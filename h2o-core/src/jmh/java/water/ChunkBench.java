@@ -20,6 +20,7 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 import java.util.concurrent.TimeUnit;
 
 import water.fvec.Chunk;
+import water.fvec.ChunkBuffers;
 import water.fvec.NewChunk;
 
 /**
@@ -38,6 +39,10 @@ public class ChunkBench {
   private int cols;
   @Param({"1000", "100000"})
   private int rows;
+  // "mixed" cycles through the 4 original chunk types; the others make every
+  // column of a single chunk type
+  @Param({"mixed", "C1SChunk", "C4FChunk", "CBSChunk", "CXIChunk", "CDeltaChunk", "CRLEChunk"})
+  private String kind;
   private Chunk[] chunks;
   private double[][] raw;
 
@@ -94,6 +99,41 @@ public class ChunkBench {
     return sum;
   }
 
+  @Benchmark
+  public double colsRowsWithAllocatingBulkRead() {
+    double sum = 0;
+    // Fresh array per column, the way MRTask map calls used to decode chunks
+    for (int col = 0; col < cols; ++col) {
+      sum += walkChunkBulk(rows, chunks[col], new double[chunks[col]._len]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double colsRowsWithPooledBulkRead() {
+    double sum = 0;
+    // Per-thread recycled array per column
+    for (int col = 0; col < cols; ++col) {
+      double[] vals = ChunkBuffers.doubles(chunks[col]._len);
+      sum += walkChunkBulk(rows, chunks[col], vals);
+      ChunkBuffers.release(vals);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long colsRowsWithBulkLongRead() {
+    long sum = 0;
+    long[] vals = new long[chunks[0]._len];
+    for (int col = 0; col < cols; ++col) {
+      if (chunks[col].hasFloat()) continue;
+      chunks[col].getLongs(vals, 0, rows, 0);
+      for (int i = 0; i < rows; ++i)
+        sum += vals[i];
+    }
+    return sum;
+  }
+
   @Benchmark
   public double colsRowsReadWithFinalChunk() {
     double sum = 0;
@@ -116,7 +156,7 @@ public class ChunkBench {
 
   private static double walkChunkBulk(int rows, final Chunk c, double [] vals) {
     double sum = 0;
-    c.getDoubles(vals, 0, c._len);
+    c.getDoubles(vals, 0, c._len, 0);
     for (int i = 0; i < rows; ++i)
       sum += vals[i];
     return sum;
@@ -127,7 +167,7 @@ public class ChunkBench {
     raw = new double[cols][rows];
     for (int col = 0; col < cols; ++col) {
       for (int row = 0; row < rows; ++row) {
-        raw[col][row] = get(col, row);
+        raw[col][row] = kind.equals("mixed") ? get(col, row) : get(kind, row);
       }
     }
     chunks = new Chunk[cols];
@@ -151,6 +191,25 @@ public class ChunkBench {
     }
   }
 
+  private static double get(String kind, int i) {
+    switch (kind) {
+      case "C1SChunk":
+        return (i % 100) / 10.0; // scaled 1 byte
+      case "C4FChunk":
+        return (float) Math.sqrt(i); // floats
+      case "CBSChunk":
+        return i % 3 == 0 ? Double.NaN : i % 2; // 2 bits per value
+      case "CXIChunk":
+        return i % 100 == 0 ? i % 1000 : 0; // sparse integers
+      case "CDeltaChunk":
+        return 1500000000000L + 37L * i; // sorted timestamps
+      case "CRLEChunk":
+        return i / 1000; // long runs
+      default:
+        throw H2O.unimpl();
+    }
+  }
+
   public static void main(String[] args) throws RunnerException {
     Options opt = new OptionsBuilder()
         .include(ChunkBench.class.getSimpleName())
@@ -0,0 +1,112 @@
+package water.parser;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.Iced;
+import water.fvec.FileVec;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV chunk parse benchmark: the state machine alone, or the clean lines
+ * parsed off the structural index first ({@code swar}), over a chunk of a
+ * wide numeric CSV and of a string-heavy CSV.  The writer only sums up what
+ * it gets, so this is the time of the tokenizer and the number parsing.
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CsvParserBench {
+
+  @Param({"numeric", "strings"})
+  private String data;
+  @Param({"false", "true"})
+  private boolean swar;
+
+  private byte[][] chunks;
+  private CsvParser parser;
+
+  @Setup
+  public void setup() {
+    Random r = new Random(0xC5F);
+    int ncols = data.equals("numeric") ? 200 : 20;
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < FileVec.DFLT_CHUNK_SIZE + 1024) {
+      for (int c = 0; c < ncols; c++) {
+        if (c > 0) sb.append(',');
+        if (data.equals("numeric")) {
+          if (c % 2 == 0) sb.append(r.nextInt(100000));
+          else sb.append(String.format("%.6f", r.nextGaussian() * 100));
+        } else {
+          if (c == 0) sb.append(r.nextInt(1000));
+          else for (int i = 4 + r.nextInt(12); i > 0; i--) sb.append((char) ('a' + r.nextInt(26)));
+        }
+      }
+      sb.append('\n');
+    }
+    byte[] bits = sb.toString().getBytes();
+    chunks = new byte[][]{
+        java.util.Arrays.copyOf(bits, FileVec.DFLT_CHUNK_SIZE),
+        java.util.Arrays.copyOfRange(bits, FileVec.DFLT_CHUNK_SIZE, bits.length)};
+
+    ParseSetup ps = new ParseSetup();
+    ps._parse_type = DefaultParserProviders.CSV_INFO;
+    ps._separator = ',';
+    ps._check_header = ParseSetup.NO_HEADER;
+    ps._number_columns = ncols;
+    parser = new CsvParser(ps, null);
+    CsvParser.SWAR = swar;
+  }
+
+  @Benchmark
+  public double parseChunk() {
+    SumWriter w = new SumWriter();
+    parser.parseChunk(0, new Chunks(chunks), w);
+    return w._sum;
+  }
+
+  // The bytes of the chunk, and of the start of the next one
+  private static class Chunks implements ParseReader {
+    final byte[][] _chunks;
+    Chunks(byte[][] chunks) { _chunks = chunks; }
+    @Override public byte[] getChunkData(int cidx) { return cidx < _chunks.length ? _chunks[cidx] : null; }
+    @Override public int getChunkDataStart(int cidx) { return -1; }
+    @Override public void setChunkDataStart(int cidx, int offset) { }
+    @Override public long getGlobalByteOffset() { return 0; }
+  }
+
+  private static class SumWriter extends Iced implements ParseWriter {
+    double _sum;
+    long _lines;
+    @Override public void setColumnNames(String[] names) { }
+    @Override public void newLine() { _lines++; }
+    @Override public boolean isString(int colIdx) { return false; }
+    @Override public void addNumCol(int colIdx, long number, int exp) { _sum += number + exp; }
+    @Override public void addNumCol(int colIdx, double d) { _sum += d; }
+    @Override public void addInvalidCol(int colIdx) { _sum++; }
+    @Override public void addNAs(int colIdx, int nrow) { _sum += nrow; }
+    @Override public void addStrCol(int colIdx, BufferedString str) { _sum += str.length(); }
+    @Override public void rollbackLine() { _lines--; }
+    @Override public void invalidLine(ParseErr err) { }
+    @Override public void addError(ParseErr err) { }
+    @Override public void setIsAllASCII(int colIdx, boolean b) { }
+    @Override public boolean hasErrors() { return false; }
+    @Override public ParseErr[] removeErrors() { return new ParseErr[0]; }
+    @Override public long lineNum() { return _lines; }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(CsvParserBench.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
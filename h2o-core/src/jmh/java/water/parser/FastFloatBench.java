@@ -0,0 +1,81 @@
+package water.parser;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.util.PrettyPrint;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decimal to double conversion of parsed numbers: {@link FastFloat} against
+ * the plain scaling by a power of 10 (not always exact) and against
+ * {@link Double#parseDouble} of the text, over short decimals and over
+ * high-precision (17 digit) doubles.
+ */
+@State(Scope.Thread)
+@Fork(value = 1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FastFloatBench {
+
+  @Param({"short", "precise"})
+  private String data;
+
+  private static final int N = 10000;
+  private long[] mantissas;
+  private int[] exps;
+  private String[] texts;
+
+  @Setup
+  public void setup() {
+    Random r = new Random(0xF1);
+    mantissas = new long[N];
+    exps = new int[N];
+    texts = new String[N];
+    for (int i = 0; i < N; i++) {
+      texts[i] = data.equals("short")
+          ? String.format(Locale.ROOT, "%.3f", r.nextGaussian() * 100)
+          : String.format(Locale.ROOT, "%.16e", r.nextGaussian() * Math.pow(10, r.nextInt(40) - 20));
+      BigDecimal bd = new BigDecimal(texts[i]);
+      mantissas[i] = bd.unscaledValue().longValueExact();
+      exps[i] = -bd.scale();
+    }
+  }
+
+  @Benchmark
+  public double fastFloat() {
+    double sum = 0;
+    for (int i = 0; i < N; i++) sum += FastFloat.toDouble(mantissas[i], exps[i]);
+    return sum;
+  }
+
+  @Benchmark
+  public double pow10() {
+    double sum = 0;
+    for (int i = 0; i < N; i++) sum += PrettyPrint.pow10(mantissas[i], exps[i]);
+    return sum;
+  }
+
+  @Benchmark
+  public double parseDouble() {
+    double sum = 0;
+    for (int i = 0; i < N; i++) sum += Double.parseDouble(texts[i]);
+    return sum;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(FastFloatBench.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
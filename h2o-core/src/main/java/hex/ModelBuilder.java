@@ -9,6 +9,7 @@ import water.api.HDFSIOException;
 import water.exceptions.H2OIllegalArgumentException;
 import water.exceptions.H2OModelBuilderIllegalArgumentException;
 import water.fvec.*;
+import water.rapids.LazyExpr;
 import water.rapids.ast.prims.advmath.AstKFold;
 import water.udf.CFuncRef;
 import water.util.*;
@@ -1482,6 +1483,10 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
       checkResponseVariable();
     }
 
+    // Columns computed lazily by Rapids would be evaluated again on every pass over the data
+    if (expensive && error_count() == 0 && materializeLazyVecs(_train))
+      separateFeatureVecs();
+
     // Rebalance train and valid datasets (after invalid/bad columns are dropped)
     if (expensive && error_count() == 0 && _parms._auto_rebalance) {
       setTrain(rebalance(_train, false, _result + ".temporary.train"));
@@ -1586,6 +1591,7 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
         _vresponse = va.vec(_parms._response_column);
       }
       _valid = adaptFrameToTrain(va, "Validation Frame", "_validation_frame", expensive, false);  // see PUBDEV-7785
+      if (expensive) materializeLazyVecs(_valid);
       if (!isResponseOptional() || (_parms._response_column != null && _valid.find(_parms._response_column) >= 0)) {
         _vresponse = _valid.vec(_parms._response_column);
       }
@@ -1786,6 +1792,14 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
       _workspace.getToDelete(true).put(fr._key, Arrays.toString(Thread.currentThread().getStackTrace()));
   }
 
+  // Replace the lazy Rapids expression columns of a working frame by computed Vecs, removed with the Scope
+  private static boolean materializeLazyVecs(Frame fr) {
+    Vec[] computed = LazyExpr.materialize(fr);
+    for (Vec v : computed)
+      Scope.track(v);
+    return computed.length > 0;
+  }
+
   /**
    * Rebalance a frame for load balancing
    * @param original_fr Input frame
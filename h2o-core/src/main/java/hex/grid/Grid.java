@@ -411,11 +411,10 @@ public class Grid<MP extends Model.Parameters> extends Lockable<Grid<MP>> implem
   @Override
   public Model[] getModels() {
     Collection<Key<Model>> modelKeys = _models.values();
-    Model[] models = new Model[modelKeys.size()];
-    int i = 0;
-    for (Key<Model> mKey : modelKeys) {
-      models[i] = mKey != null ? mKey.get() : null;
-      i++;
+    Value[] vals = DKV.getAll(modelKeys.toArray(new Key[0]));
+    Model[] models = new Model[vals.length];
+    for (int i = 0; i < vals.length; i++) {
+      models[i] = vals[i] != null ? (Model) vals[i].get() : null;
     }
     return models;
   }
@@ -0,0 +1,251 @@
+package water;
+
+import jsr166y.ForkJoinPool;
+import water.nbhm.NonBlockingHashMap;
+
+import java.util.HashMap;
+
+/**
+ * Ring allreduce of large dense arrays across the cloud, over the node-to-node
+ * TCP channels.
+ *
+ * Reducing a big array up the MRTask tree funnels every partial copy into the
+ * root node, whose NIC and heap then bound the reduction; broadcasting the
+ * result via the DKV funnels it out again.  Here the nodes form a ring (in the
+ * {@link CloudTopology} order, so the ring crosses each host and rack boundary
+ * only twice), and the array is cut in one segment per node:
+ * <ol>
+ * <li>reduce-scatter: in N-1 steps each node passes a segment to the next
+ * node, which adds it to its own; afterwards each node holds one segment
+ * fully reduced;</li>
+ * <li>allgather: in N-1 more steps the reduced segments go around the ring,
+ * and every node ends up with the whole reduced array.</li>
+ * </ol>
+ * Every node sends and receives about 2x the array size, whatever the cloud
+ * size, and no node ever holds more than its own array plus a segment in
+ * flight.
+ *
+ * All the nodes of the cloud must call in with the same key and the same array
+ * length, typically from the {@link MRTask#setupLocal} of a
+ * {@link MRTask#doAllNodes} task - e.g. to average per-node models:
+ * <pre>{@code
+ *   final Key key = Key.make();
+ *   new MRTask() {
+ *     @Override protected void setupLocal() {
+ *       if( H2O.ARGS.client ) return;
+ *       double[] w = AllReduce.sum(key, localWeights());
+ *       ArrayUtils.div(w, H2O.CLOUD.size());
+ *     }
+ *   }.doAllNodes();
+ * }</pre>
+ * A client is not in the ring, and cannot call in.
+ */
+public final class AllReduce {
+
+  private AllReduce() {}
+
+  // Rings in progress on this node, by key.  A ring is made by the first of
+  // the local call or a segment from the previous node.  The keys of the last
+  // MAX_DONE rings done here are kept, so that a segment arriving late (the
+  // abort of a node which failed after this one was done) does not make a
+  // ring again, never to be removed.
+  private static final NonBlockingHashMap<Key, Ring> RINGS = new NonBlockingHashMap<>();
+  private static final int MAX_DONE = 1024;
+  private static final NonBlockingHashMap<Key, Boolean> DONE = new NonBlockingHashMap<>();
+  private static final Key[] DONE_KEYS = new Key[MAX_DONE]; // Oldest overwritten first
+  private static int _nextDone;
+
+  /** Sum the arrays of all the nodes, in place: on return every node's array
+   *  holds the sum.  Blocks until this node has the whole sum.
+   *  @return arr */
+  public static double[] sum( Key key, double[] arr ) {
+    Ring ring = join(key);
+    try {
+      final int n = ring._order.length, pos = ring._pos;
+      // Reduce-scatter, then allgather; sends of step t overlap the receive
+      for( int t = 0; t < n - 1; t++ )
+        ring.step(t, arr, (pos - t + n) % n, (pos - t - 1 + n) % n, true);
+      for( int t = 0; t < n - 1; t++ )
+        ring.step(n - 1 + t, arr, (pos + 1 - t + n) % n, (pos - t + n) % n, false);
+      ring.finish();
+    } catch( RuntimeException e ) {
+      ring.abort();
+      throw e;
+    } finally {
+      done(key);
+    }
+    return arr;
+  }
+
+  /** Sum the arrays of all the nodes, leaving each node with one segment of
+   *  the sum; the rest of its array holds partial sums.  Blocks until this
+   *  node's segment is reduced.
+   *  @return the [lo,hi) range of arr holding this node's segment of the sum */
+  public static int[] reduceScatter( Key key, double[] arr ) {
+    Ring ring = join(key);
+    try {
+      final int n = ring._order.length, pos = ring._pos;
+      for( int t = 0; t < n - 1; t++ )
+        ring.step(t, arr, (pos - t + n) % n, (pos - t - 1 + n) % n, true);
+      ring.finish();
+      int seg = (pos + 1) % n;
+      return new int[]{lo(arr.length, n, seg), lo(arr.length, n, seg + 1)};
+    } catch( RuntimeException e ) {
+      ring.abort();
+      throw e;
+    } finally {
+      done(key);
+    }
+  }
+
+  private static Ring join( Key key ) {
+    if( H2O.ARGS.client )
+      throw new IllegalStateException("A client is not part of the cloud, and cannot take part in an allreduce");
+    Ring ring = ring(key);
+    ring.join(H2O.CLOUD);
+    return ring;
+  }
+
+  private static Ring ring( Key key ) {
+    Ring ring = RINGS.get(key);
+    if( ring == null ) {
+      RINGS.putIfAbsent(key, new Ring(key));
+      ring = RINGS.get(key);
+    }
+    return ring;
+  }
+
+  /** True if an allreduce of this key is in progress on this node */
+  static boolean inProgress( Key key ) { return RINGS.containsKey(key); }
+
+  private static void done( Key key ) {
+    synchronized( DONE_KEYS ) {
+      if( DONE_KEYS[_nextDone] != null ) DONE.remove(DONE_KEYS[_nextDone]);
+      DONE_KEYS[_nextDone] = key;
+      _nextDone = (_nextDone + 1) % MAX_DONE;
+      DONE.put(key, Boolean.TRUE);
+    }
+    RINGS.remove(key);          // After the tombstone, see Segment.dinvoke
+  }
+
+  // Start of segment s of an array of len elements cut in n segments
+  private static int lo( int len, int n, int s ) { return (int) ((long) len * s / n); }
+
+  // The local state of one allreduce: the ring, and the segments received
+  // from the previous node, by step
+  private static final class Ring implements ForkJoinPool.ManagedBlocker {
+    final Key _key;
+    private final HashMap<Integer, double[]> _inbox = new HashMap<>();
+    H2O _cloud;
+    int[] _order;
+    int _pos;
+    private H2ONode _next;
+    private RPC<Segment> _sent;
+    private int _step;          // The step being waited for
+    private int _abort = -1;    // The node which failed first, if any
+
+    Ring( Key key ) { _key = key; }
+
+    void join( H2O cloud ) {
+      _cloud = cloud;
+      _order = CloudTopology.order(cloud, 0);
+      for( int i = 0; i < _order.length; i++ )
+        if( _order[i] == H2O.SELF.index() ) _pos = i;
+      _next = cloud._memary[_order[(_pos + 1) % _order.length]];
+    }
+
+    synchronized void put( int step, double[] seg, int origin ) {
+      if( seg == null ) _abort = origin;
+      else _inbox.put(step, seg);
+      notifyAll();
+    }
+
+    // Pass the failure on down the ring, so the nodes blocked waiting for
+    // segments fail in turn, and stop at the node which failed first
+    void abort() {
+      if( _next == null ) return;         // Failed before joining
+      int origin;
+      synchronized( this ) { origin = _abort == -1 ? H2O.SELF.index() : _abort; }
+      if( _next.index() != origin && _next != H2O.SELF )
+        RPC.call(_next, new Segment(_key, -1, null, origin));
+    }
+
+    // Send segment out to the next node, and receive segment in from the
+    // previous one; add it to, or copy it over, arr
+    void step( int t, double[] arr, int out, int in, boolean add ) {
+      final int n = _order.length;
+      int lo = lo(arr.length, n, out), hi = lo(arr.length, n, out + 1);
+      double[] seg = new double[hi - lo];
+      System.arraycopy(arr, lo, seg, 0, seg.length);
+      finish();                 // At most one send in flight
+      _sent = RPC.call(_next, new Segment(_key, t, seg, -1));
+      seg = take(t);
+      lo = lo(arr.length, n, in);
+      hi = lo(arr.length, n, in + 1);
+      if( seg.length != hi - lo )
+        throw new IllegalArgumentException("Allreduce " + _key + " of arrays of different lengths: got a segment of " + seg.length + " elements, expected " + (hi - lo));
+      if( add ) for( int i = 0; i < seg.length; i++ ) arr[lo + i] += seg[i];
+      else System.arraycopy(seg, 0, arr, lo, seg.length);
+    }
+
+    // Wait for the last send to be acknowledged
+    void finish() {
+      if( _sent != null ) _sent.get();
+      _sent = null;
+    }
+
+    private double[] take( int step ) {
+      _step = step;
+      try {
+        ForkJoinPool.managedBlock(this);
+      } catch( InterruptedException e ) {
+        throw new RuntimeException(e);
+      }
+      synchronized( this ) {
+        double[] seg = _inbox.remove(step);
+        if( seg == null )
+          throw new IllegalStateException("Allreduce " + _key + " failed on node " + _cloud._memary[_abort]);
+        return seg;
+      }
+    }
+
+    @Override public synchronized boolean isReleasable() { return _inbox.containsKey(_step) || _abort != -1; }
+    @Override public synchronized boolean block() throws InterruptedException {
+      while( !isReleasable() ) {
+        if( H2O.CLOUD != _cloud )
+          throw new IllegalStateException("The cloud changed during allreduce " + _key);
+        wait(1000);
+      }
+      return true;
+    }
+  }
+
+  // A segment of an array, passed to the next node of the ring, or with no
+  // segment the failure of an origin node.  Runs one level above the caller,
+  // which may be blocked waiting for its own segment.
+  static final class Segment extends DTask<Segment> {
+    Key _key;
+    int _step, _origin;
+    double[] _seg;
+    Segment( Key key, int step, double[] seg, int origin ) {
+      super((byte) Math.min(H2O.MAX_PRIORITY, currThrPriority() + 1));
+      _key = key;
+      _step = step;
+      _seg = seg;
+      _origin = origin;
+    }
+    @Override public void dinvoke( H2ONode sender ) {
+      if( !DONE.containsKey(_key) ) { // Else a late abort: nobody waits for it
+        Ring ring = ring(_key);
+        ring.put(_step, _seg, _origin);
+        // Done meanwhile, before the ring was made again: drop it
+        if( DONE.containsKey(_key) ) RINGS.remove(_key, ring);
+      }
+      _key = null;              // Do not send the segment back in the ACK
+      _seg = null;
+      tryComplete();
+    }
+    @Override public void compute2() { throw H2O.fail(); }
+    @Override public boolean logVerbose() { return false; }
+  }
+}
@@ -8,6 +8,7 @@ import java.nio.channels.*;
 import java.util.ArrayList;
 import java.util.Random;
 
+import water.network.CompressedByteChannel;
 import water.network.SocketChannelUtils;
 import water.util.Log;
 import water.util.StringUtils;
@@ -106,6 +107,15 @@ public final class AutoBuffer implements AutoCloseable {
   // I/O persistence flavor: Value.ICE, NFS, HDFS, S3, TCP.  Used to record I/O time.
   final byte _persist;
 
+  // Class of the message being written, if known.  Used to record the TCP
+  // compression stats by message type.
+  private Class _msgClass;
+
+  // TRUE if _bb is a small-message buffer from BBP_SML, owned by this
+  // AutoBuffer until freed on close - or until handed off to the sending
+  // thread of the target node, which frees it once the bytes are shipped.
+  private boolean _pooled;
+
   // The assumed max UDP packetsize
   static final int MTU = 1500-8/*UDP packet header size*/;
 
@@ -160,9 +170,10 @@ public final class AutoBuffer implements AutoCloseable {
    *  This helps in UDP floods to shut down flooding senders. */
   private byte _msg_priority;
   AutoBuffer( H2ONode h2o, byte priority ) {
-    // If UDP goes via TCP, we write into a HBB up front, because this will be copied again
-    // into a large outgoing buffer.
-    _bb = ByteBuffer.wrap(new byte[16]).order(ByteOrder.nativeOrder());
+    // If UDP goes via TCP, we write into a pooled HBB up front, because this
+    // will be copied again into a large outgoing buffer.
+    _bb = BBP_SML.make();
+    _pooled = true;
     _chan = null;               // Channel made lazily only if we write alot
     _h2o = h2o;
     _read = false;              // Writing by default
@@ -208,6 +219,20 @@ public final class AutoBuffer implements AutoCloseable {
     _size = len;
   }
 
+  /** Read a small message from a pooled BBP_SML buffer, which is freed on close */
+  AutoBuffer( H2ONode h2o, ByteBuffer pooled, int len ) {
+    assert pooled.capacity() == BBP_SML._size && pooled.hasArray();
+    _h2o = h2o;
+    _bb = pooled;
+    _bb.position(0).limit(len);
+    _pooled = true;
+    _chan = null;
+    _read = true;
+    _firstPage = true;
+    _persist = 0;               // No persistance
+    _size = len;
+  }
+
   /** Read from a fixed byte[]; should not be closed. */
   public AutoBuffer( byte[] buf ) { this(null,buf,0, buf.length); }
 
@@ -323,8 +348,9 @@ public final class AutoBuffer implements AutoCloseable {
     long _numer, _denom, _goal=4*H2O.NUMCPUS, _lastGoal;
     final ArrayList<ByteBuffer> _bbs = new ArrayList<>();
     final int _size;            // Big or small size of ByteBuffers
+    final boolean _direct;      // Direct (native) or heap ByteBuffers
 
-    BBPool( int sz) { _size=sz; }
+    BBPool( int sz, boolean direct ) { _size=sz; _direct=direct; }
     private ByteBuffer stats( ByteBuffer bb ) {
       if( !DEBUG ) return bb;
       if( ((_made+_cached)&255)!=255 ) return bb; // Filter printing to 1 in 256
@@ -349,9 +375,9 @@ public final class AutoBuffer implements AutoCloseable {
           if( sz > 0 ) { bb = _bbs.remove(sz-1); _cached++; _numer++; }
         }
         if( bb != null ) return stats(bb);
-        // Cache empty; go get one from C/Native memory
+        // Cache empty; go get one from C/Native memory, or the heap
         try {
-          bb = ByteBuffer.allocateDirect(_size).order(ByteOrder.nativeOrder());
+          bb = (_direct ? ByteBuffer.allocateDirect(_size) : ByteBuffer.wrap(new byte[_size])).order(ByteOrder.nativeOrder());
           synchronized(this) { _made++; _denom++; _goal = Math.max(_goal,_made-_freed); _lastGoal=System.nanoTime(); } // Goal was too low, raise it
           return stats(bb);
         } catch( OutOfMemoryError oome ) {
@@ -387,19 +413,40 @@ public final class AutoBuffer implements AutoCloseable {
       }
     }
     static int FREE( ByteBuffer bb ) {
-      if(bb.isDirect())
-        (bb.capacity()==BBP_BIG._size ? BBP_BIG : BBP_SML).free(bb);
+      if(bb.isDirect() && bb.capacity()==BBP_BIG._size)
+        BBP_BIG.free(bb);
       return 0;                 // Flow coding
     }
   }
-  static BBPool BBP_SML = new BBPool( 2*1024); // Bytebuffer "common small size", for UDP
-  static BBPool BBP_BIG = new BBPool(64*1024); // Bytebuffer "common  big  size", for TCP
+  // Small messages are batched into the big buffer of the per-node sending
+  // thread, and split out of the big buffer of the per-node reading thread,
+  // so their buffers live on the heap; they are pooled so that the steady
+  // flow of small RPC traffic (acks, ackacks, nacks, heartbeats, small tasks)
+  // allocates nothing.
+  static BBPool BBP_SML = new BBPool( 2*1024, false); // Bytebuffer "common small size", for UDP
+  static BBPool BBP_BIG = new BBPool(64*1024, true ); // Bytebuffer "common  big  size", for TCP
   public static int TCP_BUF_SIZ = BBP_BIG._size;
 
+  /** @return a pooled copy of the remaining bytes of a small message, to be
+   *  handed off to {@link H2ONode#sendMessage} */
+  public static ByteBuffer copySmall( ByteBuffer bb ) {
+    assert bb.remaining() < BBP_SML._size;
+    ByteBuffer copy = BBP_SML.make();
+    copy.put(bb).flip();
+    return copy;
+  }
+
+  /** Free a small-message buffer handed off to the sending thread, once its
+   *  bytes are shipped */
+  static void freeSmall( ByteBuffer bb ) { BBP_SML.free(bb); }
+
   private int bbFree() {
-    if(_bb != null && _bb.isDirect())
+    if(_bb != null && _pooled)
+      BBP_SML.free(_bb);
+    else if(_bb != null && _bb.isDirect())
       BBPool.FREE(_bb);
     _bb = null;
+    _pooled = false;
     return 0;                   // Flow-coding
   }
 
@@ -498,9 +545,21 @@ public final class AutoBuffer implements AutoCloseable {
     assert _chan == null;
 //    assert _bb.position()==0;
     _chan = _h2o.getTCPSocket();
+    if( _chan instanceof CompressedByteChannel )
+      ((CompressedByteChannel)_chan).startMessage(msgType());
     raisePriority();
   }
 
+  /** Set the class of the message being written, for the TCP compression stats */
+  AutoBuffer msgClass( Class clz ) { _msgClass = clz; return this; }
+
+  // The UDP type of the message, and its class if known, e.g. "exec:GetTask"
+  private String msgType() {
+    int ctrl = _bb.get(0)&0xFF;
+    String type = ctrl < UDP.udp.UDPS.length ? UDP.udp.UDPS[ctrl].name() : "unknown";
+    return _msgClass == null ? type : type + ":" + _msgClass.getSimpleName();
+  }
+
   // Just close the channel here without reading anything.  Without the task
   // object at hand we do not know what (how many bytes) should we read from
   // the channel.  And since the other side will try to read confirmation from
@@ -579,8 +638,11 @@ public final class AutoBuffer implements AutoCloseable {
     if( _h2o==H2O.SELF ) {      // SELF-send is the multi-cast signal
       water.init.NetworkInit.multicast(_bb, _msg_priority);
     } else {                    // Else single-cast send
-      // Send via bulk TCP
-      _h2o.sendMessage(_bb, _msg_priority);
+      // Send via bulk TCP.  The sending thread takes over a pooled buffer, so
+      // forget it here; any other buffer is copied into a pooled one.
+      ByteBuffer bb = _pooled ? _bb : copySmall(_bb);
+      if( _pooled ) { _bb = null; _pooled = false; }
+      _h2o.sendMessage(bb, _msg_priority);
     }
     return 0;                   // Flow-coding
   }
@@ -731,7 +793,10 @@ public final class AutoBuffer implements AutoCloseable {
     } else if (_bb.capacity() != BBP_BIG._size) { //avoid expanding existing BBP items
       int oldPos = _bb.position();
       _bb.flip();
-      _bb = BBP_BIG.make().put(_bb);
+      ByteBuffer bb = BBP_BIG.make().put(_bb);
+      if( _pooled ) BBP_SML.free(_bb); // Not a small message after all
+      _pooled = false;
+      _bb = bb;
       _bb.position(oldPos);
     }
     return _bb;
@@ -4,6 +4,8 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.Arrays;
 import water.fvec.Chunk;
+import water.persist.Persist;
+import water.persist.PersistOffHeap;
 import water.util.Log;
 import water.util.PrettyPrint;
 
@@ -168,8 +170,11 @@ class Cleaner extends Thread {
           if( m != null ) cleaned += m.length; // Accumulate i/o bytes
           io_ns += System.nanoTime() - now_ns; // Accumulate i/o time
         }
-        // And, under pressure, free all
-        if( isChunk && force && (val.isPersisted() || !((Key)ok).home()) ) {
+        // And, under pressure, free all.  Chunks spilled to the off-heap tier
+        // are freed eagerly: reloading them is a memcpy, and keeping them off
+        // the Java heap is the point of the tier.
+        boolean offHeap = isChunk && val.isPersisted() && isOffHeap(val);
+        if( isChunk && (force || offHeap) && (val.isPersisted() || !((Key)ok).home()) ) {
           val.freeMem ();  if( m != null ) freed += val._max;  m = null;
           val.freePOJO();  if( p != null ) freed += val._max;  p = null;
           if( isChunk ) freed -= val._max; // Double-counted freed mem for Chunks since val._pojo._mem & val._mem are the same.
@@ -187,7 +192,8 @@ class Cleaner extends Thread {
       }
 
       String s1 = "Cleaner pass took: "+PrettyPrint.msecs(System.currentTimeMillis()-now,true)+
-                  ", spilled "+PrettyPrint.bytes(cleaned)+" in "+PrettyPrint.usecs(io_ns>>10);
+                  ", spilled "+PrettyPrint.bytes(cleaned)+" in "+PrettyPrint.usecs(io_ns>>10)+
+                  (offHeapTier() != null ? ", off-heap "+PrettyPrint.bytes(offHeapTier().usedBytes()) : "");
       h = Histo.current(true); // Force a new histogram
       MemoryManager.set_goals("postclean",false);
       // No logging if under memory pressure: can deadlock the cleaner thread
@@ -204,6 +210,16 @@ class Cleaner extends Thread {
   }
 
 
+  // The off-heap ICE tier, or null if not configured
+  static PersistOffHeap offHeapTier() {
+    Persist ice = H2O.getPM().getIce();
+    return ice instanceof PersistOffHeap ? (PersistOffHeap)ice : null;
+  }
+  private static boolean isOffHeap(Value val) {
+    PersistOffHeap tier = offHeapTier();
+    return tier != null && tier.isOffHeap(val);
+  }
+
   // Histogram class
   static class Histo {
     // Current best histogram
@@ -0,0 +1,158 @@
+package water;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Topology of the cloud as seen by the MRTask fanout: which nodes share a
+ * host, and which share a rack.  Nodes share a host when they have the same
+ * IP address (several JVMs or pods per machine), and a rack when their
+ * addresses share a network prefix (a /24 for IPv4, a /64 for IPv6 by
+ * default).
+ *
+ * For a given root node the nodes are ordered so that every host, and every
+ * rack, is a contiguous run: the root's host first, then the rest of its
+ * rack, then the other racks.  An MRTask covers a contiguous range of this
+ * order, and splits it along rack boundaries first, then host boundaries, in
+ * up to {@link #FANOUT} parts.  The results of a host are thus all reduced on
+ * that host, and the results of a rack within that rack, before crossing the
+ * slower links - once.
+ */
+final class CloudTopology {
+
+  /** Max number of remote sub-tasks a node fans out to */
+  static final int FANOUT = Math.max(2, Integer.parseInt(H2O.getSysProperty("mr.fanout", "2")));
+  /** Split the work along host and rack boundaries; if false, just by node index */
+  static final boolean ENABLED = H2O.getSysBoolProperty("mr.topology", true);
+  /** Bits of the IPv4 address identifying a rack */
+  static final int RACK_BITS = Integer.parseInt(H2O.getSysProperty("mr.rack_bits", "24"));
+
+  private CloudTopology() {}
+
+  // The node addresses of the last cloud, and its orders by root node index
+  private static final class Orders {
+    final H2O _cloud;
+    final InetAddress[] _addrs;
+    final int[][] _orders;
+    Orders(H2O cloud) {
+      _cloud = cloud;
+      _addrs = new InetAddress[cloud.size()];
+      for( int i = 0; i < _addrs.length; i++ )
+        _addrs[i] = cloud._memary[i]._key.getAddress();
+      _orders = new int[_addrs.length][];
+    }
+  }
+  private static volatile Orders ORDERS;
+
+  private static Orders orders(H2O cloud) {
+    Orders o = ORDERS;
+    if( o == null || o._cloud != cloud ) ORDERS = o = new Orders(cloud);
+    return o;
+  }
+
+  /** @return the node indices of the cloud in fanout order from the root, which comes first */
+  static int[] order(H2O cloud, int root) {
+    Orders o = orders(cloud);
+    int[] order = o._orders[root];
+    if( order == null ) o._orders[root] = order = order(o._addrs, root);
+    return order;
+  }
+
+  /** @return the boundaries of [lo,hi) of a fanout order of the cloud, in up to {@link #FANOUT} parts */
+  static int[] split(H2O cloud, int[] order, int lo, int hi) {
+    return split(orders(cloud)._addrs, order, lo, hi, FANOUT);
+  }
+
+  /** @return the node indices in fanout order from the root: the root, its
+   *  host, its rack, then the other racks host by host */
+  static int[] order(final InetAddress[] addrs, final int root) {
+    Integer[] idx = new Integer[addrs.length];
+    for( int i = 0; i < idx.length; i++ ) idx[i] = i;
+    if( !ENABLED ) {            // Round-robin from the root, by node index
+      int[] order = new int[addrs.length];
+      for( int i = 0; i < order.length; i++ ) order[i] = (root + i) % order.length;
+      return order;
+    }
+    final byte[] rrack = rack(addrs[root]), rhost = addrs[root].getAddress();
+    Arrays.sort(idx, new Comparator<Integer>() {
+      @Override public int compare(Integer a, Integer b) {
+        if( a == root || b == root ) return a == root ? (b == root ? 0 : -1) : 1;
+        byte[] ra = rack(addrs[a]), rb = rack(addrs[b]);
+        int c = Boolean.compare(!Arrays.equals(ra, rrack), !Arrays.equals(rb, rrack));
+        if( c == 0 ) c = compareBytes(ra, rb);
+        byte[] ha = addrs[a].getAddress(), hb = addrs[b].getAddress();
+        if( c == 0 ) c = Boolean.compare(!Arrays.equals(ha, rhost), !Arrays.equals(hb, rhost));
+        if( c == 0 ) c = compareBytes(ha, hb);
+        return c != 0 ? c : Integer.compare(a, b);
+      }
+    });
+    int[] order = new int[idx.length];
+    for( int i = 0; i < order.length; i++ ) order[i] = idx[i];
+    return order;
+  }
+
+  /** Split the range [lo,hi) of a fanout order in up to fanout parts, along
+   *  rack boundaries if the range spans racks, else along host boundaries if it
+   *  spans hosts, else evenly.
+   *  @return the part boundaries, from lo to hi */
+  static int[] split(InetAddress[] addrs, int[] order, int lo, int hi, int fanout) {
+    assert lo < hi;
+    // Group boundaries, at the coarsest level with more than one group
+    int[] bounds = null;
+    if( ENABLED ) {
+      bounds = boundaries(addrs, order, lo, hi, true);
+      if( bounds.length == 2 ) bounds = boundaries(addrs, order, lo, hi, false);
+    }
+    if( bounds == null || bounds.length == 2 ) { // A single host: any split will do
+      int n = Math.min(fanout, hi - lo);
+      bounds = new int[n + 1];
+      for( int i = 0; i <= n; i++ ) bounds[i] = lo + (int) ((long) (hi - lo) * i / n);
+      return bounds;
+    }
+    if( bounds.length - 1 <= fanout ) return bounds;
+    // Too many groups: merge neighbours, cutting at the group boundary closest
+    // to each even split point
+    int[] res = new int[fanout + 1];
+    res[0] = lo;
+    res[fanout] = hi;
+    int n = 1, b = 1;
+    for( int i = 1; i < fanout; i++ ) {
+      int target = lo + (int) ((long) (hi - lo) * i / fanout);
+      while( b < bounds.length - 2 && Math.abs(bounds[b + 1] - target) <= Math.abs(bounds[b] - target) ) b++;
+      if( bounds[b] > res[n - 1] && bounds[b] < hi ) res[n++] = bounds[b];
+    }
+    res[n++] = hi;
+    return n == res.length ? res : Arrays.copyOf(res, n);
+  }
+
+  // Where the rack (or host) changes in [lo,hi), plus lo and hi
+  private static int[] boundaries(InetAddress[] addrs, int[] order, int lo, int hi, boolean racks) {
+    int[] res = new int[hi - lo + 1];
+    int n = 0;
+    res[n++] = lo;
+    for( int i = lo + 1; i < hi; i++ ) {
+      InetAddress a = addrs[order[i - 1]], b = addrs[order[i]];
+      if( racks ? !Arrays.equals(rack(a), rack(b)) : !a.equals(b) ) res[n++] = i;
+    }
+    res[n++] = hi;
+    return Arrays.copyOf(res, n);
+  }
+
+  // The rack prefix of an address
+  static byte[] rack(InetAddress addr) {
+    byte[] b = addr.getAddress();
+    int bits = b.length == 4 ? RACK_BITS : 64;
+    byte[] r = Arrays.copyOf(b, (bits + 7) >> 3);
+    if( (bits & 7) != 0 ) r[r.length - 1] &= (byte) (0xFF << (8 - (bits & 7)));
+    return r;
+  }
+
+  private static int compareBytes(byte[] a, byte[] b) {
+    for( int i = 0; i < Math.min(a.length, b.length); i++ ) {
+      int c = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+      if( c != 0 ) return c;
+    }
+    return Integer.compare(a.length, b.length);
+  }
+}
@@ -1,5 +1,15 @@
 package water;
 
+import water.nbhm.NonBlockingHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
 /** A Distributed Key/Value Store.
  *  <p>
  *  Functions to Get and Put Values into the K/V store by Key.
@@ -41,6 +51,12 @@ package water;
  *  invalidates will be required for the 2nd and later Puts and they will need
  *  only the single round-trip.
  *  <p>
+ *  Optionally (<code>-Dsys.ai.h2o.dkv.lease_ms=N</code>) the cached copies of
+ *  remote Values are leased for N msecs; a Put on the home node then skips the
+ *  invalidates to the replicas whose lease has ended, at the cost of a refetch
+ *  of a Value read again after its lease.  {@link #statsReport} then shows
+ *  the traffic saved, by kind of Value.
+ *  <p>
  *  Note that this class works on one Key at a time, and does not understand
  *  composite Key structures (such as a {@link water.fvec.Vec} Key and all its related
  *  {@link water.fvec.Chunk} Keys - instead it serves as the building block for such
@@ -87,6 +103,67 @@ public abstract class DKV {
     }
   }
 
+  /** Make the mappings <em>keyed._key -&gt; keyed</em> of all the keyeds,
+   *  shipping the ones homed remotely in one batch per home node.  Caching. */
+  static public void putAll( Keyed[] keyeds, Futures fs ) {
+    Key[] keys = new Key[keyeds.length];
+    Value[] vals = new Value[keyeds.length];
+    for( int i = 0; i < keyeds.length; i++ )
+      vals[i] = new Value(keys[i] = keyeds[i]._key,keyeds[i]);
+    putAll(keys,vals,fs);
+  }
+
+  /** Make the mappings <em>keys[i] -&gt; vals[i]</em> (a null val for a
+   *  remove), shipping the ones homed remotely in one batch per home node
+   *  rather than one round-trip per key.  Caching. */
+  static public void putAll( Key[] keys, Value[] vals, Futures fs ) {
+    assert keys.length == vals.length;
+    PutBatch batch = new PutBatch();
+    for( int i = 0; i < keys.length; i++ ) {
+      Key key = keys[i];
+      Value val = vals[i];
+      assert key != null;
+      assert val==null || val._key == key:"non-matching keys " + key + " != " + val._key;
+      // A 2nd PUT to the same Key blocks until the 1st completes: ship the 1st
+      if( batch.has(key) ) batch.send(fs);
+      while( true ) {
+        Value old = Value.STORE_get(key); // Raw-get: do not lazy-manifest if overwriting
+        Value res = DputIfMatch(key,val,old,fs,false,batch);
+        if( res == old ) break;   // PUT is globally visible now?
+        if( val != null && val._key != key ) key = val._key;
+      }
+    }
+    batch.send(fs);
+  }
+
+  // The PUTs of a putAll to remote home nodes, by home node
+  private static final class PutBatch {
+    private final HashMap<H2ONode,ArrayList<Key>> _keys = new HashMap<>();
+    private final HashMap<H2ONode,ArrayList<Value>> _vals = new HashMap<>();
+    private final HashSet<Key> _all = new HashSet<>();
+    boolean has( Key key ) { return _all.contains(key); }
+    void add( H2ONode home, Key key, Value val ) {
+      if( !_keys.containsKey(home) ) {
+        _keys.put(home,new ArrayList<Key>());
+        _vals.put(home,new ArrayList<Value>());
+      }
+      _keys.get(home).add(key);
+      _vals.get(home).add(val);
+      _all.add(key);
+    }
+    void send( Futures fs ) {
+      for( H2ONode home : _keys.keySet() ) {
+        ArrayList<Key> keys = _keys.get(home);
+        ArrayList<Value> vals = _vals.get(home);
+        if( keys.size() == 1 ) TaskPutKey.put(home,keys.get(0),vals.get(0),fs,false);
+        else fs.add(RPC.call(home,new TaskPutKeys(keys.toArray(new Key[0]),vals.toArray(new Value[0]))));
+      }
+      _keys.clear();
+      _vals.clear();
+      _all.clear();
+    }
+  }
+
   /** Remove any mapping for <em>key</em>.  Blocking.  */
   static public Value remove( Key key ) { return put(key,null); }
   /** Remove any mapping for <em>key</em>.  */
@@ -110,6 +187,12 @@ public abstract class DKV {
    *  Value.equals(old) then the update succeeded, else it failed.
    */
   static public Value DputIfMatch( Key key, Value val, Value old, Futures fs, boolean dontCache ) {
+    return DputIfMatch(key,val,old,fs,dontCache,null);
+  }
+
+  // As above; a PUT to a remote home node is added to the batch if any,
+  // instead of being sent.
+  static private Value DputIfMatch( Key key, Value val, Value old, Futures fs, boolean dontCache, PutBatch batch ) {
     // For debugging where keys are created from
 //    try { System.err.flush(); System.err.println(key); Thread.dumpStack(); System.err.flush(); } catch (Throwable t) {}
 
@@ -148,7 +231,8 @@ public abstract class DKV {
       else val.lowerActiveGetCount(null);  // Remove initial read-lock, accounting for pending inv counts
     } else {                    // On non-HOME?
       // Start a write, but do not block for it
-      TaskPutKey.put(key.home_node(),key,val,fs, dontCache);
+      if( batch != null ) batch.add(key.home_node(),key,val);
+      else TaskPutKey.put(key.home_node(),key,val,fs, dontCache);
     }
     return old;
   }
@@ -191,11 +275,7 @@ public abstract class DKV {
     H2O cloud = H2O.CLOUD;
     Value val = Value.STORE_get(key);
     // Hit in local cache?
-    if( val != null ) {
-      if( val.rawMem() != null || val.rawPOJO() != null || val.isPersisted() )
-        return val;
-      assert !key.home(); // Master must have *something*; we got nothing & need to fetch
-    }
+    if( cached(key,val) ) return val;
 
     // While in theory we could read from any replica, we always need to
     // inform the home-node that his copy has been Shared... in case it
@@ -213,10 +293,113 @@ public abstract class DKV {
     // send to the remote, so the local get has missed above, but a remote
     // get still might 'win' because the remote 'remove' is still in-progress.
     TaskPutKey tpk = home.pendingPutKey(key);
-    if( tpk != null ) return tpk._xval == null || tpk._xval.isNull() ? null : tpk._xval;
+    if( tpk != null ) return pendingValue(tpk,key);
 
     // Get data "the hard way"
     RPC<TaskGetKey> tgk = TaskGetKey.start(home,key);
     return blocking ? TaskGetKey.get(tgk) : null;
   }
+
+  /** Return the {@link Value}s mapped to the <em>keys</em>, null for no
+   *  mapping (or a null key).  The Values missing locally are fetched in one
+   *  batched round-trip per home node, rather than one per key.  Blocks till
+   *  data available, always caches.
+   *  @return The {@link Value}s mapped to the <em>keys</em> */
+  static public Value[] getAll( Key[] keys ) {
+    // Read the Cloud once, to keep a consistent snapshot.
+    H2O cloud = H2O.CLOUD;
+    Value[] vals = new Value[keys.length];
+    // Indices of the keys to fetch, by home node
+    int[][] misses = new int[cloud.size()][];
+    int[] nmisses = new int[cloud.size()];
+    for( int i = 0; i < keys.length; i++ ) {
+      Key key = keys[i];
+      if( key == null ) continue;
+      Value val = Value.STORE_get(key);
+      if( cached(key,val) ) { vals[i] = val; continue; }
+      int h = key.home(cloud);
+      H2ONode home = cloud._memary[h];
+      if( home == H2O.SELF ) continue;          // No V for this K
+      TaskPutKey tpk = home.pendingPutKey(key); // Pending write: take that instead
+      if( tpk != null ) { vals[i] = pendingValue(tpk,key); continue; }
+      if( misses[h] == null ) misses[h] = new int[4];
+      else if( nmisses[h] == misses[h].length ) misses[h] = Arrays.copyOf(misses[h],nmisses[h]<<1);
+      misses[h][nmisses[h]++] = i;
+    }
+    // One batch per home node, all in flight at once; a home node may ship a
+    // big batch back in parts, asking for another round-trip
+    RPC<TaskGetKeys>[] rpcs = new RPC[misses.length];
+    int[] done = new int[misses.length];
+    for( int h = 0; h < misses.length; h++ )
+      if( misses[h] != null ) rpcs[h] = fetch(cloud._memary[h],keys,misses[h],0,nmisses[h]);
+    for( int h = 0; h < misses.length; h++ )
+      while( rpcs[h] != null ) {
+        Value[] got = rpcs[h].get()._vals;
+        for( Value val : got ) vals[misses[h][done[h]++]] = val;
+        rpcs[h] = done[h] < nmisses[h] ? fetch(cloud._memary[h],keys,misses[h],done[h],nmisses[h]) : null;
+      }
+    return vals;
+  }
+
+  private static RPC<TaskGetKeys> fetch( H2ONode home, Key[] keys, int[] idx, int lo, int hi ) {
+    Key[] batch = new Key[hi - lo];
+    for( int i = lo; i < hi; i++ ) batch[i - lo] = keys[idx[i]];
+    return RPC.call(home,new TaskGetKeys(batch));
+  }
+
+  // A usable copy in the local cache?
+  private static boolean cached( Key key, Value val ) {
+    if( val == null ) return false;
+    if( val.leaseExpired() ) return false; // Lease ended since looked up
+    if( val.rawMem() != null || val.rawPOJO() != null || val.isPersisted() )
+      return true;
+    assert !key.home(); // Master must have *something*; we got nothing & need to fetch
+    return false;
+  }
+
+  // The Value of a pending PUT to the home node, null for a remove
+  private static Value pendingValue( TaskPutKey tpk, Key key ) {
+    Value xval = tpk.pendingValue(key);
+    return xval == null || xval.isNull() ? null : xval;
+  }
+
+  // ---
+  // Remote traffic of this node by kind of Value: the POJO class, or Chunk.
+  // Only counted with read leases on; the default fetch and invalidate paths
+  // pay no shared-counter increments.
+
+  private static final NonBlockingHashMap<String, Stats> STATS = new NonBlockingHashMap<>();
+
+  static final class Stats {
+    final AtomicLong _fetches = new AtomicLong(), // Values fetched from their home node
+        _leased = new AtomicLong(),               // ...of which came with a read lease
+        _expired = new AtomicLong(),              // Cached copies refetched as their lease ended
+        _invalidates = new AtomicLong(),          // Replicas invalidated by a PUT on this home node
+        _skipped = new AtomicLong();              // Replicas not invalidated as their lease had ended
+  }
+
+  static Stats stats( Key key, Value val ) {
+    String kind = key.isChunkKey() ? "Chunk" : (val == null ? "null" : val.className());
+    Stats s = STATS.get(kind);
+    if( s == null ) {
+      STATS.putIfAbsent(kind, new Stats());
+      s = STATS.get(kind);
+    }
+    return s;
+  }
+
+  /** @return a table of the DKV traffic of this node by kind of Value: the
+   *  fetches from home nodes (and the leased ones, and the ones refetched as
+   *  their lease ended), and the invalidates sent by PUTs on this home node
+   *  (and the ones skipped as the lease of the replica had ended).  Empty
+   *  unless read leases are on. */
+  public static String statsReport() {
+    StringBuilder sb = new StringBuilder("DKV traffic by kind of value:\n");
+    for( Map.Entry<String, Stats> e : new TreeMap<>(STATS).entrySet() ) {
+      Stats s = e.getValue();
+      sb.append(String.format("  %-50s fetches=%d leased=%d expired=%d invalidates=%d skipped=%d%n", e.getKey(),
+          s._fetches.get(), s._leased.get(), s._expired.get(), s._invalidates.get(), s._skipped.get()));
+    }
+    return sb.toString();
+  }
 }
@@ -29,6 +29,7 @@ class FJPacket extends H2OCountedCompleter {
     if( _ctrl <= UDP.udp.nack.ordinal() ) {
       AutoBuffer ab = UDP.udp.UDPS[_ctrl]._udp.call(_ab);
       if(ab != null && !ab.isClosed()) ab.close();
+      if(ab != _ab) _ab.close(); // Recycle the received buffer, if the handler did not
     } else
       RPC.remote_exec(_ab);
     tryComplete();
@@ -0,0 +1,207 @@
+package water;
+
+import water.nbhm.NonBlockingHashMap;
+import water.util.Log;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fair sharing of the CPU between Jobs, on top of the priority F/J pools.
+ *
+ * All the user work at a priority shares one F/J pool, which runs it about in
+ * the order it came: a big job (e.g. AutoML) keeps the pool busy with its own
+ * chunks, and a small query coming later waits for most of them.  When
+ * enabled (with {@code -Dsys.ai.h2o.sched.fair_share=true}) each node tracks
+ * the recent CPU time of the map calls of each tenant - the Job the work is
+ * done for, or the work done outside of any Job (most REST and Rapids calls)
+ * - and a tenant running over its share of the CPU gets preempted at the next
+ * chunk boundary: the map of its next chunk is put off for a few milliseconds,
+ * so the pool threads run the work of the other tenants.
+ *
+ * The tenant of a task is the tenant of the task which made it (see {@link
+ * H2O.H2OCountedCompleter}), so all the work forked off a Job's task is
+ * charged to the Job, on every node the MRTasks run on.  Shares are set per Job
+ * with {@link Job#setCpuShare}; the work outside of Jobs has a share of {@code
+ * sched.default_share} (1).  A tenant only gets preempted while some other
+ * tenant has chunks waiting to be mapped on the node, so no thread is left idle
+ * for it: a single job, or a job next to idle ones, keeps the whole node.
+ * The CPU times decay with a half-life of {@code sched.half_life_ms} (1000).
+ */
+public final class FairShare {
+
+  private FairShare() {}
+
+  // Not final, for tests
+  static boolean ENABLED = H2O.getSysBoolProperty("sched.fair_share", false);
+  static double DEFAULT_SHARE = Double.parseDouble(H2O.getSysProperty("sched.default_share", "1"));
+  static long HALF_LIFE_MS = Long.parseLong(H2O.getSysProperty("sched.half_life_ms", "1000"));
+  // Chunks are put off for DEFER_MS at a time, and at most MAX_DEFERS times
+  static long DEFER_MS = 5;
+  static int MAX_DEFERS = 100;
+  // Slack over the share before preempting, so shares do not flip-flop
+  private static final double SLACK = 1.1;
+
+  // The tenant of the task running on this thread
+  private static final ThreadLocal<Key> CURRENT = new ThreadLocal<>();
+
+  /** The tenant of the task running on this thread, or null if none (or not
+   *  enabled). */
+  static Key current() { return ENABLED ? CURRENT.get() : null; }
+
+  /** Run on behalf of a tenant; returns the tenant to restore with {@link #exit}. */
+  static Key enter( Key tenant ) {
+    if( !ENABLED ) return null;
+    Key old = CURRENT.get();
+    CURRENT.set(tenant);
+    return old;
+  }
+  static void exit( Key old ) { if( ENABLED ) CURRENT.set(old); }
+
+  // Tenants seen on this node.  The work outside of Jobs goes under NONE.
+  private static final String NONE = "(no job)";
+  private static final NonBlockingHashMap<Object, Tenant> TENANTS = new NonBlockingHashMap<>();
+
+  private static Tenant tenant( Key key ) {
+    Object k = key == null ? NONE : key;
+    Tenant t = TENANTS.get(k);
+    if( t == null ) {
+      TENANTS.putIfAbsent(k, new Tenant(key));
+      t = TENANTS.get(k);
+    }
+    return t;
+  }
+
+  private static final class Tenant {
+    final Key _key;
+    private volatile double _share = -1; // Looked up on first use
+    final AtomicInteger _running = new AtomicInteger(); // MRTasks running on this node
+    final AtomicInteger _queued = new AtomicInteger();  // Home chunks not mapped yet
+    final AtomicLong _cpuNs = new AtomicLong(), _defers = new AtomicLong();
+    private double _recentNs;   // CPU time, decayed to _lastNs
+    private long _lastNs = System.nanoTime();
+    Tenant( Key key ) { _key = key; }
+
+    double share() {
+      if( _share < 0 ) {
+        double share = DEFAULT_SHARE;
+        if( _key != null ) {
+          try {
+            Job job = DKV.getGet(_key);
+            if( job != null ) share = job.cpuShare();
+          } catch( RuntimeException e ) {
+            Log.debug("No CPU share for " + _key + ": " + e);
+          }
+        }
+        _share = share;
+      }
+      return _share;
+    }
+
+    synchronized void charge( long ns ) {
+      recent(System.nanoTime());
+      _recentNs += ns;
+      _cpuNs.addAndGet(ns);
+    }
+
+    synchronized double recent( long now ) {
+      _recentNs *= Math.pow(0.5, (now - _lastNs) / (HALF_LIFE_MS * 1e6));
+      _lastNs = now;
+      return _recentNs;
+    }
+  }
+
+  /** An MRTask of the tenant starts running on this node, with chunks to map
+   *  here.
+   *  @return the chunks of the task not mapped yet, for {@link #started} */
+  static AtomicInteger start( Key tenant, int chunks ) {
+    Tenant t = tenant(tenant);
+    t._running.incrementAndGet();
+    t._queued.addAndGet(chunks);
+    return new AtomicInteger(chunks);
+  }
+  /** The map of one of the chunks of an MRTask starts (or is given away) */
+  static void started( Key tenant, AtomicInteger queued ) {
+    queued.decrementAndGet();
+    tenant(tenant)._queued.decrementAndGet();
+  }
+  /** An MRTask of the tenant ends on this node; its chunks left unmapped (if
+   *  it failed) are not waiting anymore. */
+  static void end( Key tenant, AtomicInteger queued ) {
+    Tenant t = tenant(tenant);
+    t._queued.addAndGet(-queued.getAndSet(0));
+    t._running.decrementAndGet();
+    if( TENANTS.size() > MAX_TENANTS ) prune();
+  }
+
+  // Forget the jobs which are done, and whose CPU time has decayed away
+  private static final int MAX_TENANTS = 1000;
+  private static void prune() {
+    long now = System.nanoTime();
+    for( Tenant t : TENANTS.values() )
+      if( t._key != null && t._running.get() <= 0 && t.recent(now) < 1e6 )
+        TENANTS.remove(t._key, t);
+  }
+
+  /** True if the tenant is over its share of the CPU, while other tenants
+   *  have chunks waiting to be mapped. */
+  static boolean overShare( Key key ) {
+    Tenant me = tenant(key);
+    long now = System.nanoTime();
+    double cpu = 0, shares = 0;
+    int others = 0;
+    for( Tenant t : TENANTS.values() ) {
+      if( t != me && t._queued.get() <= 0 ) continue;
+      cpu += t.recent(now);
+      shares += t.share();
+      if( t != me ) others++;
+    }
+    if( others == 0 || cpu == 0 ) return false;
+    return me.recent(now) > SLACK * cpu * me.share() / shares;
+  }
+
+  private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread t = new Thread(r, "FairShare");
+    t.setDaemon(true);
+    return t;
+  });
+
+  /** Put off the task, if its tenant is over its share: it is submitted again
+   *  after a few milliseconds.
+   *  @return true if put off; the caller must return without completing */
+  static boolean defer( H2O.H2OCountedCompleter task, int defers ) {
+    if( defers >= MAX_DEFERS || !overShare(task._tenant) ) return false;
+    tenant(task._tenant)._defers.incrementAndGet();
+    TIMER.schedule(() -> H2O.submitTask(task), DEFER_MS, TimeUnit.MILLISECONDS);
+    return true;
+  }
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+  private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+
+  /** CPU time of this thread, or wall time if not supported, in nanoseconds */
+  static long cpuNanos() { return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : System.nanoTime(); }
+
+  /** Charge CPU time to a tenant */
+  static void charge( Key tenant, long ns ) { tenant(tenant).charge(ns); }
+
+  /** Per-tenant CPU time and preemptions on this node */
+  public static String statsReport() {
+    TreeMap<String, Tenant> sorted = new TreeMap<>();
+    for( Map.Entry<Object, Tenant> e : TENANTS.entrySet() ) sorted.put(e.getKey().toString(), e.getValue());
+    StringBuilder sb = new StringBuilder("CPU time by tenant:\n");
+    for( Map.Entry<String, Tenant> e : sorted.entrySet() ) {
+      Tenant t = e.getValue();
+      sb.append(String.format("  %-40s share=%.2f cpu=%d ms deferred=%d tasks running=%d chunks queued=%d%n",
+          e.getKey(), t.share(), t._cpuNs.get() / 1000000, t._defers.get(), t._running.get(), t._queued.get()));
+    }
+    return sb.toString();
+  }
+}
@@ -1628,8 +1628,13 @@ final public class H2O {
     protected H2OCountedCompleter(H2OCountedCompleter completer, byte prior) {
       super(completer);
       _priority = prior;
+      _tenant = FairShare.current();
     }
 
+    // The Job this task works for (see FairShare): by default, the one of the
+    // task which made it
+    transient Key _tenant;
+
     /** Used by the F/J framework internally to do work.  Once per F/J task,
      *  drain the high priority queue before doing any low priority work.
      *  Calls {@link #compute2} which contains actual work. */
@@ -1663,9 +1668,14 @@ final public class H2O {
         t._priority = pp;
         if( pp == MIN_PRIORITY && set_t_prior ) t.setPriority(Thread.NORM_PRIORITY-1);
       }
-      // Now run the task as planned
-      if( this instanceof DTask ) icer().compute1(this);
-      else compute2();
+      // Now run the task as planned, on behalf of its tenant
+      Key tenant = FairShare.enter(_tenant);
+      try {
+        if( this instanceof DTask ) icer().compute1(this);
+        else compute2();
+      } finally {
+        FairShare.exit(tenant);
+      }
     }
 
     public void compute1() { compute2(); }
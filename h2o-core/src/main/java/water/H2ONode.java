@@ -2,6 +2,7 @@ package water;
 
 import water.nbhm.NonBlockingHashMap;
 import water.nbhm.NonBlockingHashMapLong;
+import water.network.CompressedByteChannel;
 import water.network.SocketChannelFactory;
 import water.util.*;
 
@@ -28,7 +29,7 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
 
   transient private SocketChannelFactory _socketFactory;
   transient private H2OSecurityManager _security;
-  transient private PriorityBlockingQueue<ByteBuffer> _outgoingMsgQ;
+  transient private PriorityBlockingQueue<OutgoingMsg> _outgoingMsgQ;
 
   transient short _unique_idx; // Dense integer index, skipping 0.  NOT cloud-wide unique.
   transient boolean _announcedLostContact;  // True if heartbeat published a no-contact msg
@@ -431,7 +432,7 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
     boolean res = sock2.connect( _key );
     assert res && !sock2.isConnectionPending() && sock2.isBlocking() && sock2.isConnected() && sock2.isOpen();
     ByteBuffer bb = ByteBuffer.allocate(6).order(ByteOrder.nativeOrder());
-    bb.put((byte)2);
+    bb.put(CompressedByteChannel.ENABLED ? TCPReceiverThread.TCP_BIG_COMPRESSED : TCPReceiverThread.TCP_BIG);
     bb.putShort(H2O.SELF._timestamp);
     bb.putChar((char)H2O.H2O_PORT);
     bb.put((byte)0xef);
@@ -441,7 +442,7 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
       wrappedSocket.write(bb);
     }
     TCPS.incrementAndGet();     // Cluster-wide counting
-    return wrappedSocket;
+    return CompressedByteChannel.ENABLED ? new CompressedByteChannel(wrappedSocket) : wrappedSocket;
   }
   synchronized void freeTCPSocket( ByteChannel sock ) {
     assert 0 <= _socksAvail && _socksAvail < _socks.length;
@@ -513,10 +514,17 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
     return openChan(tcpType, socketFactory, InetAddress.getByName(originAddr), originPort, nodeTimeStamp);
   }
 
-  private static PriorityBlockingQueue<ByteBuffer> makeOutgoingMessageQueue() {
-    return new PriorityBlockingQueue<>(11,new Comparator<ByteBuffer>() {
-      // Secret back-channel priority: the position field (capped at bb.limit)
-      @Override public int compare( ByteBuffer bb1, ByteBuffer bb2 ) { return bb1.position() - bb2.position(); }
+  // A small message waiting to be sent, with its priority
+  private static final class OutgoingMsg {
+    final ByteBuffer _bb;
+    final byte _priority;
+    OutgoingMsg( ByteBuffer bb, byte priority ) { _bb = bb; _priority = priority; }
+  }
+
+  private static PriorityBlockingQueue<OutgoingMsg> makeOutgoingMessageQueue() {
+    return new PriorityBlockingQueue<>(11,new Comparator<OutgoingMsg>() {
+      // Highest priority first
+      @Override public int compare( OutgoingMsg m1, OutgoingMsg m2 ) { return m2._priority - m1._priority; }
     });
   }
   
@@ -539,25 +547,15 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
      *  q, prioritized by the message priority.  MSG queue is served by sender
      *  thread, message are continuously extracted, buffered together and sent
      *  over TCP channel.
-     *  @param bb Message to send
+     *  @param bb Message to send, a pooled small-message buffer which the
+     *  sender thread takes over and recycles
      *  @param msg_priority priority (e.g. NACK and ACKACK beat most other priorities
      */
     private void sendMessage(ByteBuffer bb, byte msg_priority) {
       assert bb.position()==0 && bb.limit() > 0;
-
-      // Secret back-channel priority: the position field (capped at bb.limit);
-      // this is to avoid making Yet Another Object per send.
-
-      // Priority can exceed position.  "interesting" priorities are everything
-      // above H2O.MIN_HI_PRIORITY and things just above 0; priorities in the
-      // middl'n range from 10 to MIN_HI are really rare.  Need to compress
-      // priorities a little for this hack to work.
-      if( msg_priority >= H2O.MIN_HI_PRIORITY ) msg_priority = (byte)((msg_priority-H2O.MIN_HI_PRIORITY)+10);
-      else if( msg_priority >= 10 ) msg_priority = 10;
-      if( msg_priority > bb.limit() ) msg_priority = (byte)bb.limit();
-      bb.position(msg_priority);
-
-      _outgoingMsgQ.put(bb);
+      // The full range of H2O priorities is kept, so e.g. ACKACKs and
+      // heartbeats go out ahead of any queued task message
+      _outgoingMsgQ.put(new OutgoingMsg(bb, msg_priority));
     }
 
     private boolean isActive() {
@@ -574,12 +572,13 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
       try {
         while (isActive()) {            // Forever loop
           try {
-            ByteBuffer bb = _outgoingMsgQ.take(); // take never returns null but blocks instead
+            OutgoingMsg msg = _outgoingMsgQ.take(); // take never returns null but blocks instead
             if (! isActive()) {
-              _outgoingMsgQ.put(bb); // put back and give someone else a chance to deliver
+              _outgoingMsgQ.put(msg); // put back and give someone else a chance to deliver
               break; // terminate
             }
-            while( bb != null ) {         // while have an BB to process
+            while( msg != null ) {        // while have an BB to process
+              ByteBuffer bb = msg._bb;
               assert !bb.isDirect() : "Direct BBs already got recycled";
               assert bb.limit()+1+2 <= _bb.capacity() : "Small message larger than the output buffer";
               if( _bb.remaining() < bb.limit()+1+2 )
@@ -587,7 +586,8 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
               _bb.putChar((char)bb.limit());
               _bb.put(bb.array(),0,bb.limit()); // Jam this BB into the existing batch BB, all in one go (it all fits)
               _bb.put((byte)0xef);// Sentinel byte
-              bb = _outgoingMsgQ.poll();  // Go get more, same batch
+              AutoBuffer.freeSmall(bb); // Shipped (or about to be): recycle
+              msg = _outgoingMsgQ.poll(); // Go get more, same batch
             }
             sendBuffer();         // Send final trailing BBs
           } catch (IllegalMonitorStateException imse) { /* ignore */
@@ -657,7 +657,7 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
   private final NonBlockingHashMapLong<TaskPutKey> _tasksPutKey = new NonBlockingHashMapLong<>();
   TaskPutKey pendingPutKey( Key k ) {
     for( TaskPutKey tpk : _tasksPutKey.values() )
-      if( k.equals(tpk._key) )
+      if( tpk.puts(k) )
         return tpk;
     return null;
   }
@@ -48,6 +48,9 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
   // whether the _result key is ready for view
   private boolean _ready_for_view = true;
 
+  // share of the CPU, relative to the other jobs (see FairShare)
+  private double _cpu_share = 1;
+
   private String [] _warns;
 
   public void warn(String warn) {
@@ -154,6 +157,16 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
   public boolean isRecoverable() { return _recoverable; };
   public boolean readyForView() { return _ready_for_view; }
   public void setReadyForView(boolean ready) { _ready_for_view = ready; }
+  public double cpuShare() { return _cpu_share; }
+  /** Set the share of the CPU of this job, relative to the other jobs and to
+   *  the work done outside of any job, when fair sharing is enabled (see
+   *  {@link FairShare}).  Set before starting the job. */
+  public Job<T> setCpuShare(double share) {
+    assert created() : "Set the CPU share before starting the job";
+    if( !(share > 0) ) throw new IllegalArgumentException("CPU share must be positive, got " + share);
+    _cpu_share = share;
+    return this;
+  }
 
   /** Jobs may be requested to Stop.  Each individual job will respond to this
    *  on a best-effort basis, and make some time to stop.  Stop really means
@@ -320,6 +333,7 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
     // of Barrier2 - all callers of Job.get().
     _barrier = new Barrier2(); 
     fjtask.setCompleter(new Barrier1(_barrier));
+    fjtask._tenant = _key;      // All the work of the task is charged to this job
 
     // These next steps must happen in-order:
     // 4 - cannot submitTask without being on job-list, lest all cores get
@@ -10,6 +10,7 @@ import water.fvec.Vec.VectorGroup;
 import water.fvec.Vec;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Map/Reduce style distributed computation.
@@ -72,12 +73,13 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   *
   *    internal "top-level" fields
   *    ---------------------------
-  *     - RPC<T> _nleft, _nrite: "child" node/JVMs that are doing work
+  *     - RPC<T>[] _nrpcs      : "child" node/JVMs that are doing work
   *     - boolean _topLocal    : "root" MRTask on a local machine
   *     - boolean _topGlobal   : "root" MRTask on the "root" node
   *     - T _left, _rite       : "child" MRTasks on a local machine
   *     - T _res               : "result" MRTask (everything reduced into here)
-  *     - int _nlo,_nhi        : range of nodes to do remote work on (divide-conquer; see Diagram 2)
+  *     - int _nlo,_nhi        : root node, and end of the range of nodes to do remote work on, in the
+  *                              root's fanout order (divide-conquer; see Diagram 2 and CloudTopology)
   *     - Futures _fs          : _topLocal task blocks on _fs for _left and _rite to complete
   *
   *       Diagram 1: N is for Node; T is for Task
@@ -85,7 +87,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   *              3 node cloud              Inside one of the 'N' nodes:
   *                   N1                               T  _topLocal**
   *                 /   \                            /  \
-  *         N2 (_nleft)  N3 (_nrite)         T (_left)   T (_rite)
+  *         N2 (_nrpcs)  N3 (_nrpcs)         T (_left)   T (_rite)
   *
   *                  **: T is also _topGlobal if N==N1
   *
@@ -95,7 +97,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   *     ----------
   *       dfork on N1
   *         - _topGlobal=true
-  *         - _nlo=0
+  *         - _nlo=N1
   *         - _nhi=CLOUD_SIZE
   *                ||
   *                ||
@@ -103,9 +105,10 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   *                ==>       setupLocal0 on N1
   *                            - topLocal=true
   *                            - _fs = new Futures()
-  *                            - nmid = (_nlo + _nhi) >> 1 => split the range of nodes (divide-conquer)
-  *                            - _nleft = remote_compute(_nlo,nmid) => chooses a node in range and does new RPC().call()
-  *                            - _nrite = remote_compute(nmid,_nhi)    serializing MRTask and call dinvoke on remote.
+  *                            - split the range of nodes after N1 into up to FANOUT parts, along
+  *                              rack and host boundaries (divide-conquer)
+  *                            - _nrpcs[i] = remote_compute(first node of part i, end of part i)
+  *                                => new RPC().call(), serializing MRTask and call dinvoke on remote.
   *                           /                                 \
   *                         /                                     \
   *                       /                                         \
@@ -151,8 +154,8 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  style, can not be passed via K/V store).*/
   protected AppendableVec[] _appendables;
 
-  /** Internal field to track the left &amp; right remote nodes/JVMs to work on */
-  transient protected RPC<T> _nleft, _nrite;
+  /** Internal field to track the remote nodes/JVMs to work on */
+  transient protected RPC<T>[] _nrpcs;
 
   /** Internal field to track if this is a top-level local call */
   transient protected boolean _topLocal; // Top-level local call, returning results over the wire
@@ -166,7 +169,8 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   /** Internal field upon which all reduces occur. */
   transient private T _res;           // Result
 
-  /** The range of Nodes to work on remotely */
+  /** The root Node, and the end of the range of Nodes to work on remotely in
+   *  the root's fanout order (see {@link CloudTopology}) */
   protected short _nlo, _nhi;
 
   /** Internal field to track a range of local Chunks to work on */
@@ -182,6 +186,33 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   protected boolean _run_local;
 
   private PostMapAction<?> _postMap; 
+
+  /** Speculative execution and chunk stealing (see {@link Speculation}): the
+   *  run id, or 0 if this task does neither */
+  long _specId;
+  boolean _speculate, _steal;
+  /** Internal field to track the speculating run on this node */
+  transient Speculation.Run _run;
+  /** Internal field to track the chunks given away by straggling nodes; when
+   *  set, the range of chunks to work on indexes into it */
+  transient int[] _cidxs;
+  /** Internal field to hold the results of the chunks helped with */
+  transient T _help;
+
+  /** The tenant (see {@link FairShare}), carried over to the remote nodes */
+  Key _tenantKey;
+  /** Internal fields to track the running of this task as its tenant's on
+   *  this node, its home chunks not mapped yet, and the number of times the
+   *  map of a chunk was put off */
+  transient boolean _fairShare;
+  transient AtomicInteger _queued;
+  transient int _defers;
+
+  /** Override to return true if map reads the Frame but never writes to it,
+   *  and only the reduced results matter (not where the chunks were mapped).
+   *  Such tasks may map the chunks of straggling or overloaded nodes on other
+   *  nodes, see {@link Speculation}. */
+  protected boolean isMapReadOnly() { return false; }
   public final MRTask<T> withPostMapAction(PostMapAction<?> postMap) {
     _postMap = postMap;
     return this;
@@ -311,9 +342,6 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  this object, for disposing of node-local shared data structures.  */
   protected void closeLocal() { }
 
-  /** Compute a permissible node index on which to launch remote work. */
-  private int addShift( int x ) { x += _nlo; int sz = H2O.CLOUD.size(); return x < sz ? x : x-sz; }
-  private int subShift( int x ) { x -= _nlo; int sz = H2O.CLOUD.size(); return x <  0 ? x+sz : x; }
   private short selfidx() { int idx = H2O.SELF.index(); if( idx>= 0 ) return (short)idx; assert H2O.SELF.isClient(); return 0; }
 
   // Profiling support.  Time for each subpart of a single M/R task, plus any
@@ -334,10 +362,18 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     // last job, and the exec time & completion time of 1st job done.
     long _time1st, _done1st;
     int _size_rez0, _size_rez1; // i/o size in bytes during reduce
+    int _given, _helped;        // Chunks given away by busy nodes, and mapped by helpers (whole subtree)
+    long _lastMapDone;          // End of the last local map call
+    long[] _nodeMs;             // Local map time, by node (whole subtree)
     MRProfile _last;
     long sumTime() { return _onCdone - (_localstart==0 ? _mapstart : _localstart); }
     void gather( MRProfile p, int size_rez ) {
       p._clz=null;
+      _given += p._given; _helped += p._helped;
+      _lastMapDone = Math.max(_lastMapDone, p._lastMapDone);
+      if( p._nodeMs != null )
+        if( _nodeMs == null ) _nodeMs = p._nodeMs;
+        else for( int i = 0; i < Math.min(_nodeMs.length, p._nodeMs.length); i++ ) _nodeMs[i] = Math.max(_nodeMs[i], p._nodeMs[i]);
       if( _last == null ) { _last=p; _time1st = p.sumTime(); _done1st = p._onCdone; }
       else {
         MRProfile first = _last._onCdone <= p._onCdone ? _last : p;
@@ -353,7 +389,16 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
 
     @Override public String toString() { return print(new StringBuilder(),0).toString(); }
     private StringBuilder print(StringBuilder sb, int d) {
-      if( d==0 ) sb.append(_clz).append("\n");
+      if( d==0 ) {
+        sb.append(_clz).append("\n");
+        if( _given != 0 || _helped != 0 )
+          sb.append("Chunks moved: ").append(_given).append(" given away by busy nodes, ").append(_helped).append(" mapped by helpers\n");
+        if( _nodeMs != null ) {
+          sb.append("Map time by node:");
+          for( int i = 0; i < _nodeMs.length; i++ ) sb.append(' ').append(i).append(": ").append(_nodeMs[i]).append("ms");
+          sb.append("\n");
+        }
+      }
       for( int i=0; i<d; i++ ) sb.append("  ");
       if( _localstart != 0 ) sb.append("Node local ").append(_localdone - _localstart).append("ms, ");
       if( _last != null ) {   // Forked job?
@@ -625,6 +670,12 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     _nlo = selfidx(); _nhi = (short)H2O.CLOUD.size(); // Do Whole Cloud
     _run_local = runLocal;     // Run locally by copying data, or run globally?
     assert checkRunLocal() : "MRTask is expected to be running in a local-mode but _run_local = false";
+    boolean helpable = !runLocal && outputTypes == null && _postMap == null &&
+      fr.numCols() > 0 && H2O.CLOUD.size() > 1 && isMapReadOnly();
+    _speculate = helpable && Speculation.ENABLED;
+    _steal = helpable && Speculation.STEAL;
+    _specId = _speculate || _steal ? Speculation.newRunId() : 0;
+    _tenantKey = _tenant;
     setupLocal0();              // Local setup
     H2O.submitTask(this);       // Begin normal execution on a FJ thread
     return self();
@@ -682,6 +733,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   /** Called once on remote at top level, probably with a subset of the cloud.
    *  Called internal by D/F/J.  Not expected to be user-called.  */
   @Override public final void dinvoke(H2ONode sender) {
+    _tenant = _tenantKey;       // Work for the same tenant as on the root
     setupLocal0();              // Local setup
     H2O.submitTask(this);
   }
@@ -697,25 +749,40 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       (_profile = new MRProfile(this))._localstart = System.currentTimeMillis();
     // Make a blockable Futures for both internal and user work to block on.
     _fs = new Futures();
+    if( FairShare.ENABLED ) { _queued = FairShare.start(_tenant, homeChunks()); _fairShare = true; }
     if(modifiesVolatileVecs() && _fr != null){
       for(Vec v:_fr.vecs())
         if(v.isVolatile())v.preWriting();
     }
     _topLocal = true;
-    // Check for global vs local work
-    int selfidx = selfidx();
-    int nlo = subShift(selfidx);
-    assert nlo < _nhi;
-    final int nmid = (nlo+_nhi)>>>1; // Mid-point
+    _nrpcs = null;              // None from an earlier, failed run of this task
+    // Check for global vs local work: the nodes after self in the root's
+    // fanout order, up to _nhi; a client is not in the order and does none
+    // of the work itself
+    final int[] order = _run_local ? null : CloudTopology.order(H2O.CLOUD, _nlo);
+    final int nlo = _run_local ? 0 : H2O.ARGS.client ? 0 : position(order, selfidx()) + 1;
+
+    // Register a speculating run before the children are asked to run: their
+    // helpers may ask this node for chunks as soon as they are done
+    if( _fr != null && _specId != 0 && !H2O.ARGS.client ) {
+      _run = Speculation.start(_specId, this, _fr.numCols()==0 ? 0 : _fr.anyVec().nChunks());
+      addToPendingCount(1);     // Not complete until done helping other nodes
+    }
 
     // Run remote IF:
     // - Not forced to run local (no remote jobs allowed) AND
-    // - - There's remote work, or Client mode (always remote work)
-    if( (!_run_local) && ((nlo+1 < _nhi) || H2O.ARGS.client) ) {
+    // - - There's remote work
+    if( (!_run_local) && nlo < _nhi ) {
       if(_profile!=null) _profile._rpcLstart = System.currentTimeMillis();
-      _nleft = remote_compute(H2O.ARGS.client ? nlo : nlo+1,nmid);
-      if(_profile!=null) _profile._rpcRstart = System.currentTimeMillis();
-      _nrite = remote_compute( nmid,_nhi);
+      int[] parts = CloudTopology.split(H2O.CLOUD, order, nlo, _nhi);
+      // Filled locally and published once: an early failing RPC completes this
+      // task exceptionally while the others are still being launched
+      RPC<T>[] rpcs = new RPC[parts.length-1];
+      for( int i=0; i<rpcs.length; i++ ) {
+        rpcs[i] = remote_compute(order[parts[i]], parts[i+1]);
+        if(_profile!=null && i==0) _profile._rpcRstart = System.currentTimeMillis();
+      }
+      _nrpcs = rpcs;
       if(_profile!=null) _profile._rpcRdone  = System.currentTimeMillis();
     } else {
       if(_profile!=null)
@@ -726,6 +793,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       _lo = 0;  _hi = _fr.numCols()==0 ? 0 : _fr.anyVec().nChunks(); // Do All Chunks
       // get the Vecs from the K/V store, to avoid racing fetches from the map calls
       _fr.vecs();
+      if( _run != null && _run._done ) startHelp(); // No home chunks
     } else if( _keys != null ) {    // Else doing a set of Keys
       _lo = 0;  _hi = _keys.length; // Do All Keys
     }
@@ -735,27 +803,39 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     if(_profile!=null) _profile._localdone = System.currentTimeMillis();
   }
 
-  // Make an RPC call to some node in the middle of the given range.  Add a
-  // pending completion to self, so that we complete when the RPC completes.
-  private RPC<T> remote_compute( int nlo, int nhi ) {
-    if( nlo < nhi ) {  // have remote work
-      int node = addShift(nlo);
-      assert node != H2O.SELF.index(); // Not the same as selfidx() if this is a client
-      T mrt = copyAndInit();
-      mrt._nhi = (short) nhi;
-      addToPendingCount(1); // Not complete until the RPC returns
-      // Set self up as needing completion by this RPC: when the ACK comes back
-      // we'll get a wakeup.
-      // Note the subtle inter-play of onCompletion madness here:
-      // - when run on the remote, the RPCCall (NOT RPC!) is completed by the
-      //   last map/compute2 call, signals end of the remote work, and ACK's
-      //   back the result. i.e., last-map calls RPCCall.onCompletion.
-      // - when launched on the local (right here, in this next line of code)
-      //   the completed RPC calls our self completion.  i.e. the completed RPC
-      //   calls MRTask.onCompletion
-      return new RPC<>(H2O.CLOUD._memary[node], mrt).addCompleter(this).call();
-    }
-    return null; // nlo >= nhi => no remote work
+  // The chunks homed on this node, whose map may be put off for fair share
+  private int homeChunks() {
+    if( _fr == null || _run_local || H2O.ARGS.client || _fr.numCols() == 0 ) return 0;
+    Vec v0 = _fr.anyVec();
+    int n = 0;
+    for( int i = 0; i < v0.nChunks(); i++ )
+      if( v0.chunkKey(i).home() ) n++;
+    return n;
+  }
+
+  private static int position( int[] order, int node ) {
+    for( int i=0; i<order.length; i++ ) if( order[i]==node ) return i;
+    throw H2O.fail("Node "+node+" is not in the cloud of size "+order.length);
+  }
+
+  // Make an RPC call to the first node of a range, which does the rest of the
+  // range in turn.  Add a pending completion to self, so that we complete when
+  // the RPC completes.
+  private RPC<T> remote_compute( int node, int nhi ) {
+    assert node != H2O.SELF.index(); // Not the same as selfidx() if this is a client
+    T mrt = copyAndInit();
+    mrt._nhi = (short) nhi;
+    addToPendingCount(1); // Not complete until the RPC returns
+    // Set self up as needing completion by this RPC: when the ACK comes back
+    // we'll get a wakeup.
+    // Note the subtle inter-play of onCompletion madness here:
+    // - when run on the remote, the RPCCall (NOT RPC!) is completed by the
+    //   last map/compute2 call, signals end of the remote work, and ACK's
+    //   back the result. i.e., last-map calls RPCCall.onCompletion.
+    // - when launched on the local (right here, in this next line of code)
+    //   the completed RPC calls our self completion.  i.e. the completed RPC
+    //   calls MRTask.onCompletion
+    return new RPC<>(H2O.CLOUD._memary[node], mrt).addCompleter(this).call();
   }
 
   /** Called from FJ threads to do local work.  The first called Task (which is
@@ -790,12 +870,21 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       }
     } else if( _hi > _lo ) {    // Frame, Single chunk?
       Vec v0 = _fr.anyVec();
-      if( _run_local || v0.chunkKey(_lo).home() ) { // And chunk is homed here?
+      final int cidx = _cidxs == null ? _lo : _cidxs[_lo];
+      final boolean home = _cidxs == null && !_run_local && v0.chunkKey(cidx).home();
+      if( home && _fairShare ) {
+        // Preempted at this chunk boundary, if the tenant is over its CPU share
+        if( FairShare.defer(this, _defers) ) { _defers++; return; }
+        FairShare.started(_tenant, _queued);
+      }
+      final long cpu0 = _fairShare ? FairShare.cpuNanos() : 0;
+      // And chunk is homed here (and not given away), or given to us?
+      if( _run_local || _cidxs != null || home && (_run == null || _run.claim(cidx)) ) {
         assert(_run_local || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
 
         // Make decompression chunk headers for these chunks
         NewChunk[] appendableChunks = null;
-        Chunk[] bvs = FrameUtils.extractChunks(_fr, _lo, _run_local);
+        Chunk[] bvs = _cidxs != null ? Speculation.chunks(_fr, cidx) : FrameUtils.extractChunks(_fr, cidx, _run_local);
 
         if(_output_types != null) {
           final VectorGroup vg = v0.group();
@@ -803,7 +892,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
           appendableChunks = new NewChunk[_output_types.length];
           for(int i = 0; i < _appendables.length; ++i) {
             _appendables[i] = new AppendableVec(vg.vecKey(_vid+i),_output_types[i]);
-            appendableChunks[i] = _appendables[i].chunkForChunkIdx(_lo);
+            appendableChunks[i] = _appendables[i].chunkForChunkIdx(cidx);
           }
         }
         // Call all the various map() calls that apply
@@ -834,6 +923,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         }
         if (num_outputs >= 0)
           map(bvs, appendableChunks);
+        if( _fairShare ) FairShare.charge(_tenant, FairShare.cpuNanos() - cpu0);
 
         _res = self();          // Save results since called map() at least once!
         // Further D/K/V put any new vec results.
@@ -841,12 +931,14 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
           _profile._closestart = System.currentTimeMillis();
         if (_postMap != null)
           _postMap.call(bvs);
-        for( Chunk bv : bvs )  bv.close(_lo,_fs);
-        if( _output_types != null) for(NewChunk nch:appendableChunks)nch.close(_lo, _fs);
+        for( Chunk bv : bvs )  bv.close(cidx,_fs);
+        if( _output_types != null) for(NewChunk nch:appendableChunks)nch.close(cidx, _fs);
       }
+      if( home && _run != null && _run.leafDone() )
+        _run._top.startHelp();  // Last home chunk: help the stragglers
     }
     if(_profile!=null)
-      _profile._mapdone = System.currentTimeMillis();
+      _profile._lastMapDone = _profile._mapdone = System.currentTimeMillis();
     tryComplete();
   }
 
@@ -859,6 +951,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     // alive since each one may be holding large partial results.
     reduce2(_left); _left = null;
     reduce2(_rite); _rite = null;
+    reduce2(_help); _help = null;
     if(_profile!=null) _profile._reducedone = System.currentTimeMillis();
     // Only on the top local call, have more completion work
     if( _topLocal ) postLocal0();
@@ -886,10 +979,21 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   // Block for other queued pending tasks.
   // Copy any final results into 'this', such that a return of 'this' has the results.
   private void postLocal0() {
+    if( _fairShare ) { FairShare.end(_tenant, _queued); _fairShare = false; }
+    if( _profile != null && !H2O.ARGS.client && _profile._lastMapDone != 0 ) {
+      if( _profile._nodeMs == null ) _profile._nodeMs = new long[H2O.CLOUD.size()];
+      _profile._nodeMs[H2O.SELF.index()] = _profile._lastMapDone - _profile._localstart;
+    }
+    if( _run != null ) {
+      if( _profile != null ) { _profile._given += _run._given; _profile._helped += _run._helped; }
+      Speculation.finish(_run);
+      _run = null;
+    }
     closeLocal();               // User's node-local cleanup
+    Vec.flushModifiedChunks(_fs); // Chunks written here forget their rollups
     if(_profile!=null) _profile._closeLocalDone = System.currentTimeMillis();
-    reduce3(_nleft);            // Reduce global results from neighbors.
-    reduce3(_nrite);
+    if( _nrpcs != null )        // Reduce global results from neighbors.
+      for( RPC<T> rpc : _nrpcs ) reduce3(rpc);
     if(_profile!=null) _profile._remoteBlkDone = System.currentTimeMillis();
     _fs.blockForPending();      // Block any pending user tasks
     if(_profile!=null) _profile._localBlkDone = System.currentTimeMillis();
@@ -949,6 +1053,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  expected to be user-called.  */
   @Override public final boolean onExceptionalCompletion( Throwable ex, CountedCompleter caller ) {
     self_cancel1();
+    Speculation.Run run = _run;
+    if( _topLocal && run != null ) { _run = null; Speculation.finish(run); }
+    if( _topLocal && _fairShare ) { _fairShare = false; FairShare.end(_tenant, _queued); }
     // Block for completion - we don't want the work, but we want all the
     // workers stopped before we complete this task.  Otherwise this task quits
     // early and begins post-task processing (generally cleanup from the
@@ -957,8 +1064,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
 
     // Since blocking can throw (generally the same exception, again and again)
     // catch & ignore, keeping only the first one we already got.
-    RPC<T> nl = _nleft; if( nl != null ) try { nl.get(); } catch( Throwable ignore ) { } _nleft = null;
-    RPC<T> nr = _nrite; if( nr != null ) try { nr.get(); } catch( Throwable ignore ) { } _nrite = null;
+    RPC<T>[] rpcs = _nrpcs;
+    if( rpcs != null )
+      for( RPC<T> rpc : rpcs ) try { rpc.get(); } catch( Throwable ignore ) { }
     return true;
   }
 
@@ -968,8 +1076,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     x._topGlobal = false;
     x.setCompleter(this); // Set completer, what used to be a final field
     x._topLocal = false;  // Not a top job
-    x._nleft = x._nrite = null;
+    x._nrpcs = null;
     x. _left = x. _rite = null;
+    x._help = null;
     x._fs = _fs;
     if( _profile!=null )  x._profile = new MRProfile(this);
     else                  x._profile = null;    // Clone needs its own profile
@@ -977,6 +1086,30 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     return x;
   }
 
+  // Done with the local chunks: help straggling nodes with theirs, on behalf
+  // of the top-local task
+  private void startHelp() {
+    assert _topLocal;
+    H2O.submitTask(new Speculation.Helper(this));
+  }
+
+  // Map some chunks given away by straggling nodes, in a copy of this task
+  T mapChunks( int[] cidxs ) {
+    T x = copyAndInit();
+    x.setCompleter(null);
+    x._cidxs = cidxs;
+    x._lo = 0;
+    x._hi = cidxs.length;
+    x.invoke();
+    return x;
+  }
+
+  // Collect the results of mapChunks
+  void helped( T x ) {
+    if( _help == null ) _help = x;
+    else ((MRTask<T>)_help).reduce2(x);
+  }
+
   public static abstract class PostMapAction<T extends PostMapAction<T>> extends Iced<T> {
     void call(Key mapInput) {
       // do nothing by default
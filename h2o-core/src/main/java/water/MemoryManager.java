@@ -2,6 +2,7 @@ package water;
 
 import jsr166y.ForkJoinPool;
 import jsr166y.ForkJoinPool.ManagedBlocker;
+import water.persist.PersistOffHeap;
 import water.util.Log;
 import water.util.PrettyPrint;
 
@@ -153,11 +154,17 @@ abstract public class MemoryManager {
     }
 
     // No logging if under memory pressure: can deadlock the cleaner thread
-    String s = m+msg+", (K/V:"+PrettyPrint.bytes(cacheUsageGC)+" + POJO:"+PrettyPrint.bytes(pojoUsedGC)+" + FREE:"+PrettyPrint.bytes(freeHeap)+" == MEM_MAX:"+PrettyPrint.bytes(MEM_MAX)+"), desiredKV="+PrettyPrint.bytes(Cleaner.DESIRED)+(oom?" OOM!":" NO-OOM");
+    String s = m+msg+", (K/V:"+PrettyPrint.bytes(cacheUsageGC)+" + POJO:"+PrettyPrint.bytes(pojoUsedGC)+" + FREE:"+PrettyPrint.bytes(freeHeap)+" == MEM_MAX:"+PrettyPrint.bytes(MEM_MAX)+"), desiredKV="+PrettyPrint.bytes(Cleaner.DESIRED)+offHeapUsage()+(oom?" OOM!":" NO-OOM");
     if( CAN_ALLOC ) { if( oom ) Log.warn(s); else Log.debug(s); }
     else            System.err.println(s);
   }
 
+  // Off-heap K/V bytes (spilled Chunks held in native memory), if the tier is on
+  private static String offHeapUsage() {
+    PersistOffHeap tier = H2O.getPM() == null ? null : Cleaner.offHeapTier();
+    return tier == null ? "" : ", offHeapKV="+PrettyPrint.bytes(tier.usedBytes())+"/"+PrettyPrint.bytes(tier.capacity());
+  }
+
   /** Monitors the heap usage after full gc run and tells Cleaner to free memory
    *  if mem usage is too high.  Stops new allocation if mem usage is critical.
    *  @author tomas   */
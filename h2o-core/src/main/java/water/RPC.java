@@ -198,7 +198,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
           try {
             final boolean t;
             ab.putTask(UDP.udp.exec, _tasknum).put1(CLIENT_UDP_SEND);
-            ab.put(_dt);
+            ab.msgClass(_dt.getClass()).put(_dt);
             t = ab.hasTCP();
             assert sz_check(ab) : "Resend of " + _dt.getClass() + " changes size from " + _size + " to " + ab.size() + " for task#" + _tasknum;
             ab.close();        // Then close; send final byte
@@ -404,7 +404,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
           UDP.udp udp = dt.priority()==H2O.FETCH_ACK_PRIORITY ? UDP.udp.fetchack : UDP.udp.ack;
           ab = new AutoBuffer(_client,udp._prior).putTask(udp,_tsknum).put1(SERVER_UDP_SEND);
           assert ab.position() == 1+2+2+4+1;
-          dt.write(ab);         // Write the DTask - could be very large write
+          dt.write(ab.msgClass(dt.getClass())); // Write the DTask - could be very large write
           dt._repliedTcp = ab.hasTCP(); // Resends do not need to repeat TCP result
           ab.close();                   // Then close; send final byte
           _computedAndReplied = true;   // After the final handshake, set computed+replied bit
@@ -0,0 +1,376 @@
+package water;
+
+import jsr166y.CountedCompleter;
+import water.fvec.Chunk;
+import water.fvec.FileVec;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.nbhm.NonBlockingHashMapLong;
+import water.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Speculative execution and cross-node chunk stealing for the map phase of
+ * read-only {@link MRTask}s.
+ *
+ * An MRTask maps each chunk on its home node, so a node which is slow (busy,
+ * swapping, or just holding more chunks) holds up the whole task.  When
+ * enabled (with {@code -Dsys.ai.h2o.mr.speculate=true}) and the task declares
+ * its map read-only (see {@link MRTask#isMapReadOnly}), a node which is done
+ * with its own chunks turns helper: it asks the other nodes for their unstarted
+ * chunks which it can read without them - chunks it has a cached copy of, or
+ * chunks of a {@link FileVec} whose backing file it can read itself - and maps
+ * these.  A node only gives chunks away once its local map ran {@code
+ * mr.speculate_factor} times longer than the median map time of its helpers,
+ * and at least {@code mr.speculate_min_ms}; it then gives away at most half of
+ * its unstarted chunks at a time.
+ *
+ * With stealing enabled (with {@code -Dsys.ai.h2o.mr.steal=true}), helpers
+ * also take chunks they cannot read locally, fetching them from their home
+ * node in a batch (see {@link DKV#getAll}): when the chunks of a frame are
+ * skewed over the nodes, e.g. after an rbind, a filter or a merge, the idle
+ * nodes pull the chunks off the loaded ones, without any rebalancing of the
+ * frame.  A node gives away up to half of its unstarted chunks to stealers,
+ * whatever its map time.
+ *
+ * Every chunk is still mapped exactly once: the home node and a helper race to
+ * claim it, and the loser skips it.  The results of the helped chunks are
+ * reduced on the helper, and go up the usual reduce tree.
+ *
+ * Only chunks not yet started are ever handed out.  Unlike the speculative
+ * execution of e.g. Hadoop, a chunk whose map has started is never run a
+ * second time: this helps with nodes slow on all of their chunks, not with a
+ * single chunk whose map is slow by itself, which is waited for.
+ */
+final class Speculation {
+
+  private Speculation() {}
+
+  // Not final, for tests
+  static boolean ENABLED = H2O.getSysBoolProperty("mr.speculate", false);
+  static boolean STEAL = H2O.getSysBoolProperty("mr.steal", false);
+  static double FACTOR = Double.parseDouble(H2O.getSysProperty("mr.speculate_factor", "2"));
+  static long MIN_MS = Long.parseLong(H2O.getSysProperty("mr.speculate_min_ms", "100"));
+  // Helpers poll for straggling chunks with a backoff, from 10ms up to 100ms,
+  // and stop asking a node where the run has not started after 10s
+  private static final long POLL_MS = 10, MAX_POLL_MS = 100, NOT_STARTED_MS = 10000;
+
+  // Runs of speculating tasks on this node, by run id, and the ids of the last
+  // MAX_DONE runs done here.  A run neither running nor done has not started
+  // here yet: the task may reach this node after a helper is done with its own
+  // chunks, and the helper asks again later.
+  private static final NonBlockingHashMapLong<Run> RUNS = new NonBlockingHashMapLong<>();
+  private static final int MAX_DONE = 4096;
+  private static final NonBlockingHashMapLong<Boolean> DONE = new NonBlockingHashMapLong<>();
+  private static final long[] DONE_IDS = new long[MAX_DONE]; // Oldest overwritten first
+  private static int _nextDone;
+
+  private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread t = new Thread(r, "Speculation");
+    t.setDaemon(true);
+    return t;
+  });
+
+  static long newRunId() {
+    long id;
+    do id = ThreadLocalRandom.current().nextLong(); while( id == 0 );
+    return id;
+  }
+
+  // Chunk claims
+  private static final int FREE = 0, MAPPED = 1, GIVEN = 2, NOT_HOME = 3;
+
+  /** The local state of a speculating task on one node: which of the home
+   *  chunks are mapped here, or given away to helpers. */
+  static final class Run {
+    final long _id;
+    final long _start = System.currentTimeMillis();
+    final MRTask _top;          // The top-local task
+    private final AtomicIntegerArray _claims;
+    private final AtomicInteger _leaves; // Home chunks not yet mapped or skipped
+    private final AtomicInteger _free;   // Home chunks not yet claimed
+    private final HashMap<H2ONode, Long> _helperMs = new HashMap<>();
+    volatile boolean _done;     // All home chunks mapped or given away
+    int _given, _helped;        // Chunks given away, and mapped for other nodes
+
+    Run( long id, MRTask top, int nchks ) {
+      _id = id;
+      _top = top;
+      _claims = new AtomicIntegerArray(nchks);
+      Vec v0 = top._fr.anyVec();
+      int home = 0;
+      for( int i = 0; i < nchks; i++ )
+        if( v0.chunkKey(i).home() ) home++;
+        else _claims.set(i, NOT_HOME);
+      _leaves = new AtomicInteger(home);
+      _free = new AtomicInteger(home);
+      _done = home == 0;
+    }
+
+    /** Claim a home chunk for mapping here.
+     *  @return false if it was given away to a helper */
+    boolean claim( int cidx ) {
+      if( !_claims.compareAndSet(cidx, FREE, MAPPED) ) return false;
+      _free.decrementAndGet();
+      return true;
+    }
+
+    /** A home chunk is mapped or skipped.
+     *  @return true for the last one */
+    boolean leafDone() {
+      if( _leaves.decrementAndGet() > 0 ) return false;
+      _done = true;
+      return true;
+    }
+
+    // Give away some of the wanted chunks if this node is straggling, and
+    // up to steal more of any chunks
+    synchronized int[] give( H2ONode helper, int[] wanted, int steal, long helperMs ) {
+      _helperMs.put(helper, helperMs);
+      long elapsed = System.currentTimeMillis() - _start;
+      ArrayList<Long> ms = new ArrayList<>(_helperMs.values());
+      Collections.sort(ms);
+      int free = _free.get();
+      boolean straggling = _top._speculate && elapsed >= MIN_MS && elapsed > FACTOR * ms.get(ms.size() / 2);
+      int[] given = new int[Math.max(straggling ? Math.min(wanted.length, (free + 1) / 2) : 0, Math.min(steal, free / 2))];
+      // The chunks the helper can read itself first, then a range of any chunks
+      int n = 0;
+      for( int i = 0; i < wanted.length && n < given.length; i++ )
+        if( give(wanted[i]) ) given[n++] = wanted[i];
+      for( int cidx = 0; steal > 0 && cidx < _claims.length() && n < given.length; cidx++ )
+        if( give(cidx) ) given[n++] = cidx;
+      _given += n;
+      return Arrays.copyOf(given, n);
+    }
+
+    private boolean give( int cidx ) {
+      if( cidx < 0 || cidx >= _claims.length() || !_claims.compareAndSet(cidx, FREE, GIVEN) ) return false;
+      _free.decrementAndGet();
+      return true;
+    }
+  }
+
+  /** Start a run for the top-local task of a speculating task. */
+  static Run start( long id, MRTask top, int nchks ) {
+    Run run = new Run(id, top, nchks);
+    RUNS.put(id, run);
+    return run;
+  }
+
+  /** Done with the run; nothing more is given away. */
+  static void finish( Run run ) {
+    synchronized( DONE_IDS ) {
+      if( DONE_IDS[_nextDone] != 0 ) DONE.remove(DONE_IDS[_nextDone]);
+      DONE_IDS[_nextDone] = run._id;
+      _nextDone = (_nextDone + 1) % MAX_DONE;
+      DONE.put(run._id, Boolean.TRUE);
+    }
+    RUNS.remove(run._id);       // After the tombstone: a run is always found one way or the other
+    if( run._given > 0 || run._helped > 0 )
+      Log.debug(run._top.getClass().getSimpleName() + ": gave away " + run._given + " chunks, mapped " + run._helped + " chunks of other nodes");
+  }
+
+  /** Maps the chunks other nodes give away, until all the other nodes are done
+   *  with their own chunks.  Runs on the top-local task's node, once its own
+   *  chunks are done.  No F/J thread is blocked: the claims are sent to the
+   *  busy nodes, and the answers submit the helper again; between polls it is
+   *  submitted again after a backoff. */
+  static final class Helper extends H2O.H2OCountedCompleter<Helper> {
+    private final MRTask _top;
+    private final Run _run;
+    private final long _myMs;
+    private final int[][] _wanted;
+    private final int _steal;
+    private final boolean[] _done;
+    private final long[] _notStarted; // When a node was first found not started
+    private long _wait = POLL_MS;
+    private RPC<Claim>[] _rpcs;       // The claims sent, by node; all answered when this runs
+
+    Helper( MRTask top ) {
+      super(top);
+      _top = top;
+      _run = top._run;
+      _myMs = System.currentTimeMillis() - _run._start;
+      _wanted = readableChunks(top._fr);
+      // Steal enough chunks to keep all the local cores busy
+      _steal = top._steal ? 2 * H2O.NUMCPUS : 0;
+      _done = new boolean[_wanted.length];
+      _done[H2O.SELF.index()] = true;
+      _notStarted = new long[_wanted.length];
+    }
+
+    @Override public void compute2() {
+      if( _rpcs != null ) {
+        long wait = collect();
+        _rpcs = null;
+        if( wait < 0 ) { tryComplete(); return; }
+        if( wait > 0 ) { TIMER.schedule(() -> H2O.submitTask(this), wait, TimeUnit.MILLISECONDS); return; }
+      }
+      if( !ask() ) tryComplete();
+    }
+
+    // Send a claim to each node still busy; once all are answered, this is
+    // submitted again.  Returns false if there is no node left to ask.
+    private boolean ask() {
+      RPC<Claim>[] rpcs = new RPC[_wanted.length];
+      int n = 0;
+      for( int i = 0; i < _wanted.length; i++ )
+        if( !_done[i] && (_steal > 0 || _wanted[i].length > 0) ) {
+          rpcs[i] = new RPC<>(H2O.CLOUD._memary[i], new Claim(_run._id, _wanted[i], _steal, _myMs));
+          n++;
+        }
+      if( n == 0 ) return false;
+      _rpcs = rpcs;
+      final Helper helper = this;
+      H2O.H2OCountedCompleter answered = new H2O.H2OCountedCompleter(priority()) {
+        @Override public void compute2() { throw H2O.fail(); }
+        @Override public void onCompletion( CountedCompleter caller ) { H2O.submitTask(helper); }
+        @Override public boolean onExceptionalCompletion( Throwable ex, CountedCompleter caller ) {
+          helper.completeExceptionally(ex);
+          return false;
+        }
+      };
+      answered.setPendingCount(n - 1); // Completed by the last answer
+      for( RPC<Claim> rpc : rpcs )
+        if( rpc != null ) rpc.addCompleter(answered).call();
+      return true;
+    }
+
+    // Read the answers to the claims, and map the chunks given.  Returns -1
+    // when all are done, 0 to ask again right away, else the ms to wait.
+    private long collect() {
+      RPC<Claim>[] rpcs = _rpcs;
+      int[] given = new int[0];
+      boolean busy = false;
+      long now = System.currentTimeMillis();
+      for( int i = 0; i < rpcs.length; i++ ) {
+        if( rpcs[i] == null ) continue;
+        Claim c = rpcs[i].get(); // Answered already, does not block
+        if( c._done ) { _done[i] = true; continue; }
+        if( !c._started ) {
+          if( _notStarted[i] == 0 ) _notStarted[i] = now;
+          else if( now - _notStarted[i] > NOT_STARTED_MS ) { _done[i] = true; continue; }
+        }
+        busy = true;
+        if( c._given.length == 0 ) continue;
+        given = Arrays.copyOf(given, given.length + c._given.length);
+        System.arraycopy(c._given, 0, given, given.length - c._given.length, c._given.length);
+        _wanted[i] = remove(_wanted[i], c._given);
+      }
+      if( !busy ) return -1;
+      if( given.length == 0 ) {
+        long wait = _wait;
+        _wait = Math.min(2 * _wait, MAX_POLL_MS);
+        return wait;
+      }
+      fetch(_top._fr, given);
+      _top.helped(_top.mapChunks(given));
+      _run._helped += given.length;
+      _wait = POLL_MS;
+      return 0;
+    }
+  }
+
+  // The chunks of other nodes which can be read here without them, by node
+  private static int[][] readableChunks( Frame fr ) {
+    Vec[] vecs = fr.vecs();
+    boolean[] files = new boolean[vecs.length];
+    for( int i = 0; i < vecs.length; i++ )
+      files[i] = vecs[i] instanceof FileVec && ((FileVec) vecs[i]).readableHere();
+    Vec v0 = fr.anyVec();
+    int[][] wanted = new int[H2O.CLOUD.size()][];
+    int[] lens = new int[wanted.length];
+    for( int cidx = 0; cidx < v0.nChunks(); cidx++ ) {
+      H2ONode home = v0.chunkKey(cidx).home_node();
+      if( home == H2O.SELF || !readable(vecs, files, cidx) ) continue;
+      int h = home.index();
+      if( wanted[h] == null ) wanted[h] = new int[4];
+      if( lens[h] == wanted[h].length ) wanted[h] = Arrays.copyOf(wanted[h], 2 * lens[h]);
+      wanted[h][lens[h]++] = cidx;
+    }
+    for( int h = 0; h < wanted.length; h++ )
+      wanted[h] = wanted[h] == null ? new int[0] : Arrays.copyOf(wanted[h], lens[h]);
+    return wanted;
+  }
+
+  private static boolean readable( Vec[] vecs, boolean[] files, int cidx ) {
+    for( int i = 0; i < vecs.length; i++ )
+      if( !files[i] && !cached(vecs[i].chunkKey(cidx)) ) return false;
+    return true;
+  }
+
+  private static boolean cached( Key key ) {
+    Value val = H2O.STORE.get(key);
+    return val != null && (val.rawMem() != null || val.rawPOJO() != null);
+  }
+
+  // Fetch the stolen chunks which cannot be read here, all in one go
+  private static void fetch( Frame fr, int[] cidxs ) {
+    Vec[] vecs = fr.vecs();
+    ArrayList<Key> keys = new ArrayList<>();
+    for( Vec v : vecs ) {
+      if( v instanceof FileVec && ((FileVec) v).readableHere() ) continue;
+      for( int cidx : cidxs )
+        if( !cached(v.chunkKey(cidx)) ) keys.add(v.chunkKey(cidx));
+    }
+    if( !keys.isEmpty() ) DKV.getAll(keys.toArray(new Key[keys.size()]));
+  }
+
+  /** The chunks of a given-away chunk#, read from the local cached copies or
+   *  backing files if possible, else from their home. */
+  static Chunk[] chunks( Frame fr, int cidx ) {
+    Vec[] vecs = fr.vecs();
+    Chunk[] chks = new Chunk[vecs.length];
+    for( int i = 0; i < vecs.length; i++ )
+      chks[i] = vecs[i] instanceof FileVec && !cached(vecs[i].chunkKey(cidx)) && ((FileVec) vecs[i]).readableHere()
+        ? ((FileVec) vecs[i]).chunkFromFile(cidx)
+        : vecs[i].chunkForChunkIdx(cidx);
+    return chks;
+  }
+
+  private static int[] remove( int[] cidxs, int[] drop ) {
+    int[] sorted = drop.clone();
+    Arrays.sort(sorted);
+    int n = 0;
+    int[] res = new int[cidxs.length];
+    for( int cidx : cidxs )
+      if( Arrays.binarySearch(sorted, cidx) < 0 ) res[n++] = cidx;
+    return Arrays.copyOf(res, n);
+  }
+
+  // A helper's claim on some chunks of a node.  Runs at high priority, so a
+  // busy node still answers.
+  private static final class Claim extends DTask<Claim> {
+    long _id, _helperMs;
+    int[] _cidxs, _given;
+    int _steal;
+    boolean _started, _done;
+    Claim( long id, int[] cidxs, int steal, long helperMs ) {
+      super(H2O.MIN_HI_PRIORITY);
+      _id = id;
+      _cidxs = cidxs;
+      _steal = steal;
+      _helperMs = helperMs;
+    }
+    @Override public void dinvoke( H2ONode sender ) {
+      Run run = RUNS.get(_id);
+      _started = run != null || DONE.containsKey(_id);
+      _done = run == null ? _started : run._done;
+      _given = _done || run == null ? new int[0] : run.give(sender, _cidxs, _steal, _helperMs);
+      _cidxs = null;            // Do not send the claim back in the ACK
+      tryComplete();
+    }
+    @Override public void compute2() { throw H2O.fail(); }
+    @Override public boolean logVerbose() { return false; }
+  }
+}
@@ -5,11 +5,16 @@ import java.net.InetAddress;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.ByteChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+import water.network.CompressedByteChannel;
 import water.network.SocketChannelFactory;
 import water.util.Log;
 import water.util.SB;
@@ -36,6 +41,18 @@ public class TCPReceiverThread extends Thread {
    * Byte representing TCP communication for big data
    */
   static final byte TCP_BIG = 2;
+
+  /**
+   * Byte representing TCP communication for big data, compressed block by block
+   */
+  static final byte TCP_BIG_COMPRESSED = 4;
+
+  /**
+   * Read the small-message channels of all the nodes with a single selector
+   * thread, instead of a blocking reader thread per node.  SSL channels are
+   * blocking-only, and always get a reader thread.
+   */
+  static final boolean SELECTOR = H2O.getSysBoolProperty("tcp.selector", true);
   
   public TCPReceiverThread(
           ServerSocketChannel sock) {
@@ -82,7 +99,7 @@ public class TCPReceiverThread extends Thread {
           wrappedSocket.read(bb);
         }
         bb.flip();
-        int chanType = bb.get(); // 1 - small, 2 - big, 3 - external
+        int chanType = bb.get(); // 1 - small, 2 - big, 4 - big compressed
         short timestamp = bb.getShort(); // read timestamp
                                          // Note: timestamp was not part of the original protocol, was added in 3.22.0.1, #a33de44)
         if (H2ONodeTimestamp.decodeIsClient(timestamp) && !H2O.ARGS.allow_clients) {
@@ -101,14 +118,22 @@ public class TCPReceiverThread extends Thread {
         // todo compare against current cloud, refuse the con if no match
         switch( chanType ) {
         case TCP_SMALL:
-          new SmallMessagesReaderThread(H2ONode.intern(inetAddress, port, timestamp), wrappedSocket).start();
+          H2ONode h2o = H2ONode.intern(inetAddress, port, timestamp);
+          if( SELECTOR && wrappedSocket instanceof SocketChannel )
+            SmallMessagesSelectorThread.get().register(new SmallMessagesConn(h2o, (SocketChannel) wrappedSocket));
+          else
+            new SmallMessagesReaderThread(h2o, wrappedSocket).start();
           break;
         case TCP_BIG:
           new TCPReaderThread(wrappedSocket, new AutoBuffer(wrappedSocket, inetAddress, timestamp), inetAddress, timestamp).start();
           break;
+        case TCP_BIG_COMPRESSED:
+          ByteChannel compressed = new CompressedByteChannel(wrappedSocket);
+          new TCPReaderThread(compressed, new AutoBuffer(compressed, inetAddress, timestamp), inetAddress, timestamp).start();
+          break;
         default:
           ListenerService.getInstance().report("protocol-failure", "channel-type", chanType);
-          throw new IOException("Communication protocol failure: Unexpected channel type " + chanType + ", only know 1 - Small, 2 - Big");
+          throw new IOException("Communication protocol failure: Unexpected channel type " + chanType + ", only know 1 - Small, 2 - Big, 4 - Big compressed");
         }
       } catch( java.nio.channels.AsynchronousCloseException ex ) {
         break;                  // Socket closed for shutdown
@@ -239,11 +264,11 @@ public class TCPReceiverThread extends Thread {
           int sz = read(2).getChar(); // 2 bytes of next-message-size
           idle = false;
           assert sz < AutoBuffer.BBP_SML._size : "Incoming message is too big, should've been sent by TCP-BIG, got " + sz + " bytes";
-          byte[] ary = MemoryManager.malloc1(Math.max(16,sz));
-          int sentinel = read(sz+1).get(ary,0,sz).get(); // extract the message bytes, then the sentinel byte
+          ByteBuffer msg = AutoBuffer.BBP_SML.make(); // Freed when the AutoBuffer is closed
+          int sentinel = read(sz+1).get(msg.array(),0,sz).get(); // extract the message bytes, then the sentinel byte
           assert (0xFF & sentinel) == 0xef : "Missing expected sentinel (0xef) at the end of the message from " + _h2o + ", likely out of sync, size = " + sz + ", position = " + _bb.position() +", bytes = " + printBytes(_bb, _bb.position(), sz);
-          // package the raw bytes into an array and pass it on to FJQ for further processing
-          basic_packet_handling(new AutoBuffer(_h2o, ary, 0, sz));
+          // package the raw bytes into a pooled buffer and pass it on to FJQ for further processing
+          basic_packet_handling(new AutoBuffer(_h2o, msg, sz));
         }
       } catch(Throwable t) {
         if( !idle || !(t instanceof IOException) ) {
@@ -257,6 +282,137 @@ public class TCPReceiverThread extends Thread {
     }
   }
 
+  /** The reading end of a small-message channel, served by the selector
+   *  thread: the bytes read so far, split into messages as they complete. */
+  static class SmallMessagesConn {
+    final H2ONode _h2o;
+    final SocketChannel _chan;
+    private ByteBuffer _bb;
+
+    SmallMessagesConn(H2ONode h2o, SocketChannel chan) {
+      _h2o = h2o;
+      _chan = chan;
+    }
+
+    // Read what is available, and hand off the complete messages
+    void read() throws IOException {
+      if( _bb == null ) _bb = AutoBuffer.BBP_BIG.make();
+      if( _chan.read(_bb) < 0 ) throw new IOException("Small-message channel from " + _h2o + " closed");
+      _h2o._last_heard_from = System.currentTimeMillis();
+      _bb.flip();
+      while( _bb.remaining() >= 2 ) {
+        int sz = _bb.getChar(_bb.position()); // 2 bytes of next-message-size
+        if( sz >= AutoBuffer.BBP_SML._size )
+          throw new IOException("Incoming message is too big, should've been sent by TCP-BIG, got " + sz + " bytes from " + _h2o);
+        if( _bb.remaining() < 2 + sz + 1 ) break; // Not all here yet
+        _bb.position(_bb.position() + 2);
+        ByteBuffer msg = AutoBuffer.BBP_SML.make(); // Freed when the AutoBuffer is closed
+        _bb.get(msg.array(), 0, sz);
+        if( (0xFF & _bb.get()) != 0xef )
+          throw new IOException("Missing expected sentinel (0xef) at the end of the message from " + _h2o + ", likely out of sync, size = " + sz);
+        handle(new AutoBuffer(_h2o, msg, sz));
+      }
+      _bb.compact();
+    }
+
+    // Pass a complete message on.  basic_packet_handling only checks most
+    // messages and queues them to the FJ pool; the ones it would work on in
+    // the calling thread (timeline snapshots, suicide checks) are handed to
+    // an FJ thread first, not to hold up the reads from all the other nodes.
+    void handle(AutoBuffer ab) throws IOException {
+      int ctrl = ab.getCtrl();
+      if( ctrl == UDP.udp.timeline.ordinal() || ctrl == UDP.udp.rebooted.ordinal() )
+        H2O.submitTask(new PacketHandler(ab, UDP.udp.UDPS[ctrl]._prior));
+      else
+        basic_packet_handling(ab);
+    }
+
+    void close() {
+      try { _chan.close(); } catch( IOException ignore ) { }
+      if( _bb != null ) AutoBuffer.BBP_BIG.free(_bb);
+      _bb = null;
+    }
+  }
+
+  // Runs basic_packet_handling on an FJ thread, for the selector thread
+  static class PacketHandler extends H2O.H2OCountedCompleter<PacketHandler> {
+    private final AutoBuffer _ab;
+    PacketHandler(AutoBuffer ab, byte prior) { super(prior); _ab = ab; }
+    @Override public void compute2() {
+      try {
+        basic_packet_handling(_ab);
+      } catch( IOException e ) {
+        Log.err("Error handling a small message from " + _ab._h2o, e);
+      }
+      tryComplete();
+    }
+  }
+
+  /** A single thread reading the small-message channels from all the nodes,
+   *  non-blocking.  Thread count does not grow with the cloud size, and a
+   *  slow sender cannot stall the others: the selector only reads what is
+   *  there, and messages are passed on to the FJ queues of their priority as
+   *  soon as they are complete. */
+  static class SmallMessagesSelectorThread extends Thread {
+    private static SmallMessagesSelectorThread INSTANCE;
+    private final Selector _selector;
+    private final ConcurrentLinkedQueue<SmallMessagesConn> _pending = new ConcurrentLinkedQueue<>();
+
+    static synchronized SmallMessagesSelectorThread get() throws IOException {
+      if( INSTANCE == null ) {
+        INSTANCE = new SmallMessagesSelectorThread(Selector.open());
+        INSTANCE.start();
+      }
+      return INSTANCE;
+    }
+
+    private SmallMessagesSelectorThread(Selector selector) {
+      super("TCP-SMALL-SELECT");
+      ThreadHelper.initCommonThreadProperties(this);
+      setPriority(MAX_PRIORITY-1);
+      _selector = selector;
+    }
+
+    void register(SmallMessagesConn conn) {
+      _pending.add(conn);
+      _selector.wakeup();
+    }
+
+    @Override public void run() {
+      while( _selector.isOpen() ) {
+        try {
+          _selector.select();
+          SmallMessagesConn conn;
+          while( (conn = _pending.poll()) != null ) {
+            try {
+              conn._chan.configureBlocking(false);
+              conn._chan.register(_selector, SelectionKey.OP_READ, conn);
+            } catch( IOException e ) {
+              Log.err("Cannot read small messages from " + conn._h2o, e);
+              conn.close();
+            }
+          }
+          Iterator<SelectionKey> it = _selector.selectedKeys().iterator();
+          while( it.hasNext() ) {
+            SelectionKey key = it.next();
+            it.remove();
+            conn = (SmallMessagesConn) key.attachment();
+            try {
+              if( key.isValid() && key.isReadable() ) conn.read();
+            } catch( Throwable t ) {
+              // A closed channel is normal, e.g. when the other node shuts down
+              if( !(t instanceof IOException) ) Log.err(t);
+              key.cancel();
+              conn.close();
+            }
+          }
+        } catch( Throwable t ) {
+          Log.err("Error selecting small-message channels", t);
+        }
+      }
+    }
+  }
+
   static private int  _unknown_packets_per_sec = 0;
   static private long _unknown_packet_time = 0;
   static final Random RANDOM_UDP_DROP = new Random();
@@ -280,6 +436,7 @@ public class TCPReceiverThread extends Thread {
     ab.getPort(); // skip the port bytes
     if( ctrl == UDP.udp.timeline.ordinal() ) {
       UDP.udp.timeline._udp.call(ab);
+      ab.close();
       return;
     }
 
@@ -288,7 +445,7 @@ public class TCPReceiverThread extends Thread {
       UDPRebooted.checkForSuicide(ctrl, ab);
 
     // Drop the packet.
-    if( drop != 0 ) return;
+    if( drop != 0 ) { ab.close(); return; }
 
     // Get the Cloud we are operating under for this packet
     H2O cloud = H2O.CLOUD;
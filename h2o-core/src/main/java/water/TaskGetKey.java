@@ -12,6 +12,8 @@ import water.nbhm.NonBlockingHashMap;
 public class TaskGetKey extends DTask<TaskGetKey> {
   Key _key;                  // Set by client/sender JVM, cleared by server JVM
   Value _val;                // Set by server JVM, read by client JVM
+  int _leaseMs;              // Set by server JVM if _val is leased, read by client JVM
+  transient long _start;     // Set by client, read by client: the lease starts before the request
   transient Key _xkey;       // Set by client, read by client
   transient H2ONode _h2o;    // Set by server JVM, read by server JVM on ACKACK
 
@@ -39,28 +41,54 @@ public class TaskGetKey extends DTask<TaskGetKey> {
     return rpc;                 // Successful install of a fresh RPC
   }
 
-  private TaskGetKey( Key key ) { super(H2O.GET_KEY_PRIORITY); _key = _xkey = key; }
+  private TaskGetKey( Key key ) { super(H2O.GET_KEY_PRIORITY); _key = _xkey = key; _start = System.nanoTime(); }
 
   // Top-level non-recursive invoke
   @Override public void dinvoke( H2ONode sender ) {
     _h2o = sender;
     Key k = _key;
     _key = null;          // Not part of the return result
+    _val = serve(k,sender);
+    if( _val != null && Value.leasable(k) ) _leaseMs = Value.LEASE_MS;
+    tryComplete();
+  }
+  @Override public void compute2() { throw H2O.fail(); }
+
+  // On the home node: the Value to ship to the sender, tracked as a replica
+  // and read-locked until the ACKACK, and leased if leasable.
+  static Value serve( Key k, H2ONode sender ) {
     assert k.home();      // Gets are always from home (less we do replication)
     // Shipping a result?  Track replicas so we can invalidate.  There's a
     // narrow race on a moving K/V mapping tracking this Value just as it gets
     // deleted - in which case, simply retry for another Value.
-    do  _val = Value.STORE_get(k); // The return result
-    while( _val != null && !_val.setReplica(sender) );
-    tryComplete();
+    Value val;
+    do  val = Value.STORE_get(k); // The return result
+    while( val != null && !val.setReplica(sender) );
+    if( val != null && Value.leasable(k) ) val.grantLease(sender);
+    return val;
   }
-  @Override public void compute2() { throw H2O.fail(); }
 
   // Received an ACK; executes on the node asking&receiving the Value
   @Override public void onAck() {
-    if( _val != null ) {        // Set transient fields after deserializing
-      assert !_xkey.home() && _val._key == null;
-      _val._key = _xkey;
+    _val = install(_xkey,_val,_leaseMs,_start);
+    TGKS.remove(_xkey); // Clear from dup cache
+  }
+
+  // On the node asking: cache a Value received from the home node, leased
+  // for leaseMs from start if leaseMs > 0.  Returns the Value now cached.
+  static Value install( Key xkey, Value val, int leaseMs, long start ) {
+    if( val != null ) {         // Set transient fields after deserializing
+      assert !xkey.home() && val._key == null;
+      val._key = xkey;
+      if( leaseMs > 0 ) {
+        long end = start + leaseMs * 1000000L;
+        val._leaseEnd = end == 0 ? 1 : end;
+      }
+    }
+    if( Value.LEASE_MS > 0 ) {  // Counted only with leases on, off the default fetch path
+      DKV.Stats stats = DKV.stats(xkey,val);
+      stats._fetches.incrementAndGet();
+      if( leaseMs > 0 ) stats._leased.incrementAndGet();
     }
     // Now update the local store, caching the result.
 
@@ -71,13 +99,13 @@ public class TaskGetKey extends DTask<TaskGetKey> {
     // returned from the Home.  We'll take the local Value to preserve ordering
     // and rely on invalidates from Home to force refreshes as needed.
 
-    // Hence we can do a blind putIfMatch here over a null or empty Value
-    // If it fails, what is there is also the TGK result.
-    Value old = H2O.STORE.get(_xkey);
-    if( old != null && !old.isEmpty() ) old=null;
-    Value res = H2O.putIfMatch(_xkey,_val,old);
-    if( res != old ) _val = res;
-    TGKS.remove(_xkey); // Clear from dup cache
+    // Hence we can do a blind putIfMatch here over a null or empty Value, or a
+    // copy whose lease has ended.  If it fails, what is there is also the TGK
+    // result.
+    Value old = H2O.STORE.get(xkey);
+    if( old != null && !old.isEmpty() && !old.leaseExpired() ) old=null;
+    Value res = H2O.putIfMatch(xkey,val,old);
+    return res != old ? res : val;
   }
 
   // Received an ACKACK; executes on the node sending the Value
@@ -0,0 +1,55 @@
+package water;
+
+import java.util.Arrays;
+
+/**
+ * Get a batch of keys, all homed on the same remote node, in one round-trip.
+ * The home node ships the Values of as many of the keys, in order, as fit in
+ * about {@link #MAX_BYTES}; the caller asks again for the rest.
+ *
+ * @see DKV#getAll(Key[])
+ */
+class TaskGetKeys extends DTask<TaskGetKeys> {
+  /** Max serialized bytes of Values shipped back by one batch (beyond the 1st Value) */
+  static final int MAX_BYTES = 4 << 20;
+
+  Key[] _keys;               // Set by client/sender JVM, cleared by server JVM
+  Value[] _vals;             // Set by server JVM, read by client JVM: the Values of the first _vals.length keys
+  int _leaseMs;              // Set by server JVM, the lease of the leasable Values
+  transient Key[] _xkeys;    // Set by client, read by client
+  transient long _start;     // Set by client, read by client: the leases start before the request
+  transient H2ONode _h2o;    // Set by server JVM, read by server JVM on ACKACK
+
+  TaskGetKeys( Key[] keys ) { super(H2O.GET_KEY_PRIORITY); _keys = _xkeys = keys; _start = System.nanoTime(); }
+
+  // Top-level non-recursive invoke
+  @Override public void dinvoke( H2ONode sender ) {
+    _h2o = sender;
+    Key[] keys = _keys;
+    _keys = null;         // Not part of the return result
+    Value[] vals = new Value[keys.length];
+    int n = 0;
+    for( long bytes = 0; n < keys.length && bytes < MAX_BYTES; n++ ) {
+      vals[n] = TaskGetKey.serve(keys[n],sender);
+      if( vals[n] != null ) bytes += vals[n]._max;
+    }
+    _vals = n == keys.length ? vals : Arrays.copyOf(vals,n);
+    _leaseMs = Value.LEASE_MS;
+    tryComplete();
+  }
+  @Override public void compute2() { throw H2O.fail(); }
+
+  // Received an ACK; executes on the node asking&receiving the Values
+  @Override public void onAck() {
+    for( int i = 0; i < _vals.length; i++ ) {
+      Key k = _xkeys[i];
+      _vals[i] = TaskGetKey.install(k,_vals[i],Value.leasable(k,_leaseMs) ? _leaseMs : 0,_start);
+    }
+  }
+
+  // Received an ACKACK; executes on the node sending the Values
+  @Override public void onAckAck() {
+    for( Value val : _vals )
+      if( val != null ) val.lowerActiveGetCount(_h2o);
+  }
+}
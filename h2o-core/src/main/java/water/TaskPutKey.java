@@ -20,30 +20,43 @@ public class TaskPutKey extends DTask<TaskPutKey> {
   protected TaskPutKey( Key key ) { super(H2O.INVALIDATE_PRIORITY); _xkey = _key = key; _xval = _val = null; _dontCache = false;}
 
   @Override public void dinvoke( H2ONode sender ) {
-    assert _key.home() || _val==null; // Only PUT to home for keys, or remote invalidation from home
-    Paxos.lockCloud(_key);
+    putHome(sender,_key,_val,new Futures()).blockForPending();
+    // No return result
+    _key = null;
+    _val = null;
+    tryComplete();
+  }
+
+  // On the home node: put a Value received from the sender (null for a
+  // remote invalidate), adding the invalidates of the remote caches to fs.
+  static Futures putHome( H2ONode sender, Key key, Value val, Futures fs ) {
+    assert key.home() || val==null; // Only PUT to home for keys, or remote invalidation from home
+    Paxos.lockCloud(key);
     // Initialize Value for having a single known replica (the sender)
-    if( _val != null ) _val.initReplicaHome(sender,_key);
-    else if( _key.home() ) _val = Value.makeNull(_key);
+    if( val != null ) val.initReplicaHome(sender,key);
+    else if( key.home() ) val = Value.makeNull(key);
     // Spin, until we update something.
-    Value old = H2O.STORE.get(_key); // Raw-get: do not lazy-manifest if overwriting
-    while( H2O.putIfMatch(_key,_val,old) != old )
-      old = H2O.STORE.get(_key);  // Repeat until we update something.
-    // Invalidate remote caches.  Block, so that all invalidates are done
-    // before we return to the remote caller.  This is conservative, but
-    // otherwise we have to send the invalidate-completion message to the
+    Value old = H2O.STORE.get(key); // Raw-get: do not lazy-manifest if overwriting
+    while( H2O.putIfMatch(key,val,old) != old )
+      old = H2O.STORE.get(key);  // Repeat until we update something.
+    // Invalidate remote caches.  The caller blocks, so that all invalidates
+    // are done before we return to the remote caller.  This is conservative,
+    // but otherwise we have to send the invalidate-completion message to the
     // remote caller; i.e. the caller would have to handle a 2-step Put
     // completion ("I started your Put request" and "I completed your Put
     // request").
-    if( _key.home() ) {
-      if( old != null ) old.lockAndInvalidate(sender,_val,new Futures()).blockForPending();
-      else _val.lowerActiveGetCount(null);  // Remove initial read-lock, accounting for pending inv counts
+    if( key.home() ) {
+      if( old != null ) old.lockAndInvalidate(sender,val,fs);
+      else val.lowerActiveGetCount(null);  // Remove initial read-lock, accounting for pending inv counts
     }
-    // No return result
-    _key = null;
-    _val = null;
-    tryComplete();
+    return fs;
   }
+
+  // A pending PUT of k to the home node, from this node?
+  boolean puts( Key k ) { return k.equals(_key); }
+  // The Value of a pending PUT of k; null for a remove
+  Value pendingValue( Key k ) { return _xval; }
+
   @Override public void compute2() { throw H2O.fail(); }
 
   // Received an ACK
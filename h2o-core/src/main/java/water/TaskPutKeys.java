@@ -0,0 +1,41 @@
+package water;
+
+import java.util.HashMap;
+
+/** Push a batch of keys, all homed on the same remote node, in one round-trip.
+ *  All the invalidates of the remote caches are done before the ACK.
+ *  @see DKV#putAll(Key[],Value[],Futures)
+ */
+class TaskPutKeys extends TaskPutKey {
+  Key[] _keys;
+  Value[] _vals;
+  private transient HashMap<Key,Value> _xvals; // The pending puts, by key
+
+  TaskPutKeys( Key[] keys, Value[] vals ) {
+    super(null,null);
+    _keys = keys;
+    _vals = vals;
+    _xvals = new HashMap<>();
+    for( int i = 0; i < keys.length; i++ ) _xvals.put(keys[i],vals[i]);
+  }
+
+  @Override public void dinvoke( H2ONode sender ) {
+    Futures fs = new Futures();
+    for( int i = 0; i < _keys.length; i++ )
+      putHome(sender,_keys[i],_vals[i],fs);
+    fs.blockForPending();
+    // No return result
+    _keys = null;
+    _vals = null;
+    tryComplete();
+  }
+
+  @Override boolean puts( Key k ) { return _xvals.containsKey(k); }
+  @Override Value pendingValue( Key k ) { return _xvals.get(k); }
+
+  // Received an ACK
+  @Override public void onAck() {
+    for( Value xval : _xvals.values() )
+      if( xval != null ) xval.completeRemotePut();
+  }
+}
@@ -3,6 +3,7 @@ package water;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import jsr166y.ForkJoinPool;
 import water.fvec.Frame;
@@ -516,6 +517,52 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     return true;
   }
 
+  // ---
+  // Read leases.  With -Dsys.ai.h2o.dkv.lease_ms=N the home node grants each
+  // remote node fetching a Value a read lease of N msecs: the remote node
+  // serves its cached copy only until the lease ends, then fetches again.  A
+  // PUT needs not invalidate the replicas whose lease has ended, which for
+  // Values overwritten more often than they are read (Job progress, Frames
+  // being built, all polled over REST) saves most of the invalidates; the
+  // replica drops its expired copy when next looked up.  Replicas still leased
+  // are revoked with an invalidate, as before, and a remove invalidates every
+  // replica, lest an expired copy be left behind for good.  Chunks,
+  // big and hardly ever overwritten, are never leased.
+  static int LEASE_MS = Integer.parseInt(H2O.getSysProperty("dkv.lease_ms", "0")); // Not final, for tests
+  static boolean leasable( Key key ) { return leasable(key,LEASE_MS); }
+  static boolean leasable( Key key, int leaseMs ) { return leaseMs > 0 && !key.isChunkKey(); }
+
+  // On remote nodes: the System.nanoTime the lease of this cached copy ends,
+  // or 0 if not leased.  Both ends time the lease from their own clock: the
+  // remote one from before sending the GET, so its lease ends first.
+  transient volatile long _leaseEnd;
+  // On the Home node: the System.nanoTime the lease of each replica ends, or
+  // 0 if not leased (e.g. the writer of a remote PUT).
+  private transient volatile AtomicLongArray _leases;
+
+  private static boolean leaseEnded( long end, long now ) { return end != 0 && now - end > 0; }
+  /** True if this cached copy was leased, and the lease has ended */
+  boolean leaseExpired() { return leaseEnded(_leaseEnd, System.nanoTime()); }
+
+  /** Grant a read lease of {@link #LEASE_MS} to a replica; the replica is
+   *  read-locked, so no PUT can be invalidating this Value. */
+  void grantLease( H2ONode h2o ) {
+    assert _key.home() && _rwlock.get() > 0;
+    AtomicLongArray leases = _leases;
+    if( leases == null ) {
+      synchronized( this ) {
+        if( (leases = _leases) == null ) _leases = leases = new AtomicLongArray(replicas().length);
+      }
+    }
+    if( h2o._unique_idx >= leases.length() ) return; // Not tracked: always invalidated
+    long end = System.nanoTime() + LEASE_MS * 1000000L;
+    if( end == 0 ) end = 1;
+    // Extend only: a racing, earlier grant must not cut this lease short
+    final int i = h2o._unique_idx;
+    for( long old = leases.get(i); old == 0 || end - old > 0; old = leases.get(i) )
+      if( leases.compareAndSet(i, old, end) ) break;
+  }
+
   private void markHotReplica(H2ONode n) {
     n.markLocalDKVAccess();
     byte[] r = replicas();
@@ -567,9 +614,19 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     byte[] r = _replicas;
     if( r!=null ) { // No replicas, nothing to invalidate
       final int max = r.length;
+      final AtomicLongArray leases = _leases;
+      final long now = System.nanoTime();
       for( int i=0; i<max; i++ )
-        if( r[i]==1 && H2ONode.IDX[i] != sender )
+        if( r[i]==1 && H2ONode.IDX[i] != sender ) {
+          // Lease ended, the replica refetches anyways; but a remove is always
+          // sent, lest the stale copy outlive the key on the replica
+          if( leases != null && !newval.isNull() && leaseEnded(leases.get(i),now) ) {
+            DKV.stats(_key,this)._skipped.incrementAndGet();
+            continue;
+          }
+          if( LEASE_MS > 0 ) DKV.stats(_key,this)._invalidates.incrementAndGet();
           TaskInvalidateKey.invalidate(H2ONode.IDX[i],_key,newval,fs);
+        }
       // Speculatively invalidate replicas also on nodes that were not known when the cluster was formed (clients)
       final int unseenMax = H2ONode.IDX.length;
       for (int i=max; i<unseenMax; i++) {
@@ -645,6 +702,11 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   public static Value STORE_get( Key key ) {
     Value val = H2O.STORE.get(key);
     if( val == null ) return null; // A true null
+    if( val.leaseExpired() ) {  // A stale copy: the home node may not have invalidated it
+      DKV.stats(key,val)._expired.incrementAndGet();
+      H2O.putIfMatch(key,null,val); // Dropped, to be fetched again
+      return null;
+    }
     if( !val.isNull() ) return val; // Not a special Null
     // One-shot throwaway attempt at upgrading the special Null to a true null
     if( val._rwlock.get()==0 ) H2O.putIfMatch(key,null,val);
@@ -269,7 +269,7 @@ public class FramesHandler<I extends FramesHandler.Frames, S extends SchemaV3<I,
         throw new IllegalArgumentException("Frame " + req.frame_id + " already exists.");
       }
     }
-    req.job = new JobV3(FramePersist.loadFrom(req.frame_id.key(), req.dir));
+    req.job = new JobV3(FramePersist.loadFrom(req.frame_id.key(), req.dir, req.lazy));
     return req;
   }
 
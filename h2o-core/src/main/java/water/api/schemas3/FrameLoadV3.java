@@ -17,6 +17,9 @@ public class FrameLoadV3 extends RequestSchemaV3<Iced, FrameLoadV3> {
   @API(help="Override existing frame in case it exists or throw exception if set to false")
   public boolean force = true;
 
+  @API(help="Load chunks lazily on first access (local file system only); the saved files must not be removed while the frame is in use")
+  public boolean lazy = false;
+
   @API(help = "Job indicating progress", direction = API.Direction.OUTPUT)
   public JobV3 job;
 
@@ -148,6 +148,12 @@ public class FrameV3 extends FrameBaseV3<Frame, FrameV3> {
     @API(help="Percentile values, matching the default percentiles", direction=API.Direction.OUTPUT)
     public double[] percentiles;
 
+    @API(help="Approximate count of distinct values (HyperLogLog sketch); -1 if not computed", direction=API.Direction.OUTPUT)
+    public long approx_cardinality;
+
+    @API(help="Approximate percentile values from a quantile sketch, matching the default percentiles", direction=API.Direction.OUTPUT)
+    public double[] approx_percentiles;
+
     transient Vec _vec;
 
     ColV3(String name, Vec vec, long off, int len, boolean is_full_column) {
@@ -167,6 +173,9 @@ public class FrameV3 extends FrameBaseV3<Frame, FrameV3> {
       histogram_base = histogram_bins == null ? 0 : vec.base();
       histogram_stride = histogram_bins == null ? 0 : vec.stride();
       percentiles = histogram_bins == null ? null : vec.pctiles();
+      // The sketches are computed with the histogram
+      approx_cardinality = histogram_bins == null ? -1 : vec.approxCardinality();
+      approx_percentiles = histogram_bins == null ? null : vec.approxQuantiles(Vec.PERCENTILES);
 
       type = vec.isUUID() ? "uuid" :
               vec.isString() ? "string" :
@@ -42,6 +42,23 @@ public class C4FChunk extends Chunk {
     else v.addValue((double)f);
   }
 
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
+    for(int i = from; i < to; i++) {
+      float f = UnsafeUtils.get4f(_mem, i << 2);
+      vals[i-from] = Float.isNaN(f)?NA:f;
+    }
+    return vals;
+  }
+
+  @Override public double [] getDoubles(double [] vals, int [] ids){
+    int k = 0;
+    for(int i:ids) {
+      float f = UnsafeUtils.get4f(_mem, i << 2);
+      vals[k++] = Float.isNaN(f)?Double.NaN:f;
+    }
+    return vals;
+  }
+
   @Override
   public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
     for(int i = from; i < to; i++) processRow(i,v);
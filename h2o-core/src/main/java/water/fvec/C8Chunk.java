@@ -56,6 +56,13 @@ public class C8Chunk extends Chunk {
     }
     return vals;
   }
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA){
+    for(int i = from; i < to; i++) {
+      long x = UnsafeUtils.get8(_mem, 8*i);
+      vals[i-from] = (x == _NA)?NA:x;
+    }
+    return vals;
+  }
   @Override public double [] getDoubles(double [] vals, int [] ids){
     int k = 0;
     for(int i:ids) {
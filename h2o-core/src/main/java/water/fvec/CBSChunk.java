@@ -120,6 +120,37 @@ public class CBSChunk extends Chunk {
     return v;
   }
 
+  /**
+   * Dense bulk interface, decodes a whole byte (8 or 4 values) at a time.
+   */
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
+    final int bpv = _bpv;
+    final int mask = 1 | bpv;
+    final int perByte = 8 / bpv;
+    int i = from;
+    int k = 0;
+    // leading values up to the first byte boundary
+    for(; i < to && (i % perByte) != 0; i++, k++) {
+      int b = read(i);
+      vals[k] = b == _NA?NA:b;
+    }
+    // full bytes
+    int bix = _OFF + ((i*bpv)>>3);
+    for(; i + perByte <= to; i += perByte, bix++) {
+      int bits = _mem[bix];
+      for(int off = 0; off < 8; off += bpv, k++) {
+        int b = (bits >> off) & mask;
+        vals[k] = b == _NA?NA:b;
+      }
+    }
+    // trailing values
+    for(; i < to; i++, k++) {
+      int b = read(i);
+      vals[k] = b == _NA?NA:b;
+    }
+    return vals;
+  }
+
 //  /** Writes 1bit from value into b at given offset and return b */
 //  public static byte write1b(byte b, byte val, int off) {
 //    val = (byte) ((val & 0x1) << (7-off));
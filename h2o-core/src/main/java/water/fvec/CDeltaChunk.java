@@ -0,0 +1,186 @@
+package water.fvec;
+
+import water.H2O;
+import water.MemoryManager;
+import water.util.UnsafeUtils;
+
+/**
+ * The frame-of-reference delta compression function, for integer columns
+ * whose values are locally close to each other but span a wide range over the
+ * whole chunk (sorted timestamps, sequence ids, counters...).
+ *
+ * Rows are split into blocks of 64.  Each block stores its minimum as a long
+ * reference, every row stores its delta from the reference of its block in a
+ * fixed 1, 2 or 4 byte unsigned field; all bits set marks a NA.
+ *
+ * <pre>
+ *   [0..3]  int  number of rows
+ *   [4]     byte log2 of the delta size
+ *   [5..]   long reference of each block (the skip index)
+ *   [..]    deltas, one per row
+ * </pre>
+ *
+ * Random access is a reference lookup plus one add, sequential decoders
+ * process a block at a time.
+ */
+public class CDeltaChunk extends Chunk {
+
+  static final boolean ENABLED = H2O.getSysBoolProperty("fvec.compress.delta", true);
+
+  static final int LOG_BLOCK = 6;
+  static final int BLOCK = 1 << LOG_BLOCK;
+  /** Largest in-block span representable with the delta size 1 << log */
+  static final long[] MAX_SPAN = {0xFFL - 1, 0xFFFFL - 1, 0xFFFFFFFFL - 1};
+  private static final long[] NAS = {0xFFL, 0xFFFFL, 0xFFFFFFFFL};
+  private static final long _NA = C8Chunk._NA;
+  private static final int _OFF = 4 + 1;
+
+  private transient int _log;
+  private transient int _valOff;
+
+  public CDeltaChunk() {}
+
+  /**
+   * @param vals integer values of the chunk, NA is Long.MIN_VALUE
+   * @param log log2 of the delta size, the span of every block must fit in MAX_SPAN[log]
+   */
+  CDeltaChunk(long[] vals, int len, int log) {
+    int nblocks = numBlocks(len);
+    _mem = MemoryManager.malloc1(computeByteSize(len, log), false);
+    UnsafeUtils.set4(_mem, 0, len);
+    UnsafeUtils.set1(_mem, 4, (byte) log);
+    int valOff = _OFF + (nblocks << 3);
+    for (int b = 0; b < nblocks; b++) {
+      int from = b << LOG_BLOCK, to = Math.min(from + BLOCK, len);
+      long ref = Long.MAX_VALUE;
+      for (int i = from; i < to; i++)
+        if (vals[i] != _NA && vals[i] < ref) ref = vals[i];
+      if (ref == Long.MAX_VALUE) ref = 0; // all NAs
+      UnsafeUtils.set8(_mem, _OFF + (b << 3), ref);
+      for (int i = from; i < to; i++) {
+        long delta = vals[i] == _NA ? NAS[log] : vals[i] - ref;
+        assert vals[i] == _NA || (0 <= delta && delta <= MAX_SPAN[log]);
+        switch (log) {
+          case 0: _mem[valOff + i] = (byte) delta; break;
+          case 1: UnsafeUtils.set2(_mem, valOff + (i << 1), (short) delta); break;
+          case 2: UnsafeUtils.set4(_mem, valOff + (i << 2), (int) delta); break;
+          default: throw H2O.fail();
+        }
+      }
+    }
+    initFromBytes();
+  }
+
+  static int numBlocks(int len) { return (len + BLOCK - 1) >> LOG_BLOCK; }
+
+  static int computeByteSize(int len, int log) { return _OFF + (numBlocks(len) << 3) + (len << log); }
+
+  @Override protected final void initFromBytes() {
+    _start = -1;  _cidx = -1;
+    set_len(UnsafeUtils.get4(_mem, 0));
+    _log = UnsafeUtils.get1(_mem, 4);
+    _valOff = _OFF + (numBlocks(_len) << 3);
+    assert _mem.length == computeByteSize(_len, _log);
+  }
+
+  private long ref(int i) { return UnsafeUtils.get8(_mem, _OFF + ((i >> LOG_BLOCK) << 3)); }
+
+  private long delta(int i) {
+    switch (_log) {
+      case 0: return 0xFFL & _mem[_valOff + i];
+      case 1: return 0xFFFFL & UnsafeUtils.get2(_mem, _valOff + (i << 1));
+      default: return 0xFFFFFFFFL & UnsafeUtils.get4(_mem, _valOff + (i << 2));
+    }
+  }
+
+  @Override protected final long at8_impl(int i) {
+    long d = delta(i);
+    if (d == NAS[_log]) throw new IllegalArgumentException("at8_abs but value is missing");
+    return ref(i) + d;
+  }
+  @Override protected final double atd_impl(int i) {
+    long d = delta(i);
+    return d == NAS[_log] ? Double.NaN : ref(i) + d;
+  }
+  @Override protected final boolean isNA_impl(int i) { return delta(i) == NAS[_log]; }
+  @Override boolean set_impl(int idx, long l) { return false; }
+  @Override boolean set_impl(int idx, double d) { return false; }
+  @Override boolean set_impl(int idx, float f) { return false; }
+  @Override boolean setNA_impl(int idx) {
+    switch (_log) {
+      case 0: _mem[_valOff + idx] = (byte) NAS[0]; break;
+      case 1: UnsafeUtils.set2(_mem, _valOff + (idx << 1), (short) NAS[1]); break;
+      default: UnsafeUtils.set4(_mem, _valOff + (idx << 2), (int) NAS[2]);
+    }
+    return true;
+  }
+
+  @Override public boolean hasFloat() { return false; }
+
+  @Override public long[] getLongs(long[] vals, int from, int to, long NA) {
+    final long na = NAS[_log];
+    for (int i = from; i < to; ) {
+      int end = Math.min(((i >> LOG_BLOCK) + 1) << LOG_BLOCK, to);
+      long ref = ref(i);
+      switch (_log) {
+        case 0:
+          for (; i < end; i++) {
+            long d = 0xFFL & _mem[_valOff + i];
+            vals[i - from] = d == na ? NA : ref + d;
+          }
+          break;
+        case 1:
+          for (; i < end; i++) {
+            long d = 0xFFFFL & UnsafeUtils.get2(_mem, _valOff + (i << 1));
+            vals[i - from] = d == na ? NA : ref + d;
+          }
+          break;
+        default:
+          for (; i < end; i++) {
+            long d = 0xFFFFFFFFL & UnsafeUtils.get4(_mem, _valOff + (i << 2));
+            vals[i - from] = d == na ? NA : ref + d;
+          }
+      }
+    }
+    return vals;
+  }
+
+  @Override public double[] getDoubles(double[] vals, int from, int to, double NA) {
+    final long na = NAS[_log];
+    for (int i = from; i < to; ) {
+      int end = Math.min(((i >> LOG_BLOCK) + 1) << LOG_BLOCK, to);
+      long ref = ref(i);
+      for (; i < end; i++) {
+        long d = delta(i);
+        vals[i - from] = d == na ? NA : ref + d;
+      }
+    }
+    return vals;
+  }
+
+  @Override public double[] getDoubles(double[] vals, int[] ids) {
+    int k = 0;
+    for (int i : ids)
+      vals[k++] = atd_impl(i);
+    return vals;
+  }
+
+  private void processRow(int i, ChunkVisitor v) {
+    long d = delta(i);
+    if (d == NAS[_log]) v.addNAs(1);
+    else v.addValue(ref(i) + d);
+  }
+
+  @Override
+  public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
+    for (int i = from; i < to; i++) processRow(i, v);
+    return v;
+  }
+
+  @Override
+  public <T extends ChunkVisitor> T processRows(T v, int[] ids) {
+    for (int i : ids) processRow(i, v);
+    return v;
+  }
+
+}
@@ -0,0 +1,203 @@
+package water.fvec;
+
+import water.H2O;
+import water.MemoryManager;
+import water.util.UnsafeUtils;
+
+import java.util.Arrays;
+
+/**
+ * The run-length compression function, for columns made of long stretches of
+ * the same value (slowly changing measurements, sorted keys, status flags...).
+ *
+ * <pre>
+ *   [0..3]  int  number of runs
+ *   [4]     byte 1 if the values are longs, 0 if doubles
+ *   [5..]   int  end row (exclusive) of each run
+ *   [..]    8 byte value of each run, NA is Long.MIN_VALUE for longs and NaN for doubles
+ * </pre>
+ *
+ * Random access binary-searches the run ends; the last run found is
+ * remembered, so walking the rows in order costs O(1) per row.  The bulk
+ * decoders fill a whole run at a time.
+ */
+public class CRLEChunk extends Chunk {
+
+  static final boolean ENABLED = H2O.getSysBoolProperty("fvec.compress.rle", true);
+
+  private static final long _NA = C8Chunk._NA;
+  private static final int _OFF = 4 + 1;
+
+  private transient int _nruns;
+  private transient boolean _isInt;
+  private transient int _valOff;
+  private transient int _lastRun; // racy cache of the last run looked up, any value is valid
+
+  public CRLEChunk() {}
+
+  /**
+   * @param vals integer values of the chunk, NA is Long.MIN_VALUE
+   * @param nruns number of runs of identical values in vals
+   */
+  CRLEChunk(long[] vals, int len, int nruns) {
+    _mem = MemoryManager.malloc1(computeByteSize(nruns), false);
+    int r = 0;
+    for (int i = 1; i <= len; i++) {
+      if (i == len || vals[i] != vals[i - 1]) {
+        UnsafeUtils.set4(_mem, _OFF + (r << 2), i);
+        UnsafeUtils.set8(_mem, _OFF + (nruns << 2) + (r << 3), vals[i - 1]);
+        r++;
+      }
+    }
+    assert r == nruns;
+    init(nruns, true);
+  }
+
+  /**
+   * @param vals values of the chunk, NA is NaN
+   * @param nruns number of runs of identical values in vals, as compared by {@link #sameDouble}
+   */
+  CRLEChunk(double[] vals, int len, int nruns) {
+    _mem = MemoryManager.malloc1(computeByteSize(nruns), false);
+    int r = 0;
+    for (int i = 1; i <= len; i++) {
+      if (i == len || !sameDouble(vals[i], vals[i - 1])) {
+        UnsafeUtils.set4(_mem, _OFF + (r << 2), i);
+        UnsafeUtils.set8d(_mem, _OFF + (nruns << 2) + (r << 3), vals[i - 1]);
+        r++;
+      }
+    }
+    assert r == nruns;
+    init(nruns, false);
+  }
+
+  static int computeByteSize(int nruns) { return _OFF + nruns * (4 + 8); }
+
+  static boolean sameDouble(double a, double b) {
+    return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+  }
+
+  private void init(int nruns, boolean isInt) {
+    UnsafeUtils.set4(_mem, 0, nruns);
+    UnsafeUtils.set1(_mem, 4, (byte) (isInt ? 1 : 0));
+    initFromBytes();
+  }
+
+  @Override protected final void initFromBytes() {
+    _start = -1;  _cidx = -1;
+    _nruns = UnsafeUtils.get4(_mem, 0);
+    _isInt = UnsafeUtils.get1(_mem, 4) != 0;
+    _valOff = _OFF + (_nruns << 2);
+    _lastRun = 0;
+    set_len(_nruns == 0 ? 0 : runEnd(_nruns - 1));
+    assert _mem.length == computeByteSize(_nruns);
+  }
+
+  private int runEnd(int r) { return UnsafeUtils.get4(_mem, _OFF + (r << 2)); }
+  private int runStart(int r) { return r == 0 ? 0 : runEnd(r - 1); }
+  private long runBits(int r) { return UnsafeUtils.get8(_mem, _valOff + (r << 3)); }
+
+  /** Number of runs of identical values */
+  public int numRuns() { return _nruns; }
+
+  // Run containing row i
+  private int run(int i) {
+    int r = _lastRun;
+    if (i < runEnd(r) && i >= runStart(r)) return r;
+    if (++r < _nruns && i < runEnd(r) && i >= runStart(r)) { _lastRun = r; return r; }
+    int lo = 0, hi = _nruns - 1;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (runEnd(mid) <= i) lo = mid + 1;
+      else hi = mid;
+    }
+    _lastRun = lo;
+    return lo;
+  }
+
+  private boolean isNARun(int r) {
+    long bits = runBits(r);
+    return _isInt ? bits == _NA : Double.isNaN(Double.longBitsToDouble(bits));
+  }
+
+  private double runDouble(int r, double NA) {
+    long bits = runBits(r);
+    if (_isInt) return bits == _NA ? NA : bits;
+    double d = Double.longBitsToDouble(bits);
+    return Double.isNaN(d) ? NA : d;
+  }
+
+  @Override protected final long at8_impl(int i) {
+    int r = run(i);
+    if (isNARun(r)) throw new IllegalArgumentException("at8_abs but value is missing");
+    return _isInt ? runBits(r) : (long) Double.longBitsToDouble(runBits(r));
+  }
+  @Override protected final double atd_impl(int i) { return runDouble(run(i), Double.NaN); }
+  @Override protected final boolean isNA_impl(int i) { return isNARun(run(i)); }
+  @Override boolean set_impl(int idx, long l) { return false; }
+  @Override boolean set_impl(int idx, double d) { return false; }
+  @Override boolean set_impl(int idx, float f) { return false; }
+  @Override boolean setNA_impl(int idx) { return false; }
+
+  @Override public boolean hasFloat() { return !_isInt; }
+
+  @Override public double[] getDoubles(double[] vals, int from, int to, double NA) {
+    for (int r = from < to ? run(from) : 0, i = from; i < to; r++) {
+      int end = Math.min(runEnd(r), to);
+      Arrays.fill(vals, i - from, end - from, runDouble(r, NA));
+      i = end;
+    }
+    return vals;
+  }
+
+  @Override public long[] getLongs(long[] vals, int from, int to, long NA) {
+    if (!_isInt) return super.getLongs(vals, from, to, NA);
+    for (int r = from < to ? run(from) : 0, i = from; i < to; r++) {
+      int end = Math.min(runEnd(r), to);
+      long v = runBits(r);
+      Arrays.fill(vals, i - from, end - from, v == _NA ? NA : v);
+      i = end;
+    }
+    return vals;
+  }
+
+  @Override public int[] getIntegers(int[] vals, int from, int to, int NA) {
+    if (!_isInt) return super.getIntegers(vals, from, to, NA);
+    for (int r = from < to ? run(from) : 0, i = from; i < to; r++) {
+      int end = Math.min(runEnd(r), to);
+      long v = runBits(r);
+      if (v != _NA && (int) v != v) throw new IllegalArgumentException("value out of int range: " + v);
+      Arrays.fill(vals, i - from, end - from, v == _NA ? NA : (int) v);
+      i = end;
+    }
+    return vals;
+  }
+
+  @Override
+  public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
+    for (int r = from < to ? run(from) : 0, i = from; i < to; r++) {
+      int end = Math.min(runEnd(r), to);
+      processRun(r, end - i, v);
+      i = end;
+    }
+    return v;
+  }
+
+  @Override
+  public <T extends ChunkVisitor> T processRows(T v, int[] ids) {
+    for (int i : ids) processRun(run(i), 1, v);
+    return v;
+  }
+
+  private void processRun(int r, int n, ChunkVisitor v) {
+    long bits = runBits(r);
+    if (isNARun(r)) v.addNAs(n);
+    else if (bits == 0) v.addZeros(n); // 0 and 0.0 share the bit pattern
+    else if (_isInt) for (int k = 0; k < n; k++) v.addValue(bits);
+    else {
+      double d = Double.longBitsToDouble(bits);
+      for (int k = 0; k < n; k++) v.addValue(d);
+    }
+  }
+
+}
@@ -0,0 +1,307 @@
+package water.fvec;
+
+import water.H2O;
+import water.MemoryManager;
+import water.parser.BufferedString;
+import water.util.SetOfBytes;
+import water.util.UnsafeUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Dictionary-encoded string chunk: every distinct string of the chunk is
+ * stored once and the rows refer to it by a packed 1 or 2 byte code.
+ *
+ * <pre>
+ *   [0..3]  int  start of the string bytes (same as in CStrChunk)
+ *   [4]     byte all-ASCII flag (same as in CStrChunk)
+ *   [5]     byte code size in bytes, 1 or 2
+ *   [6..9]  int  number of dictionary entries
+ *   [10..]  codes, one per row, all bits set means NA
+ *   [..]    int offset of each dictionary entry relative to the string bytes
+ *   [..]    0-terminated string bytes of the dictionary entries
+ * </pre>
+ *
+ * Row access goes through {@link #intAt}, so everything inherited from
+ * {@link CStrChunk} keeps working unchanged.  The ascii* string operations are
+ * overridden to do their work once per dictionary entry instead of once per
+ * row, and the output NewChunk shares a single copy of each resulting string
+ * between all the rows referring to it (so it compresses back into a
+ * dictionary chunk).
+ *
+ * NewChunk picks this layout when the chunk has at most 65534 distinct strings
+ * and the result is smaller than the equivalent {@link CStrChunk}.
+ */
+public class CStrDictChunk extends CStrChunk {
+
+  static final boolean ENABLED = H2O.getSysBoolProperty("fvec.str.dict.enabled", true);
+
+  private static final int _CODES = 4 + 1 + 1 + 4;
+  private static final int MAX_DICT_SIZE = 0xFFFF - 1; // all bits set is reserved for NA
+
+  private transient int _codeSz;
+  private transient int _dictOff;
+  private transient int _ndict;
+
+  public CStrDictChunk() {}
+
+  private CStrDictChunk(byte[] mem) { _mem = mem; initFromBytes(); }
+
+  /**
+   * Try to dictionary-encode strings collected in a NewChunk, arguments have the same meaning as in
+   * {@link CStrChunk#CStrChunk(int, byte[], int, int, int[], int[])}.
+   * @return dictionary chunk or null if the strings are too diverse for the dictionary to pay off
+   */
+  static CStrDictChunk compress(int sslen, byte[] ss, int sparseLen, int len, int[] id, int[] is) {
+    if (is == null || len == 0) return null;
+    int[] codes = new int[len];
+    Arrays.fill(codes, -1);
+    HashMap<BufferedString, Integer> dict = new HashMap<>();
+    int[] entryOffs = new int[16];
+    int[] entryLens = new int[16];
+    int dictBytes = 0;
+    BufferedString probe = new BufferedString();
+    int lastOff = NA, lastCode = -1;
+    for (int i = 0; i < sparseLen; i++) {
+      int off = is[i];
+      if (off == NA) continue;
+      int code;
+      if (off == lastOff) { // rows sharing the same bytes, eg. written by a per-entry operation
+        code = lastCode;
+      } else {
+        int slen = 0;
+        while (ss[off + slen] != 0) slen++;
+        Integer c = dict.get(probe.set(ss, off, slen));
+        if (c == null) {
+          code = dict.size();
+          if (code == MAX_DICT_SIZE || code > (len >> 1)) return null; // too many distinct values
+          dict.put(new BufferedString(ss, off, slen), code);
+          if (code == entryOffs.length) {
+            entryOffs = Arrays.copyOf(entryOffs, code << 1);
+            entryLens = Arrays.copyOf(entryLens, code << 1);
+          }
+          entryOffs[code] = off;
+          entryLens[code] = slen;
+          dictBytes += slen + 1;
+        } else code = c;
+        lastOff = off;
+        lastCode = code;
+      }
+      codes[id == null ? i : id[i]] = code;
+    }
+    int ndict = dict.size();
+    int codeSz = ndict < 0xFF ? 1 : 2;
+    int dictOff = _CODES + len * codeSz;
+    int valstart = dictOff + (ndict << 2);
+    long size = (long) valstart + dictBytes;
+    if (size >= _OFF + 4L * len + sslen) return null; // no gain over CStrChunk
+    byte[] mem = MemoryManager.malloc1((int) size);
+    UnsafeUtils.set4(mem, 0, valstart);
+    UnsafeUtils.set1(mem, 5, (byte) codeSz);
+    UnsafeUtils.set4(mem, 6, ndict);
+    for (int i = 0; i < len; i++) {
+      if (codeSz == 1) mem[_CODES + i] = (byte) codes[i]; // -1 becomes the 0xFF NA marker
+      else UnsafeUtils.set2(mem, _CODES + (i << 1), (short) codes[i]);
+    }
+    boolean isAllASCII = true;
+    int pos = 0;
+    for (int k = 0; k < ndict; k++) {
+      UnsafeUtils.set4(mem, dictOff + (k << 2), pos);
+      int off = entryOffs[k];
+      for (int j = 0; j < entryLens[k]; j++) {
+        byte b = ss[off + j];
+        isAllASCII &= (b & 0x80) == 0;
+        mem[valstart + pos++] = b;
+      }
+      mem[valstart + pos++] = 0;
+    }
+    UnsafeUtils.set1(mem, 4, (byte) (isAllASCII ? 1 : 0));
+    return new CStrDictChunk(mem);
+  }
+
+  @Override protected void initFromBytes() {
+    _start = -1;  _cidx = -1;
+    _valstart = UnsafeUtils.get4(_mem, 0);
+    _isAllASCII = UnsafeUtils.get1(_mem, 4) != 0;
+    _codeSz = UnsafeUtils.get1(_mem, 5);
+    _ndict = UnsafeUtils.get4(_mem, 6);
+    _dictOff = _valstart - (_ndict << 2);
+    set_len((_dictOff - _CODES) / _codeSz);
+  }
+
+  /** Number of distinct strings in this chunk */
+  public int dictSize() { return _ndict; }
+
+  /** Dictionary code of the string at the given row, -1 for NA */
+  public int code(int i) {
+    int c = _codeSz == 1 ? 0xFF & _mem[_CODES + i] : 0xFFFF & UnsafeUtils.get2(_mem, _CODES + (i << 1));
+    return c == (_codeSz == 1 ? 0xFF : 0xFFFF) ? -1 : c;
+  }
+
+  private int entryOffset(int code) { return UnsafeUtils.get4(_mem, _dictOff + (code << 2)); }
+
+  /** Dictionary entry with the given code */
+  public BufferedString dictEntry(BufferedString bStr, int code) {
+    int off = entryOffset(code);
+    return bStr.set(_mem, _valstart + off, lengthAtOffset(off));
+  }
+
+  @Override public int intAt(int i) {
+    int c = code(i);
+    return c == -1 ? NA : entryOffset(c);
+  }
+
+  /**
+   * Apply a string function once per dictionary entry and append the results for all rows.
+   * A null result is written as NA.
+   *
+   * @param nc NewChunk to be filled with the mapped strings
+   * @param fun function to apply
+   * @return Filled NewChunk
+   */
+  public NewChunk mapStrings(NewChunk nc, Function<String, String> fun) {
+    BufferedString[] entries = new BufferedString[_ndict];
+    BufferedString bs = new BufferedString();
+    for (int k = 0; k < _ndict; k++) {
+      String s = fun.apply(dictEntry(bs, k).toString());
+      entries[k] = s == null ? null : new BufferedString(s);
+    }
+    return addEntries(nc, entries);
+  }
+
+  /**
+   * Evaluate a numeric function once per dictionary entry and append the results for all rows.
+   * NaN results are written as NA.
+   *
+   * @param nc NewChunk to be filled with the numbers
+   * @param fun function to apply
+   * @return Filled NewChunk
+   */
+  public NewChunk mapToNumbers(NewChunk nc, ToDoubleFunction<BufferedString> fun) {
+    double[] vals = new double[_ndict];
+    BufferedString bs = new BufferedString();
+    for (int k = 0; k < _ndict; k++)
+      vals[k] = fun.applyAsDouble(dictEntry(bs, k));
+    return addNumbers(nc, vals);
+  }
+
+  private NewChunk addEntries(NewChunk nc, BufferedString[] entries) {
+    int[] offs = new int[entries.length];
+    for (int k = 0; k < entries.length; k++)
+      offs[k] = entries[k] == null ? NA : nc.addStrData(entries[k]);
+    for (int i = 0; i < _len; i++) {
+      int c = code(i);
+      if (c == -1 || offs[c] == NA) nc.addNA();
+      else nc.addStrRef(offs[c]);
+    }
+    return nc;
+  }
+
+  private NewChunk addNumbers(NewChunk nc, double[] vals) {
+    nc.alloc_doubles(_len);
+    for (int i = 0; i < _len; i++) {
+      int c = code(i);
+      if (c == -1 || Double.isNaN(vals[c])) nc.addNA();
+      else nc.addNum(vals[c]);
+    }
+    return nc;
+  }
+
+  // Dictionary entry given as a byte range of the entry
+  private BufferedString entry(int code, int from, int to) {
+    return new BufferedString(_mem, _valstart + entryOffset(code) + from, Math.max(0, to - from));
+  }
+
+  @Override public NewChunk asciiToLower(NewChunk nc) {
+    return asciiShiftCase(nc, (byte) 0x40, (byte) 0x5B, 0x20);
+  }
+
+  @Override public NewChunk asciiToUpper(NewChunk nc) {
+    return asciiShiftCase(nc, (byte) 0x60, (byte) 0x7B, -0x20);
+  }
+
+  private NewChunk asciiShiftCase(NewChunk nc, byte lo, byte hi, int shift) {
+    BufferedString[] entries = new BufferedString[_ndict];
+    for (int k = 0; k < _ndict; k++) {
+      int start = _valstart + entryOffset(k);
+      byte[] bytes = Arrays.copyOfRange(_mem, start, start + lengthAtOffset(entryOffset(k)));
+      for (int j = 0; j < bytes.length; j++)
+        if (bytes[j] > lo && bytes[j] < hi)
+          bytes[j] += shift;
+      entries[k] = new BufferedString(bytes, 0, bytes.length);
+    }
+    return addEntries(nc, entries);
+  }
+
+  @Override public NewChunk asciiTrim(NewChunk nc) {
+    BufferedString[] entries = new BufferedString[_ndict];
+    for (int k = 0; k < _ndict; k++) {
+      int off = entryOffset(k);
+      int len = lengthAtOffset(off);
+      int from = 0, to = len;
+      //UTF chars will appear as negative values. In Java spec, space is any char 0x20 and lower
+      while (from < to && byteAt(off + from) > 0 && byteAt(off + from) < 0x21) from++;
+      while (to > from && byteAt(off + to - 1) > 0 && byteAt(off + to - 1) < 0x21) to--;
+      entries[k] = entry(k, from, to);
+    }
+    return addEntries(nc, entries);
+  }
+
+  @Override public NewChunk asciiSubstring(NewChunk nc, int startIndex, int endIndex) {
+    BufferedString[] entries = new BufferedString[_ndict];
+    for (int k = 0; k < _ndict; k++) {
+      int len = lengthAtOffset(entryOffset(k));
+      int from = Math.min(startIndex, len);
+      entries[k] = entry(k, from, Math.max(from, Math.min(endIndex, len)));
+    }
+    return addEntries(nc, entries);
+  }
+
+  @Override public NewChunk asciiLength(NewChunk nc) {
+    double[] vals = new double[_ndict];
+    for (int k = 0; k < _ndict; k++)
+      vals[k] = lengthAtOffset(entryOffset(k));
+    return addNumbers(nc, vals);
+  }
+
+  @Override public NewChunk asciiEntropy(NewChunk nc) {
+    double[] vals = new double[_ndict];
+    for (int k = 0; k < _ndict; k++)
+      vals[k] = entropyAtOffset(entryOffset(k));
+    return addNumbers(nc, vals);
+  }
+
+  @Override double entropyAt(int i) {
+    int c = code(i);
+    return c == -1 ? Double.NaN : entropyAtOffset(entryOffset(c));
+  }
+
+  @Override public NewChunk asciiLStrip(NewChunk nc, String chars) {
+    SetOfBytes set = new SetOfBytes(chars);
+    BufferedString[] entries = new BufferedString[_ndict];
+    for (int k = 0; k < _ndict; k++) {
+      int off = entryOffset(k);
+      int len = lengthAtOffset(off);
+      int from = 0;
+      while (from < len && set.contains(byteAt(off + from))) from++;
+      entries[k] = entry(k, from, len);
+    }
+    return addEntries(nc, entries);
+  }
+
+  @Override public NewChunk asciiRStrip(NewChunk nc, String chars) {
+    SetOfBytes set = new SetOfBytes(chars);
+    BufferedString[] entries = new BufferedString[_ndict];
+    for (int k = 0; k < _ndict; k++) {
+      int off = entryOffset(k);
+      int to = lengthAtOffset(off);
+      while (to > 0 && set.contains(byteAt(off + to - 1))) to--;
+      entries[k] = entry(k, 0, to);
+    }
+    return addEntries(nc, entries);
+  }
+
+}
@@ -3,6 +3,8 @@ package water.fvec;
 import water.H2O;
 import water.util.UnsafeUtils;
 
+import java.util.Arrays;
+
 // Sparse chunk.
 public class CXIChunk extends Chunk {
   private static long [] _NAS = new long[]{-1/* not used, binary chunks can't have NAs */,/* not used*/-1,C2Chunk._NA,-1,C4Chunk._NA,-1,-1,-1,C8Chunk._NA};
@@ -157,6 +159,39 @@ public class CXIChunk extends Chunk {
     return onlyTrueZero && _isNA ? rid + 1 : nextNZ(rid);
   }
 
+  /**
+   * Dense bulk interface specialized for sparse chunks: fill the range with the
+   * sparse default and scatter the stored elements over it.
+   */
+  @Override
+  public double [] getDoubles(double [] vals, int from, int to, double NA){
+    Arrays.fill(vals,0,to-from,_isNA?NA:0);
+    int x = from == 0?_OFF: findOffset(from);
+    if(x < 0) x = -x-1;
+    for(; x < _mem.length; x += _elem_sz){
+      int id = getId(x);
+      if(id >= to) break;
+      long val = getVal(x);
+      vals[id-from] = val == _NAS[_val_sz]?NA:val;
+    }
+    return vals;
+  }
+
+  @Override
+  public int getSparseDoubles(double [] vals, int [] ids, double NA){
+    int k = 0;
+    for(int x = _OFF; x < _mem.length; x += _elem_sz){
+      long val = getVal(x);
+      if(val == _NAS[_val_sz]) {
+        if(_isNA) continue; // NAs are the sparse default
+        vals[k] = NA;
+      } else
+        vals[k] = val;
+      ids[k++] = getId(x);
+    }
+    return k;
+  }
+
   @Override
   public <T extends ChunkVisitor> T processRows(T v, int from, int to){
     int prevId = from-1;
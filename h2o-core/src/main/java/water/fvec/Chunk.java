@@ -379,7 +379,7 @@ public abstract class Chunk extends Iced<Chunk> implements Vec.Holder {
   /** Replace all rows with this new chunk */
   public void replaceAll( Chunk replacement ) {
     assert _len == replacement._len;
-    _vec.preWriting();          // One-shot writing-init
+    preWriting();               // One-shot writing-init
     _chk2 = replacement;
     assert _chk2._chk2 == null; // Replacement has NOT been written into
   }
@@ -395,6 +395,11 @@ public abstract class Chunk extends Iced<Chunk> implements Vec.Holder {
     return c2;
   }
 
+  private void preWriting() {
+    if( _cidx >= 0 ) _vec.preWriting(_cidx);
+    else _vec.preWriting();
+  }
+
   private void setWrite() {
     if( _chk2 != null ) return; // Already setWrite
     assert !(this instanceof NewChunk) : "Cannot direct-write into a NewChunk, only append";
@@ -403,7 +408,7 @@ public abstract class Chunk extends Iced<Chunk> implements Vec.Holder {
 
   private void setWrite(Chunk ck) {
     assert(_chk2==null);
-    _vec.preWriting();          // One-shot writing-init
+    preWriting();               // One-shot writing-init
     _chk2 = ck;
     assert _chk2._chk2 == null; // Clone has NOT been written into
   }
@@ -789,6 +794,17 @@ public abstract class Chunk extends Iced<Chunk> implements Vec.Holder {
   public int [] getIntegers(int [] vals, int from, int to, int NA){
     return processRows(new ChunkVisitor.IntAryVisitor(vals,NA),from,to).vals;
   }
+  /**
+   * Dense bulk interface, fetch integer values from the given range.
+   * Throws if the chunk holds a value which is not a whole number.
+   * @param vals holds extracted values, length must be >= to - from
+   * @param from
+   * @param to
+   * @param NA value used for missing elements
+   */
+  public long [] getLongs(long [] vals, int from, int to, long NA){
+    return processRows(new ChunkVisitor.LongAryVisitor(vals,NA),from,to).vals;
+  }
   /**
    * Dense bulk interface, fetch values from the given ids
    * @param vals
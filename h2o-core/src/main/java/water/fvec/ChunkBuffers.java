@@ -0,0 +1,117 @@
+package water.fvec;
+
+import water.MemoryManager;
+
+/**
+ * Per-thread pool of scratch arrays for the bulk Chunk decoders
+ * ({@link Chunk#getDoubles}, {@link Chunk#getIntegers}, {@link Chunk#getLongs}).
+ *
+ * MRTask map calls typically decode every column of a chunk into a temporary
+ * array of chunk length, use it and throw it away.  Chunks of a Frame mostly
+ * share the same length, so the same arrays can be recycled by the next map
+ * call running on the same F/J thread instead of being re-allocated (and
+ * zeroed) every time.
+ *
+ * Arrays are handed out with an exact length and their content is undefined.
+ * A borrowed array is owned by the caller until it is given back with
+ * {@code release}; nested borrowing (eg. a map call helping with another task
+ * while blocked) simply gets a different array.  Arrays which are never
+ * released are left for the GC, so only release arrays that do not escape.
+ * <pre>
+ *   double[] vals = ChunkBuffers.doubles(c._len);
+ *   try {
+ *     c.getDoubles(vals, 0, c._len);
+ *     ...
+ *   } finally {
+ *     ChunkBuffers.release(vals);
+ *   }
+ * </pre>
+ */
+public final class ChunkBuffers {
+
+  private static final int MAX_POOLED = 4; // per type and thread, bounds the retained memory
+
+  private static final ThreadLocal<ChunkBuffers> _pool = new ThreadLocal<ChunkBuffers>() {
+    @Override protected ChunkBuffers initialValue() { return new ChunkBuffers(); }
+  };
+
+  private final double[][] _doubles = new double[MAX_POOLED][];
+  private final int[][] _ints = new int[MAX_POOLED][];
+  private final long[][] _longs = new long[MAX_POOLED][];
+
+  private ChunkBuffers() {}
+
+  /** Borrow a double array of exactly the given length, content is undefined */
+  public static double[] doubles(int len) {
+    double[][] pool = _pool.get()._doubles;
+    for (int i = 0; i < pool.length; i++) {
+      double[] a = pool[i];
+      if (a != null && a.length == len) {
+        pool[i] = null;
+        return a;
+      }
+    }
+    return MemoryManager.malloc8d(len);
+  }
+
+  /** Borrow an int array of exactly the given length, content is undefined */
+  public static int[] ints(int len) {
+    int[][] pool = _pool.get()._ints;
+    for (int i = 0; i < pool.length; i++) {
+      int[] a = pool[i];
+      if (a != null && a.length == len) {
+        pool[i] = null;
+        return a;
+      }
+    }
+    return MemoryManager.malloc4(len);
+  }
+
+  /** Borrow a long array of exactly the given length, content is undefined */
+  public static long[] longs(int len) {
+    long[][] pool = _pool.get()._longs;
+    for (int i = 0; i < pool.length; i++) {
+      long[] a = pool[i];
+      if (a != null && a.length == len) {
+        pool[i] = null;
+        return a;
+      }
+    }
+    return MemoryManager.malloc8(len);
+  }
+
+  /** Give a borrowed array back to the pool of the current thread */
+  public static void release(double[] a) {
+    if (a == null) return;
+    double[][] pool = _pool.get()._doubles;
+    int slot = 0;
+    for (int i = 0; i < pool.length; i++) {
+      if (pool[i] == null) { slot = i; break; }
+      if (pool[i].length != a.length) slot = i; // prefer evicting arrays of a stale length
+    }
+    pool[slot] = a;
+  }
+
+  public static void release(int[] a) {
+    if (a == null) return;
+    int[][] pool = _pool.get()._ints;
+    int slot = 0;
+    for (int i = 0; i < pool.length; i++) {
+      if (pool[i] == null) { slot = i; break; }
+      if (pool[i].length != a.length) slot = i;
+    }
+    pool[slot] = a;
+  }
+
+  public static void release(long[] a) {
+    if (a == null) return;
+    long[][] pool = _pool.get()._longs;
+    int slot = 0;
+    for (int i = 0; i < pool.length; i++) {
+      if (pool[i] == null) { slot = i; break; }
+      if (pool[i].length != a.length) slot = i;
+    }
+    pool[slot] = a;
+  }
+
+}
@@ -1,7 +1,7 @@
 package water.fvec;
 
 import water.parser.BufferedString;
-import water.util.PrettyPrint;
+import water.parser.FastFloat;
 
 /**
  * Created by tomas on 3/8/17.
@@ -33,7 +33,7 @@ public abstract class ChunkVisitor {
   }
 
   void addValue(long m, int e) {
-    addValue(PrettyPrint.pow10(m,e));
+    addValue(FastFloat.toDouble(m,e));
   }
 
   void addZeros(int zeros) {
@@ -104,6 +104,46 @@ public abstract class ChunkVisitor {
       _k = kmax;
     }
   }
+  /**
+   * Simple chunk visitor for extracting rows from chunks into a long array.
+   */
+  public static final class LongAryVisitor extends ChunkVisitor {
+    public final long [] vals;
+    private int _k = 0;
+    private final long _na;
+    LongAryVisitor(long [] vals, long NA){this.vals = vals; _na = NA;}
+    @Override
+    void addValue(int val) {
+      vals[_k++] = val;}
+    @Override
+    void addValue(long val) {
+      vals[_k++] = val;}
+    @Override
+    void addValue(double val) {
+      if (Double.isNaN(val)) {
+        vals[_k++] = _na;
+      } else {
+        long l = (long) val;
+        if (l != val)
+          throw new RuntimeException(val + " does not fit into long");
+        vals[_k++] = l;
+      }
+    }
+    @Override
+    void addZeros(int zeros) {
+      int k = _k;
+      int kmax = k +zeros;
+      for(;k < kmax; k++) vals[k] = 0;
+      _k = kmax;
+    }
+    @Override
+    void addNAs(int nas) {
+      int k = _k;
+      int kmax = k + nas;
+      for(;k < kmax; k++) vals[k] = _na;
+      _k = kmax;
+    }
+  }
   /**
    * Simple chunk visitor for extracting rows from chunks into a sparse double array.
    */
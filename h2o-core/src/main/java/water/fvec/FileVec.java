@@ -1,6 +1,7 @@
 package water.fvec;
 
 import water.*;
+import water.persist.PersistNFS;
 import water.util.Log;
 import water.util.MathUtils;
 import water.util.UnsafeUtils;
@@ -153,6 +154,33 @@ public abstract class FileVec extends ByteVec {
     return val3 == null ? val2 : val3;
   }
 
+  /** True if this node can read the backing file itself, without going
+   *  through the home nodes of the chunks. */
+  public boolean readableHere() {
+    switch( _be ) {
+    case Value.NFS:  return nChunks() > 0 && PersistNFS.canRead(chunkKey(0));
+    case Value.HDFS:
+    case Value.S3:
+    case Value.GCS:  return true;
+    default:         return false;
+    }
+  }
+
+  /** The Chunk for a chunk#, read straight from the backing file, and not
+   *  put in the K/V store.  See {@link #readableHere}. */
+  public Chunk chunkFromFile( int cidx ) {
+    final long nchk = nChunks();
+    assert 0 <= cidx && cidx < nchk;
+    int len = (int)(cidx < nchk-1 ? _chunkSize : (_len-chunk2StartElem(cidx)));
+    Value val = new Value(chunkKey(cidx),len,null,TypeMap.C1NCHUNK,_be);
+    val.setDsk();
+    Chunk c = val.get();
+    c._vec = this;
+    c._start = chunk2StartElem(cidx);
+    c._cidx = cidx;
+    return c;
+  }
+
   /**
    * Calculates safe and hopefully optimal chunk sizes.  Four cases
    * exist.
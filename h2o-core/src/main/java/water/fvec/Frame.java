@@ -7,6 +7,7 @@ import water.api.FramesHandler;
 import water.api.schemas3.KeyV3;
 import water.exceptions.H2OIllegalArgumentException;
 import water.parser.BufferedString;
+import water.parser.Categorical;
 import water.rapids.Merge;
 import water.util.*;
 
@@ -332,10 +333,10 @@ public class Frame extends Lockable<Frame> {
 
   // Compute vectors for caching
   private Vec[] vecs_impl() {
-    // Load all Vec headers; load them all in parallel by starting prefetches
-    for( Key<Vec> key : _keys ) DKV.prefetch(key);
+    // Load all Vec headers, in one batch per home node
+    Value[] vals = DKV.getAll(_keys);
     Vec [] vecs = new Vec[_keys.length];
-    for( int i=0; i<_keys.length; i++ ) vecs[i] = _keys[i].get();
+    for( int i=0; i<_keys.length; i++ ) vecs[i] = vals[i] == null ? null : (Vec)vals[i].get();
     return vecs;
   }
 
@@ -648,6 +649,118 @@ public class Frame extends Lockable<Frame> {
    *  @return the expanded Frame, for flow-coding */
   public Frame add( Frame fr ) { add(fr._names,fr.vecs().clone(),fr.numCols()); return this; }
 
+  /** Append the rows of {@code src} onto this Frame, in place.  The chunks of
+   *  {@code src} are moved after the chunks of this Frame's Vecs, which keep
+   *  their keys, and {@code src} is deleted.  The Vecs must belong to this
+   *  Frame alone: sharing of Vecs between Frames is not tracked, and another
+   *  Frame holding one of them would see it grow, and end up with columns of
+   *  different lengths.  Make a {@link #deepCopy} of such a Frame first.  A
+   *  Frame holding the same Vec twice is refused.  New categorical levels go
+   *  at the end of the domains, so the existing chunks are not touched, and
+   *  their rollups are kept.  Columns are matched by position and must have the same type,
+   *  except that an all-missing column matches any type.  Caller must hold
+   *  the write lock and perform global update (DKV.put) on this Frame.
+   *  @return this Frame, for flow-coding */
+  public Frame appendChunks( Frame src ) {
+    if( src.numCols() != numCols() )
+      throw new IllegalArgumentException("Cannot append "+src.numCols()+" columns to a frame of "+numCols()+" columns");
+    final Vec[] vecs = vecs(), svecs = src.vecs();
+    final int ncols = vecs.length;
+    HashMap<Key<Vec>,Integer> cols = new HashMap<>();
+    for( int i = 0; i < ncols; i++ ) {
+      Integer j = cols.putIfAbsent(_keys[i], i);
+      if( j != null )
+        throw new IllegalArgumentException("Cannot append to column '"+_names[i]+"', its Vec is also column '"+_names[j]+"'");
+    }
+    byte[] types = new byte[ncols];
+    String[][] domains = new String[ncols][];
+    int[][] maps = new int[ncols][];
+    for( int i = 0; i < ncols; i++ ) {
+      Vec v = vecs[i], sv = svecs[i];
+      if( v.getClass() != Vec.class )
+        throw new IllegalArgumentException("Cannot append to column '"+_names[i]+"', a "+v.getClass().getSimpleName());
+      types[i] = v.get_type();
+      domains[i] = v.domain();
+      if( sv.get_type() == v.get_type() ) {
+        if( v.isCategorical() ) maps[i] = unionDomain(domains, i, sv.domain());
+      } else if( v.isBad() && isNumeric(v) && isNumeric(sv) ) { // All missing so far: takes the new type
+        types[i] = sv.get_type();
+        domains[i] = sv.domain();
+      } else if( !(sv.isBad() && isNumeric(v) && isNumeric(sv)) ) // All missing: fits a numeric column
+        throw new IllegalArgumentException("Cannot append a column of type "+sv.get_type_str()+" to column '"+_names[i]+"' of type "+v.get_type_str());
+    }
+    long[] espc = anyVec().espc(), sespc = src.anyVec().espc();
+    int nchunks = espc.length-1, snchunks = sespc.length-1;
+    if( src.numRows() > 0 ) {
+      new AppendChunksTask(_keys, nchunks, maps).doAll(src);
+      espc = Arrays.copyOf(espc, nchunks+snchunks+1);
+      for( int j = 1; j <= snchunks; j++ ) espc[nchunks+j] = espc[nchunks]+sespc[j];
+      Futures fs = new Futures();
+      for( int i = 0; i < ncols; i++ ) {
+        Vec v = new Vec(_keys[i], Vec.ESPC.rowLayout(_keys[i], espc), domains[i], types[i]);
+        DKV.put(v, fs);
+        RollupStats.chunksAppended(v, nchunks, fs);
+      }
+      fs.blockForPending();
+      _col0 = null;
+      reloadVecs();
+    }
+    src.delete();
+    return this;
+  }
+
+  // Chunks of numeric, categorical and time Vecs all read as numbers
+  private static boolean isNumeric( Vec v ) { return !v.isString() && !v.isUUID(); }
+
+  // Extend domains[i] with the levels of sdom it does not have, in their
+  // order.  Returns the map of sdom to the union, or null if the identity.
+  private int[] unionDomain( String[][] domains, int i, String[] sdom ) {
+    HashMap<String,Integer> levels = new HashMap<>();
+    for( String s : domains[i] ) levels.put(s, levels.size());
+    int[] map = new int[sdom.length];
+    boolean identity = true;
+    for( int j = 0; j < sdom.length; j++ ) {
+      Integer l = levels.get(sdom[j]);
+      if( l == null ) levels.put(sdom[j], l = levels.size());
+      map[j] = l;
+      identity &= l == j;
+    }
+    if( levels.size() > Categorical.MAX_CATEGORICAL_COUNT )
+      throw new IllegalArgumentException("Exceeded categorical limit on column '"+_names[i]+"'");
+    if( levels.size() > domains[i].length ) {
+      String[] dom = Arrays.copyOf(domains[i], levels.size());
+      for( int j = 0; j < sdom.length; j++ ) dom[map[j]] = sdom[j];
+      domains[i] = dom;
+    }
+    return identity ? null : map;
+  }
+
+  // Copy the chunks of a Frame after the chunks of other Vecs, remapping the
+  // categorical levels as needed.
+  private static class AppendChunksTask extends MRTask<AppendChunksTask> {
+    final Key<Vec>[] _dstKeys;
+    final int _nchunks;         // Chunks already in the destination Vecs
+    final int[][] _maps;        // Old to new categorical level, or null
+    AppendChunksTask( Key<Vec>[] dstKeys, int nchunks, int[][] maps ) { _dstKeys = dstKeys; _nchunks = nchunks; _maps = maps; }
+    @Override public void map( Chunk[] cs ) {
+      for( int i = 0; i < cs.length; i++ ) {
+        Chunk c = cs[i];
+        if( _maps[i] != null ) {
+          NewChunk nc = new NewChunk(c._vec, c._cidx);
+          for( int j = 0; j < c._len; j++ )
+            if( c.isNA(j) ) nc.addNA();
+            else nc.addNum(_maps[i][(int)c.at8(j)], 0);
+          c = nc.compress();
+        } else
+          c = c.clone();        // The bytes are shared, the source is deleted unmodified
+        c._vec = null;
+        c._start = -1;
+        c._cidx = -1;
+        DKV.put(Vec.chunkKey(_dstKeys[i], _nchunks+cs[i]._cidx), c, _fs, true);
+      }
+    }
+  }
+
   /** Insert a named column as the first column */
   public Frame prepend( String name, Vec vec ) {
     if( find(name) != -1 ) throw new IllegalArgumentException("Duplicate name '"+name+"' in Frame");
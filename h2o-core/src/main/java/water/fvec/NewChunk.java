@@ -5,6 +5,7 @@ import water.Futures;
 import water.H2O;
 import water.MemoryManager;
 import water.parser.BufferedString;
+import water.parser.FastFloat;
 import water.util.PrettyPrint;
 import water.util.StringUtils;
 import water.util.UnsafeUtils;
@@ -430,12 +431,10 @@ public class NewChunk extends Chunk {
       c.addNum(_ds[i]);
     } else if (_ss != null) {
       int sidx = _is[i];
-      int nextNotNAIdx = i + 1;
-      // Find next not-NA value (_is[idx] != -1)
-      while (nextNotNAIdx < _is.length && _is[nextNotNAIdx] == -1) nextNotNAIdx++;
-      int send = nextNotNAIdx < _is.length ? _is[nextNotNAIdx]: _sslen;
-      int slen = send - sidx -1 /*account for trailing zero byte*/;
-      assert slen >= 0 : getClass().getSimpleName() + ".add2Chunk_impl: slen=" + slen + ", sidx=" + sidx + ", send=" + send;
+      // Strings are 0-terminated, offsets are not necessarily increasing (rows can share the same bytes, see addStrRef)
+      int slen = 0;
+      if (sidx != -1)
+        while (_ss[sidx + slen] != 0) slen++;
       // null-BufferedString represents NA value
       BufferedString bStr = sidx == -1 ? null : _bfstr.set(_ss, sidx, slen);
       c.addStr(bStr);
@@ -610,7 +609,7 @@ public class NewChunk extends Chunk {
       addNA();
     } else if(_ds != null) {
       assert _ms == null;
-      addNum(PrettyPrint.pow10(val,exp));
+      addNum(FastFloat.toDouble(val,exp));
     } else {
       if( val == 0 ) exp = 0;// Canonicalize zero
       if(val != 0 || !isSparseZero()) {
@@ -735,6 +734,35 @@ public class NewChunk extends Chunk {
     assert _sparseLen <= _len;
   }
 
+  /**
+   * Append the bytes of a string without adding a row, the string can then be
+   * referenced by any number of rows with {@link #addStrRef(int)}.
+   * @return offset of the string
+   */
+  public int addStrData(BufferedString str) {
+    int off = _sslen;
+    append_ss(str);
+    return off;
+  }
+
+  /**
+   * Append a row referring to a string previously added by {@link #addStrData(BufferedString)}.
+   * @param off offset of the string
+   */
+  public void addStrRef(int off) {
+    assert off >= 0 && off < _sslen;
+    if(_is == null || _sparseLen >= _is.length) {
+      append2slowstr();
+      addStrRef(off);
+      return;
+    }
+    if(_id != null)_id[_sparseLen] = _len;
+    _is[_sparseLen] = off;
+    _sparseLen++;
+    set_len(_len + 1);
+    assert _sparseLen <= _len;
+  }
+
   // TODO: FIX isAllASCII test to actually inspect string contents
   public void addStr(Chunk c, long row) {
     if( c.isNA_abs(row) ) addNA();
@@ -1171,8 +1199,10 @@ public class NewChunk extends Chunk {
     byte mode = type();
     if( mode==Vec.T_BAD ) // ALL NAs, nothing to do
       return new C0DChunk(Double.NaN, _len);
-    if( mode==Vec.T_STR )
-      return new CStrChunk(_sslen, _ss, _sparseLen, _len, _id, _is);
+    if( mode==Vec.T_STR ) {
+      Chunk dict = CStrDictChunk.ENABLED ? CStrDictChunk.compress(_sslen, _ss, _sparseLen, _len, _id, _is) : null;
+      return dict != null ? dict : new CStrChunk(_sslen, _ss, _sparseLen, _len, _id, _is);
+    }
     boolean rerun=false;
     if(mode == Vec.T_CAT) {
       for(int i = 0; i< _sparseLen; i++ )
@@ -1234,9 +1264,10 @@ public class NewChunk extends Chunk {
       if(isConstant)
         return isInteger? new C0LChunk((long)constVal, _len): new C0DChunk(constVal,_len);
       if(!isInteger) {
-        return  (sparse || na_sparse)
-            ?new CXFChunk(bufD(isFloat?4:8,na_sparse))
-            :chunkD();
+        if(sparse || na_sparse)
+          return new CXFChunk(bufD(isFloat?4:8,na_sparse));
+        Chunk runs = chunkRunsD(_len << 3, countRunsD(_len << 3));
+        return runs != null ? runs : chunkD();
       }
       // Else flip to longs
       _ms = new Mantissas(_ds.length);
@@ -1281,8 +1312,13 @@ public class NewChunk extends Chunk {
     int  xlo=Integer.MAX_VALUE, xhi=Integer.MIN_VALUE;
     boolean hasZero = sparse;
     long ll;
+    // Runs and delta blocks of dense data, for the run-length & delta layouts
+    Runs runs = sparse || na_sparse || (!CRLEChunk.ENABLED && !CDeltaChunk.ENABLED) ? null : new Runs(_len);
     for(int i = 0; i< _sparseLen; i++ ) {
-      if( isNA2(i) ) continue;
+      if( isNA2(i) ) {
+        if( runs != null ) runs.add(i, C8Chunk._NA, Double.NaN);
+        continue;
+      }
       long l = _ms.get(i);
       int  x = _xs.get(i);
       if( x==Integer.MIN_VALUE) x=0; // Replace categorical flag with no scaling
@@ -1290,9 +1326,10 @@ public class NewChunk extends Chunk {
       long t;                   // Remove extra scaling
       while( l!=0 && (t=l/10)*10==l ) { l=t; x++; }
       // Compute per-chunk min/max
-      double d = PrettyPrint.pow10(l,x);  // WARNING: this is lossy!!
+      double d = FastFloat.toDouble(l,x);
       if(d == 0) {
         hasZero = true;
+        if( runs != null ) runs.add(i, 0, d);
         continue;
       }
 
@@ -1304,9 +1341,11 @@ public class NewChunk extends Chunk {
         if( ll<min_l ) { min = d; min_l=ll; llo=l; xlo=x; } //
         if( ll>max_l ) { max = d; max_l=ll; lhi=l; xhi=x; }
       } else {
+        ll = 0;                 // Integer runs & deltas no longer used
         if (d < min) { min = d; llo = l; xlo = x; }
         if (d > max) { max=d; lhi=l; xhi=x; }
       }
+      if( runs != null ) runs.add(i, ll, d);
 
       floatOverflow = l < Integer.MIN_VALUE+1 || l > Integer.MAX_VALUE;
       xmin = Math.min(xmin,x);
@@ -1390,9 +1429,13 @@ public class NewChunk extends Chunk {
     // uniform, so we scale up the largest lmax by the largest scale we need
     // and if that fits in a byte/short - then it's worth compressing.  Other
     // wise we just flip to a float or double representation.
-    if( overflow || (fpoint && floatOverflow) || -35 > xmin || xmin > 35 )
-      return chunkD();
+    if( overflow || (fpoint && floatOverflow) || -35 > xmin || xmin > 35 ) {
+      Chunk rle = runs == null ? null : chunkRunsD(_len << 3, runs._nrunsD);
+      return rle != null ? rle : chunkD();
+    }
     if( fpoint ) {
+      Chunk rle = runs == null ? null : chunkRunsD(_len << (leRange < 255 ? 0 : leRange < 65535 ? 1 : leRange < 4294967295l ? 2 : 3), runs._nrunsD);
+      if( rle != null ) return rle;
       if( (int)lemin == lemin && (int)lemax == lemax ) {
         if(leRange < 255) { // Fits in scaled biased byte?
           return new C1SChunk(bufX(lemin, xmin, CSChunk._OFF, 0), lemin, xmin);
@@ -1409,6 +1452,12 @@ public class NewChunk extends Chunk {
       return chunkD();
     } // else an integer column
 
+    // Long runs of the same value, or values close to their neighbours (sorted
+    // timestamps, sequence ids)?  Compare against the fixed-width layout below.
+    int log = leRange < 255 ? 0 : leRange < 65535 ? 1 : (Integer.MIN_VALUE < min && max <= Integer.MAX_VALUE) ? 2 : 3;
+    Chunk rle = runs == null ? null : chunkRunsOrDeltas(_len << log, runs);
+    if( rle != null ) return rle;
+
     // Compress column into a byte
     if(xmin == 0 &&  0<=lemin && lemax <= 255 && ((_naCnt + _catCnt)==0) )
       return new C1NChunk( bufX(0,0,C1NChunk._OFF,0));
@@ -1536,7 +1585,82 @@ public class NewChunk extends Chunk {
   private double getDouble(int j){
     if(_ds != null) return _ds[j];
     if(isNA2(j)|| isCategorical(j)) return Double.NaN;
-    return PrettyPrint.pow10(_ms.get(j),_xs.get(j));
+    return FastFloat.toDouble(_ms.get(j),_xs.get(j));
+  }
+
+  // Value of the j-th element of integer data, as written by bufX(0,0,..)
+  private long longValue(int j) {
+    int x = _xs.get(j)==Integer.MIN_VALUE+1 ? 0 : _xs.get(j);
+    return _ms.get(j)*PrettyPrint.pow10i(x);
+  }
+
+  // Runs of equal values and the spans of the delta blocks of dense data,
+  // gathered by the rollup loop of compress2 as it visits each row.
+  private static final class Runs {
+    final int _len;
+    int _nruns, _nrunsD;        // Runs of equal longs, and of equal doubles
+    long _prev, _span;          // Widest span of a delta block so far
+    double _prevD;
+    long _bmin = Long.MAX_VALUE, _bmax = Long.MIN_VALUE; // Current delta block
+    Runs(int len) { _len = len; }
+    // Row i, as a long if integer data (C8Chunk._NA for NA), and as a double
+    void add(int i, long v, double d) {
+      if( i == 0 || v != _prev ) _nruns++;
+      if( i == 0 || !CRLEChunk.sameDouble(d, _prevD) ) _nrunsD++;
+      _prev = v;
+      _prevD = d;
+      if( v != C8Chunk._NA ) {
+        if( v < _bmin ) _bmin = v;
+        if( v > _bmax ) _bmax = v;
+      }
+      if( (i & (CDeltaChunk.BLOCK-1)) == CDeltaChunk.BLOCK-1 || i == _len-1 ) { // end of a delta block
+        if( _bmin <= _bmax ) {
+          long s = _bmax - _bmin;
+          _span = s < 0 ? Long.MAX_VALUE : Math.max(_span, s);
+        }
+        _bmin = Long.MAX_VALUE; _bmax = Long.MIN_VALUE;
+      }
+    }
+  }
+
+  // Run-length or frame-of-reference-delta layout for dense integer data; null
+  // unless clearly smaller than the fixed-width layout of fixedSize bytes.
+  private Chunk chunkRunsOrDeltas(int fixedSize, Runs runs) {
+    assert _id == null;
+    int log = 0;
+    while( log < CDeltaChunk.MAX_SPAN.length && runs._span > CDeltaChunk.MAX_SPAN[log] ) log++;
+    long rleSize = CRLEChunk.ENABLED ? CRLEChunk.computeByteSize(runs._nruns) : Long.MAX_VALUE;
+    long deltaSize = CDeltaChunk.ENABLED && log < CDeltaChunk.MAX_SPAN.length ? CDeltaChunk.computeByteSize(_len, log) : Long.MAX_VALUE;
+    if( Math.min(rleSize, deltaSize) >= 0.8 * fixedSize ) return null;
+    long[] vals = MemoryManager.malloc8(_len);
+    for( int i = 0; i < _len; i++ )
+      vals[i] = isNA2(i) ? C8Chunk._NA : longValue(i);
+    return rleSize <= deltaSize ? new CRLEChunk(vals, _len, runs._nruns) : new CDeltaChunk(vals, _len, log);
+  }
+
+  // Runs of equal doubles in _ds, counted until too many for chunkRunsD to
+  // pick the run-length layout over one of fixedSize bytes
+  private int countRunsD(int fixedSize) {
+    if( !CRLEChunk.ENABLED ) return _len;
+    int nruns = 1;
+    for( int i = 1; i < _len; i++ )
+      if( !CRLEChunk.sameDouble(_ds[i], _ds[i-1]) && CRLEChunk.computeByteSize(++nruns) >= 0.8 * fixedSize )
+        break;
+    return nruns;
+  }
+
+  // Run-length layout for dense floating point data of nruns runs; null unless
+  // clearly smaller than the layout of fixedSize bytes.
+  private Chunk chunkRunsD(int fixedSize, int nruns) {
+    if( !CRLEChunk.ENABLED || CRLEChunk.computeByteSize(nruns) >= 0.8 * fixedSize ) return null;
+    assert _id == null;
+    double[] vals = MemoryManager.malloc8d(_len);
+    nruns = 0;                  // Counted again on the values stored
+    for( int i = 0; i < _len; i++ ) {
+      vals[i] = getDouble(i);
+      if( i == 0 || !CRLEChunk.sameDouble(vals[i], vals[i-1]) ) nruns++;
+    }
+    return new CRLEChunk(vals, _len, nruns);
   }
 
   // Compute a compressed double buffer
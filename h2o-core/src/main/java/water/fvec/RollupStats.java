@@ -12,9 +12,15 @@ import water.nbhm.NonBlockingHashMap;
 import water.parser.Categorical;
 import water.parser.BufferedString;
 import water.util.ArrayUtils;
+import water.util.HyperLogLog;
+import water.util.KllSketch;
 import water.util.Log;
+import water.util.UnsafeUtils;
 
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
 
 /** A class to compute the rollup stats.  These are computed lazily, thrown
  *  away if the Vec is written into, and then recomputed lazily.  Error to ask
@@ -26,6 +32,11 @@ import java.util.Arrays;
  *  rollup work and final results.  Winner of a DKV CAS/PutIfMatch race gets to
  *  manage the M/R job computing the rollups.  Losers block for the same
  *  rollup.  Remote requests *always* forward to the Rollup Key's master.
+ *
+ *  The rollups of every chunk are kept too, in a {@link ChunkRollups} next to
+ *  the Vec rollups.  Writing into a chunk clears just that chunk's entry, so
+ *  after a small edit the rollups are recomputed by rolling up the modified
+ *  chunks only, and merging them with the kept ones.
  */
 final class RollupStats extends Iced {
   /** The count of missing elements.... or -2 if we have active writers and no
@@ -35,6 +46,12 @@ final class RollupStats extends Iced {
 
   volatile transient ForkJoinTask _tsk;
 
+  /** Keep the per-chunk rollups, to recompute only the modified chunks after a write */
+  static final boolean INCREMENTAL = H2O.getSysBoolProperty("rollups.incremental", true);
+  /** Past this many modified chunks (or a quarter of the chunks) the per-chunk
+   *  rollups are dropped and the rollups are computed from scratch */
+  static final int MAX_DIRTY_CHUNKS = 32;
+
   // Computed in 1st pass
   volatile long _naCnt; //count(isNA(X))
   double _mean, _sigma; //mean(X) and sqrt(sum((X-mean(X))^2)) for non-NA values
@@ -56,6 +73,10 @@ final class RollupStats extends Iced {
   volatile long[] _bins;
   // Approximate data value closest to the Xth percentile
   double[] _pctiles;
+  // Mergeable sketches, computed in the same pass as the histogram: the
+  // distinct count and the quantiles at any probability
+  HyperLogLog _hll;
+  KllSketch _kll;
 
   public boolean hasHisto(){return _bins != null;}
 
@@ -272,33 +293,7 @@ final class RollupStats extends Iced {
     Roll( H2OCountedCompleter cmp, Key rskey ) { super(cmp); _rskey=rskey; }
     @Override public void map( Chunk c ) { _rs = new RollupStats(0).map(c); }
     @Override public void reduce( Roll roll ) { _rs.reduce(roll._rs); }
-    @Override public void postGlobal() {
-      if( _rs == null )
-        _rs = new RollupStats(0);
-      else {
-        _rs._sigma = Math.sqrt(_rs._sigma/(_rs._rows-1));
-        if (_rs._rows == 1) _rs._sigma = 0;
-        if (_rs._rows < 5) for (int i=0; i<5-_rs._rows; i++) {  // Fix PUBDEV-150 for files under 5 rows
-          _rs._maxs[4-i] = Double.NaN;
-          _rs._mins[4-i] = Double.NaN;
-        }
-      }
-      // mean & sigma not allowed on more than 2 classes; for 2 classes the assumption is that it's true/false
-      Vec vec = _fr.anyVec();
-      String[] ss = vec.domain();
-      if( vec.isCategorical() && ss.length > 2 )
-        _rs._mean = _rs._sigma = Double.NaN;
-      if( ss != null ) {
-        long dsz = (2/*hdr*/+1/*len*/+ss.length)*8;  // Size of base domain array
-        for( String s : vec.domain() )
-          if( s != null )
-            dsz += 2*s.length() + (2/*hdr*/+1/*value*/+1/*hash*/+2/*hdr*/+1/*len*/)*8;
-        _rs._size += dsz;             // Account for domain size in Vec size
-        // Account for Chunk key size
-        int keysize = (2/*hdr*/+1/*kb*/+1/*hash*/+2/*hdr*/+1/*len*/)*8+ vec._key._kb.length;
-        _rs._size += vec.nChunks()*(keysize*4/*key+value ptr in DKV, plus 50% fill rate*/);
-      }
-    }
+    @Override public void postGlobal() { _rs = finish(_rs, _fr.anyVec()); }
     // Just toooo common to report always.  Drowning in multi-megabyte log file writes.
     @Override public boolean logVerbose() { return false; }
 
@@ -312,6 +307,157 @@ final class RollupStats extends Iced {
     }
   }
 
+  // Turn the reduced chunk rollups into the rollups of the Vec (rs is null for a Vec without chunks)
+  private static RollupStats finish(RollupStats rs, Vec vec) {
+    if( rs == null )
+      rs = new RollupStats(0);
+    else {
+      rs._sigma = Math.sqrt(rs._sigma/(rs._rows-1));
+      if (rs._rows == 1) rs._sigma = 0;
+      if (rs._rows < 5) for (int i=0; i<5-rs._rows; i++) {  // Fix PUBDEV-150 for files under 5 rows
+        rs._maxs[4-i] = Double.NaN;
+        rs._mins[4-i] = Double.NaN;
+      }
+    }
+    // mean & sigma not allowed on more than 2 classes; for 2 classes the assumption is that it's true/false
+    String[] ss = vec.domain();
+    if( vec.isCategorical() && ss.length > 2 )
+      rs._mean = rs._sigma = Double.NaN;
+    if( ss != null ) {
+      long dsz = (2/*hdr*/+1/*len*/+ss.length)*8;  // Size of base domain array
+      for( String s : vec.domain() )
+        if( s != null )
+          dsz += 2*s.length() + (2/*hdr*/+1/*value*/+1/*hash*/+2/*hdr*/+1/*len*/)*8;
+      rs._size += dsz;             // Account for domain size in Vec size
+      // Account for Chunk key size
+      int keysize = (2/*hdr*/+1/*kb*/+1/*hash*/+2/*hdr*/+1/*len*/)*8+ vec._key._kb.length;
+      rs._size += vec.nChunks()*(keysize*4/*key+value ptr in DKV, plus 50% fill rate*/);
+    }
+    return rs;
+  }
+
+  /** Rollups of each chunk of a Vec; a null entry is a modified chunk to roll up again */
+  static final class ChunkRollups extends Iced<ChunkRollups> {
+    RollupStats[] _chunks;      // null if dropped, after too many modified chunks
+    ChunkRollups(RollupStats[] chunks) { _chunks = chunks; }
+    int dirtyCnt() {
+      int n = 0;
+      for( RollupStats rs : _chunks ) if( rs == null ) n++;
+      return n;
+    }
+  }
+
+  // Rolls up single chunks, each on its home node
+  private static class ChunkRoll extends MRTask<ChunkRoll> {
+    final Key<Vec> _vecKey;
+    int[] _cidxs;
+    RollupStats[] _rss;
+    ChunkRoll( Key<Vec> vecKey ) { _vecKey = vecKey; }
+    @Override public void map( Key key ) {
+      Vec vec = DKV.getGet(_vecKey);
+      int cidx = UnsafeUtils.get4(key._kb, 1 + 1 + 4);
+      RollupStats rs = new RollupStats(0).map(vec.chunkForChunkIdx(cidx));
+      rs._pctiles = null;       // Never used for a single chunk
+      _cidxs = new int[]{cidx};
+      _rss = new RollupStats[]{rs};
+    }
+    @Override public void reduce( ChunkRoll cr ) {
+      _cidxs = ArrayUtils.append(_cidxs, cr._cidxs);
+      _rss = ArrayUtils.append(_rss, cr._rss);
+    }
+    @Override public boolean logVerbose() { return false; }
+  }
+
+  // Chunks written into on this node whose rollups are not forgotten yet,
+  // per Vec Key.  Recording a write is node-local; the per-chunk rollups are
+  // only cleared in one batch per Vec once the writing task is done on this
+  // node, see flushModified.  Rollups cannot be computed until then, the Vec
+  // is mutating.
+  private static final class Dirty {
+    final BitSet _cidxs = new BitSet();
+    boolean _all;               // Written into in unknown places
+  }
+  private static final HashMap<Key, Dirty> DIRTY = new HashMap<>(); // guarded by itself
+
+  private static Dirty dirty( Vec vec ) {
+    Dirty d = DIRTY.get(vec._key);
+    if( d == null ) DIRTY.put(vec._key, d = new Dirty());
+    return d;
+  }
+
+  /** Forget the rollups of a chunk about to be written into. */
+  static void chunkModified( Vec vec, int cidx ) {
+    if( !INCREMENTAL ) return;
+    synchronized(DIRTY) { dirty(vec)._cidxs.set(cidx); }
+  }
+
+  /** Forget the rollups of all chunks, the Vec is written into in unknown places. */
+  static void chunksModified( Vec vec ) {
+    if( !INCREMENTAL ) return;
+    synchronized(DIRTY) { dirty(vec)._all = true; }
+  }
+
+  /** Clear the per-chunk rollups of all chunks written into on this node */
+  static void flushModified( Futures fs ) {
+    if( !INCREMENTAL ) return;
+    HashMap<Key, Dirty> dirty;
+    synchronized(DIRTY) {
+      if( DIRTY.isEmpty() ) return;
+      dirty = new HashMap<>(DIRTY);
+      DIRTY.clear();
+    }
+    for( Map.Entry<Key, Dirty> e : dirty.entrySet() )
+      clear(e.getKey(), e.getValue(), fs);
+  }
+
+  /** Clear the per-chunk rollups of the chunks of this Vec written into on this node */
+  static void flushModified( Vec vec, Futures fs ) {
+    if( !INCREMENTAL ) return;
+    Dirty d;
+    synchronized(DIRTY) { d = DIRTY.remove(vec._key); }
+    if( d != null ) clear(vec._key, d, fs);
+  }
+
+  private static void clear( Key vecKey, Dirty d, Futures fs ) {
+    int[] cidxs = d._all ? null : d._cidxs.stream().toArray();
+    fs.add(new ClearChunks(cidxs).fork(Vec.chunkRollupsKey(vecKey)));
+  }
+
+  /** Chunks were added at the end of the Vec, which had {@code nchunks}: the
+   *  rollups of the old chunks are kept, and only the new ones rolled up. */
+  static void chunksAppended( Vec vec, int nchunks, Futures fs ) {
+    DKV.remove(vec.rollupStatsKey(), fs);
+    if( !INCREMENTAL ) return;
+    Key crskey = vec.chunkRollupsKey();
+    Value val = DKV.get(crskey);
+    if( val == null ) return;
+    ChunkRollups crs = val.get(ChunkRollups.class);
+    if( crs._chunks == null || crs._chunks.length != nchunks ) DKV.remove(crskey, fs);
+    else DKV.put(crskey, new ChunkRollups(Arrays.copyOf(crs._chunks, vec.nChunks())), fs);
+  }
+
+  // Null out the rollups of the given chunks, or drop them all if too many
+  // are modified; a null cidxs drops them all
+  private static class ClearChunks extends TAtomic<ChunkRollups> {
+    final int[] _cidxs;
+    ClearChunks( int[] cidxs ) { _cidxs = cidxs; }
+    @Override protected ChunkRollups atomic( ChunkRollups old ) {
+      if( old == null || old._chunks == null ) return null;
+      if( _cidxs == null ) return new ChunkRollups(null);
+      RollupStats[] chunks = null;
+      for( int cidx : _cidxs ) {
+        if( cidx >= old._chunks.length ) return new ChunkRollups(null);
+        if( old._chunks[cidx] == null ) continue;
+        if( chunks == null ) chunks = old._chunks.clone();
+        chunks[cidx] = null;
+      }
+      if( chunks == null ) return null; // Already forgotten
+      ChunkRollups crs = new ChunkRollups(chunks);
+      int limit = Math.min(MAX_DIRTY_CHUNKS, old._chunks.length >> 2);
+      return crs.dirtyCnt() > limit ? new ChunkRollups(null) : crs;
+    }
+  }
+
   @Override
   public String toString() {
     return "RollupStats{" +
@@ -387,20 +533,35 @@ final class RollupStats extends Iced {
     final double _base, _stride; // Inputs
     final int _nbins;            // Inputs
     long[] _bins;                // Outputs
+    HyperLogLog _hll;
+    KllSketch _kll;
     Histo( H2OCountedCompleter cmp, RollupStats rs, int nbins ) { super(cmp);_base = rs.h_base(); _stride = rs.h_stride(nbins); _nbins = nbins; }
     @Override public void map( Chunk c ) {
       _bins = new long[_nbins];
+      _hll = new HyperLogLog();
+      _kll = new KllSketch();
       for( int i=c.nextNZ(-1); i< c._len; i=c.nextNZ(i) ) {
         double d = c.atd(i);
-        if( !Double.isNaN(d) ) _bins[idx(d)]++;
+        if( !Double.isNaN(d) ) {
+          _bins[idx(d)]++;
+          _hll.add(d);
+          _kll.add(d);
+        }
       }
       // Sparse?  We skipped all the zeros; do them now
-      if( c.isSparseZero() )
+      if( c.isSparseZero() && c._len > c.sparseLenZero() ) {
         _bins[idx(0.0)] += (c._len - c.sparseLenZero());
+        _hll.add(0.0);
+        _kll.add(0.0, c._len - c.sparseLenZero());
+      }
     }
     private int idx( double d ) { int idx = (int)((d-_base)/_stride); return Math.min(idx,_bins.length-1); }
 
-    @Override public void reduce( Histo h ) { ArrayUtils.add(_bins,h._bins); }
+    @Override public void reduce( Histo h ) {
+      ArrayUtils.add(_bins,h._bins);
+      if( _hll == null ) { _hll = h._hll; _kll = h._kll; }
+      else { _hll.merge(h._hll); _kll.merge(h._kll); }
+    }
     // Just toooo common to report always.  Drowning in multi-megabyte log file writes.
     @Override public boolean logVerbose() { return false; }
   }
@@ -414,12 +575,14 @@ final class RollupStats extends Iced {
   static final class ComputeRollupsTask extends DTask<ComputeRollupsTask>{
     final Key _vecKey;
     final Key _rsKey;
+    final Key _crsKey;
     final boolean _computeHisto;
 
     public ComputeRollupsTask(Vec v, boolean computeHisto){
       super((byte)(Thread.currentThread() instanceof H2O.FJWThr ? currThrPriority()+1 : H2O.MIN_HI_PRIORITY-3));
       _vecKey = v._key;
       _rsKey = v.rollupStatsKey();
+      _crsKey = v.chunkRollupsKey();
       _computeHisto = computeHisto;
     }
 
@@ -480,17 +643,18 @@ final class RollupStats extends Iced {
           fs.blockForPending();
           if(oldv == v){ // got the lock, compute the rollups
             try {
-              Roll r = new Roll(null, _rsKey).doAll(vec);
+              RollupStats rolled = roll(vec);
               // computed the stats, now compute histo if needed and install the response and quit
-              r._rs._checksum ^= vec.length();
+              rolled._checksum ^= vec.length();
               if (_computeHisto)
-                computeHisto(r._rs, vec, nnn);
+                computeHisto(rolled, vec, nnn);
               else
-                installResponse(nnn, r._rs);
+                installResponse(nnn, rolled);
               break;
             } catch (Exception e) {
               Log.err(e);
               cleanupStats(nnn);
+              if (INCREMENTAL) DKV.remove(_crsKey); // May have been rolled up before the Vec was modified
               throw e;
             }
           } // else someone else is modifying the rollups => try again
@@ -499,6 +663,36 @@ final class RollupStats extends Iced {
       tryComplete();
     }
 
+    // Roll up the Vec, only the chunks modified since the last rollups if the
+    // per-chunk rollups were kept.  The per-chunk rollups are stored before
+    // the Vec rollups are installed: a write racing with this computation
+    // fails the install, and the per-chunk rollups are removed again.
+    private RollupStats roll(Vec vec) {
+      if (!INCREMENTAL || vec.isVolatile())
+        return new Roll(null, _rsKey).doAll(vec)._rs;
+      int nchunks = vec.nChunks();
+      ChunkRollups crs = DKV.getGet(_crsKey);
+      boolean kept = crs != null && crs._chunks != null && crs._chunks.length == nchunks;
+      RollupStats[] chunks = kept ? crs._chunks.clone() : new RollupStats[nchunks];
+      int ndirty = 0;
+      for (RollupStats rs : chunks) if (rs == null) ndirty++;
+      if (ndirty > 0) {
+        Key[] keys = new Key[ndirty];
+        for (int i = 0, k = 0; i < nchunks; i++)
+          if (chunks[i] == null) keys[k++] = vec.chunkKey(i);
+        ChunkRoll cr = new ChunkRoll(vec._key).doAll(keys);
+        for (int i = 0; i < cr._cidxs.length; i++)
+          chunks[cr._cidxs[i]] = cr._rss[i];
+        DKV.put(_crsKey, new ChunkRollups(chunks));
+      }
+      RollupStats rs = null;
+      for (RollupStats c : chunks) {
+        if (rs == null) rs = new RollupStats(0);
+        rs.reduce(c);
+      }
+      return finish(rs, vec);
+    }
+
     private boolean cleanupStats(Value current) {
       Futures fs = new Futures();
       Value old = DKV.DputIfMatch(_rsKey, null, current, fs);
@@ -511,6 +705,10 @@ final class RollupStats extends Iced {
       // All NAs or non-math; histogram has zero bins
       if (rs._naCnt == vec.length() || vec.isUUID()) {
         rs._bins = new long[0];
+        if (!vec.isUUID()) {     // Empty sketches
+          rs._hll = new HyperLogLog();
+          rs._kll = new KllSketch();
+        }
         installResponse(nnn, rs);
         return;
       }
@@ -520,6 +718,10 @@ final class RollupStats extends Iced {
       assert rows > 0 : "rows = " + rows + ", vec.len() = " + vec.length() + ", naCnt = " + rs._naCnt;
       if (span == 0) {
         rs._bins = new long[]{rows};
+        rs._hll = new HyperLogLog();
+        rs._hll.add(rs._mins[0]);
+        rs._kll = new KllSketch();
+        rs._kll.add(rs._mins[0], rows);
         installResponse(nnn, rs);
         return;
       }
@@ -535,6 +737,8 @@ final class RollupStats extends Iced {
       long sum = ArrayUtils.sum(histo._bins);
       assert sum == rows:"expected " + rows + " rows, got " + sum;
       rs._bins = histo._bins;
+      rs._hll = histo._hll;
+      rs._kll = histo._kll;
       // Compute percentiles from histogram
       rs._pctiles = new double[Vec.PERCENTILES.length];
       int j = 0;                 // Histogram bin number
@@ -64,6 +64,10 @@ public class TransformWrappedVec extends WrappedVec {
     this(key, rowLayout, new AstTransformFactory(fun), masterVecKeys);
   }
 
+  public TransformFactory<?> getTransformFactory() { return _tf; }
+
+  public Key<Vec>[] getMasterVecKeys() { return _masterVecKeys; }
+
   public Vec makeVec() {
     Vec v  = new MRTask() {
       @Override public void map(Chunk c, NewChunk nc) {
@@ -78,11 +82,9 @@ public class TransformWrappedVec extends WrappedVec {
     Vec[] masterVecs = _masterVecs;
     if (masterVecs == null) {
       masterVecs = new Vec[_masterVecKeys.length];
+      Value[] vals = DKV.getAll(_masterVecKeys);
       for (int i = 0; i < masterVecs.length; i++) {
-        DKV.prefetch(_masterVecKeys[i]);
-      }
-      for (int i = 0; i < masterVecs.length; i++) {
-        masterVecs[i] = _masterVecKeys[i].get();
+        masterVecs[i] = vals[i] == null ? null : (Vec) vals[i].get();
       }
       _masterVecs = masterVecs; // publish fetched Vecs
     }
@@ -118,13 +120,52 @@ public class TransformWrappedVec extends WrappedVec {
     }
 
     @Override
-    public ChunkVisitor processRows(ChunkVisitor nc, int from, int to) {
-      throw H2O.unimpl();
+    public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
+      if (!(_t instanceof ColumnTransform)) {
+        for (int i = from; i < to; i++)
+          addValue(v, atd_impl(i));
+        return v;
+      }
+      double[] vals = getDoubles(ChunkBuffers.doubles(to - from), from, to, Double.NaN);
+      for (double d : vals)
+        addValue(v, d);
+      ChunkBuffers.release(vals);
+      return v;
+    }
+
+    @Override
+    public <T extends ChunkVisitor> T processRows(T v, int[] ids) {
+      for (int i : ids)
+        addValue(v, atd_impl(i));
+      return v;
+    }
+
+    private static void addValue(ChunkVisitor v, double d) {
+      if (Double.isNaN(d)) v.addNAs(1);
+      else v.addValue(d);
     }
 
+    // column transforms evaluate all rows of the range at once, from the bulk-decoded inputs
     @Override
-    public ChunkVisitor processRows(ChunkVisitor nc, int... rows) {
-      throw H2O.unimpl();
+    public double[] getDoubles(double[] vals, int from, int to, double NA) {
+      if (!(_t instanceof ColumnTransform)) {
+        for (int i = from; i < to; i++) {
+          double d = atd_impl(i);
+          vals[i - from] = Double.isNaN(d) ? NA : d;
+        }
+        return vals;
+      }
+      int len = to - from;
+      double[][] inputs = new double[_c.length][];
+      for (int i = 0; i < inputs.length; i++)
+        inputs[i] = _c[i].getDoubles(ChunkBuffers.doubles(len), from, to);
+      ((ColumnTransform) _t).apply(inputs, len, vals);
+      for (double[] in : inputs)
+        ChunkBuffers.release(in);
+      if (!Double.isNaN(NA))
+        for (int i = 0; i < len; i++)
+          if (Double.isNaN(vals[i])) vals[i] = NA;
+      return vals;
     }
 
     // applies the function to a row of doubles
@@ -136,7 +177,11 @@ public class TransformWrappedVec extends WrappedVec {
       return _t.apply();   // Make the call per-row
     }
 
-    @Override public long at8_impl(int idx) { throw H2O.unimpl(); }
+    @Override public long at8_impl(int idx) {
+      double d = atd_impl(idx);
+      if (Double.isNaN(d)) throw new IllegalArgumentException("at8_abs but value is missing");
+      return (long) d;
+    }
     @Override public boolean isNA_impl(int idx) { return Double.isNaN(atd_impl(idx)); }  // ouch, not quick! runs thru atd_impl
     // Returns true if the masterVec is missing, false otherwise
     @Override public boolean set_impl(int idx, long l)   { return false; }
@@ -157,6 +202,15 @@ public class TransformWrappedVec extends WrappedVec {
     double apply();
   }
 
+  /**
+   * A transform which can also be applied to a block of rows at once, it is
+   * given the inputs column-wise and writes the results of the first len
+   * rows into out.
+   */
+  public interface ColumnTransform extends Transform {
+    void apply(double[][] inputs, int len, double[] out);
+  }
+
   public abstract static class Function1DTransform implements Transform {
     private double _value;
     @Override
@@ -90,7 +90,8 @@ import java.util.UUID;
  *  #max}, {@link #mean}, {@link #sigma}, the count of missing elements ({@link
  *  #naCnt}) and non-zeros ({@link #nzCnt}), amongst other stats.  They are
  *  cleared if the Vec is modified and lazily recomputed after the modified Vec
- *  is closed.  Clearing the RollupStats cache is fairly expensive for
+ *  is closed; the rollups of the unmodified chunks are kept, so only the
+ *  modified chunks are rolled up again.  Clearing the RollupStats cache is fairly expensive for
  *  individual {@link #set} calls but is easy to amortize over a large count of
  *  writes; i.e., batch writing is efficient.  This is normally handled by the
  *  MRTask framework; the {@link Vec.Writer} framework allows
@@ -928,6 +929,26 @@ public class Vec extends Keyed<Vec> {
    *  @return A set of percentiles */
   public double[] pctiles() { return RollupStats.get(this, true)._pctiles;   }
 
+  /** Approximate count of the distinct non-NA values of the Vec, estimated
+   *  by a HyperLogLog sketch computed and cached with the histogram.  Close
+   *  to exact for small counts, within a few percent otherwise.
+   *  @return the approximate distinct count, or -1 for String and UUID columns */
+  public long approxCardinality() {
+    HyperLogLog hll = RollupStats.get(this, true)._hll;
+    return hll == null ? -1 : hll.estimate();
+  }
+
+  /** Approximate quantiles of the Vec at any probabilities, from a KLL
+   *  sketch computed and cached with the histogram.  Unlike {@link #pctiles}
+   *  the error is bounded in rank (about 2%), regardless of the spread of
+   *  the data.
+   *  @param probs probabilities, in [0,1]
+   *  @return the approximate quantiles, or null for String and UUID columns */
+  public double[] approxQuantiles(double... probs) {
+    KllSketch kll = RollupStats.get(this, true)._kll;
+    return kll == null ? null : kll.quantiles(probs);
+  }
+
 
   /** Compute the roll-up stats as-needed */
   private RollupStats rollupStats() { return RollupStats.get(this); }
@@ -968,8 +989,23 @@ public class Vec extends Keyed<Vec> {
   public void preWriting( ) {
     if( !writable() ) throw new IllegalArgumentException("Vector not writable");
     setMutating(rollupStatsKey());
+    if( !_volatile ) RollupStats.chunksModified(this); // Volatile Vecs keep no per-chunk rollups
   }
 
+  /** Begin writing into a single chunk of this Vec.  As {@link #preWriting()},
+   *  but the rollups of the other chunks are kept, and the next rollups only
+   *  need to roll up the modified chunks. */
+  void preWriting( int cidx ) {
+    if( !writable() ) throw new IllegalArgumentException("Vector not writable");
+    setMutating(rollupStatsKey());
+    RollupStats.chunkModified(this, cidx);
+  }
+
+  /** Forget the per-chunk rollups of all chunks written into on this node,
+   *  in one batch per Vec.  Done by every {@link MRTask} as its local work
+   *  completes, before the Vecs written into are allowed rollups again. */
+  public static void flushModifiedChunks( Futures fs ) { RollupStats.flushModified(fs); }
+
   /**
    * Marks the Vec as mutating. Vec needs to be marked as mutating whenever
    * it is modified ({@link #preWriting()}) or removed ({@link Keyed#remove_impl(Futures, boolean)}).
@@ -989,6 +1025,11 @@ public class Vec extends Keyed<Vec> {
   public Futures postWrite( Futures fs ) {
     // Get the latest rollups *directly* (do not compute them!).
     if (writable()) { // skip this for immutable vecs (like FileVec)
+      // Chunks written from this node forget their rollups before the Vec
+      // rollups can be computed again
+      Futures cfs = new Futures();
+      RollupStats.flushModified(this, cfs);
+      cfs.blockForPending();
       final Key rskey = rollupStatsKey();
       Value val = DKV.get(rollupStatsKey());
       if (val != null) {
@@ -1050,6 +1091,9 @@ public class Vec extends Keyed<Vec> {
     if( _rollupStatsKey==null ) _rollupStatsKey=chunkKey(-2);
     return _rollupStatsKey;
   }
+  // Per-chunk rollups, for the incremental RollupStats
+  Key chunkRollupsKey() { return chunkRollupsKey(_key); }
+  static Key chunkRollupsKey( Key vecKey ) { return chunkKey(vecKey, -3); }
 
   /** Get a Chunk's Value by index.  Basically the index-to-key map, plus the
    *  {@code DKV.get()}.  Warning: this pulls the data locally; using this call
@@ -1385,7 +1429,7 @@ public class Vec extends Keyed<Vec> {
     // Remove RollupStats
     new MRTask() {
       @Override public void setupLocal() {
-        for( Key k : keys ) if( k != null ) H2O.raw_remove(chunkKey(k,-2));
+        for( Key k : keys ) if( k != null ) { H2O.raw_remove(chunkKey(k,-2)); H2O.raw_remove(chunkKey(k,-3)); }
       }
     }.doAllNodes();
   }
@@ -0,0 +1,136 @@
+package water.fvec.persist;
+
+import water.fvec.Chunk;
+
+import java.io.*;
+
+/**
+ * Columnar on-disk layout of one chunk group (the Chunks of all Vecs of a
+ * Frame sharing the same chunk index).
+ *
+ * <pre>
+ *   [chunk bytes of column 0][chunk bytes of column 1]...[footer]
+ *   footer  := int ncols, ncols * (long offset, int length, UTF chunk class name)
+ *   trailer := long footerOffset, int version, int magic
+ * </pre>
+ *
+ * The chunk bytes are the raw compressed Chunk payload (exactly what the K/V
+ * store keeps in memory), so any single column can be read - or lazily paged
+ * in - with one positional read, without deserializing the rest of the group.
+ *
+ * The format is versioned by the trailer of each file, not by the frame
+ * metadata, so frames saved before (with the Chunks serialized one after the
+ * other by AutoBuffer, and no trailer) are still told apart and loaded.
+ */
+class ChunkGroupFile {
+
+  static final int VERSION = 2;
+  private static final int MAGIC = 0x48324f43; // "H2OC"
+  static final int TRAILER_SIZE = 8 + 4 + 4;
+
+  /** Location of the columns inside a chunk group file */
+  static class Footer {
+    final long[] offsets;
+    final int[] lengths;
+    final String[] chunkClasses;
+
+    Footer(int ncols) {
+      offsets = new long[ncols];
+      lengths = new int[ncols];
+      chunkClasses = new String[ncols];
+    }
+
+    int ncols() { return offsets.length; }
+  }
+
+  static void write(OutputStream os, Chunk[] chunks) throws IOException {
+    DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(os));
+    Footer footer = new Footer(chunks.length);
+    long off = 0;
+    for (int i = 0; i < chunks.length; i++) {
+      byte[] mem = chunks[i].asBytes();
+      dos.write(mem);
+      footer.offsets[i] = off;
+      footer.lengths[i] = mem.length;
+      footer.chunkClasses[i] = chunks[i].getClass().getName();
+      off += mem.length;
+    }
+    dos.writeInt(footer.ncols());
+    for (int i = 0; i < footer.ncols(); i++) {
+      dos.writeLong(footer.offsets[i]);
+      dos.writeInt(footer.lengths[i]);
+      dos.writeUTF(footer.chunkClasses[i]);
+    }
+    dos.writeLong(off);
+    dos.writeInt(VERSION);
+    dos.writeInt(MAGIC);
+    dos.flush();
+  }
+
+  /** True if the file ends with the trailer of this format; else it is a
+   *  chunk group saved in the AutoBuffer layout of older versions */
+  static boolean isColumnar(byte[] file) {
+    return file.length >= TRAILER_SIZE && magic(file, file.length - 4) == MAGIC;
+  }
+
+  static boolean isColumnar(RandomAccessFile raf) throws IOException {
+    long len = raf.length();
+    if (len < TRAILER_SIZE) return false;
+    raf.seek(len - 4);
+    return raf.readInt() == MAGIC;
+  }
+
+  private static int magic(byte[] b, int p) {
+    return (b[p] & 0xFF) << 24 | (b[p + 1] & 0xFF) << 16 | (b[p + 2] & 0xFF) << 8 | (b[p + 3] & 0xFF);
+  }
+
+  /** Read the footer of a chunk group file on the local file system */
+  static Footer readFooter(RandomAccessFile raf, String name) throws IOException {
+    long len = raf.length();
+    if (len < TRAILER_SIZE)
+      throw new IOException("Not a frame snapshot file: " + name);
+    raf.seek(len - TRAILER_SIZE);
+    long footerOffset = readTrailer(raf, name);
+    byte[] footer = new byte[(int) (len - TRAILER_SIZE - footerOffset)];
+    raf.seek(footerOffset);
+    raf.readFully(footer);
+    return parseFooter(new DataInputStream(new ByteArrayInputStream(footer)));
+  }
+
+  /** Read the footer of a chunk group file fully loaded into memory */
+  static Footer readFooter(byte[] file, String name) throws IOException {
+    if (file.length < TRAILER_SIZE)
+      throw new IOException("Not a frame snapshot file: " + name);
+    DataInputStream trailer = new DataInputStream(new ByteArrayInputStream(file, file.length - TRAILER_SIZE, TRAILER_SIZE));
+    long footerOffset = readTrailer(trailer, name);
+    return parseFooter(new DataInputStream(new ByteArrayInputStream(file, (int) footerOffset, file.length - TRAILER_SIZE - (int) footerOffset)));
+  }
+
+  private static long readTrailer(DataInput in, String name) throws IOException {
+    long footerOffset = in.readLong();
+    int version = in.readInt();
+    int magic = in.readInt();
+    if (magic != MAGIC)
+      throw new IOException("Not a frame snapshot file: " + name);
+    if (version != VERSION)
+      throw new IOException("Unsupported frame snapshot version " + version + " (expected " + VERSION + "): " + name);
+    return footerOffset;
+  }
+
+  private static Footer parseFooter(DataInputStream in) throws IOException {
+    Footer footer = new Footer(in.readInt());
+    for (int i = 0; i < footer.ncols(); i++) {
+      footer.offsets[i] = in.readLong();
+      footer.lengths[i] = in.readInt();
+      footer.chunkClasses[i] = in.readUTF();
+    }
+    return footer;
+  }
+
+  static byte[] column(byte[] file, Footer footer, int col) {
+    byte[] mem = new byte[footer.lengths[col]];
+    System.arraycopy(file, (int) footer.offsets[col], mem, 0, mem.length);
+    return mem;
+  }
+
+}
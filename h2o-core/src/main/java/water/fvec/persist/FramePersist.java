@@ -5,8 +5,14 @@ import water.*;
 import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.Vec;
+import water.persist.PersistManager;
 import water.util.FileUtils;
+import water.util.Log;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.net.URI;
 import java.util.HashSet;
 import java.util.Set;
@@ -129,16 +135,10 @@ public class FramePersist {
         public void map(Chunk[] cs) {
             URI dataUri = getDataUri(metaUri, cs[0].cidx());
             writtenFiles[cs[0].cidx()] = dataUri.toString();
-            PersistUtils.write(dataUri, ab -> writeChunks(ab, cs));
+            PersistUtils.writeBytes(dataUri, os -> ChunkGroupFile.write(os, cs));
             job.update(1);
         }
 
-        private void writeChunks(AutoBuffer autoBuffer, Chunk[] chunks) {
-            for (Chunk c : chunks) {
-                autoBuffer.put(c);
-            }
-        }
-
         @Override
         public void reduce(SaveChunksTask mrt) {
             for (int i = 0; i < writtenFiles.length; i++) {
@@ -153,13 +153,35 @@ public class FramePersist {
     }
 
     public static Job<Frame> loadFrom(Key<Frame> key, String uri) {
+        return loadFrom(key, uri, false);
+    }
+
+    /**
+     * Load a frame previously saved by {@link #saveTo(String, boolean)}.
+     *
+     * @param key key of the saved frame
+     * @param uri directory the frame was saved to
+     * @param lazy if true and the snapshot is on the local file system, chunks are not read upfront; 
+     *             they are paged in from the snapshot files on first access. The snapshot files need to 
+     *             stay in place for the lifetime of the loaded frame.
+     * @return job loading the frame
+     */
+    public static Job<Frame> loadFrom(Key<Frame> key, String uri, boolean lazy) {
         URI metaUri = getMetaUri(key, sanitizeUri(uri));
         FrameMeta meta = read(metaUri, AutoBuffer::get);
         if (meta.numNodes != H2O.CLOUD.size()) {
             throw new IllegalArgumentException("To load this frame a cluster with " + meta.numNodes + " nodes is needed.");
         }
+        if (lazy && !isLocalFile(metaUri)) {
+            Log.warn("Lazy frame loading is only supported for local file system, loading " + key + " eagerly.");
+            lazy = false;
+        }
         Job<Frame> job = new Job<>(meta.key, "water.fvec.Frame", "Load frame");
-        return job.start(new LoadFrameDriver(job, metaUri.toString(), meta), meta.espc.length-1);
+        return job.start(new LoadFrameDriver(job, metaUri.toString(), meta, lazy), meta.espc.length-1);
+    }
+
+    private static boolean isLocalFile(URI uri) {
+        return uri.getScheme() == null || PersistManager.Schemes.FILE.equals(uri.getScheme());
     }
 
     public static class LoadFrameDriver extends H2O.H2OCountedCompleter<LoadFrameDriver> {
@@ -167,15 +189,18 @@ public class FramePersist {
         private final Job<Frame> job;
         private final String metaUri;
         private final FrameMeta meta;
+        private final boolean lazy;
 
         public LoadFrameDriver(
             Job<Frame> job,
             String metaUri, 
-            FrameMeta meta
+            FrameMeta meta,
+            boolean lazy
         ) {
             this.job = job;
             this.metaUri = metaUri;
             this.meta = meta;
+            this.lazy = lazy;
         }
 
         @Override
@@ -186,7 +211,7 @@ public class FramePersist {
                 long nrow = meta.espc[meta.espc.length-1];
                 int nchunk = meta.espc.length-1;
                 con = Vec.makeConN(nrow, nchunk);
-                new LoadChunksTask(job, metaUri, vecKeys).doAll(con).join();
+                new LoadChunksTask(job, metaUri, vecKeys, lazy).doAll(con).join();
             } finally {
                 if (con != null) con.remove();
             }
@@ -211,27 +236,87 @@ public class FramePersist {
         private final Job<Frame> job;
         private final String metaUri;
         private final Key[] vecKeys;
+        private final boolean lazy;
 
-        LoadChunksTask(Job<Frame> job, String metaUri, Key[] vecKeys) {
+        LoadChunksTask(Job<Frame> job, String metaUri, Key[] vecKeys, boolean lazy) {
             this.job = job;
             this.metaUri = metaUri;
             this.vecKeys = vecKeys;
+            this.lazy = lazy;
         }
 
         @Override
         public void map(Chunk c) {
-            PersistUtils.read(getDataUri(metaUri, c.cidx()), ab -> readChunks(ab, c.cidx()));
+            URI dataUri = getDataUri(metaUri, c.cidx());
+            try {
+                if (lazy) {
+                    registerChunks(new File(dataUri), c.cidx());
+                } else {
+                    readChunks(dataUri, c.cidx());
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read " + dataUri, e);
+            }
             job.update(1);
         }
 
         @SuppressWarnings("rawtypes")
-        private int readChunks(AutoBuffer autoBuffer, int cidx) {
+        private void readChunks(URI dataUri, int cidx) throws IOException {
+            byte[] data = PersistUtils.readBytes(dataUri);
+            if (!ChunkGroupFile.isColumnar(data)) {
+                readLegacyChunks(data, cidx);
+                return;
+            }
+            ChunkGroupFile.Footer footer = ChunkGroupFile.readFooter(data, dataUri.toString());
+            checkColumnCount(footer, dataUri);
+            for (int i = 0; i < vecKeys.length; i++) {
+                Key chunkKey = Vec.chunkKey(vecKeys[i], cidx);
+                byte[] mem = ChunkGroupFile.column(data, footer, i);
+                short type = (short) TypeMap.onIce(footer.chunkClasses[i]);
+                DKV.put(chunkKey, new Value(chunkKey, mem.length, mem, type, Value.ICE));
+            }
+        }
+
+        // Chunks saved one after the other by AutoBuffer, by older versions
+        @SuppressWarnings("rawtypes")
+        private void readLegacyChunks(byte[] data, int cidx) {
+            AutoBuffer ab = new AutoBuffer(new ByteArrayInputStream(data));
             for (Key k : vecKeys) {
                 Key chunkKey = Vec.chunkKey(k, cidx);
-                Chunk chunk = autoBuffer.get();
+                Chunk chunk = ab.get();
                 DKV.put(chunkKey, new Value(chunkKey, chunk));
             }
-            return vecKeys.length;
+            ab.close();
+        }
+
+        // Put empty, already-persisted Values into the DKV; their bytes are
+        // paged in from the snapshot file on first access.  Only the home node
+        // of a chunk serves it from its index, so the chunks homed elsewhere
+        // (and the files of older versions) are read upfront.
+        @SuppressWarnings("rawtypes")
+        private void registerChunks(File dataFile, int cidx) throws IOException {
+            ChunkGroupFile.Footer footer;
+            try (RandomAccessFile raf = new RandomAccessFile(dataFile, "r")) {
+                if (!ChunkGroupFile.isColumnar(raf) || !Vec.chunkKey(vecKeys[0], cidx).home()) {
+                    readChunks(dataFile.toURI(), cidx);
+                    return;
+                }
+                footer = ChunkGroupFile.readFooter(raf, dataFile.toString());
+            }
+            checkColumnCount(footer, dataFile.toURI());
+            for (int i = 0; i < vecKeys.length; i++) {
+                Key chunkKey = Vec.chunkKey(vecKeys[i], cidx);
+                short type = (short) TypeMap.onIce(footer.chunkClasses[i]);
+                H2O.getPM().registerSnapshotChunk(chunkKey, dataFile, footer.offsets[i], footer.lengths[i]);
+                Value v = new Value(chunkKey, footer.lengths[i], null, type, Value.ICE);
+                v.setDsk();
+                DKV.put(chunkKey, v);
+            }
+        }
+
+        private void checkColumnCount(ChunkGroupFile.Footer footer, URI dataUri) throws IOException {
+            if (footer.ncols() != vecKeys.length)
+                throw new IOException("Expected " + vecKeys.length + " columns in " + dataUri + " but found " + footer.ncols());
         }
 
     }
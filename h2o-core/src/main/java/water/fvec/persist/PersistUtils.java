@@ -1,5 +1,6 @@
 package water.fvec.persist;
 
+import org.apache.commons.io.IOUtils;
 import water.AutoBuffer;
 import water.H2O;
 import water.persist.Persist;
@@ -64,6 +65,24 @@ public class PersistUtils {
         }
     }
 
+    public static void writeBytes(URI uri, ByteWriter w) {
+        final Persist persist = H2O.getPM().getPersistForURI(uri);
+        try (final OutputStream outputStream = persist.create(uri.toString(), true)) {
+            w.write(outputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write to " + uri, e);
+        }
+    }
+
+    public static byte[] readBytes(URI uri) {
+        final Persist persist = H2O.getPM().getPersistForURI(uri);
+        try (final InputStream inputStream = persist.open(uri.toString())) {
+            return IOUtils.toByteArray(inputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read from " + uri, e);
+        }
+    }
+
     public static boolean exists(URI uri) {
         final Persist persist = H2O.getPM().getPersistForURI(uri);
         return persist.exists(uri.toString());
@@ -81,6 +100,10 @@ public class PersistUtils {
         void write(OutputStreamWriter w) throws IOException;
     }
 
+    public interface ByteWriter {
+        void write(OutputStream os) throws IOException;
+    }
+
     public interface StreamReader<T> {
         T read(InputStreamReader r) throws IOException;
     }
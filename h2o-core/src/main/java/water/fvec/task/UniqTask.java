@@ -10,6 +10,11 @@ public class UniqTask extends MRTask<UniqTask> {
   private IcedHashSet<IcedDouble> _uniq;
   private boolean _na;
 
+  @Override
+  protected boolean isMapReadOnly() {
+    return true;
+  }
+
   @Override
   public void map(Chunk[] c) {
     _uniq = new IcedHashSet<>();
@@ -1,5 +1,6 @@
 package water.init;
 
+import water.AutoBuffer;
 import water.H2O;
 import water.H2ONode;
 import water.TCPReceiverThread;
@@ -351,13 +352,15 @@ public class NetworkInit {
 
       Set<H2ONode> nodes = H2O.getFlatfile();
       nodes.addAll(water.Paxos.PROPOSED.values());
+      // Each sending thread takes over and recycles the buffer it is given,
+      // so every node gets its own pooled copy
       bb.mark();
       for( H2ONode h2o : nodes ) {
         if(h2o.isRemovedFromCloud()) {
           continue;
         }
         bb.reset();
-        h2o.sendMessage(bb, priority);
+        h2o.sendMessage(AutoBuffer.copySmall(bb), priority);
       }
     }
   }
@@ -0,0 +1,188 @@
+package water.network;
+
+import water.H2O;
+import water.nbhm.NonBlockingHashMap;
+import water.util.LZ4Codec;
+import water.util.PrettyPrint;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A wrapper around a node-to-node TCP channel (raw or SSL/TLS) which
+ * compresses the written bytes with {@link LZ4Codec}, block by block.
+ *
+ * Each block goes on the wire as an 8-byte header - the raw length and the
+ * stored length - followed by the stored bytes.  A block is stored as-is
+ * (bypassed) when it is small, or when compressing it saves less than an
+ * eighth; after a bypassed block the next few blocks are not even tried, with
+ * an exponential backoff, so incompressible payloads cost little CPU.
+ *
+ * Compression is negotiated per channel: the sender opens the channel with
+ * the TCP_BIG_COMPRESSED type, and the receiver wraps its end in turn.  Only
+ * channels for big (TCP-sized) messages are ever compressed; small messages
+ * go by UDP or the small-messages channel, as before.
+ *
+ * A channel is used by one thread at a time, like any pooled TCP channel.
+ */
+public class CompressedByteChannel implements ByteChannel {
+
+  /** Compress the big TCP messages sent by this node */
+  public static final boolean ENABLED = H2O.getSysBoolProperty("tcp.compress", true);
+  /** Blocks smaller than this are always sent as-is */
+  static final int MIN_BLOCK = 1024;
+  static final int MAX_BLOCK = 1 << 16;
+  private static final int HEADER = 8;
+  private static final int MAX_BACKOFF = 64;
+
+  private final ByteChannel _chan;
+  private final LZ4Codec _codec = new LZ4Codec();
+  private final byte[] _raw = new byte[MAX_BLOCK];
+  private final byte[] _comp = new byte[HEADER + LZ4Codec.maxCompressedLength(MAX_BLOCK)];
+  private final ByteBuffer _compBB = ByteBuffer.wrap(_comp);
+  private int _rawPos, _rawLim;   // Decompressed bytes not read yet
+  private int _skip, _backoff;    // Blocks not to try compressing
+  private Stats _stats = stats("other");
+
+  public CompressedByteChannel(ByteChannel chan) { _chan = chan; }
+
+  ByteChannel channel() { return _chan; }
+
+  /** Start a new message; its blocks are recorded under the given type */
+  public void startMessage(String type) {
+    _stats = stats(type);
+    _stats._msgs.incrementAndGet();
+  }
+
+  @Override public boolean isOpen() { return _chan.isOpen(); }
+  @Override public void close() throws IOException { _chan.close(); }
+
+  @Override public int write(ByteBuffer src) throws IOException {
+    int n = src.remaining();
+    while( src.hasRemaining() ) {
+      int len = Math.min(src.remaining(), MAX_BLOCK);
+      src.get(_raw, 0, len);
+      writeBlock(len);
+    }
+    return n;
+  }
+
+  private void writeBlock(int len) throws IOException {
+    long ns = System.nanoTime();
+    int clen = len;
+    if( len >= MIN_BLOCK && _skip > 0 ) _skip--;
+    else if( len >= MIN_BLOCK ) {
+      clen = _codec.compress(_raw, 0, len, _comp, HEADER);
+      if( clen > len - (len >>> 3) ) {  // Not worth it: bypass, and back off
+        clen = len;
+        _skip = _backoff = Math.min(MAX_BACKOFF, Math.max(1, _backoff << 1));
+        _stats._bypassed.incrementAndGet();
+      } else
+        _backoff = _skip = 0;
+    }
+    if( clen == len ) System.arraycopy(_raw, 0, _comp, HEADER, len);
+    _compBB.clear();
+    _compBB.putInt(len).putInt(clen).position(0).limit(HEADER + clen);
+    _stats._nanos.addAndGet(System.nanoTime() - ns);
+    _stats._raw.addAndGet(len);
+    _stats._wire.addAndGet(HEADER + clen);
+    while( _compBB.hasRemaining() )
+      _chan.write(_compBB);
+  }
+
+  @Override public int read(ByteBuffer dst) throws IOException {
+    if( _rawPos == _rawLim && !readBlock() ) return -1;
+    int n = Math.min(dst.remaining(), _rawLim - _rawPos);
+    dst.put(_raw, _rawPos, n);
+    _rawPos += n;
+    return n;
+  }
+
+  // Read and decompress the next block; false at the end of the stream
+  private boolean readBlock() throws IOException {
+    _compBB.clear().limit(HEADER);
+    if( !readFully(true) ) return false;
+    int len = _compBB.getInt(0), clen = _compBB.getInt(4);
+    if( len < 0 || len > MAX_BLOCK || clen < 0 || clen > len )
+      throw new IOException("Communication protocol failure: bad compressed block header, " + len + " bytes stored in " + clen);
+    _compBB.clear().limit(clen);
+    if( clen == len ) {         // Stored as-is
+      readFully(ByteBuffer.wrap(_raw, 0, len));
+    } else {
+      readFully(false);
+      try {
+        LZ4Codec.decompress(_comp, 0, clen, _raw, 0, len);
+      } catch( IllegalArgumentException e ) {
+        throw new IOException("Communication protocol failure: " + e.getMessage());
+      }
+    }
+    _rawPos = 0;
+    _rawLim = len;
+    return true;
+  }
+
+  private boolean readFully(boolean eofOk) throws IOException {
+    int n = 0;
+    while( _compBB.hasRemaining() ) {
+      int res = _chan.read(_compBB);
+      if( res < 0 ) {
+        if( eofOk && n == 0 ) return false;
+        throw new EOFException("Reading a compressed block, got " + n + " bytes of " + (n + _compBB.remaining()));
+      }
+      n += res;
+    }
+    return true;
+  }
+
+  private void readFully(ByteBuffer bb) throws IOException {
+    while( bb.hasRemaining() )
+      if( _chan.read(bb) < 0 )
+        throw new EOFException("Reading a stored block, missing " + bb.remaining() + " bytes");
+  }
+
+  // ---
+  // Compression stats of the sent messages, by message type
+
+  private static final NonBlockingHashMap<String, Stats> STATS = new NonBlockingHashMap<>();
+
+  static final class Stats {
+    final AtomicLong _msgs = new AtomicLong(), _raw = new AtomicLong(), _wire = new AtomicLong(),
+        _nanos = new AtomicLong(), _bypassed = new AtomicLong();
+    /** @return raw bytes over bytes on the wire */
+    double ratio() { long w = _wire.get(); return w == 0 ? 1 : (double) _raw.get() / w; }
+  }
+
+  private static Stats stats(String type) {
+    Stats s = STATS.get(type);
+    if( s == null ) {
+      STATS.putIfAbsent(type, new Stats());
+      s = STATS.get(type);
+    }
+    return s;
+  }
+
+  /** @return the compression ratio (raw bytes over wire bytes) of the messages
+   *  of this type sent from this node, 1 if none were compressed */
+  public static double compressionRatio(String type) {
+    Stats s = STATS.get(type);
+    return s == null ? 1 : s.ratio();
+  }
+
+  /** @return a table of the compression stats of the messages sent from this node */
+  public static String statsReport() {
+    StringBuilder sb = new StringBuilder("TCP compression by message type:\n");
+    for( Map.Entry<String, Stats> e : new TreeMap<>(STATS).entrySet() ) {
+      Stats s = e.getValue();
+      if( s._raw.get() == 0 ) continue;
+      sb.append(String.format("  %-40s msgs=%d raw=%s wire=%s ratio=%.2f time=%s bypassed=%d%n", e.getKey(),
+          s._msgs.get(), PrettyPrint.bytes(s._raw.get()), PrettyPrint.bytes(s._wire.get()), s.ratio(),
+          PrettyPrint.usecs(s._nanos.get() / 1000), s._bypassed.get()));
+    }
+    return sb.toString();
+  }
+}
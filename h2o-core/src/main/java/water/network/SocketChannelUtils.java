@@ -6,11 +6,16 @@ import java.nio.channels.SocketChannel;
 public class SocketChannelUtils {
 
     public static boolean isSocketChannel(Channel channel) {
+        if(channel instanceof CompressedByteChannel) {
+            return isSocketChannel(((CompressedByteChannel) channel).channel());
+        }
         return channel instanceof SocketChannel || channel instanceof SSLSocketChannel;
     }
 
     public static SocketChannel underlyingSocketChannel(Channel channel) {
-        if(channel instanceof SSLSocketChannel) {
+        if(channel instanceof CompressedByteChannel) {
+            return underlyingSocketChannel(((CompressedByteChannel) channel).channel());
+        } else if(channel instanceof SSLSocketChannel) {
             return ((SSLSocketChannel) channel).channel();
         } else if(channel instanceof SocketChannel) {
             return (SocketChannel) channel;
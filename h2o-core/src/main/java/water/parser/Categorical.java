@@ -39,7 +39,7 @@ public final class Categorical extends Iced {
     Integer res = m.get(str);
     if( res != null ) return res; // Recorded already
     assert str.length() < 65535; // Length limit so 65535 can be used as a sentinel
-    int newVal = _id.incrementAndGet();
+    int newVal = _id.getAndIncrement(); // Codes from 0, as in the final domain
     res = m.putIfAbsent(new BufferedString(str), newVal);
     if( res != null ) return res;
     if( m.size() > MAX_CATEGORICAL_COUNT) maxDomainExceeded = true;
@@ -52,7 +52,7 @@ public final class Categorical extends Iced {
 
   int getTokenId( BufferedString str ) { return _map.get(str); }
   
-  int maxId() { return _maxId == -1 ? _id.get() : _maxId; }
+  int maxId() { return _maxId == -1 ? _id.get() - 1 : _maxId; }
   int size() { return _map.size(); }
   boolean isMapFull() { return maxDomainExceeded; }
 
@@ -1,6 +1,7 @@
 package water.parser;
 
 import org.apache.commons.lang.math.NumberUtils;
+import water.H2O;
 import water.Key;
 import water.fvec.FileVec;
 import water.fvec.Vec;
@@ -22,6 +23,10 @@ public class CsvParser extends Parser {
 
   private final byte[] _nonDataLineMarkers; 
 
+  // Parse the clean lines off a structural index (see parseCleanLines).
+  // Not final, for tests
+  static boolean SWAR = H2O.getSysBoolProperty("parse.swar", true);
+
   CsvParser( ParseSetup ps, Key jobKey ) {
     this(ps, NON_DATA_LINE_MARKERS_DEFAULT, jobKey);
   }
@@ -91,6 +96,16 @@ public class CsvParser extends Parser {
       _setup.setParseColumnIndices(_setup.getNumberColumns(), _setup.getSkippedColumns());
     }
     int parseIndexNum = _setup._parse_columns_indices.length-1;
+
+    // Fast path: the lines up to the first one needing the state machine
+    if( SWAR && (state == POSSIBLE_EMPTY_LINE || state == SKIP_LINE) && swarSeparator() ) {
+      int start = parseCleanLines(bits, offset, state == SKIP_LINE, dout, forceable, colIndexNum, parseIndexNum);
+      if( start >= 0 ) {
+        offset = start;
+        state = POSSIBLE_EMPTY_LINE;
+        c = bits[offset];
+      }
+    }
 MAIN_LOOP:
     while (true) {
       final boolean forcedCategorical = forceable && colIdx < _setup._column_types.length &&
@@ -521,6 +536,234 @@ MAIN_LOOP:
     return dout;
   }
 
+  // Separators the fast path cannot tell from the bytes of a number or of the
+  // whitespace and structure it looks for
+  private boolean swarSeparator() {
+    final byte s = CHAR_SEPARATOR;
+    return s != CHAR_SPACE && !isEOL(s) && s != CHAR_DOUBLE_QUOTE && s != CHAR_SINGLE_QUOTE && s != CHAR_ESCAPE
+        && s != 0 && s != '$' && s != '%' && s != '+' && s != '-' && s != CHAR_DECIMAL_SEP
+        && !(s >= '0' && s <= '9') && !(s >= 'a' && s <= 'z') && !(s >= 'A' && s <= 'Z');
+  }
+
+  /**
+   * Fast path of {@link #parseChunk}: parses the lines from {@code offset} off
+   * a {@link StructuralIndex}, up to the first line which has a quote, an
+   * escape, a '$', a '%' or a NUL, or which does not end inside this chunk.
+   * The state machine takes over from the start of that line, in state
+   * POSSIBLE_EMPTY_LINE, so quoting and the lines crossing into the next chunk
+   * are handled as before.  The clean lines go to {@code dout} exactly as the
+   * state machine would send them, quirks included: the number states below
+   * are those of the state machine, on the bytes of one field.
+   *
+   * @param skipFirst skip the first line (the header, or the partial line
+   *                  parsed with the previous chunk)
+   * @return the start of the line for the state machine, or -1 if the first
+   *         line to skip does not end inside this chunk
+   */
+  private int parseCleanLines(final byte[] bits, int offset, boolean skipFirst, final ParseWriter dout,
+                              final boolean forceable, final int colIndexNum, final int parseIndexNum) {
+    final byte quoteChar = _setup._single_quotes ? CHAR_SINGLE_QUOTE : CHAR_DOUBLE_QUOTE;
+    final StructuralIndex idx = new StructuralIndex(bits, offset, CHAR_SEPARATOR, quoteChar, CHAR_ESCAPE);
+    final BufferedString str = new BufferedString();
+    final int len = bits.length;
+    int[] seps = new int[16];   // Separators of the current line
+    while( true ) {
+      final int start = offset;
+      // The separators of the line, up to its end
+      int nseps = 0, eol = -1;
+      boolean clean = true;
+      for( int q; (q = idx.next()) >= 0; ) {
+        byte b = bits[q];
+        if( b == CHAR_SEPARATOR ) {
+          if( nseps == seps.length ) seps = Arrays.copyOf(seps, nseps << 1);
+          seps[nseps++] = q;
+        } else if( isEOL(b) ) {
+          eol = q;
+          break;
+        } else clean = false;
+      }
+      if( eol < 0 ) return skipFirst ? -1 : start;
+      int next = eol + 1;
+      if( bits[eol] == CHAR_CR ) {
+        if( next == len ) return skipFirst ? -1 : start;
+        if( bits[next] == CHAR_LF ) { idx.next(); next++; }
+      }
+      if( next >= len ) return skipFirst ? -1 : start;
+      offset = next;
+      if( skipFirst ) { skipFirst = false; continue; }
+
+      // POSSIBLE_EMPTY_LINE: skip the leading whitespace, the empty lines and
+      // the comments
+      int p = start;
+      byte c;
+      while( !isEOL(c = bits[p]) && !ArrayUtils.contains(_nonDataLineMarkers, c)
+             && (c == CHAR_SPACE || (c == CHAR_TAB && CHAR_TAB != CHAR_SEPARATOR)) )
+        p++;
+      if( isEOL(c) || ArrayUtils.contains(_nonDataLineMarkers, c) ) continue;
+      if( !clean ) return start;
+
+      int parsedColumnCounter = 0, colIdx = 0;
+      for( int f = 0; ; f++ ) {
+        final int end = f < nseps ? seps[f] : eol;  // Separator or EOL ending the field
+        // WHITESPACE_BEFORE_TOKEN
+        while( (c = bits[p]) == CHAR_SPACE || (c == CHAR_TAB && CHAR_TAB != CHAR_SEPARATOR) ) p++;
+        final boolean keep = (colIdx <= colIndexNum) && _keepColumns[colIdx];
+        if( p == end ) {        // Empty token, store as NaN
+          if( keep ) dout.addInvalidCol(parsedColumnCounter);
+          if( end == eol ) {
+            if( colIdx != 0 ) dout.newLine();
+            break;
+          }
+          if( (colIdx <= colIndexNum) && _keepColumns[colIdx++] && (parsedColumnCounter < parseIndexNum) )
+            parsedColumnCounter++;
+          p = end + 1;
+          continue;
+        }
+        boolean isString = dout.isString(parsedColumnCounter)
+            || !(((c >= '0') && (c <= '9')) || (c == '-') || (c == CHAR_DECIMAL_SEP) || (c == '+'));
+        if( !isString ) {
+          long number = 0;
+          int exp = c == '-' ? -1 : 1, sgnExp = 1, fractionDigits = 0, state = NUMBER;
+          boolean decimal = false;
+          int i = (c == '-' || c == '+') ? p + 1 : p;
+          NUMBER_LOOP:
+          for( ; ; i++ ) {
+            c = bits[i];
+            switch( state ) {
+              case NUMBER:
+                if( (c >= '0') && (c <= '9') ) {
+                  if( number >= LARGEST_DIGIT_NUMBER ) state = NUMBER_SKIP;
+                  else number = (number * 10) + (c - '0');
+                  continue;
+                } else if( c == CHAR_DECIMAL_SEP ) {
+                  state = NUMBER_FRACTION;
+                  fractionDigits = i;
+                  decimal = true;
+                  continue;
+                } else if( (c == 'e') || (c == 'E') ) {
+                  state = NUMBER_EXP_START;
+                  sgnExp = 1;
+                  continue;
+                }
+                if( exp == -1 ) number = -number;
+                exp = 0;
+                break NUMBER_LOOP;
+              case NUMBER_SKIP:
+                if( (c >= '0') && (c <= '9') ) {
+                  exp++;
+                  continue;
+                } else if( c == CHAR_DECIMAL_SEP ) {
+                  state = NUMBER_SKIP_NO_DOT;
+                  continue;
+                } else if( (c == 'e') || (c == 'E') ) {
+                  state = NUMBER_EXP_START;
+                  sgnExp = 1;
+                  continue;
+                }
+                break NUMBER_LOOP;
+              case NUMBER_SKIP_NO_DOT:
+                if( (c >= '0') && (c <= '9') ) {
+                  continue;
+                } else if( (c == 'e') || (c == 'E') ) {
+                  state = NUMBER_EXP_START;
+                  sgnExp = 1;
+                  continue;
+                }
+                break NUMBER_LOOP;
+              case NUMBER_FRACTION:
+                if( (c >= '0') && (c <= '9') ) {
+                  if( number >= LARGEST_DIGIT_NUMBER ) {
+                    if( decimal ) fractionDigits = i - 1 - fractionDigits;
+                    if( exp == -1 ) number = -number;
+                    exp = 0;
+                    state = NUMBER_SKIP_NO_DOT;
+                  } else {
+                    number = (number * 10) + (c - '0');
+                  }
+                  continue;
+                } else if( (c == 'e') || (c == 'E') ) {
+                  if( decimal ) fractionDigits = i - 1 - fractionDigits;
+                  state = NUMBER_EXP_START;
+                  sgnExp = 1;
+                  continue;
+                }
+                if( decimal ) fractionDigits = i - fractionDigits - 1;
+                if( exp == -1 ) number = -number;
+                exp = 0;
+                break NUMBER_LOOP;
+              case NUMBER_EXP_START:
+                if( exp == -1 ) number = -number;
+                exp = 0;
+                if( c == '-' ) {
+                  sgnExp *= -1;
+                  continue;
+                } else if( c == '+' ) {
+                  continue;
+                }
+                if( (c < '0') || (c > '9') ) {
+                  isString = true;
+                  break NUMBER_LOOP;
+                }
+                state = NUMBER_EXP;
+                // fallthrough to NUMBER_EXP
+              case NUMBER_EXP:
+                if( (c >= '0') && (c <= '9') ) {
+                  exp = (exp * 10) + (c - '0');
+                  continue;
+                }
+                exp *= sgnExp;
+                break NUMBER_LOOP;
+              default:
+                assert false : " We have wrong state " + state;
+            }
+          }
+          // NUMBER_END: trailing whitespace only, else the token is a string
+          while( i < end && ((c = bits[i]) == CHAR_SPACE || c == CHAR_TAB) ) i++;
+          if( i != end || isForced(forceable, colIdx, parsedColumnCounter) ) isString = true;
+          if( !isString ) {
+            exp = exp - fractionDigits;
+            if( keep ) dout.addNumCol(parsedColumnCounter, number, exp);
+            if( end == eol ) {
+              dout.newLine();
+              break;
+            }
+            if( (colIdx <= colIndexNum) && _keepColumns[colIdx++] && (parsedColumnCounter < parseIndexNum) )
+              parsedColumnCounter++;
+            p = end + 1;
+            continue;
+          }
+        }
+        // STRING, from the start of the token to the separator or EOL
+        str.set(bits, p, end - p);
+        if( !_setup.isNA(parsedColumnCounter, str) && keep ) {
+          dout.addStrCol(parsedColumnCounter, str);
+          for( int i = p; i < end; i++ )
+            if( (bits[i] & 0x80) == 128 ) {  // Value beyond std ASCII
+              dout.setIsAllASCII(parsedColumnCounter, false);
+              break;
+            }
+        } else if( keep ) {
+          dout.addInvalidCol(parsedColumnCounter);
+        }
+        if( (colIdx <= colIndexNum) && _keepColumns[colIdx++] && (parsedColumnCounter < parseIndexNum) )
+          parsedColumnCounter++;
+        // SEPARATOR_OR_EOL
+        if( end == eol ) {
+          if( colIdx != 0 ) dout.newLine();
+          break;
+        }
+        p = end + 1;
+      }
+    }
+  }
+
+  // Is the column forced to a categorical or a string?
+  private boolean isForced(boolean forceable, int colIdx, int parsedColumnCounter) {
+    if( !forceable || colIdx >= _setup._column_types.length ) return false;
+    byte type = _setup._column_types[_setup._parse_columns_indices[parsedColumnCounter]];
+    return type == Vec.T_CAT || type == Vec.T_STR;
+  }
+
   @Override protected int fileHasHeader(byte[] bits, ParseSetup ps) {
     boolean hasHdr = true;
     String[] lines = getFirstLines(bits, ps._single_quotes, _nonDataLineMarkers);
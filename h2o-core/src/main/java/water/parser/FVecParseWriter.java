@@ -183,7 +183,7 @@ public class FVecParseWriter extends Iced implements StreamParseWriter {
       } else { // categoricals
         if(!_categoricals[colIdx].isMapFull()) {
           int id = _categoricals[_col = colIdx].addKey(str);
-          if (_ctypes[colIdx] == Vec.T_BAD && id > 1) _ctypes[colIdx] = Vec.T_CAT;
+          if (_ctypes[colIdx] == Vec.T_BAD && id > 0) _ctypes[colIdx] = Vec.T_CAT;
           if(_ctypes[colIdx] == Vec.T_CAT) {
             _nvs[colIdx].addNum(id, 0); // if we are sure we have a categorical column, we can only store the integer (more efficient than remembering this value was categorical)
           } else
@@ -0,0 +1,118 @@
+package water.parser;
+
+import java.math.BigInteger;
+
+/**
+ * Exact conversion of the decimal numbers the parsers produce, a mantissa and
+ * a power of 10, to the nearest double (as {@link Double#parseDouble} would).
+ *
+ * Small mantissas with small exponents are done with one exact multiply or
+ * divide (Clinger's fast path).  The others go through the Eisel-Lemire
+ * algorithm: the mantissa times a 128-bit approximation of the power of 5,
+ * which always decides the rounding for the exponents in the table; the
+ * others go to {@link Double#parseDouble}.  There is no allocation but in
+ * that fallback.
+ *
+ * The plain {@code m/10^-e} and {@code m*10^e} are off by an ulp for about one
+ * in ten 17-digit numbers (the mantissa is rounded first), and {@code
+ * Math.pow} is slow for the larger exponents.
+ */
+public final class FastFloat {
+
+  private FastFloat() {}
+
+  // Exact powers of 10, for the fast path
+  private static final double[] POW10 = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+  // 128-bit approximations of 5^q, normalized to the top bit set, for
+  // MIN_EXP10 <= q <= MAX_EXP10: high 64 bits then low 64 bits.  Rounded down
+  // for q >= 0, and up for q < 0; with these the 128-bit product is always
+  // enough to decide the rounding (Mushtak & Lemire, "Fast number parsing
+  // without fallback").
+  private static final int MIN_EXP10 = -342, MAX_EXP10 = 308;
+  private static final long[] POW5_128 = new long[2 * (MAX_EXP10 - MIN_EXP10 + 1)];
+  static {
+    BigInteger two128 = BigInteger.ONE.shiftLeft(128);
+    BigInteger mask64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+    for (int q = MIN_EXP10; q <= MAX_EXP10; q++) {
+      BigInteger p = BigInteger.valueOf(5).pow(Math.abs(q)), c;
+      if (q >= 0) {
+        int bits = p.bitLength();
+        c = bits > 128 ? p.shiftRight(bits - 128) : p.shiftLeft(128 - bits);
+      } else {
+        int z = p.bitLength();  // 2^z > 5^-q, never equal
+        c = BigInteger.ONE.shiftLeft(q >= -27 ? z + 127 : 2 * z + 128).divide(p).add(BigInteger.ONE);
+        while (c.compareTo(two128) >= 0) c = c.shiftRight(1);
+      }
+      int i = 2 * (q - MIN_EXP10);
+      POW5_128[i] = c.shiftRight(64).longValue();
+      POW5_128[i + 1] = c.and(mask64).longValue();
+    }
+  }
+
+  /** The double nearest to {@code mantissa * 10^exp10} */
+  public static double toDouble(long mantissa, int exp10) {
+    if (mantissa == 0) return 0;
+    boolean neg = mantissa < 0;
+    long man = neg ? -mantissa : mantissa;  // Unsigned: Long.MIN_VALUE is 2^63
+    // Clinger's fast path: exact mantissa and power, one rounding
+    if (man > 0 && man <= (1L << 53) && exp10 >= -22 && exp10 <= 22) {
+      double d = exp10 < 0 ? man / POW10[-exp10] : man * POW10[exp10];
+      return neg ? -d : d;
+    }
+    long bits = eiselLemire(man, exp10);
+    if (bits == -1) return Double.parseDouble(mantissa + "E" + exp10);
+    return Double.longBitsToDouble(neg ? bits | Long.MIN_VALUE : bits);
+  }
+
+  // The bits of the double nearest to w*10^q (w taken as unsigned and not 0),
+  // or -1 for the exponents out of the table.
+  static long eiselLemire(long w, int q) {
+    if (q < MIN_EXP10 || q > MAX_EXP10) return -1;
+    // Normalization, and the product with 5^q (the 2^q goes in the exponent)
+    int lz = Long.numberOfLeadingZeros(w);
+    w <<= lz;
+    int i = 2 * (q - MIN_EXP10);
+    long hi = mulHi(w, POW5_128[i]), lo = w * POW5_128[i];
+    if ((hi & 0x1FF) == 0x1FF) {  // Not enough bits below the 55 we keep
+      long hi2 = mulHi(w, POW5_128[i + 1]);
+      lo += hi2;
+      if (Long.compareUnsigned(hi2, lo) > 0) hi++;
+    }
+    long upperbit = hi >>> 63;
+    int shift = (int) upperbit + 9;
+    long mantissa = hi >>> shift;
+    long power2 = (((152170 + 65536) * q) >> 16) + 63 + upperbit - lz + 1023;
+    if (power2 <= 0) {          // Subnormal
+      if (-power2 + 1 >= 64) return 0;
+      mantissa >>>= -power2 + 1;
+      mantissa += mantissa & 1;
+      mantissa >>>= 1;
+      return mantissa;          // Has bit 52 set if it rounded up to the smallest normal
+    }
+    // Exactly half-way between two doubles: round to even.  Only possible for
+    // small exponents, where the product is exact.
+    if (Long.compareUnsigned(lo, 1) <= 0 && q >= -4 && q <= 23 && (mantissa & 3) == 1
+        && (mantissa << shift) == hi)
+      mantissa &= ~1L;
+    mantissa += mantissa & 1;
+    mantissa >>>= 1;
+    if (mantissa >= (2L << 52)) {
+      mantissa = 1L << 52;
+      power2++;
+    }
+    if (power2 >= 0x7FF) return 0x7FFL << 52;  // Infinity
+    return (power2 << 52) | (mantissa & ~(1L << 52));
+  }
+
+  // High 64 bits of the unsigned 128-bit product
+  private static long mulHi(long x, long y) {
+    long x0 = x & 0xFFFFFFFFL, x1 = x >>> 32;
+    long y0 = y & 0xFFFFFFFFL, y1 = y >>> 32;
+    long p01 = x0 * y1;
+    long middle = x1 * y0 + ((x0 * y0) >>> 32) + (p01 & 0xFFFFFFFFL);
+    return x1 * y1 + (middle >>> 32) + (p01 >>> 32);
+  }
+}
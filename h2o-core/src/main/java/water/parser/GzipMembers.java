@@ -0,0 +1,256 @@
+package water.parser;
+
+import water.*;
+import water.fvec.ByteVec;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Parallel inflate of gzip files made of many members.  A gzip file may hold
+ * any number of members, each with its own header and trailer (RFC 1952), and
+ * each inflates on its own: BGZF files (bgzip, samtools, htslib) are made of
+ * members of 64K at most, and concatenated gzip files are too.  Such a file is
+ * split into chunks as a raw file is, and parsed in parallel: the parse of each
+ * chunk inflates the members starting in it (see {@link Reader}), so no more
+ * than the chunks being parsed are ever inflated in memory.
+ *
+ * A chunk but the first finds its first member by looking for a gzip header
+ * that inflates into a member ending with the CRC32 and the length of what it
+ * inflated to; the next members follow one another.  A single member gzip file
+ * cannot be split, and is still inflated as a stream.
+ */
+final class GzipMembers {
+  static boolean PARALLEL = H2O.getSysBoolProperty("parse.gzip.parallel", true); // Not final, for tests
+
+  private static final int FHCRC = 2, FEXTRA = 4, FNAME = 8, FCOMMENT = 16;
+  private static final int MIN_CHUNK_SIZE = 1 << 18;
+  private static final int MAX_WINDOW = 1 << 30;
+
+  private GzipMembers() {}
+
+  /** The chunk size to split a multi-member gzip file with, so its chunks
+   *  inflate to about {@code chunkSize} bytes; or -1 if the file is not made
+   *  of many members (or the first is too large to tell from the first bytes).
+   *  @param bits the first bytes of the file */
+  static int chunkSize(byte[] bits, int chunkSize) {
+    int[] m = firstMember(bits);
+    if( m == null ) return -1;
+    long size = (long)chunkSize * m[0] / Math.max(m[1], 1);
+    size = Math.max(size, Math.max(4L * m[0], MIN_CHUNK_SIZE));
+    return (int)Math.min(size, chunkSize);
+  }
+
+  /** True if the first bytes of a file are a whole gzip member, followed by
+   *  another member */
+  static boolean isMultiMember(byte[] bits) { return firstMember(bits) != null; }
+
+  // The compressed and inflated sizes of the first member, if it ends within
+  // the bytes and another member starts right after it; else null.
+  private static int[] firstMember(byte[] bits) {
+    if( !PARALLEL ) return null;
+    Window w = new Window(bits);
+    Output out = new Output(bits.length * 4);
+    Inflater inf = new Inflater(true);
+    try {
+      int end = member(w, 0, inf, out, new CRC32());
+      return end > 0 && header(w, end) > 0 ? new int[]{end, out._len} : null;
+    } finally {
+      inf.end();
+    }
+  }
+
+  /** A stream inflating all the members of a gzip file.  GZIPInputStream
+   *  reports nothing available at the end of each member, which stops a
+   *  stream parse at the first member ending on a read boundary. */
+  static InputStream openStream(InputStream in) throws IOException {
+    return new PushbackInputStream(new GZIPInputStream(in)) {
+      @Override public int available() throws IOException {
+        int n = super.available();
+        if( n > 0 ) return n;
+        int b = read();         // Reads on into the next member, if any
+        if( b < 0 ) return 0;
+        unread(b);
+        return 1;
+      }
+    };
+  }
+
+  /** Reads a chunk of a multi-member gzip file inflated: the members starting
+   *  in the chunk, then the first line of the next chunk holding any member, to
+   *  end the last line of this one.  A chunk spanned by a member started before
+   *  reads as empty, the member being inflated with the chunk it starts in. */
+  static final class Reader implements ParseReader {
+    private final ByteVec _vec;
+    private final int _cidx;
+    private byte[] _bits;       // This chunk inflated, on first use
+    Reader( Chunk chk ) { _vec = (ByteVec)chk.vec(); _cidx = chk.cidx(); }
+
+    @Override public byte[] getChunkData( int cidx ) {
+      if( cidx == _cidx ) return _bits == null ? (_bits = inflateChunk(_vec, cidx, false)) : _bits;
+      if( cidx != _cidx + 1 ) return null;
+      for( int c = cidx; c < _vec.nChunks(); c++ ) {
+        byte[] bits = inflateChunk(_vec, c, true);
+        if( bits.length > 0 ) return bits;
+      }
+      return null;
+    }
+    @Override public int getChunkDataStart( int cidx ) { return -1; }
+    @Override public void setChunkDataStart( int cidx, int offset ) { }
+    // Where the chunk starts in the gzip file: there is no offset into the
+    // inflated file without inflating all that comes before
+    @Override public long getGlobalByteOffset() { return _vec.espc()[_cidx]; }
+  }
+
+  // Inflates the members starting in a chunk of a gzip file; or only as many
+  // as it takes to hold a line end, if firstLine.
+  static byte[] inflateChunk(ByteVec vec, int cidx, boolean firstLine) {
+    Window w = new Window(vec, cidx);
+    final int end = w._len;
+    Output out = new Output(end * 4);
+    Inflater inf = new Inflater(true);
+    CRC32 crc = new CRC32();
+    try {
+      int p = 0, q = -1;
+      // The file starts with a member; the other chunks look for their first
+      // one, and hold none if a member started before spans them
+      while( p < end && (q = member(w, p, inf, out, crc)) < 0 ) {
+        if( cidx == 0 )
+          throw new ParseDataset.H2OParseException("Not a gzip member at the start of " + vec._key);
+        p = nextMagic(w, p + 1, end);
+      }
+      while( q >= 0 && (p = q) < end && !(firstLine && hasLineEnd(out)) )
+        q = member(w, p, inf, out, crc);
+      // A member does not start where the last one ended: only trailing bytes
+      // at the end of the file are allowed, as for GZIPInputStream
+      if( q < 0 && p < end && cidx < vec.nChunks() - 1 && !firstLine )
+        throw new ParseDataset.H2OParseException("Corrupt gzip member at byte " + (vec.espc()[cidx] + p) + " of " + vec._key);
+      return Arrays.copyOf(out._buf, out._len);
+    } finally {
+      inf.end();
+    }
+  }
+
+  // Inflates the member at p into out.  Returns the end of the member, or -1
+  // (and out as it was) if there is no valid member at p.
+  private static int member(Window w, int p, Inflater inf, Output out, CRC32 crc) {
+    int q = header(w, p);
+    if( q < 0 ) return -1;
+    final int start = out._len;
+    inf.reset();
+    inf.setInput(w._buf, q, w._len - q);
+    try {
+      while( !inf.finished() ) {
+        if( out._len == out._buf.length ) out.grow();
+        int n = inf.inflate(out._buf, out._len, out._buf.length - out._len);
+        out._len += n;
+        if( n > 0 || inf.finished() ) continue;
+        if( !inf.needsInput() ) break; // Preset dictionary: not gzip
+        int len = w._len;
+        if( !w.more() ) break;         // Truncated
+        inf.setInput(w._buf, len, w._len - len);
+      }
+    } catch( DataFormatException e ) {
+      // Not deflate data
+    }
+    int trailer = w._len - inf.getRemaining();
+    if( inf.finished() && w.has(trailer + 8) ) {
+      crc.reset();
+      crc.update(out._buf, start, out._len - start);
+      if( (int)crc.getValue() == le32(w._buf, trailer) && out._len - start == le32(w._buf, trailer + 4) )
+        return trailer + 8;
+    }
+    out._len = start;
+    return -1;
+  }
+
+  // The start of the deflate data after a gzip member header at p, or -1
+  private static int header(Window w, int p) {
+    if( !w.has(p + 10) ) return -1;
+    byte[] b = w._buf;
+    int flg = b[p + 3] & 0xFF;
+    if( (b[p] & 0xFF) != 0x1f || (b[p + 1] & 0xFF) != 0x8b || b[p + 2] != 8 || (flg & 0xE0) != 0 )
+      return -1;
+    int q = p + 10;
+    if( (flg & FEXTRA) != 0 ) {
+      if( !w.has(q + 2) ) return -1;
+      q += 2 + ((w._buf[q] & 0xFF) | (w._buf[q + 1] & 0xFF) << 8);
+    }
+    if( (flg & FNAME) != 0 && (q = skipString(w, q)) < 0 ) return -1;
+    if( (flg & FCOMMENT) != 0 && (q = skipString(w, q)) < 0 ) return -1;
+    if( (flg & FHCRC) != 0 ) q += 2;
+    return w.has(q + 1) ? q : -1;
+  }
+
+  // Past the zero-terminated string at q, or -1
+  private static int skipString(Window w, int q) {
+    while( w.has(q + 1) )
+      if( w._buf[q++] == 0 ) return q;
+    return -1;
+  }
+
+  // The next possible member start in [p,end), or end
+  private static int nextMagic(Window w, int p, int end) {
+    for( ; p < end; p++ )
+      if( w._buf[p] == 0x1f && w.has(p + 3) && (w._buf[p + 1] & 0xFF) == 0x8b && w._buf[p + 2] == 8 ) return p;
+    return end;
+  }
+
+  private static boolean hasLineEnd(Output out) {
+    for( int i = 0; i < out._len; i++ )
+      if( out._buf[i] == '\n' || out._buf[i] == '\r' ) return true;
+    return false;
+  }
+
+  private static int le32(byte[] b, int p) {
+    return (b[p] & 0xFF) | (b[p + 1] & 0xFF) << 8 | (b[p + 2] & 0xFF) << 16 | (b[p + 3] & 0xFF) << 24;
+  }
+
+  // The bytes of a gzip file from the start of a chunk on; the next chunks are
+  // appended as the members need them.
+  private static final class Window {
+    final ByteVec _vec;
+    int _next;                  // Next chunk to append
+    byte[] _buf;
+    int _len;
+    Window(byte[] bits) { _vec = null; _buf = bits; _len = bits.length; }
+    Window(ByteVec vec, int cidx) {
+      _vec = vec;
+      _buf = vec.chunkForChunkIdx(cidx).getBytes();
+      _len = _buf.length;
+      _next = cidx + 1;
+    }
+    boolean more() {
+      if( _vec == null || _next >= _vec.nChunks() ) return false;
+      byte[] bits = _vec.chunkForChunkIdx(_next++).getBytes();
+      if( _len + bits.length > MAX_WINDOW )
+        throw new ParseDataset.H2OParseException("Gzip member too large to inflate in parallel in " + _vec._key
+            + "; parse with -Dsys.ai.h2o.parse.gzip.parallel=false");
+      _buf = Arrays.copyOf(_buf, _len + bits.length);
+      System.arraycopy(bits, 0, _buf, _len, bits.length);
+      _len += bits.length;
+      return true;
+    }
+    // At least n bytes, or the end of the file
+    boolean has(int n) {
+      while( _len < n )
+        if( !more() ) return false;
+      return true;
+    }
+  }
+
+  private static final class Output {
+    byte[] _buf;
+    int _len;
+    Output(int cap) { _buf = MemoryManager.malloc1(Math.max(cap, 1 << 16)); }
+    void grow() { _buf = MemoryManager.arrayCopyOf(_buf, _buf.length * 2); }
+  }
+}
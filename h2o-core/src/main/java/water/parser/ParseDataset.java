@@ -17,7 +17,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -58,6 +57,60 @@ public final class ParseDataset {
     return pds;
   }
 
+  // Guess setup from inspecting the first Key only, then append.
+  public static Frame append(Key<Frame> dest, Key... keys) {
+    return append(dest, keys, true, ParseSetup.guessSetup(keys, false, ParseSetup.GUESS_HEADER));
+  }
+
+  /**
+   * Append-mode parse, for ingesting new files into an existing Frame.  The
+   * files are parsed with the column names and types of the Frame forced
+   * into the setup, and their chunks are moved after the Frame's chunks (see
+   * {@link Frame#appendChunks}): only the new data is parsed and written, and
+   * new categorical levels go at the end of the existing domains.  Blocks
+   * until done.
+   *
+   * @param dest  the existing Frame, to append to
+   * @param keys  input keys
+   * @param parseSetup  a generic parser setup for the input keys
+   * @param deleteOnDone  delete input data when finished
+   * @return the appended Frame
+   */
+  public static Frame append(Key<Frame> dest, Key[] keys, boolean deleteOnDone, ParseSetup parseSetup) {
+    Frame fr = DKV.getGet(dest);
+    if( fr == null )
+      throw new H2OIllegalArgumentException("Missing data","Did not find any frame under key " + dest);
+    ParseSetup setup = new ParseSetup(parseSetup);
+    if( setup._parse_columns_indices == null )
+      setup.setParseColumnIndices(setup.getNumberColumns(), setup.getSkippedColumns());
+    final int[] pcols = setup._parse_columns_indices;
+    if( pcols == null || pcols.length != fr.numCols() )
+      throw new IllegalArgumentException("Parsing " + (pcols == null ? 0 : pcols.length) + " columns, but frame " + dest + " has " + fr.numCols() + " columns");
+    // Force the names and types of the frame; the types of all-missing columns are guessed
+    String[] names = setup._column_names == null ? new String[setup._number_columns] : Arrays.copyOf(setup._column_names, setup._number_columns);
+    byte[] types = setup._column_types == null ? new byte[setup._number_columns] : Arrays.copyOf(setup._column_types, setup._number_columns);
+    for( int i = 0; i < pcols.length; i++ ) {
+      names[pcols[i]] = fr.name(i);
+      if( !fr.vec(i).isBad() ) types[pcols[i]] = fr.vec(i).get_type();
+    }
+    setup._column_names = names;
+    setup._column_types = types;
+
+    fr.write_lock();
+    Frame parsed = null;
+    try {
+      parsed = parse(Key.<Frame>make(), keys, deleteOnDone, setup);
+      fr.appendChunks(parsed);
+      parsed = null;            // Deleted with its chunks moved
+      fr.update();
+      logParseResults(fr);
+    } finally {
+      if( parsed != null ) parsed.delete();
+      fr.unlock();
+    }
+    return fr;
+  }
+
   // Allow both ByteVec keys and Frame-of-1-ByteVec
   static ByteVec getByteVec(Key key) {
     Iced ice = DKV.getGet(key);
@@ -115,6 +168,18 @@ public final class ParseDataset {
     },nchunks);
   }
 
+  // The chunk size of a file: a gzip file of many members is split so that
+  // its chunks inflate to about the parse chunk size, and are parsed in parallel
+  private static int parseChunkSize(FileVec vec, ParseSetup setup) {
+    if( setup.disableParallelParse || !setup._parse_type.isParallelParseSupported() ||
+        !setup.getDecryptionTool().isTransparent() )
+      return setup._chunk_size;
+    byte[] bits = vec.getFirstBytes();
+    if( ZipUtil.guessCompressionMethod(bits) != ZipUtil.Compression.GZIP ) return setup._chunk_size;
+    int chunkSize = GzipMembers.chunkSize(bits, setup._chunk_size);
+    return chunkSize > 0 ? chunkSize : setup._chunk_size;
+  }
+
   /**
    * The entry-point for data set parsing.
    *
@@ -158,11 +223,13 @@ public final class ParseDataset {
 
         // set the parse chunk size for files
         if (ice instanceof FileVec) {
-          ((FileVec) ice).setChunkSize(setup._chunk_size);
-          Log.info("Parse chunk size " + setup._chunk_size);
+          int chunkSize = parseChunkSize((FileVec) ice, setup);
+          ((FileVec) ice).setChunkSize(chunkSize);
+          Log.info("Parse chunk size " + chunkSize);
         } else if (ice instanceof Frame && ((Frame) ice).vec(0) instanceof FileVec) {
-          ((FileVec) ((Frame) ice).vec(0)).setChunkSize((Frame) ice, setup._chunk_size);
-          Log.info("Parse chunk size " + setup._chunk_size);
+          int chunkSize = parseChunkSize((FileVec) ((Frame) ice).vec(0), setup);
+          ((FileVec) ((Frame) ice).vec(0)).setChunkSize((Frame) ice, chunkSize);
+          Log.info("Parse chunk size " + chunkSize);
         }
       }
     } else Log.info("Orc Parse chunk sizes may be different across files");
@@ -232,10 +299,23 @@ public final class ParseDataset {
     }
   }
 
-  private static class CategoricalUpdateMap extends Iced {
+  private static void checkCategoricalLimit(ParseSetup setup, int[] ecols, int[] domainLengths) {
+    List<String> offendingColNames = new ArrayList<>();
+    for (int i = 0; i < ecols.length; i++)
+      if (domainLengths[i] >= Categorical.MAX_CATEGORICAL_COUNT)
+        offendingColNames.add(setup._column_names[ecols[i]]);
+    if (offendingColNames.size() > 0)
+      throw new H2OParseException("Exceeded categorical limit on columns "+ offendingColNames+".   " +
+              "Consider reparsing these columns as a string or skip parsing the offending columns by setting" +
+              " the skipped_columns list in Python/R/Java APIs.");
+  }
+
+  static class CategoricalUpdateMap extends Iced {
     final int [][] map;
     public CategoricalUpdateMap(int[][] map){this.map = map;}
   }
+  // The node-local categoricals of a parse, if any
+  static Categorical[] localCategoricals(Key cKey) { return MultiFileParseTask._categoricals.get(cKey); }
   // --------------------------------------------------------------------------
   // Top-level parser driver
   private static ParseDataset parseAllKeys(ParseDataset pds, Key[] fkeys, ParseSetup setup, boolean deleteOnDone) {
@@ -301,24 +381,31 @@ public final class ParseDataset {
     ParseFinalizer finalizer = ParseFinalizer.get(setup);
     // If we have any, go gather unified categorical domains
     if( n > 0 ) {
+      PartitionedDomains pdoms = null; // Made the code maps already
       if (!setup.getParseType().isDomainProvided) { // Domains are not provided via setup we need to collect them
         job.update(0, "Collecting categorical domains across nodes.");
-        {
+        if (PartitionedDomains.ENABLED) {
+          pdoms = new PartitionedDomains(mfpt._cKey, ecols, mfpt._parseSetup._parse_columns_indices);
+          try {
+            checkCategoricalLimit(setup, ecols, pdoms.getDomainLengths());
+            for (int i = 0; i < ecols.length; i++) {
+              if (pdoms.getDomainLength(i) == 0) avs[ecols[i]].setBad(); // The all-NA column
+              else avs[ecols[i]].setDomain(pdoms.getDomain(i));
+            }
+            pdoms.mapCodes();
+          } finally {
+            pdoms.remove();
+          }
+        } else {
           GatherCategoricalDomainsTask gcdt = new GatherCategoricalDomainsTask(mfpt._cKey, ecols,
                   mfpt._parseSetup._parse_columns_indices).doAllNodes();
-          //Test domains for excessive length.
-          List<String> offendingColNames = new ArrayList<>();
+          int[] lens = new int[ecols.length];
+          for (int i = 0; i < ecols.length; i++) lens[i] = gcdt.getDomainLength(i);
+          checkCategoricalLimit(setup, ecols, lens);
           for (int i = 0; i < ecols.length; i++) {
-            if (gcdt.getDomainLength(i) < Categorical.MAX_CATEGORICAL_COUNT) {
-              if( gcdt.getDomainLength(i)==0 ) avs[ecols[i]].setBad(); // The all-NA column
-              else avs[ecols[i]].setDomain(gcdt.getDomain(i));
-            } else
-              offendingColNames.add(setup._column_names[ecols[i]]);
+            if( lens[i]==0 ) avs[ecols[i]].setBad(); // The all-NA column
+            else avs[ecols[i]].setDomain(gcdt.getDomain(i));
           }
-          if (offendingColNames.size() > 0)
-            throw new H2OParseException("Exceeded categorical limit on columns "+ offendingColNames+".   " +
-                    "Consider reparsing these columns as a string or skip parsing the offending columns by setting" +
-                    " the skipped_columns list in Python/R/Java APIs.");
         }
         Log.trace("Done collecting categorical domains across nodes.");
       } else {
@@ -339,7 +426,7 @@ public final class ParseDataset {
         Vec[] evecs = new Vec[ecols.length];
         for( int i = 0; i < evecs.length; ++i ) evecs[i] = fr.vecs()[ecols[i]];
         job.update(0, "Unifying categorical domains across nodes.");
-        {
+        if (pdoms == null) {
           // new CreateParse2GlobalCategoricalMaps(mfpt._cKey).doAll(evecs);
           // Using Dtask since it starts and returns faster than an MRTask
           CreateParse2GlobalCategoricalMaps[] fcdt = new CreateParse2GlobalCategoricalMaps[H2O.CLOUD.size()];
@@ -351,10 +438,9 @@ public final class ParseDataset {
           }
           for (RPC rpc : rpcs)
             rpc.get();
-
-          new UpdateCategoricalChunksTask(mfpt._cKey, mfpt._chunk2ParseNodeMap).doAll(evecs);
-          MultiFileParseTask._categoricals.remove(mfpt._cKey);
         }
+        new UpdateCategoricalChunksTask(mfpt._cKey, mfpt._chunk2ParseNodeMap).doAll(evecs);
+        MultiFileParseTask._categoricals.remove(mfpt._cKey);
         Log.trace("Done unifying categoricals across nodes.");
       }
     } else {                    // No categoricals case
@@ -491,19 +577,21 @@ public final class ParseDataset {
       final int cidx = chks[0].cidx();
       for(int i = 0; i < chks.length; ++i) {
         Chunk chk = chks[i];
+        final int[] map = _parse2GlobalCatMaps[i];
+        if (map == null) continue; // Codes already global
         if (!(chk instanceof CStrChunk)) {
           for( int j = 0; j < chk._len; ++j){
             if( chk.isNA(j) )continue;
             final int old = (int) chk.at8(j);
-            if (old < 0 || (_parse2GlobalCatMaps[i] != null && old >= _parse2GlobalCatMaps[i].length))
-              chk.reportBrokenCategorical(i, j, old, _parse2GlobalCatMaps[i], _fr.vec(i).domain().length);
-            if(_parse2GlobalCatMaps[i] != null && _parse2GlobalCatMaps[i][old] < 0)
+            if (old < 0 || old >= map.length)
+              chk.reportBrokenCategorical(i, j, old, map, _fr.vec(i).domain().length);
+            if(map[old] < 0)
               throw new H2OParseException("Error in unifying categorical values. This is typically "
                   +"caused by unrecognized characters in the data.\n The problem categorical value "
                   +"occurred in the " + PrettyPrint.withOrdinalIndicator(i+1)+ " categorical col, "
                   +PrettyPrint.withOrdinalIndicator(chk.start() + j) +" row.");
-            if (_parse2GlobalCatMaps[i] != null)
-              chk.set(j, _parse2GlobalCatMaps[i][old]);
+            if (map[old] != old) // A chunk with no code changed is not rewritten
+              chk.set(j, map[old]);
           }
           Log.trace("Updated domains for "+PrettyPrint.withOrdinalIndicator(i+1)+ " categorical column.");
         }
@@ -829,10 +917,18 @@ public final class ParseDataset {
           break;
         }
         case GZIP: {
+          // gzip file of many members (BGZF, concatenated gzip): inflate and parse in parallel
+          if( _parseSetup.parseMethod(_keys.length, vec) == ParserInfo.ParseMethod.DistributedParse &&
+              GzipMembers.isMultiMember(zips) ) {
+            new DistributedParse(_vg, localSetup, _vecIdStart, chunkStartIdx, this, key, vec.nChunks(), true).dfork(vec).getResult(false);
+            for( int i = 0; i < vec.nChunks(); ++i )
+              _chunk2ParseNodeMap[chunkStartIdx + i] = vec.chunkKey(i).home_node().index();
+            break;
+          }
           localSetup = ParserService.INSTANCE.getByInfo(localSetup._parse_type).setupLocal(vec,localSetup);
           try (InputStream bvs = vec.openStream(_jobKey);
                InputStream dec = decryptionTool.decryptInputStream(bvs);
-               GZIPInputStream gzis = new GZIPInputStream(dec)) {
+               InputStream gzis = GzipMembers.openStream(dec)) {
             // gzipped file; no parallel decompression
             _dout[_lo] = streamParse(gzis, localSetup, makeDout(localSetup, chunkStartIdx, vec.nChunks()), bvs);
           }
@@ -909,8 +1005,12 @@ public final class ParseDataset {
       private transient NonBlockingSetInt _visited;
       private transient long [] _espc;
       final int _nchunks;
+      final boolean _gzipMembers; // Chunks of a multi-member gzip file, inflated as parsed
 
       DistributedParse(VectorGroup vg, ParseSetup setup, int vecIdstart, int startChunkIdx, MultiFileParseTask mfpt, Key srckey, int nchunks) {
+        this(vg, setup, vecIdstart, startChunkIdx, mfpt, srckey, nchunks, false);
+      }
+      DistributedParse(VectorGroup vg, ParseSetup setup, int vecIdstart, int startChunkIdx, MultiFileParseTask mfpt, Key srckey, int nchunks, boolean gzipMembers) {
         super(null);
         _vg = vg;
         _setup = setup;
@@ -921,6 +1021,7 @@ public final class ParseDataset {
         _jobKey = mfpt._jobKey;
         _srckey = srckey;
         _nchunks = nchunks;
+        _gzipMembers = gzipMembers;
       }
       @Override public void setupLocal(){
         super.setupLocal();
@@ -942,7 +1043,7 @@ public final class ParseDataset {
                       _espc, _setup._column_types[_setup._parse_columns_indices[i]], _startChunkIdx);
 
         // Break out the input & output vectors before the parse loop
-        FVecParseReader din = new FVecParseReader(in);
+        ParseReader din = _gzipMembers ? new GzipMembers.Reader(in) : new FVecParseReader(in);
         FVecParseWriter dout;
         // Get a parser
         Parser p = _setup.parser(_jobKey);
@@ -979,7 +1080,9 @@ public final class ParseDataset {
           throw new H2OIllegalArgumentException("Parser:  all columns in the file are skipped and no H2OFrame" +
                   " can be returned."); // Need this to send error message to R
 
-        p.parseChunk(in.cidx(), din, dout);
+        // A chunk spanned by a gzip member started before parses to no rows
+        if( !_gzipMembers || din.getChunkData(in.cidx()).length > 0 )
+          p.parseChunk(in.cidx(), din, dout);
         (_dout = dout).close(_fs);
         Job.update(in._len, _jobKey); // Record bytes parsed
         // remove parsed data right away
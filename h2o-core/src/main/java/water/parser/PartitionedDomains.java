@@ -0,0 +1,295 @@
+package water.parser;
+
+import water.*;
+import water.util.Log;
+import water.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+import static water.util.ArrayUtils.encodeAsInt;
+
+/**
+ * Unified categorical domains of a parse, built distributed.  Each node owns
+ * a hash slice of the levels of every column:
+ * <ol>
+ *   <li>every node sorts its local levels and sends each slice, with the
+ *   local codes of its levels, to the slice owner;</li>
+ *   <li>every owner merges the slices it got into its sorted slice of the
+ *   domain;</li>
+ *   <li>the leader merges the disjoint owned slices into the sorted domain,
+ *   and sends back to each owner the global codes of its slice;</li>
+ *   <li>every owner sends each node the global codes of the levels it sent,
+ *   from which every node makes its local to global code map.</li>
+ * </ol>
+ * No node but the leader ever holds more than its own levels and its slice
+ * of the domain, and the leader only holds the domain it must build anyway;
+ * the levels seen on many nodes are not merged up a reduce tree.
+ *
+ * The code maps are stored as for {@link ParseDataset}'s
+ * UpdateCategoricalChunksTask, with no map for a column where the local codes
+ * of a node are already the global ones.
+ */
+final class PartitionedDomains extends Iced<PartitionedDomains> {
+  static boolean ENABLED = H2O.getSysBoolProperty("parse.categorical.partitioned", true); // Not final, for tests
+
+  private final Key _cKey;
+  private final int[] _catColIdxs;
+  private final int[] _parseColumns;
+  private final int _nodes;
+  private final int[] _sizes;
+
+  /** Sends the local levels of every node to their owners, which merge them
+   *  into their slices of the domains.
+   *  @param cKey the node-local categoricals of the parse
+   *  @param ccols the categorical columns, among the parsed ones
+   *  @param parseColumns the file columns of the parsed columns */
+  PartitionedDomains(Key cKey, int[] ccols, int[] parseColumns) {
+    _cKey = cKey;
+    _catColIdxs = ccols;
+    _parseColumns = parseColumns;
+    _nodes = H2O.CLOUD.size();
+    new PartitionTask(this).doAllNodes();
+    _sizes = new MergeTask(this).doAllNodes()._sizes;
+  }
+
+  int getDomainLength(int colIdx) { return _sizes[colIdx]; }
+  int[] getDomainLengths() { return _sizes; }
+
+  /** The sorted domain of a categorical column, merged from the owned
+   *  slices.  The owners are sent the global codes of their slice. */
+  String[] getDomain(int colIdx) {
+    byte[][] slices = new byte[_nodes][];
+    int[][] codes = new int[_nodes][];
+    final BufferedString[] heads = new BufferedString[_nodes];
+    final int[] pos = new int[_nodes], idx = new int[_nodes];
+    PriorityQueue<Integer> pq = new PriorityQueue<>(Math.max(_nodes, 1), (a, b) -> heads[a].compareTo(heads[b]));
+    for( int j = 0; j < _nodes; j++ ) {
+      Slices s = DKV.getGet(key("owned" + colIdx, j, j));
+      slices[j] = s._packed[0];
+      codes[j] = new int[PackedDomains.sizeOf(slices[j])];
+      pos[j] = 4;
+      heads[j] = new BufferedString(slices[j], 0, 0);
+      if( next(slices[j], pos[j], heads[j]) ) pq.add(j);
+    }
+    String[] dom = new String[_sizes[colIdx]];
+    for( int g = 0; g < dom.length; g++ ) {
+      int j = pq.poll();
+      BufferedString h = heads[j];
+      dom[g] = StringUtils.toString(h.getBuffer(), h.getOffset(), h.length());
+      codes[j][idx[j]++] = g;
+      pos[j] = h.getOffset() + h.length();
+      if( next(slices[j], pos[j], h) ) pq.add(j);
+    }
+    assert pq.isEmpty();
+    Futures fs = new Futures();
+    for( int j = 0; j < _nodes; j++ )
+      DKV.put(key("codes" + colIdx, j, j), new Codes(null, new int[][]{codes[j]}), fs);
+    fs.blockForPending();
+    return dom;
+  }
+
+  /** Makes the local to global code maps of every node, once all the
+   *  domains have been built. */
+  void mapCodes() {
+    new GlobalCodesTask(this).doAllNodes();
+    new MapTask(this).doAllNodes();
+  }
+
+  /** Removes what is left of the slices and codes, as after a failure. */
+  void remove() {
+    Futures fs = new Futures();
+    for( int i = 0; i < _nodes; i++ )
+      for( int j = 0; j < _nodes; j++ ) {
+        DKV.remove(key("slices" + i, j, j), fs);
+        DKV.remove(key("global" + j, i, i), fs);
+      }
+    for( int c = 0; c < _catColIdxs.length; c++ )
+      for( int j = 0; j < _nodes; j++ ) {
+        DKV.remove(key("owned" + c, j, j), fs);
+        DKV.remove(key("codes" + c, j, j), fs);
+      }
+    fs.blockForPending();
+  }
+
+  // A key homed on a node
+  private Key key(String what, int i, int home) {
+    return Key.make(_cKey + "_dom_" + what + "_" + i, (byte)1, Key.HIDDEN_USER_KEY, true, H2O.CLOUD.members()[home]);
+  }
+
+  // The owner of a level
+  private static int owner(BufferedString s, int nodes) {
+    int h = s.hashCode();
+    return ((h ^ (h >>> 16)) & 0x7FFFFFFF) % nodes;
+  }
+
+  // Points s at the packed word at pos; false past the last word
+  private static boolean next(byte[] packed, int pos, BufferedString s) {
+    if( pos >= packed.length ) return false;
+    s.setOff(pos + 4);
+    s.setLen(encodeAsInt(packed, pos));
+    return true;
+  }
+
+  // Merges the packed slices pairwise; the array is overwritten
+  private static byte[] mergeAll(byte[][] packed) {
+    for( int step = 1; step < packed.length; step <<= 1 )
+      for( int i = 0; i + step < packed.length; i += 2 * step )
+        packed[i] = PackedDomains.merge(packed[i], packed[i + step]);
+    return packed[0];
+  }
+
+  /** Packed sorted levels per categorical column, and their local codes */
+  private static class Slices extends Iced<Slices> {
+    final byte[][] _packed;
+    final int[][] _codes;
+    Slices(byte[][] packed, int[][] codes) { _packed = packed; _codes = codes; }
+  }
+
+  /** Local codes, and the matching global ones, per categorical column */
+  private static class Codes extends Iced<Codes> {
+    final int[][] _local;
+    final int[][] _global;
+    Codes(int[][] local, int[][] global) { _local = local; _global = global; }
+  }
+
+  // Every node sends the slices of its sorted levels to their owners
+  private static class PartitionTask extends MRTask<PartitionTask> {
+    private final PartitionedDomains _pd;
+    PartitionTask(PartitionedDomains pd) { _pd = pd; }
+    @Override public void setupLocal() {
+      final int nodes = _pd._nodes, ncols = _pd._catColIdxs.length;
+      final Categorical[] cats = ParseDataset.localCategoricals(_pd._cKey);
+      byte[][][] packed = new byte[nodes][ncols][];
+      int[][][] codes = new int[nodes][ncols][];
+      for( int c = 0; c < ncols; c++ ) {
+        BufferedString[] dom = new BufferedString[0];
+        if( cats != null ) {
+          int col = _pd._parseColumns[_pd._catColIdxs[c]];
+          cats[col].convertToUTF8(col + 1);
+          dom = cats[col].getColumnDomain();
+          Arrays.sort(dom);
+        }
+        int[] owners = new int[dom.length], counts = new int[nodes];
+        for( int k = 0; k < dom.length; k++ ) counts[owners[k] = owner(dom[k], nodes)]++;
+        BufferedString[][] slices = new BufferedString[nodes][];
+        for( int j = 0; j < nodes; j++ ) {
+          slices[j] = new BufferedString[counts[j]];
+          codes[j][c] = new int[counts[j]];
+          counts[j] = 0;
+        }
+        for( int k = 0; k < dom.length; k++ ) {
+          int j = owners[k], n = counts[j]++;
+          slices[j][n] = dom[k];
+          codes[j][c][n] = cats[_pd._parseColumns[_pd._catColIdxs[c]]].getTokenId(dom[k]);
+        }
+        for( int j = 0; j < nodes; j++ ) packed[j][c] = PackedDomains.pack(slices[j]);
+      }
+      int self = H2O.SELF.index();
+      for( int j = 0; j < nodes; j++ )
+        DKV.put(_pd.key("slices" + self, j, j), new Slices(packed[j], codes[j]), _fs);
+      Log.trace("Done partitioning domains on each node.");
+    }
+  }
+
+  // Every owner merges the slices it got; the domain sizes are summed
+  private static class MergeTask extends MRTask<MergeTask> {
+    private final PartitionedDomains _pd;
+    int[] _sizes;
+    MergeTask(PartitionedDomains pd) { _pd = pd; }
+    @Override public void setupLocal() {
+      final int nodes = _pd._nodes, ncols = _pd._catColIdxs.length, self = H2O.SELF.index();
+      Slices[] got = new Slices[nodes];
+      for( int i = 0; i < nodes; i++ ) got[i] = DKV.getGet(_pd.key("slices" + i, self, self));
+      _sizes = new int[ncols];
+      for( int c = 0; c < ncols; c++ ) {
+        byte[][] packed = new byte[nodes][];
+        for( int i = 0; i < nodes; i++ ) packed[i] = got[i]._packed[c];
+        byte[] owned = mergeAll(packed);
+        _sizes[c] = PackedDomains.sizeOf(owned);
+        DKV.put(_pd.key("owned" + c, self, self), new Slices(new byte[][]{owned}, null), _fs);
+      }
+      Log.trace("Done merging domain slices on each node.");
+    }
+    @Override public void reduce(MergeTask mt) {
+      for( int c = 0; c < _sizes.length; c++ ) _sizes[c] += mt._sizes[c];
+    }
+  }
+
+  // Every owner sends each node the global codes of the levels it sent
+  private static class GlobalCodesTask extends MRTask<GlobalCodesTask> {
+    private final PartitionedDomains _pd;
+    GlobalCodesTask(PartitionedDomains pd) { _pd = pd; }
+    @Override public void setupLocal() {
+      final int nodes = _pd._nodes, ncols = _pd._catColIdxs.length, self = H2O.SELF.index();
+      byte[][] owned = new byte[ncols][];
+      int[][] global = new int[ncols][];
+      for( int c = 0; c < ncols; c++ ) {
+        Key ok = _pd.key("owned" + c, self, self), ck = _pd.key("codes" + c, self, self);
+        owned[c] = ((Slices)DKV.getGet(ok))._packed[0];
+        Codes cs = DKV.getGet(ck);      // None for an all-NA column
+        global[c] = cs == null ? new int[0] : cs._global[0];
+        DKV.remove(ok, _fs);
+        DKV.remove(ck, _fs);
+      }
+      for( int i = 0; i < nodes; i++ ) {
+        Key sk = _pd.key("slices" + i, self, self);
+        Slices s = DKV.getGet(sk);
+        int[][] codes = new int[ncols][];
+        for( int c = 0; c < ncols; c++ ) {
+          // The levels sent are a sorted subset of the owned slice
+          byte[] sent = s._packed[c], all = owned[c];
+          BufferedString a = new BufferedString(sent, 0, 0), b = new BufferedString(all, 0, 0);
+          codes[c] = new int[s._codes[c].length];
+          int p = 4, g = 0;
+          next(all, 4, b);
+          for( int k = 0; k < codes[c].length; k++ ) {
+            next(sent, p, a);
+            while( a.compareTo(b) != 0 ) {
+              next(all, b.getOffset() + b.length(), b);
+              g++;
+            }
+            codes[c][k] = global[c][g];
+            p = a.getOffset() + a.length();
+          }
+        }
+        DKV.put(_pd.key("global" + self, i, i), new Codes(s._codes, codes), _fs);
+        DKV.remove(sk, _fs);
+      }
+    }
+  }
+
+  // Every node makes its local to global code maps
+  private static class MapTask extends MRTask<MapTask> {
+    private final PartitionedDomains _pd;
+    MapTask(PartitionedDomains pd) { _pd = pd; }
+    @Override public void setupLocal() {
+      final int nodes = _pd._nodes, ncols = _pd._catColIdxs.length, self = H2O.SELF.index();
+      final Categorical[] cats = ParseDataset.localCategoricals(_pd._cKey);
+      Codes[] got = new Codes[nodes];
+      for( int j = 0; j < nodes; j++ ) {
+        Key gk = _pd.key("global" + j, self, self);
+        got[j] = DKV.getGet(gk);
+        DKV.remove(gk, _fs);
+      }
+      if( cats == null ) return;
+      int[][] maps = new int[ncols][];
+      for( int c = 0; c < ncols; c++ ) {
+        Categorical cat = cats[_pd._parseColumns[_pd._catColIdxs[c]]];
+        if( cat.size() == 0 ) continue;
+        int[] map = MemoryManager.malloc4(cat.maxId() + 1);
+        Arrays.fill(map, -1);
+        boolean identity = true;
+        for( Codes cs : got )
+          for( int k = 0; k < cs._local[c].length; k++ ) {
+            int local = cs._local[c][k], global = cs._global[c][k];
+            map[local] = global;
+            identity &= local == global;
+          }
+        // Codes already global: the chunks of this node need no update
+        maps[c] = identity ? null : map;
+      }
+      DKV.put(Key.make(_pd._cKey.toString() + "parseCatMapNode" + self), new ParseDataset.CategoricalUpdateMap(maps), _fs);
+    }
+  }
+}
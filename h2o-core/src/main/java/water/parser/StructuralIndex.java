@@ -0,0 +1,83 @@
+package water.parser;
+
+import water.util.UnsafeUtils;
+
+import java.nio.ByteOrder;
+
+/**
+ * Positions of the structural bytes of a chunk of CSV: the separators, the
+ * line ends, and the bytes which need the full CSV state machine (the quote,
+ * the escape char, '$', '%' and NUL).  The bytes are looked at 8 at a time,
+ * as longs, with SWAR ("SIMD within a register") tricks; the positions are
+ * found a block at a time into a small buffer, and handed out in order.
+ */
+final class StructuralIndex {
+  private static final long ONES = 0x0101010101010101L;
+  private static final long LOWS = 0x7F7F7F7F7F7F7F7FL;
+  private static final long LFS = ONES * Parser.CHAR_LF, CRS = ONES * Parser.CHAR_CR;
+  private static final long DOLLARS = ONES * '$', PERCENTS = ONES * '%';
+  private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+  private final byte[] _bits;
+  private final byte _sep, _quote, _escape;
+  private final long _seps, _quotes, _escapes;
+  private final int[] _pos = new int[1024];
+  private int _n, _i;           // Positions in the buffer, and handed out
+  private int _scan;            // Next byte to look at
+
+  StructuralIndex( byte[] bits, int start, byte sep, byte quote, byte escape ) {
+    _bits = bits;
+    _scan = start;
+    _sep = sep;  _quote = quote;  _escape = escape;
+    _seps = ONES * (sep & 0xFF);
+    _quotes = ONES * (quote & 0xFF);
+    _escapes = ONES * (escape & 0xFF);
+  }
+
+  /** The next structural position, or -1 past the end of the bytes */
+  int next() {
+    if( _i == _n && !fill() ) return -1;
+    return _pos[_i++];
+  }
+
+  // 0x80 in each byte of w which is zero, 0 in the others.  Exact: no carry
+  // from a byte into the next (unlike the cheaper (w-ONES)&~w&HIGHS).
+  private static long zeros( long w ) {
+    long t = (w & LOWS) + LOWS;
+    return ~(t | w | LOWS);
+  }
+
+  private boolean isStructural( byte b ) {
+    return b == _sep || b == Parser.CHAR_LF || b == Parser.CHAR_CR || b == _quote || b == '$' || b == '%'
+        || b == _escape || b == 0;
+  }
+
+  private boolean fill() {
+    final byte[] bits = _bits;
+    final int len = bits.length, max = _pos.length;
+    int n = 0, s = _scan;
+    while( s + 8 <= len && n <= max - 8 ) {
+      long w = UnsafeUtils.get8(bits, s);
+      long m = zeros(w ^ _seps) | zeros(w ^ LFS) | zeros(w ^ CRS) | zeros(w ^ _quotes)
+             | zeros(w ^ DOLLARS) | zeros(w ^ PERCENTS) | zeros(w ^ _escapes) | zeros(w);
+      while( m != 0 ) {
+        if( LITTLE_ENDIAN ) {
+          _pos[n++] = s + (Long.numberOfTrailingZeros(m) >>> 3);
+          m &= m - 1;
+        } else {
+          int b = Long.numberOfLeadingZeros(m);
+          _pos[n++] = s + (b >>> 3);
+          m &= ~(Long.MIN_VALUE >>> b);
+        }
+      }
+      s += 8;
+    }
+    if( s + 8 > len )           // The last few bytes, one at a time
+      for( ; s < len && n < max; s++ )
+        if( isStructural(bits[s]) ) _pos[n++] = s;
+    _scan = s;
+    _n = n;
+    _i = 0;
+    return n > 0;
+  }
+}
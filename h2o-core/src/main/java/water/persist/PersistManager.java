@@ -71,6 +71,7 @@ public class PersistManager {
   private PersistHex HEX = new PersistHex(); // not part of I because it cannot be a backend for DKV
   private PersistH2O persistH2O = new PersistH2O();
   private PersistStatsEntry[] stats;
+  private final SnapshotChunkIndex snapshots = new SnapshotChunkIndex(); // ICE Values lazily backed by frame snapshots
   public PersistStatsEntry[] getStats() { return stats; }
 
   public boolean isHdfsPath(String path) {
@@ -130,7 +131,9 @@ public class PersistManager {
       ice = new PersistFS(new File(iceRoot.toString()));
     }
     else if ((iceRoot.getScheme() == null) || Schemes.FILE.equals(iceRoot.getScheme())) {
-      ice = new PersistFS(new File(iceRoot.getPath()));
+      ice = H2O.getSysBoolProperty(PersistMappedFS.MMAP_PROP, false)
+              ? new PersistMappedFS(new File(iceRoot.getPath()))
+              : new PersistFS(new File(iceRoot.getPath()));
     }
     else if( Schemes.HDFS.equals(iceRoot.getScheme()) ) {
       Log.err("HDFS ice_root not yet supported.  Exiting.");
@@ -150,6 +153,10 @@ public class PersistManager {
 //      }
     }
 
+    long offHeapBytes = Long.parseLong(H2O.getSysProperty(PersistOffHeap.OFFHEAP_BYTES_PROP, "0"));
+    if (offHeapBytes > 0 && ice != null)
+      ice = new PersistOffHeap(ice, offHeapBytes);
+
     I[Value.ICE] = ice;
     I[Value.NFS] = new PersistNFS();
 
@@ -195,21 +202,39 @@ public class PersistManager {
 
   public void store(int backend, Value v) throws IOException {
     stats[backend].store_count.incrementAndGet();
+    if (backend == Value.ICE) snapshots.forget(v._key); // A newer Value replaces the snapshot copy
     I[backend].store(v);
   }
 
   public void delete(int backend, Value v) {
     stats[backend].delete_count.incrementAndGet();
+    if (backend == Value.ICE && snapshots.forget(v._key)) return; // Never delete the snapshot itself
     I[backend].delete(v);
   }
 
   public byte[] load(int backend, Value v) throws IOException {
     stats[backend].load_count.incrementAndGet();
-    byte[] arr = I[backend].load(v);
+    byte[] arr = backend == Value.ICE ? snapshots.load(v._key) : null;
+    if (arr == null) arr = I[backend].load(v);
     stats[backend].load_bytes.addAndGet(arr.length);
     return arr;
   }
 
+  /**
+   * Register a Chunk Value whose bytes live in a local frame snapshot file. The Value
+   * is expected to be put into the DKV as a persisted ICE Value without any bytes; the
+   * bytes are read from the snapshot on first access. The snapshot file needs to stay
+   * in place for as long as the Value is alive.
+   *
+   * @param key chunk key
+   * @param file local snapshot file
+   * @param offset offset of the chunk bytes in the file
+   * @param len number of bytes
+   */
+  public void registerSnapshotChunk(Key key, File file, long offset, int len) {
+    snapshots.register(key, file, offset, len);
+  }
+
   public byte[] load(int backend, Key k, long skip, int max) throws IOException {
     stats[backend].load_count.incrementAndGet();
     byte[] arr = I[backend].load(k, skip, max);
@@ -0,0 +1,314 @@
+package water.persist;
+
+import water.H2O;
+import water.H2O.H2OCountedCompleter;
+import water.Key;
+import water.Value;
+import water.fvec.Vec;
+import water.util.Log;
+import water.util.PrettyPrint;
+import water.util.UnsafeUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Memory-mapped ICE backend for user-mode swapping.
+ *
+ * Instead of writing one file per spilled Value through an {@link water.AutoBuffer}
+ * stream (see {@link PersistFS}), Values are appended to large segment files.
+ * Once a segment is full it is sealed and memory-mapped read-only, and
+ * reloading a Value is a single copy out of the page cache - no open/read/close
+ * per Chunk, no stream buffering.  Segments are reclaimed as soon as all
+ * Values written into them have been deleted; a sealed segment with less than
+ * half of its bytes still live is compacted in a background task, its live
+ * Values being copied to the current segment, so that it can be reclaimed too.
+ * Reclaimed segments are unmapped right away rather than whenever the GC
+ * collects their buffer.
+ *
+ * Only the ICE swapping goes through the segments; the path API
+ * (open/create/list/...) is passed on to a plain {@link PersistFS}.
+ *
+ * Enabled by setting the system property {@code sys.ai.h2o.persist.ice.mmap=true};
+ * the segment size can be tuned with {@code sys.ai.h2o.persist.ice.mmap.segment.bytes}.
+ */
+public final class PersistMappedFS extends Persist {
+
+  static final String MMAP_PROP = "persist.ice.mmap";
+  static final String SEGMENT_BYTES_PROP = "persist.ice.mmap.segment.bytes";
+  private static final long DEFAULT_SEGMENT_BYTES = 256L << 20;
+
+  private final PersistFS _fs;     // Everything not related to swapping Values
+  private final File _dir;         // Where segment files go
+  private final long _segmentBytes;
+  private final ConcurrentHashMap<Key, Extent> _index = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Integer, Segment> _segments = new ConcurrentHashMap<>();
+  private final Set<Segment> _compact = ConcurrentHashMap.newKeySet(); // Sealed segments mostly dead
+  private final AtomicBoolean _compacting = new AtomicBoolean(); // A compaction task is running
+  private Segment _current;        // Segment being appended to; guarded by this
+  private int _nextSegmentId;      // guarded by this
+
+  // One append-only segment file
+  private static final class Segment {
+    final int _id;
+    final File _file;
+    final FileChannel _ch;
+    long _size;                    // Append offset; guarded by the PersistMappedFS
+    volatile boolean _sealed;
+    volatile MappedByteBuffer _map;// Whole-file mapping, set once sealed
+    final AtomicLong _live = new AtomicLong(); // Bytes still referenced from the index
+    final ConcurrentHashMap<Key, Extent> _extents = new ConcurrentHashMap<>(); // The live ones, to compact
+    // Readers hold the read lock while copying out, so the segment is not
+    // unmapped and closed under them
+    final ReentrantReadWriteLock _lock = new ReentrantReadWriteLock();
+    boolean _released;             // guarded by _lock
+    Segment(int id, File file) throws IOException {
+      _id = id;
+      _file = file;
+      _ch = new RandomAccessFile(file, "rw").getChannel();
+    }
+  }
+
+  // Location of a single stored Value
+  private static final class Extent {
+    final Segment _seg;
+    final long _off;
+    final int _len;
+    Extent(Segment seg, long off, int len) { _seg = seg; _off = off; _len = len; }
+  }
+
+  PersistMappedFS(File root) {
+    this(new PersistFS(root), Long.parseLong(H2O.getSysProperty(SEGMENT_BYTES_PROP, String.valueOf(DEFAULT_SEGMENT_BYTES))));
+  }
+
+  PersistMappedFS(PersistFS fs, long segmentBytes) {
+    assert segmentBytes > 0;
+    _fs = fs;
+    _dir = new File(fs._dir, "segments");
+    _segmentBytes = Math.min(segmentBytes, Integer.MAX_VALUE);
+    Log.info("Memory-mapped ICE backend enabled, segment size: " + PrettyPrint.bytes(_segmentBytes));
+  }
+
+  /** Number of live (not yet reclaimed) segment files */
+  int segmentCount() { return _segments.size(); }
+
+  // Append a byte[] to the current segment, rolling over to a fresh segment
+  // when it would not fit.  Returns where the bytes landed.
+  private synchronized Extent append(Key k, byte[] m) throws IOException {
+    if( _current == null || (_current._size > 0 && _current._size + m.length > _segmentBytes) ) {
+      if( _current != null ) seal(_current);
+      if( !_dir.mkdirs() && !_dir.exists() )
+        throw new IOException("mkdirs failed making " + _dir);
+      int id = _nextSegmentId++;
+      _current = new Segment(id, new File(_dir, "segment_" + id));
+      _segments.put(id, _current);
+    }
+    Segment seg = _current;
+    long off = seg._size;
+    ByteBuffer bb = ByteBuffer.wrap(m);
+    while( bb.hasRemaining() )
+      seg._ch.write(bb, off + bb.position());
+    seg._size += m.length;
+    seg._live.addAndGet(m.length);
+    Extent e = new Extent(seg, off, m.length);
+    seg._extents.put(k, e);
+    return e;
+  }
+
+  // Map a full segment read-only; all further reads of it are page-cache copies
+  private void seal(Segment seg) throws IOException {
+    if( seg._size <= Integer.MAX_VALUE )
+      seg._map = seg._ch.map(FileChannel.MapMode.READ_ONLY, 0, seg._size);
+    seg._sealed = true;
+    reclaim(seg, seg._live.get());
+  }
+
+  // Release a sealed segment with nothing live left, or queue it for a
+  // compaction if most of it is dead
+  private void reclaim(Segment seg, long live) {
+    if( live == 0 ) release(seg);
+    else if( live * 2 < seg._size && _compact.add(seg) ) scheduleCompaction();
+  }
+
+  // Compact the queued segments in the background, not in the thread storing
+  // or deleting a Value; at most one task at a time
+  private void scheduleCompaction() {
+    if( _compact.isEmpty() || !_compacting.compareAndSet(false, true) ) return;
+    H2O.submitTask(new H2OCountedCompleter() {
+      @Override public void compute2() {
+        try {
+          for( Segment seg : _compact )
+            if( _compact.remove(seg) ) compact(seg);
+        } catch( IOException e ) {
+          Log.warn("Failed to compact ICE segments: " + e);
+        } finally {
+          _compacting.set(false);
+        }
+        tryComplete();
+        scheduleCompaction();     // Queued while we were finishing up
+      }
+    });
+  }
+
+  // Copy the live Values of a segment to the current one; the segment is
+  // released as the last one is freed
+  private void compact(Segment seg) throws IOException {
+    for( Map.Entry<Key, Extent> kv : seg._extents.entrySet() ) {
+      Key k = kv.getKey();
+      Extent e = kv.getValue();
+      byte[] b = read(e);
+      if( b == null ) return;     // Released already
+      Extent moved = append(k, b);
+      if( _index.replace(k, e, moved) ) free(k, e);
+      else free(k, moved);        // Deleted or stored again meanwhile
+    }
+  }
+
+  private void release(Segment seg) {
+    if( _segments.remove(seg._id) == null ) return; // Already released
+    _compact.remove(seg);
+    seg._lock.writeLock().lock();
+    try {
+      seg._released = true;
+      MappedByteBuffer map = seg._map;
+      seg._map = null;
+      if( map != null ) unmap(map);
+      try { seg._ch.close(); } catch( IOException ignore ) { }
+    } finally {
+      seg._lock.writeLock().unlock();
+    }
+    if( !seg._file.delete() )
+      Log.warn("Failed to delete ICE segment " + seg._file);
+  }
+
+  // Unmap now rather than when the GC gets to the buffer, which may be long
+  // after the file is deleted.  JDK 9+ has Unsafe.invokeCleaner, JDK 8 the
+  // buffer's own cleaner; if neither is there, leave it to the GC.
+  private static void unmap(MappedByteBuffer map) {
+    try {
+      if( !UnsafeUtils.invokeCleaner(map) ) {
+        Method cleaner = map.getClass().getMethod("cleaner");
+        cleaner.setAccessible(true);
+        Object c = cleaner.invoke(map);
+        if( c != null ) c.getClass().getMethod("clean").invoke(c);
+      }
+    } catch( Exception e ) {
+      Log.debug("Could not unmap ICE segment, left to the GC: " + e);
+    }
+  }
+
+  @Override public void store(Value v) throws IOException {
+    assert !v.isPersisted();
+    byte[] m = v.memOrLoad(); // we are not single threaded anymore
+    if( m == null ) // Racing delete/remove, nothing left to write
+      throw new FileNotFoundException("Value deleted while being stored: " + v._key);
+    if( m.length != v._max ) {
+      Log.warn("Value size mismatch? " + v._key + " byte[].len=" + m.length + " v._max=" + v._max);
+      v._max = m.length; // Implies update of underlying POJO, then re-serializing it without K/V storing it
+    }
+    Extent old = _index.put(v._key, append(v._key, m));
+    if( old != null ) free(v._key, old);
+  }
+
+  @Override public byte[] load(Value v) throws IOException {
+    while( true ) {
+      Extent e = _index.get(v._key);
+      if( e == null || e._len < v._max ) { // Should be fully on disk...
+        // or it's a racey delete of a spilled value
+        assert !v.isPersisted() : v._key;
+        return null; // No value
+      }
+      byte[] b = read(e);
+      if( b != null ) return b;
+      // Segment released under us: the Value was moved by a compaction, or deleted
+    }
+  }
+
+  // The bytes of an extent, or null if its segment was released
+  private static byte[] read(Extent e) throws IOException {
+    Segment seg = e._seg;
+    seg._lock.readLock().lock();
+    try {
+      if( seg._released ) return null;
+      byte[] b = new byte[e._len];
+      MappedByteBuffer map = seg._map;
+      if( map != null ) {
+        ByteBuffer dup = map.duplicate(); // Private position/limit per reader
+        dup.position((int)e._off);
+        dup.get(b);
+      } else {                    // Still being appended to: positional read
+        ByteBuffer bb = ByteBuffer.wrap(b);
+        while( bb.hasRemaining() )
+          if( seg._ch.read(bb, e._off + bb.position()) < 0 )
+            throw new IOException("Unexpected end of ICE segment " + seg._file);
+      }
+      return b;
+    } finally {
+      seg._lock.readLock().unlock();
+    }
+  }
+
+  @Override public void delete(Value v) {
+    Extent e = _index.remove(v._key);
+    if( e != null ) free(v._key, e);
+  }
+
+  private void free(Key k, Extent e) {
+    Segment seg = e._seg;
+    seg._extents.remove(k, e);
+    long live = seg._live.addAndGet(-e._len);
+    if( seg._sealed ) reclaim(seg, live);
+  }
+
+  @Override public synchronized void cleanUp() {
+    _index.clear();
+    for( Segment seg : _segments.values() )
+      release(seg);
+    _compact.clear();
+    _current = null;
+    _fs.cleanUp();
+  }
+
+  @Override public long getUsableSpace() { return _fs.getUsableSpace(); }
+  @Override public long getTotalSpace() { return _fs.getTotalSpace(); }
+  @Override public Key uriToKey(URI uri) { return _fs.uriToKey(uri); }
+  @Override public List<String> calcTypeaheadMatches(String filter, int limit) { return _fs.calcTypeaheadMatches(filter, limit); }
+  @Override public void importFiles(String path, String pattern, ArrayList<String> files, ArrayList<String> keys, ArrayList<String> fails, ArrayList<String> dels) {
+    _fs.importFiles(path, pattern, files, keys, fails, dels);
+  }
+  @Override public byte[] load(Key k, long skip, int max) throws IOException { return _fs.load(k, skip, max); }
+
+  // Path API: plain files, nothing to do with the segments
+  @Override public String getHomeDirectory() { return _fs.getHomeDirectory(); }
+  @Override public PersistEntry[] list(String path) { return _fs.list(path); }
+  @Override public boolean exists(String path) { return _fs.exists(path); }
+  @Override public String getParent(String path) { return _fs.getParent(path); }
+  @Override public boolean isDirectory(String path) { return _fs.isDirectory(path); }
+  @Override public long length(String path) { return _fs.length(path); }
+  @Override public InputStream open(String path) { return _fs.open(path); }
+  @Override public InputStream openSeekable(String path) { return _fs.openSeekable(path); }
+  @Override public boolean isSeekableOpenSupported() { return _fs.isSeekableOpenSupported(); }
+  @Override public InputStream wrapSeekable(Vec vec) { return _fs.wrapSeekable(vec); }
+  @Override public boolean mkdirs(String path) { return _fs.mkdirs(path); }
+  @Override public boolean rename(String fromPath, String toPath) { return _fs.rename(fromPath, toPath); }
+  @Override public OutputStream create(String path, boolean overwrite) { return _fs.create(path, overwrite); }
+  @Override public boolean delete(String path) { return _fs.delete(path); }
+  @Override public boolean canHandle(String path) { return _fs.canHandle(path); }
+}
@@ -38,6 +38,9 @@ public final class PersistNFS extends Persist {
     return new File(s);
   }
 
+  /** True if the file behind a NFS-based Key can be read from this node */
+  public static boolean canRead(Key k) { return getFileForKey(k).canRead(); }
+
   public void cleanUp() { }
 
   /**
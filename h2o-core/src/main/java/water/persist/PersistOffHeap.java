@@ -0,0 +1,166 @@
+package water.persist;
+
+import water.Key;
+import water.Value;
+import water.util.Log;
+import water.util.PrettyPrint;
+import water.util.UnsafeUtils;
+
+import water.fvec.Vec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Off-heap tier in front of the ICE backend.
+ *
+ * Values spilled by the {@link water.Cleaner} are first copied into native
+ * memory (outside of the Java heap, invisible to the GC) up to a configured
+ * capacity; only once the capacity is exhausted do spills fall through to the
+ * wrapped on-disk ICE backend.  Reloading an off-heap Value is a single
+ * memcpy back into a fresh heap byte[], so the Cleaner can aggressively drop
+ * cold Chunks from the heap and keep GC pauses proportional to the hot
+ * working set rather than to the size of the Frames in the K/V store.
+ *
+ * Note that Chunks are never read in place from native memory: a reload
+ * always materializes the whole byte[] on the heap again, and at8_impl and
+ * friends keep working on that heap copy.  The tier saves the disk round
+ * trip, not the heap allocation.
+ *
+ * This class is also what {@link PersistManager} hands out for local paths,
+ * so the whole path API (open/create/list/...) is passed on to the wrapped
+ * backend unchanged.
+ *
+ * Enabled by setting the system property
+ * {@code sys.ai.h2o.persist.ice.offheap.bytes} to a positive number of bytes.
+ */
+public final class PersistOffHeap extends Persist {
+
+  static final String OFFHEAP_BYTES_PROP = "persist.ice.offheap.bytes";
+
+  private final Persist _disk;     // Fall-through backend (usually PersistFS)
+  private final long _capacity;    // Max native bytes we are allowed to hold
+  private final AtomicLong _used = new AtomicLong();
+  private final ConcurrentHashMap<Key, Slot> _slots = new ConcurrentHashMap<>();
+
+  // A single native allocation.  Guarded by its own monitor so a racing
+  // delete can never free the memory under a concurrent load.
+  private static final class Slot {
+    long _addr;
+    final int _len;
+    Slot(long addr, int len) { _addr = addr; _len = len; }
+  }
+
+  PersistOffHeap(Persist disk, long capacity) {
+    assert capacity > 0;
+    _disk = disk;
+    _capacity = capacity;
+    Log.info("Off-heap ICE tier enabled, capacity: " + PrettyPrint.bytes(capacity));
+  }
+
+  /** Bytes currently held in native memory */
+  public long usedBytes() { return _used.get(); }
+  /** Max bytes this tier can hold in native memory */
+  public long capacity() { return _capacity; }
+  /** True if the Value is currently backed by native memory (as opposed to disk) */
+  public boolean isOffHeap(Value v) { return _slots.containsKey(v._key); }
+
+  // Reserve space in the native pool; false if the pool is full
+  private boolean reserve(int len) {
+    while( true ) {
+      long used = _used.get();
+      if( used + len > _capacity ) return false;
+      if( _used.compareAndSet(used, used + len) ) return true;
+    }
+  }
+
+  @Override public void store(Value v) throws IOException {
+    assert !v.isPersisted();
+    byte[] m = v.memOrLoad();
+    if( m == null || !reserve(m.length) ) { _disk.store(v); return; }
+    if( m.length != v._max ) {
+      Log.warn("Value size mismatch? " + v._key + " byte[].len=" + m.length + " v._max=" + v._max);
+      v._max = m.length; // Same as PersistFS: POJO was updated without a K/V store
+    }
+    long addr;
+    try { addr = UnsafeUtils.allocateMemory(Math.max(m.length, 1)); }
+    catch( OutOfMemoryError oom ) { _used.addAndGet(-m.length); _disk.store(v); return; }
+    UnsafeUtils.copyToNative(m, 0, addr, m.length);
+    Slot old = _slots.put(v._key, new Slot(addr, m.length));
+    if( old != null ) free(old); // Stale copy from a prior Value of the same Key
+  }
+
+  @Override public byte[] load(Value v) throws IOException {
+    Slot s = _slots.get(v._key);
+    if( s == null ) return _disk.load(v);
+    synchronized(s) {
+      if( s._addr == 0 ) {     // Racey delete of a spilled value
+        assert !v.isPersisted() : v._key;
+        return null;
+      }
+      byte[] b = new byte[s._len];
+      UnsafeUtils.copyFromNative(s._addr, b, 0, s._len);
+      return b;
+    }
+  }
+
+  @Override public void delete(Value v) {
+    Slot s = _slots.remove(v._key);
+    if( s == null ) _disk.delete(v);
+    else free(s);
+  }
+
+  private void free(Slot s) {
+    synchronized(s) {
+      if( s._addr == 0 ) return;
+      UnsafeUtils.freeMemory(s._addr);
+      s._addr = 0;
+    }
+    _used.addAndGet(-s._len);
+  }
+
+  @Override public void cleanUp() {
+    for( Key k : _slots.keySet() ) {
+      Slot s = _slots.remove(k);
+      if( s != null ) free(s);
+    }
+    _disk.cleanUp();
+  }
+
+  // Disk-facing queries go to the wrapped backend: the native pool is not a
+  // file system, and the disk-full checks in the Cleaner are about ice_root.
+  @Override public long getUsableSpace() { return _disk.getUsableSpace(); }
+  @Override public long getTotalSpace() { return _disk.getTotalSpace(); }
+  @Override public Key uriToKey(URI uri) throws IOException { return _disk.uriToKey(uri); }
+  @Override public List<String> calcTypeaheadMatches(String filter, int limit) { return _disk.calcTypeaheadMatches(filter, limit); }
+  @Override public void importFiles(String path, String pattern, ArrayList<String> files, ArrayList<String> keys, ArrayList<String> fails, ArrayList<String> dels) {
+    _disk.importFiles(path, pattern, files, keys, fails, dels);
+  }
+  @Override public byte[] load(Key k, long skip, int max) throws IOException { return _disk.load(k, skip, max); }
+
+  // Path API: plain files on the local file system, nothing to do with the tier
+  @Override public String getHomeDirectory() { return _disk.getHomeDirectory(); }
+  @Override public PersistEntry[] list(String path) { return _disk.list(path); }
+  @Override public boolean exists(String path) { return _disk.exists(path); }
+  @Override public String getParent(String path) { return _disk.getParent(path); }
+  @Override public boolean isDirectory(String path) { return _disk.isDirectory(path); }
+  @Override public long length(String path) { return _disk.length(path); }
+  @Override public InputStream open(String path) { return _disk.open(path); }
+  @Override public InputStream openSeekable(String path) { return _disk.openSeekable(path); }
+  @Override public boolean isSeekableOpenSupported() { return _disk.isSeekableOpenSupported(); }
+  @Override public InputStream wrapSeekable(Vec vec) { return _disk.wrapSeekable(vec); }
+  @Override public boolean mkdirs(String path) { return _disk.mkdirs(path); }
+  @Override public boolean rename(String fromPath, String toPath) { return _disk.rename(fromPath, toPath); }
+  @Override public OutputStream create(String path, boolean overwrite) { return _disk.create(path, overwrite); }
+  @Override public boolean delete(String path) { return _disk.delete(path); }
+  @Override public boolean canHandle(String path) { return _disk.canHandle(path); }
+  @Override public String toString() {
+    return "PersistOffHeap(used: " + PrettyPrint.bytes(usedBytes()) + " / " + PrettyPrint.bytes(_capacity) + ", disk: " + _disk + ")";
+  }
+}
@@ -0,0 +1,95 @@
+package water.persist;
+
+import water.Key;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of Chunk Values whose bytes live in a frame snapshot file (see
+ * {@link water.fvec.persist.FramePersist}) rather than in ice_root.
+ *
+ * Such Values are put into the K/V store as already-persisted ICE Values with
+ * no bytes in memory.  The first access goes through the normal swap-in path
+ * ({@link water.Value#memOrLoad}), and the {@link PersistManager} serves the
+ * bytes straight out of the snapshot file.  Under memory pressure the Cleaner
+ * can drop them again without writing anything, since they are already "on
+ * disk".
+ */
+final class SnapshotChunkIndex {
+
+  // A snapshot file, with one read channel shared by all its chunks: opened
+  // on the first load, and closed once no Key is backed by the file anymore
+  private static final class SnapshotFile {
+    final File _file;
+    int _extents;               // Keys backed by the file
+    private FileChannel _ch;
+    SnapshotFile(File file) { _file = file; }
+
+    synchronized FileChannel channel() throws IOException {
+      // Reopened if closed, e.g. by an interrupt of a thread reading it
+      if( _ch == null || !_ch.isOpen() )
+        _ch = FileChannel.open(_file.toPath(), StandardOpenOption.READ);
+      return _ch;
+    }
+
+    synchronized void close() {
+      if( _ch == null ) return;
+      try { _ch.close(); } catch( IOException ignore ) { }
+      _ch = null;
+    }
+  }
+
+  private static final class Extent {
+    final SnapshotFile _file;
+    final long _off;
+    final int _len;
+    Extent(SnapshotFile file, long off, int len) { _file = file; _off = off; _len = len; }
+  }
+
+  private final ConcurrentHashMap<Key, Extent> _extents = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<File, SnapshotFile> _files = new ConcurrentHashMap<>();
+
+  void register(Key k, File file, long off, int len) {
+    SnapshotFile f = _files.compute(file, (fk, sf) -> {
+      if( sf == null ) sf = new SnapshotFile(fk);
+      sf._extents++;
+      return sf;
+    });
+    Extent old = _extents.put(k, new Extent(f, off, len));
+    if( old != null ) release(old._file);
+  }
+
+  /** Drop the mapping; true if the Key was backed by a snapshot */
+  boolean forget(Key k) {
+    Extent e = _extents.remove(k);
+    if( e == null ) return false;
+    release(e._file);
+    return true;
+  }
+
+  private void release(SnapshotFile f) {
+    _files.computeIfPresent(f._file, (fk, sf) -> {
+      if( --sf._extents > 0 ) return sf;
+      sf.close();
+      return null;
+    });
+  }
+
+  /** Bytes of the given Key, or null if it is not backed by a snapshot */
+  byte[] load(Key k) throws IOException {
+    Extent e = _extents.get(k);
+    if( e == null ) return null;
+    byte[] b = new byte[e._len];
+    FileChannel ch = e._file.channel();
+    ByteBuffer bb = ByteBuffer.wrap(b);
+    while( bb.hasRemaining() )
+      if( ch.read(bb, e._off + bb.position()) < 0 )
+        throw new IOException("Unexpected end of snapshot file " + e._file._file + " while loading " + k);
+    return b;
+  }
+}
@@ -84,6 +84,11 @@ public class Env extends Iced {
     PRIMS.put(name, ast);
   }
 
+  // Built-in primitive of the given name, without looking at the scope or the DKV
+  static AstPrimitive prim(String id) {
+    return PRIMS.get(id);
+  }
+
   static {
     // Constants
     CONSTS.put("FALSE", AstConst.FALSE);
@@ -0,0 +1,125 @@
+package water.rapids;
+
+import water.H2O;
+import water.rapids.ast.AstExec;
+import water.rapids.ast.AstFused;
+import water.rapids.ast.AstParameter;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.AstRoot;
+import water.rapids.ast.params.AstId;
+import water.rapids.ast.prims.math.AstUniOp;
+import water.rapids.ast.prims.mungers.AstColPySlice;
+import water.rapids.ast.prims.mungers.AstColSlice;
+import water.rapids.ast.prims.mungers.AstIsNa;
+import water.rapids.ast.prims.operators.AstBinOp;
+import water.rapids.ast.prims.operators.AstIfElse;
+import water.rapids.ast.prims.operators.AstLAnd;
+import water.rapids.ast.prims.operators.AstLOr;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optimizer pass run between parsing and execution.  Chains of element-wise
+ * prims (operators, math functions, ifelse, is.na) are replaced by a single
+ * {@link AstFused} node, which computes the whole chain in one pass over the
+ * data rather than one MRTask and one temporary frame per prim.  For example
+ * {@code (* (ifelse (> x 0) (log x) 0) w)} reads x and w once and writes only
+ * the final column.
+ *
+ * The pass can be turned off with the {@code sys.ai.h2o.rapids.fuse} system
+ * property.
+ */
+final class Fusion {
+
+  static final boolean ENABLED = H2O.getSysBoolProperty("rapids.fuse", true);
+
+  private Fusion() {}
+
+  /** Fuse the element-wise chains of the expression, the tree is modified in place */
+  static AstRoot optimize(AstRoot ast) {
+    return ENABLED ? fuse(ast) : ast;
+  }
+
+  private static AstRoot fuse(AstRoot ast) {
+    // Function bodies {...} are not looked into
+    if (!(ast instanceof AstExec) || ast instanceof AstFused) return ast;
+    AstExec exec = (AstExec) ast;
+    if (kernelFun(exec) != null) {
+      Builder b = new Builder();
+      b.add(exec);
+      if (b._nops > 1) return b.build(exec);
+    }
+    for (int i = 0; i < exec._asts.length; i++)
+      exec._asts[i] = fuse(exec._asts[i]);
+    return exec;
+  }
+
+  /**
+   * The element-wise prim applied by the expression, or null if the
+   * expression cannot be part of a fused chain
+   */
+  private static AstPrimitive kernelFun(AstExec exec) {
+    if (exec instanceof AstFused || exec._asts.length == 0 || !(exec._asts[0] instanceof AstId)) return null;
+    AstPrimitive fn = Env.prim(exec._asts[0].str());
+    if (fn == null || fn.nargs() != exec._asts.length) return null;
+    if (fn instanceof AstBinOp)  // short-circuit logicals do not always evaluate both sides
+      return fn instanceof AstLAnd || fn instanceof AstLOr ? null : fn;
+    if (fn instanceof AstUniOp || fn instanceof AstIsNa) return fn;
+    // The fused ifelse evaluates both branches, they must be free of side effects
+    if (fn instanceof AstIfElse) return isPure(exec._asts[2]) && isPure(exec._asts[3]) ? fn : null;
+    return null;
+  }
+
+  // Constants, names, column selections and element-wise prims of those
+  private static boolean isPure(AstRoot ast) {
+    if (ast instanceof AstParameter) return true;
+    if (!(ast instanceof AstExec) || ast instanceof AstFused) return false;
+    AstRoot[] args = ((AstExec) ast)._asts;
+    if (kernelFun((AstExec) ast) == null) {
+      AstPrimitive fn = args.length > 0 && args[0] instanceof AstId ? Env.prim(args[0].str()) : null;
+      if (!(fn instanceof AstColSlice || fn instanceof AstColPySlice)) return false;
+    }
+    for (int i = 1; i < args.length; i++)
+      if (!isPure(args[i])) return false;
+    return true;
+  }
+
+  /** Flattens a chain into postfix order */
+  private static final class Builder {
+    final List<AstRoot> _leaves = new ArrayList<>();
+    final List<AstPrimitive> _fns = new ArrayList<>();
+    final List<String> _ids = new ArrayList<>();
+    final List<Integer> _leaf = new ArrayList<>();
+    int _nops;
+
+    void add(AstRoot ast) {
+      AstPrimitive fn = ast instanceof AstExec ? kernelFun((AstExec) ast) : null;
+      if (fn == null) {
+        _fns.add(null);
+        _ids.add(null);
+        _leaf.add(_leaves.size());
+        _leaves.add(ast);
+        return;
+      }
+      AstRoot[] args = ((AstExec) ast)._asts;
+      for (int i = 1; i < args.length; i++)
+        add(args[i]);
+      _fns.add(fn);
+      _ids.add(args[0].str());
+      _leaf.add(-1);
+      _nops++;
+    }
+
+    AstFused build(AstExec orig) {
+      AstRoot[] leaves = new AstRoot[_leaves.size()];
+      for (int i = 0; i < leaves.length; i++)
+        leaves[i] = fuse(_leaves.get(i)); // the leaves may hold chains of their own
+      int[] leaf = new int[_leaf.size()];
+      for (int k = 0; k < leaf.length; k++)
+        leaf[k] = _leaf.get(k);
+      return new AstFused(orig, leaves, _fns.toArray(new AstPrimitive[0]), _ids.toArray(new String[0]), leaf);
+    }
+  }
+
+}
@@ -0,0 +1,455 @@
+package water.rapids;
+
+import water.*;
+import water.fvec.*;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.prims.math.AstUniOp;
+import water.rapids.ast.prims.mungers.AstIsNa;
+import water.rapids.ast.prims.operators.AstBinOp;
+import water.rapids.ast.prims.operators.AstIfElse;
+import water.rapids.vals.ValFrame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lazily computed columns for element-wise Rapids expressions.
+ *
+ * With the session property {@code rapids.lazy} set to true (the default is
+ * taken from the {@code sys.ai.h2o.rapids.lazy} system property), numeric
+ * element-wise AstBinOp and AstUniOp calls on frames do not run an MRTask.
+ * Every result column is a {@link TransformWrappedVec} holding the expression,
+ * evaluated chunk by chunk when read.  Operands which are lazy themselves are
+ * inlined, so a chain like {@code (+ (cols fr 1) (* (cols fr 2) 3))} becomes
+ * a single fused expression over the materialized base Vecs and no
+ * intermediate Vec is ever written.
+ *
+ * The {@link Session} keeps the base Vecs of a lazy Vec alive for as long as
+ * the lazy Vec lives, and materializes lazy Vecs when they leave the session
+ * (returned or assigned to a global) or are about to be modified.  Consumers
+ * which make many passes over the data (model builders, sort) materialize
+ * them up front with {@link #materialize(Frame)}.
+ *
+ * The same expressions back the fused kernels of
+ * {@link water.rapids.ast.AstFused}, which are computed in a single MRTask
+ * by {@link #compute} when the lazy evaluation is off.
+ */
+public class LazyExpr {
+
+  /** Session property turning the lazy evaluation on */
+  public static final String PROPERTY = "rapids.lazy";
+  private static final String DEFAULT = String.valueOf(H2O.getSysBoolProperty(PROPERTY, false));
+
+  /** Longest fused expression, longer chains are computed eagerly */
+  static final int MAX_OPS = 64;
+  /** Most base Vecs a single expression can read */
+  static final int MAX_INPUTS = 16;
+
+  public static boolean isEnabled(Session ses) {
+    return ses != null && Boolean.parseBoolean(ses.getProperty(PROPERTY, DEFAULT));
+  }
+
+  /** Is this Vec a lazily computed Rapids expression? */
+  public static boolean isLazy(Vec vec) {
+    return vec instanceof TransformWrappedVec &&
+            ((TransformWrappedVec) vec).getTransformFactory() instanceof ExprFactory;
+  }
+
+  /**
+   * Lazy version of an element-wise binary operator, or null if the arguments
+   * need the eager implementation (no frame argument, non-numeric columns,
+   * broadcast rows, incompatible layouts, too long expressions...).
+   */
+  public static ValFrame binOp(Env env, AstBinOp op, Val left, Val rite) {
+    if (!isEnabled(env._ses) || !(left.isFrame() || rite.isFrame())) return null;
+    Frame lf = left.isFrame() ? left.getFrame() : null;
+    Frame rf = rite.isFrame() ? rite.getFrame() : null;
+    if ((lf == null && !isScalar(left)) || (rf == null && !isScalar(rite))) return null;
+    Frame shape = lf != null ? lf : rf; // result has the names of the widest frame
+    if (lf != null && rf != null) {
+      if (lf.numRows() != rf.numRows()) return null;
+      if (lf.numCols() == 1 && rf.numCols() > 1) shape = rf;
+      else if (lf.numCols() != rf.numCols() && rf.numCols() != 1) return null;
+    }
+    if (shape.numCols() == 0 || shape.numRows() == 0) return null;
+    Expr[] exprs = new Expr[shape.numCols()];
+    for (int c = 0; c < exprs.length; c++) {
+      Vec lv = lf == null ? null : lf.vec(Math.min(c, lf.numCols() - 1));
+      Vec rv = rf == null ? null : rf.vec(Math.min(c, rf.numCols() - 1));
+      if (lv != null && rv != null && !lv.isCompatibleWith(rv)) return null;
+      Expr l = lv == null ? Expr.con(left.isNum() ? left.getNum() : left.getNums()[0]) : Expr.of(lv);
+      Expr r = rv == null ? Expr.con(rite.isNum() ? rite.getNum() : rite.getNums()[0]) : Expr.of(rv);
+      if (l == null || r == null || (exprs[c] = Expr.apply(op, l, r)) == null) return null;
+    }
+    return new ValFrame(new Frame(shape._names.clone(), makeVecs(env._ses, shape.anyVec(), exprs)));
+  }
+
+  /**
+   * Lazy version of an element-wise unary operator, or null if the argument
+   * needs the eager implementation.
+   */
+  public static ValFrame uniOp(Env env, AstUniOp op, Val val) {
+    if (!isEnabled(env._ses) || !val.isFrame()) return null;
+    Frame fr = val.getFrame();
+    if (fr.numCols() == 0 || fr.numRows() == 0) return null;
+    Expr[] exprs = new Expr[fr.numCols()];
+    String[] names = new String[fr.numCols()];
+    for (int c = 0; c < exprs.length; c++) {
+      Expr e = Expr.of(fr.vec(c));
+      if (e == null || (exprs[c] = Expr.apply(op, e)) == null) return null;
+      names[c] = op.str() + "(" + fr.name(c) + ")";
+    }
+    return new ValFrame(new Frame(names, makeVecs(env._ses, fr.anyVec(), exprs)));
+  }
+
+  private static boolean isScalar(Val v) {
+    return v.isNum() || (v.isNums() && v.getNums().length > 0);
+  }
+
+  /**
+   * Columns computing the expressions over Vecs compatible with the layout:
+   * lazy Vecs if the session evaluates lazily, otherwise regular Vecs all
+   * computed in one pass by {@link #compute}.
+   */
+  public static Vec[] vecs(Session ses, Vec layout, Expr[] exprs) {
+    return isEnabled(ses) ? makeVecs(ses, layout, exprs) : compute(exprs);
+  }
+
+  private static Vec[] makeVecs(Session ses, Vec layout, Expr[] exprs) {
+    Vec[] vecs = new Vec[exprs.length];
+    Key<Vec>[] keys = layout.group().addVecs(exprs.length);
+    for (int c = 0; c < vecs.length; c++) {
+      TransformWrappedVec vec = new TransformWrappedVec(keys[c], layout._rowLayout, exprs[c].factory(), exprs[c]._keys);
+      ses.addLazy(vec);
+      vecs[c] = vec;
+    }
+    return vecs;
+  }
+
+  /**
+   * Compute the expressions in a single MRTask over the union of their base
+   * Vecs.  Each base chunk is decoded once, however many columns read it.
+   */
+  @SuppressWarnings("unchecked")
+  public static Vec[] compute(Expr[] exprs) {
+    List<Key<Vec>> keys = new ArrayList<>();
+    int[][] inputs = new int[exprs.length][];
+    ExprFactory[] factories = new ExprFactory[exprs.length];
+    for (int c = 0; c < exprs.length; c++) {
+      Key<Vec>[] ks = exprs[c]._keys;
+      assert ks.length > 0 : "constant expression";
+      inputs[c] = new int[ks.length];
+      for (int i = 0; i < ks.length; i++) {
+        int k = keys.indexOf(ks[i]);
+        if (k < 0) { k = keys.size(); keys.add(ks[i]); }
+        inputs[c][i] = k;
+      }
+      factories[c] = exprs[c].factory();
+    }
+    Vec[] masters = new Vec[keys.size()];
+    for (int i = 0; i < masters.length; i++)
+      masters[i] = DKV.getGet(keys.get(i));
+    return new ComputeTask(factories, inputs).doAll(exprs.length, Vec.T_NUM, new Frame(masters)).outputFrame().vecs();
+  }
+
+  private static class ComputeTask extends MRTask<ComputeTask> {
+    private final ExprFactory[] _exprs;
+    private final int[][] _inputs; // chunk index of each input of each expression
+
+    ComputeTask(ExprFactory[] exprs, int[][] inputs) { _exprs = exprs; _inputs = inputs; }
+
+    @Override public void map(Chunk[] cs, NewChunk[] ncs) {
+      int len = cs[0]._len;
+      double[][] vals = new double[cs.length][];
+      for (int i = 0; i < cs.length; i++)
+        vals[i] = cs[i].getDoubles(ChunkBuffers.doubles(len), 0, len);
+      double[] out = ChunkBuffers.doubles(len);
+      for (int c = 0; c < ncs.length; c++) {
+        double[][] ins = new double[_inputs[c].length][];
+        for (int i = 0; i < ins.length; i++)
+          ins[i] = vals[_inputs[c][i]];
+        ((TransformWrappedVec.ColumnTransform) _exprs[c].create(ins.length)).apply(ins, len, out);
+        for (int i = 0; i < len; i++)
+          ncs[c].addNum(out[i]);
+      }
+      ChunkBuffers.release(out);
+      for (double[] v : vals)
+        ChunkBuffers.release(v);
+    }
+  }
+
+  /**
+   * Compute a lazy Vec into a new, regular Vec of the same layout.  The lazy
+   * Vec itself is left alone.
+   */
+  public static Vec materialize(Vec vec) {
+    assert isLazy(vec);
+    return new MRTask() {
+      @Override public void map(Chunk c, NewChunk nc) {
+        c.extractRows(nc, 0, c._len);
+      }
+    }.doAll(Vec.T_NUM, vec).outputFrame().anyVec();
+  }
+
+  /**
+   * Replace the lazy Vecs of the frame (in place, the DKV copy is not updated)
+   * by materialized copies.
+   * @return the new Vecs, which are owned by the caller
+   */
+  public static Vec[] materialize(Frame fr) {
+    List<Vec> res = new ArrayList<>();
+    for (int i = 0; i < fr.numCols(); i++)
+      if (isLazy(fr.vec(i))) {
+        Vec v = materialize(fr.vec(i));
+        fr.replace(i, v);
+        res.add(v);
+      }
+    return res.toArray(new Vec[0]);
+  }
+
+  /** Postfix expression over a list of base Vecs, under construction */
+  public static final class Expr {
+    final Key<Vec>[] _keys;
+    final AstPrimitive[] _fns; // operator of each instruction, null for a leaf
+    final int[] _ins;          // input index of a leaf, -1 for a constant
+    final double[] _cons;      // value of a constant
+
+    Expr(Key<Vec>[] keys, AstPrimitive[] fns, int[] ins, double[] cons) {
+      _keys = keys; _fns = fns; _ins = ins; _cons = cons;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Expr con(double d) {
+      return new Expr(new Key[0], new AstPrimitive[1], new int[]{-1}, new double[]{d});
+    }
+
+    /** The expression reading the Vec, null if the Vec is not numeric */
+    @SuppressWarnings("unchecked")
+    public static Expr of(Vec vec) {
+      if (isLazy(vec)) {
+        TransformWrappedVec tv = (TransformWrappedVec) vec;
+        ExprFactory f = (ExprFactory) tv.getTransformFactory();
+        return new Expr(tv.getMasterVecKeys(), f._fns, f._ins, f._cons);
+      }
+      if (!vec.isNumeric()) return null;
+      return new Expr(new Key[]{vec._key}, new AstPrimitive[1], new int[]{0}, new double[1]);
+    }
+
+    /**
+     * The expression applying fn (an AstBinOp, AstUniOp, AstIfElse or AstIsNa)
+     * to args, null if it gets too large
+     */
+    @SuppressWarnings("unchecked")
+    public static Expr apply(AstPrimitive fn, Expr... args) {
+      List<Key<Vec>> keys = new ArrayList<>();
+      int len = 1;
+      for (Expr e : args) {
+        len += e._fns.length;
+        for (Key<Vec> k : e._keys)
+          if (!keys.contains(k)) keys.add(k);
+      }
+      if (len > MAX_OPS || keys.size() > MAX_INPUTS) return null;
+      AstPrimitive[] fns = new AstPrimitive[len];
+      int[] ins = new int[len];
+      double[] cons = new double[len];
+      int k = 0;
+      for (Expr e : args) {
+        for (int i = 0; i < e._fns.length; i++, k++) {
+          fns[k] = e._fns[i];
+          ins[k] = e._ins[i] < 0 ? -1 : keys.indexOf(e._keys[e._ins[i]]);
+          cons[k] = e._cons[i];
+        }
+      }
+      fns[k] = fn;
+      ins[k] = -1;
+      return new Expr(keys.toArray(new Key[0]), fns, ins, cons);
+    }
+
+    ExprFactory factory() { return new ExprFactory(_fns, _ins, _cons); }
+  }
+
+  /** The serialized expression of a lazy Vec */
+  public static class ExprFactory extends Iced<ExprFactory> implements TransformWrappedVec.TransformFactory<ExprFactory> {
+    private final AstPrimitive[] _fns;
+    private final int[] _ins;
+    private final double[] _cons;
+
+    public ExprFactory() { this(null, null, null); }
+
+    ExprFactory(AstPrimitive[] fns, int[] ins, double[] cons) {
+      _fns = fns; _ins = ins; _cons = cons;
+    }
+
+    @Override
+    public TransformWrappedVec.Transform create(int n_inputs) {
+      return new ExprTransform(_fns, _ins, _cons, n_inputs);
+    }
+  }
+
+  /**
+   * Stack machine evaluating the expression, either one row at a time or on
+   * whole columns of rows at a time.
+   */
+  private static final class ExprTransform implements TransformWrappedVec.ColumnTransform {
+    private static final byte IN = 0, CON = 1, UNI = 2, BIN = 3, ISNA = 4, TERN = 5;
+
+    private final byte[] _kinds;
+    private final AstUniOp[] _unis;
+    private final AstBinOp[] _bins;
+    private final int[] _ins;
+    private final double[] _cons;
+    private final double[] _in;
+    // evaluation stack; a slot is a constant or a column
+    private final double[] _stk;
+    private final boolean[] _isCon;
+    private final double[][] _cols;
+
+    ExprTransform(AstPrimitive[] fns, int[] ins, double[] cons, int n) {
+      int len = fns.length;
+      _kinds = new byte[len];
+      _unis = new AstUniOp[len];
+      _bins = new AstBinOp[len];
+      int depth = 0, maxDepth = 0;
+      for (int k = 0; k < len; k++) {
+        if (fns[k] instanceof AstBinOp) { _kinds[k] = BIN; _bins[k] = (AstBinOp) fns[k]; depth--; }
+        else if (fns[k] instanceof AstUniOp) { _kinds[k] = UNI; _unis[k] = (AstUniOp) fns[k]; }
+        else if (fns[k] instanceof AstIsNa) _kinds[k] = ISNA;
+        else if (fns[k] instanceof AstIfElse) { _kinds[k] = TERN; depth -= 2; }
+        else { _kinds[k] = ins[k] < 0 ? CON : IN; maxDepth = Math.max(maxDepth, ++depth); }
+      }
+      assert depth == 1;
+      _ins = ins;
+      _cons = cons;
+      _in = new double[n];
+      _stk = new double[maxDepth];
+      _isCon = new boolean[maxDepth];
+      _cols = new double[maxDepth][];
+    }
+
+    @Override public void reset() {}
+
+    @Override public void setInput(int i, double value) { _in[i] = value; }
+
+    @Override
+    public double apply() {
+      final double[] stk = _stk;
+      int sp = 0;
+      for (int k = 0; k < _kinds.length; k++) {
+        switch (_kinds[k]) {
+          case IN:  stk[sp++] = _in[_ins[k]]; break;
+          case CON: stk[sp++] = _cons[k]; break;
+          case UNI: stk[sp - 1] = _unis[k].op(stk[sp - 1]); break;
+          case ISNA: stk[sp - 1] = isNA(stk[sp - 1]); break;
+          case TERN: sp -= 2; stk[sp - 1] = ifElse(stk[sp - 1], stk[sp], stk[sp + 1]); break;
+          default:  sp--; stk[sp - 1] = _bins[k].op(stk[sp - 1], stk[sp]);
+        }
+      }
+      return stk[0];
+    }
+
+    @Override
+    public void apply(double[][] inputs, int len, double[] out) {
+      final boolean[] isCon = _isCon;
+      final double[] con = _stk;
+      final double[][] cols = _cols;
+      final int last = _kinds.length - 1;
+      double[][] bufs = new double[cols.length][]; // scratch column owned by each stack slot
+      int sp = 0;
+      for (int k = 0; k <= last; k++) {
+        switch (_kinds[k]) {
+          case IN:
+            cols[sp] = inputs[_ins[k]];
+            isCon[sp++] = false;
+            break;
+          case CON:
+            con[sp] = _cons[k];
+            isCon[sp++] = true;
+            break;
+          case UNI: {
+            int t = sp - 1;
+            AstUniOp op = _unis[k];
+            if (isCon[t]) { con[t] = op.op(con[t]); break; }
+            double[] a = cols[t];
+            double[] res = k == last ? out : buf(bufs, t, len);
+            for (int i = 0; i < len; i++)
+              res[i] = op.op(a[i]);
+            cols[t] = res;
+            break;
+          }
+          case ISNA: {
+            int t = sp - 1;
+            if (isCon[t]) { con[t] = isNA(con[t]); break; }
+            double[] a = cols[t];
+            double[] res = k == last ? out : buf(bufs, t, len);
+            for (int i = 0; i < len; i++)
+              res[i] = isNA(a[i]);
+            cols[t] = res;
+            break;
+          }
+          case TERN: {
+            sp -= 2;
+            int t = sp - 1, a = sp, b = sp + 1;
+            if (isCon[t]) { // constant test, pick a whole side
+              if (Double.isNaN(con[t]) || isCon[con[t] != 0 ? a : b]) { con[t] = ifElse(con[t], con[a], con[b]); break; }
+              double[] res = k == last ? out : buf(bufs, t, len);
+              System.arraycopy(cols[con[t] != 0 ? a : b], 0, res, 0, len);
+              cols[t] = res;
+              isCon[t] = false;
+              break;
+            }
+            double[] tst = cols[t];
+            double[] res = k == last ? out : buf(bufs, t, len);
+            double[] as = isCon[a] ? null : cols[a], bs = isCon[b] ? null : cols[b];
+            double ac = con[a], bc = con[b];
+            for (int i = 0; i < len; i++)
+              res[i] = ifElse(tst[i], as == null ? ac : as[i], bs == null ? bc : bs[i]);
+            cols[t] = res;
+            break;
+          }
+          default: {
+            int r = --sp, l = r - 1;
+            AstBinOp op = _bins[k];
+            if (isCon[l] && isCon[r]) { con[l] = op.op(con[l], con[r]); break; }
+            double[] res = k == last ? out : buf(bufs, l, len);
+            if (isCon[l]) {
+              double a = con[l];
+              double[] b = cols[r];
+              for (int i = 0; i < len; i++)
+                res[i] = op.op(a, b[i]);
+            } else if (isCon[r]) {
+              double[] a = cols[l];
+              double b = con[r];
+              for (int i = 0; i < len; i++)
+                res[i] = op.op(a[i], b);
+            } else {
+              double[] a = cols[l], b = cols[r];
+              for (int i = 0; i < len; i++)
+                res[i] = op.op(a[i], b[i]);
+            }
+            cols[l] = res;
+            isCon[l] = false;
+          }
+        }
+      }
+      if (isCon[0]) Arrays.fill(out, 0, len, con[0]);
+      else if (cols[0] != out) System.arraycopy(cols[0], 0, out, 0, len);
+      for (double[] b : bufs)
+        if (b != null) ChunkBuffers.release(b);
+      Arrays.fill(cols, null);
+    }
+
+    private static double isNA(double d) { return Double.isNaN(d) ? 1 : 0; }
+
+    // AstIfElse on numbers: a NaN test gives a NaN
+    private static double ifElse(double t, double a, double b) {
+      return Double.isNaN(t) ? Double.NaN : t != 0 ? a : b;
+    }
+
+    private static double[] buf(double[][] bufs, int slot, int len) {
+      if (bufs[slot] == null) bufs[slot] = ChunkBuffers.doubles(len);
+      return bufs[slot];
+    }
+  }
+
+}
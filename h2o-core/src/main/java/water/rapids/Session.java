@@ -2,6 +2,7 @@ package water.rapids;
 
 import water.*;
 import water.fvec.Frame;
+import water.fvec.TransformWrappedVec;
 import water.fvec.Vec;
 import water.nbhm.*;
 import water.rapids.ast.AstFunction;
@@ -52,6 +53,11 @@ public class Session {
   // set.
   private NonBlockingHashSet<Key<Vec>> GLOBALS = new NonBlockingHashSet<>();
 
+  // Lazily computed Vecs (see LazyExpr) alive in this Session, and the master
+  // Vecs they read.  Each lazy Vec holds one refcnt on each of its masters,
+  // released when the lazy Vec is deleted.
+  private NonBlockingHashMap<Key<Vec>, Key<Vec>[]> LAZY = new NonBlockingHashMap<>();
+
   private final Properties properties = new Properties();
 
   /**
@@ -120,16 +126,28 @@ public class Session {
     // (disappearing) session.
     if (returning != null && returning.isFrame()) {
       Frame fr = returning.getFrame();
-      Key<Vec>[] vecs = fr.keys();
+      Key<Vec>[] vecs = fr.keys().clone();
       for (int i = 0; i < vecs.length; i++) {
-        _addRefCnt(vecs[i], -1); // Returning frame has refcnt +1, lower it now; should go to zero internal refcnts.
-        if (GLOBALS.contains(vecs[i])) // Copy if shared with globals
+        if (LAZY.containsKey(vecs[i]))  // Compute lazy Vecs, their masters are about to go
+          fr.replace(i, LazyExpr.materialize(vecs[i].get()));
+        else if (GLOBALS.contains(vecs[i])) // Copy if shared with globals
           fr.replace(i, vecs[i].get().makeCopy());
       }
+      // Returning frame has refcnt +1, lower it now; should go to zero internal
+      // refcnts.  Lazy Vecs first: releasing their masters must not delete a
+      // master that is also returned, and still holds its refcnt.
+      for (Key<Vec> vec : vecs)
+        if (LAZY.containsKey(vec) && _addRefCnt(vec, -1) == 0)
+          removeVec(vec, fs);
+      for (Key<Vec> vec : vecs)
+        if (!LAZY.containsKey(vec) && _getRefCnt(vec) > 0)
+          _addRefCnt(vec, -1);
+      fs.blockForPending();
     }
     GLOBALS.clear();            // No longer tracking globals
     sanity_check_refs(null);
     REFCNTS.clear();
+    LAZY.clear();
     return returning;
   }
 
@@ -147,7 +165,7 @@ public class Session {
           if (i > 0) REFCNTS.put(vec, i);
           else {
             REFCNTS.remove(vec);
-            Keyed.remove(vec, fs, true);
+            removeVec(vec, fs);
           }
         }
         DKV.remove(fr._key, fs);   // Shallow remove, internal Vecs removed 1-by-1
@@ -155,6 +173,7 @@ public class Session {
       fs.blockForPending();
       FRAMES.clear();
       REFCNTS.clear();
+      LAZY.clear();
     } catch (Exception ex2) {
       Log.warn("Exception " + ex2 + " suppressed while cleaning up Rapids Session after already throwing " + ex);
     }
@@ -241,7 +260,7 @@ public class Session {
       for (Key<Vec> vec : fr.keys()) {
         GLOBALS.remove(vec);         // Not a global anymore
         if (REFCNTS.get(vec) == null) // If not shared with temps
-          Keyed.remove(vec, fs, true);            // Remove unshared dead global
+          removeVec(vec, fs);                     // Remove unshared dead global
       }
     } else {                    // Else a temp and not a global
       fs = downRefCnt(fr, fs);   // Standard down-ref counting of all Vecs
@@ -259,11 +278,35 @@ public class Session {
     for (Key<Vec> vec : fr.keys())    // Refcnt -1 all Vecs
       if (addRefCnt(vec, -1) == 0) {
         if (fs == null) fs = new Futures();
-        Keyed.remove(vec, fs, true);
+        removeVec(vec, fs);
       }
     return fs;
   }
 
+  /**
+   * Track a freshly made lazy Vec: its master Vecs are kept alive until the
+   * lazy Vec itself is deleted.
+   */
+  void addLazy(TransformWrappedVec vec) {
+    Key<Vec>[] masters = vec.getMasterVecKeys();
+    for (Key<Vec> master : masters)
+      _addRefCnt(master, 1);
+    LAZY.put(vec._key, masters);
+  }
+
+  /**
+   * Delete a Vec which has no more refs.  If it was a lazy Vec, release its
+   * masters, deleting them in turn if it was their last use.
+   */
+  private void removeVec(Key<Vec> vec, Futures fs) {
+    Keyed.remove(vec, fs, true);
+    Key<Vec>[] masters = LAZY.remove(vec);
+    if (masters != null)
+      for (Key<Vec> master : masters)
+        if (addRefCnt(master, -1) == 0)
+          removeVec(master, fs);
+  }
+
   /**
    * Update a global ID, maintaining sharing of Vecs
    */
@@ -278,7 +321,7 @@ public class Session {
     if (fr != null) {          // Prior frame exists
       for (Key<Vec> vec : fr.keys()) {
         if (GLOBALS.remove(vec) && _getRefCnt(vec) == 0)
-          Keyed.remove(vec, fs, true);       // Remove unused global vec
+          removeVec(vec, fs);                // Remove unused global vec
       }
     }
     // Copy (defensive) the base vecs array.  Then copy any vecs which are
@@ -287,7 +330,9 @@ public class Session {
     // operations.
     Vec[] svecs = src.vecs().clone();
     for (int i = 0; i < svecs.length; i++)
-      if (GLOBALS.contains(svecs[i]._key))
+      if (LAZY.containsKey(svecs[i]._key)) // Globals outlive the Session, compute lazy Vecs
+        svecs[i] = LazyExpr.materialize(svecs[i]);
+      else if (GLOBALS.contains(svecs[i]._key))
         svecs[i] = svecs[i].makeCopy();
     // Make and install new global Frame
     Frame fr2 = new Frame(id, src._names.clone(), svecs);
@@ -308,7 +353,9 @@ public class Session {
       Vec vec = vecs[col];
       int refcnt = getRefCnt(vec._key);
       assert refcnt > 0;
-      if (refcnt > 1)          // If refcnt is 1, we allow the update to take in-place
+      if (LAZY.containsKey(vec._key)) // Lazy Vecs cannot be updated, always compute them
+        fr.replace(col, (did_copy = LazyExpr.materialize(vec)));
+      else if (refcnt > 1)     // If refcnt is 1, we allow the update to take in-place
         fr.replace(col, (did_copy = vec.makeCopy()));
     }
     if (did_copy != null && fr._key != null) DKV.put(fr); // Then update frame in the DKV
@@ -340,6 +387,12 @@ public class Session {
         Integer count = refcnts.get(vec);
         refcnts.put(vec, count == null ? 1 : count + 1);
       }
+    // Lazy Vecs hold a ref on each of their masters
+    for (Key<Vec>[] masters : LAZY.values())
+      for (Key<Vec> vec : masters) {
+        Integer count = refcnts.get(vec);
+        refcnts.put(vec, count == null ? 1 : count + 1);
+      }
 
     // Now compare computed refcnts to cached REFCNTS.
     // First check that every Vec in computed refcnt is also in REFCNTS, with equal counts.
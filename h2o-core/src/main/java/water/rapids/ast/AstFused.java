@@ -0,0 +1,171 @@
+package water.rapids.ast;
+
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.rapids.Env;
+import water.rapids.LazyExpr;
+import water.rapids.Val;
+import water.rapids.ast.prims.mungers.AstIsNa;
+import water.rapids.ast.prims.operators.AstBinOp;
+import water.rapids.ast.prims.operators.AstIfElse;
+import water.rapids.vals.ValFrame;
+
+import java.util.Arrays;
+
+/**
+ * A chain of element-wise prims (operators, math functions, ifelse, is.na)
+ * fused by the Rapids optimizer into a single kernel.  The arguments which
+ * are not part of the chain (the leaves) are evaluated first, in order; the
+ * whole chain is then computed in one MRTask over the leaf frames, without
+ * any intermediate frame.
+ *
+ * If the evaluated leaves do not fit the kernel (non-numeric or incompatible
+ * frames, lists, strings, a scalar result...) the prims are applied one at a
+ * time to the leaves, exactly as the original {@link AstExec} would.
+ */
+public class AstFused extends AstExec {
+  private final AstRoot[] _leaves;
+  // The chain in postfix order: a prim and the name it was called by, or a leaf index
+  private final AstPrimitive[] _fns;
+  private final String[] _ids;
+  private final int[] _leaf;
+
+  public AstFused() {
+    this(null, null, null, null, null);
+  }
+
+  public AstFused(AstExec orig, AstRoot[] leaves, AstPrimitive[] fns, String[] ids, int[] leaf) {
+    super(orig == null ? null : orig._asts);
+    _leaves = leaves;
+    _fns = fns;
+    _ids = ids;
+    _leaf = leaf;
+  }
+
+  /** Number of prims fused in this node */
+  public int numOps() {
+    int n = 0;
+    for (AstPrimitive fn : _fns)
+      if (fn != null) n++;
+    return n;
+  }
+
+  @Override
+  public Val exec(Env env) {
+    // A prim name may be shadowed by a local or a DKV key, run the original then
+    for (int k = 0; k < _fns.length; k++)
+      if (_fns[k] != null) {
+        Val fun = env.lookup(_ids[k]);
+        if (!fun.isFun() || fun.getFun() != _fns[k]) return super.exec(env);
+      }
+    try (Env.StackHelp stk = env.stk()) {
+      Val[] vals = new Val[_leaves.length];
+      for (int i = 0; i < vals.length; i++)
+        vals[i] = stk.track(_leaves[i].exec(env));
+      Frame res = kernel(env, vals);
+      if (res != null) return env.returning(new ValFrame(res));
+      return unfused(vals).exec(env);
+    }
+  }
+
+  // The fused result, or null if the leaves need the prims one at a time
+  private Frame kernel(Env env, Val[] vals) {
+    Frame layout = null;
+    for (Val v : vals) {
+      if (v.isNum()) continue;
+      if (!v.isFrame()) return null;
+      Frame fr = v.getFrame();
+      if (fr.numCols() == 0 || fr.numRows() == 0) return null;
+      for (Vec vec : fr.vecs())
+        if (!vec.isNumeric()) return null;
+      if (layout == null) layout = fr;
+      else if (!layout.anyVec().isCompatibleWith(fr.anyVec())) return null;
+    }
+    // Width and column names of every intermediate result, 0 for a scalar
+    int[] ws = new int[_fns.length];
+    String[][] ns = new String[_fns.length][];
+    int sp = 0;
+    for (int k = 0; k < _fns.length; k++) {
+      AstPrimitive fn = _fns[k];
+      if (fn == null) {
+        Val v = vals[_leaf[k]];
+        ws[sp] = v.isFrame() ? v.getFrame().numCols() : 0;
+        ns[sp++] = v.isFrame() ? v.getFrame().names() : null;
+      } else if (fn instanceof AstBinOp) {
+        int r = --sp, l = r - 1;
+        if (ws[l] == 0 || (ws[l] == 1 && ws[r] > 1)) { ws[l] = ws[r]; ns[l] = ns[r]; }
+        else if (ws[r] > 1 && ws[r] != ws[l]) return null;
+      } else if (fn instanceof AstIfElse) {
+        sp -= 2;
+        int t = sp - 1;
+        if (ws[t] == 0 || (ws[sp] != 0 && ws[sp] != ws[t]) || (ws[sp + 1] != 0 && ws[sp + 1] != ws[t])) return null;
+        ns[t] = new String[ws[t]];
+        for (int c = 0; c < ws[t]; c++)
+          ns[t][c] = Frame.defaultColName(c);
+      } else if (ws[sp - 1] > 0) {
+        String prefix = fn instanceof AstIsNa ? "isNA" : fn.str();
+        String[] names = new String[ws[sp - 1]];
+        for (int c = 0; c < names.length; c++)
+          names[c] = prefix + "(" + ns[sp - 1][c] + ")";
+        ns[sp - 1] = names;
+      }
+    }
+    if (ws[0] == 0) return null;
+
+    LazyExpr.Expr[] exprs = new LazyExpr.Expr[ws[0]];
+    LazyExpr.Expr[] stk = new LazyExpr.Expr[_fns.length];
+    for (int c = 0; c < exprs.length; c++) {
+      sp = 0;
+      for (int k = 0; k < _fns.length; k++) {
+        AstPrimitive fn = _fns[k];
+        if (fn == null) {
+          Val v = vals[_leaf[k]];
+          if (v.isNum()) stk[sp++] = LazyExpr.Expr.con(v.getNum());
+          else {
+            Frame fr = v.getFrame(); // 1-column frames are widened
+            stk[sp++] = LazyExpr.Expr.of(fr.vec(Math.min(c, fr.numCols() - 1)));
+          }
+        } else {
+          int n = fn.nargs() - 1;
+          sp -= n;
+          if ((stk[sp] = LazyExpr.Expr.apply(fn, Arrays.copyOfRange(stk, sp, sp + n))) == null) return null;
+          sp++;
+        }
+      }
+      exprs[c] = stk[0];
+    }
+    return new Frame(ns[0].clone(), LazyExpr.vecs(env._ses, layout.anyVec(), exprs));
+  }
+
+  // The original chain over the evaluated leaves
+  private AstRoot unfused(Val[] vals) {
+    AstRoot[] stk = new AstRoot[_fns.length];
+    int sp = 0;
+    for (int k = 0; k < _fns.length; k++) {
+      if (_fns[k] == null) {
+        stk[sp++] = new AstValue(vals[_leaf[k]]);
+        continue;
+      }
+      AstRoot[] asts = new AstRoot[_fns[k].nargs()];
+      asts[0] = _fns[k];
+      sp -= asts.length - 1;
+      System.arraycopy(stk, sp, asts, 1, asts.length - 1);
+      stk[sp++] = new AstExec(asts);
+    }
+    return stk[0];
+  }
+
+  /** An already evaluated leaf */
+  private static class AstValue extends AstRoot<AstValue> {
+    private final transient Val _val;
+
+    AstValue(Val val) { _val = val; }
+
+    // Every exec hands out one reference, like any other expression
+    @Override public Val exec(Env env) { return env.returning(_val); }
+    @Override public String str() { return String.valueOf(_val); }
+    @Override public String example() { return null; }
+    @Override public String description() { return null; }
+  }
+
+}
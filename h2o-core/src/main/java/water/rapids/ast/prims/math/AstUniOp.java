@@ -6,8 +6,11 @@ import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.NewChunk;
 import water.fvec.Vec;
+import water.rapids.Env;
+import water.rapids.LazyExpr;
 import water.rapids.Val;
 import water.rapids.ast.AstBuiltin;
+import water.rapids.ast.AstRoot;
 import water.rapids.vals.ValFrame;
 import water.rapids.vals.ValNum;
 import water.rapids.vals.ValRow;
@@ -26,6 +29,14 @@ public abstract class AstUniOp<T extends AstUniOp<T>> extends AstBuiltin<T> {
     return 1 + 1;
   }
 
+  // Frames may get a lazily computed expression instead (see LazyExpr)
+  @Override
+  public Val apply(Env env, Env.StackHelp stk, AstRoot[] asts) {
+    Val val = stk.track(asts[1].exec(env));
+    Val lazy = LazyExpr.uniOp(env, this, val);
+    return lazy != null ? lazy : exec(new Val[]{null, val});
+  }
+
   @Override
   public Val exec(Val... args) {
     Val val = args[1];
@@ -1,7 +1,10 @@
 package water.rapids.ast.prims.mungers;
 
+import water.Futures;
 import water.fvec.Frame;
+import water.fvec.Vec;
 import water.rapids.Env;
+import water.rapids.LazyExpr;
 import water.rapids.Merge;
 import water.rapids.ast.AstParameter;
 import water.rapids.ast.AstPrimitive;
@@ -29,6 +32,14 @@ public class AstSort extends AstPrimitive {
       sortAsc = new int[]{(int) ((AstNum) asts[3]).getNum()};  // R client can send 1 element for some reason
     
     assert sortAsc.length==cols.length;
-    return new ValFrame(Merge.sort(fr,cols, sortAsc));
+    // The radix passes read the columns many times, compute lazy columns once
+    Frame src = new Frame(fr);
+    Vec[] computed = LazyExpr.materialize(src);
+    Frame res = Merge.sort(src, cols, sortAsc);
+    Futures fs = new Futures();
+    for (Vec v : computed)
+      if (res.find(v._key) < 0) v.remove(fs);
+    fs.blockForPending();
+    return new ValFrame(res);
   }
 }
@@ -38,7 +38,16 @@ abstract public class AstBinOp extends AstPrimitive {
   public Val apply(Env env, Env.StackHelp stk, AstRoot asts[]) {
     Val left = stk.track(asts[1].exec(env));
     Val rite = stk.track(asts[2].exec(env));
-    return prim_apply(left, rite);
+    return prim_apply(env, left, rite);
+  }
+
+  /**
+   * Apply the operator, as a lazily computed expression when the session
+   * allows it (see {@link LazyExpr}).
+   */
+  protected Val prim_apply(Env env, Val left, Val rite) {
+    Val lazy = LazyExpr.binOp(env, this, left, rite);
+    return lazy != null ? lazy : prim_apply(left, rite);
   }
 
   public Val prim_apply(Val left, Val rite) {
@@ -21,7 +21,7 @@ public class AstLAnd extends AstBinOp {
       if (d == 0) return left;
     }
     Val rite = stk.track(asts[2].exec(env));
-    return prim_apply(left, rite);
+    return prim_apply(env, left, rite);
   }
 
   // 0 trumps NA, and NA trumps 1
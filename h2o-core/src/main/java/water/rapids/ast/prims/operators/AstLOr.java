@@ -21,7 +21,7 @@ public class AstLOr extends AstBinOp {
       if (d == 1) return left;
     }
     Val rite = stk.track(asts[2].exec(env));
-    return prim_apply(left, rite);
+    return prim_apply(env, left, rite);
   }
 
   //  1 trumps NA, and NA trumps 0.
@@ -41,6 +41,11 @@ public abstract class AstReducerOp extends AstPrimitive {
   class RedOp extends MRTask<AstReducerOp.RedOp> {
     double _d;
 
+    @Override
+    protected boolean isMapReadOnly() {
+      return true;
+    }
+
     @Override
     public void map(Chunk chks[]) {
       int rows = chks[0]._len;
@@ -85,6 +85,8 @@ public class AstEntropy extends AstPrimitive {
           newChk.addNAs(chk.len());
         else if (((CStrChunk) chk)._isAllASCII) //fast-path operations
           ((CStrChunk) chk).asciiEntropy(newChk);
+        else if (chk instanceof CStrDictChunk) // one entropy per dictionary entry
+          ((CStrDictChunk) chk).mapToNumbers(newChk, s -> calcEntropy(s.toString()));
         else { //UTF requires Java string methods
           BufferedString tmpStr = new BufferedString();
           for (int i = 0; i < chk._len; i++) {
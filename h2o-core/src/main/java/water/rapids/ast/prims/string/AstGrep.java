@@ -2,6 +2,7 @@ package water.rapids.ast.prims.string;
 
 import water.Iced;
 import water.MRTask;
+import water.fvec.CStrDictChunk;
 import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.NewChunk;
@@ -122,6 +123,20 @@ public class AstGrep extends AstBuiltin<AstGrep> {
       Matcher m = p.matcher("");
       BufferedString bs = new BufferedString();
       int rows = c._len;
+      if (c instanceof CStrDictChunk) { // match every distinct string just once
+        CStrDictChunk dc = (CStrDictChunk) c;
+        boolean[] matched = new boolean[dc.dictSize()];
+        for (int k = 0; k < matched.length; k++)
+          matched[k] = m.reset(dc.dictEntry(bs, k).toString()).find();
+        for (int r = 0; r < rows; r++) {
+          int code = dc.code(r);
+          if (code < 0)
+            w.addNA(r);
+          else
+            w.addRow(r, matched[code]);
+        }
+        return;
+      }
       for (int r = 0; r < rows; r++) {
         if (c.isNA(r)) {
           w.addNA(r);
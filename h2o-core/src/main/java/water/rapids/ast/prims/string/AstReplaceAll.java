@@ -102,8 +102,14 @@ public class AstReplaceAll extends AstPrimitive {
 //        if (((CStrChunk)chk)._isAllASCII) { // fast-path operations
 //          ((CStrChunk) chk).asciiReplaceAll(newChk);
 //        } else { //UTF requires Java string methods for accuracy
-          BufferedString tmpStr = new BufferedString();
           final Pattern compiledPattern = Pattern.compile(pattern); // Compile the pattern once before replacements
+          if (chk instanceof CStrDictChunk) { // one replacement per dictionary entry
+            ((CStrDictChunk) chk).mapStrings(newChk, s -> ignoreCase ?
+                    compiledPattern.matcher(s.toLowerCase(Locale.ENGLISH)).replaceAll(replacement) :
+                    compiledPattern.matcher(s).replaceAll(replacement));
+            return;
+          }
+          BufferedString tmpStr = new BufferedString();
           for (int i = 0; i < chk._len; i++) {
             if (chk.isNA(i))
               newChk.addNA();
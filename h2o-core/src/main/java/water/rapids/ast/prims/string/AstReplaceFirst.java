@@ -104,8 +104,14 @@ public class AstReplaceFirst extends AstPrimitive {
 //        if (((CStrChunk)chk)._isAllASCII) { // fast-path operations
 //          ((CStrChunk) chk).asciiReplaceFirst(newChk);
 //        } else { //UTF requires Java string methods for accuracy
-          BufferedString tmpStr = new BufferedString();
           final Pattern compiledPattern = Pattern.compile(pattern);
+          if (chk instanceof CStrDictChunk) { // one replacement per dictionary entry
+            ((CStrDictChunk) chk).mapStrings(newChk, s -> ignoreCase ?
+                    compiledPattern.matcher(s.toLowerCase(Locale.ENGLISH)).replaceFirst(replacement) :
+                    compiledPattern.matcher(s).replaceFirst(replacement));
+            return;
+          }
+          BufferedString tmpStr = new BufferedString();
           for (int i = 0; i < chk._len; i++) {
             if (chk.isNA(i))
               newChk.addNA();
@@ -91,6 +91,8 @@ public class AstStrLength extends AstPrimitive {
             newChk.addNA();
         } else if (((CStrChunk) chk)._isAllASCII) { // fast-path operations
           ((CStrChunk) chk).asciiLength(newChk);
+        } else if (chk instanceof CStrDictChunk) { // one length per dictionary entry
+          ((CStrDictChunk) chk).mapToNumbers(newChk, s -> s.toString().length());
         } else { //UTF requires Java string methods for accuracy
           BufferedString tmpStr = new BufferedString();
           for (int i = 0; i < chk._len; i++) {
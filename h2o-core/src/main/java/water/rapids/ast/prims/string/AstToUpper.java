@@ -75,6 +75,8 @@ public class AstToUpper extends AstPrimitive {
             newChk.addNA();
         else if (((CStrChunk) chk)._isAllASCII) { // fast-path operations
           ((CStrChunk) chk).asciiToUpper(newChk);
+        } else if (chk instanceof CStrDictChunk) { // one string per dictionary entry
+          ((CStrDictChunk) chk).mapStrings(newChk, s -> s.toUpperCase(Locale.ENGLISH));
         } else { //UTF requires Java string methods for accuracy
           BufferedString tmpStr = new BufferedString();
           for (int i = 0; i < chk._len; i++) {
@@ -32,6 +32,9 @@ public class ChunkSummary extends MRTask<ChunkSummary> {
       {"C8","8-byte Integers"},
       {"C16","UUIDs"},
       {"CStr","Strings"},
+      {"CStrDict","Dictionary Strings"},
+      {"CRLE","Run-Length Integers"},
+      {"CDelta","Delta Integers"},
       {"CUD","Unique Reals"},
       {"C8D","64-bit Reals"},
   };
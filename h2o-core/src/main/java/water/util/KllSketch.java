@@ -0,0 +1,150 @@
+package water.util;
+
+import water.Iced;
+
+import java.util.Arrays;
+
+/** KLL quantile sketch - a mergeable, bounded size, summary of a stream of
+ *  doubles answering approximate quantile queries.  Iced, so the per-chunk
+ *  sketches are cheaply reduced across the cloud.
+ *
+ *  <p>Items are kept in levels; an item at level h stands for 2^h values.
+ *  When a level fills up it is sorted and every other item is promoted to the
+ *  next level.  Level capacities shrink geometrically from the top level
+ *  down, so the sketch keeps O(k) items.  With the default k of 200 the rank
+ *  error is about 1.7%.  Compaction keeps either the odd or the even items, by
+ *  a pseudo-random coin flip with a fixed seed: the sketch of the same data,
+ *  added in the same order, is always the same.
+ *
+ *  <p>The total weight of the kept items is always the exact count of values.
+ */
+public class KllSketch extends Iced<KllSketch> {
+  public static final int DEFAULT_K = 200;
+
+  private final int _k;
+  private double[][] _levels;   // Items of each level, the first _sizes[h] are valid
+  private int[] _sizes;
+  private long _n;              // Count of non-NA values added
+  private double _min, _max;
+  private long _coins;          // State of the coin flips choosing the items to keep
+
+  public KllSketch() { this(DEFAULT_K); }
+  public KllSketch(int k) {
+    if( k < 8 ) throw new IllegalArgumentException("KLL sketch k must be at least 8, got: " + k);
+    _k = k;
+    _levels = new double[][]{new double[k]};
+    _sizes = new int[1];
+    _min = Double.POSITIVE_INFINITY;
+    _max = Double.NEGATIVE_INFINITY;
+  }
+
+  /** @return the count of values in the sketch */
+  public long count() { return _n; }
+
+  /** Add a value; NAs are ignored */
+  public void add( double d ) {
+    if( Double.isNaN(d) ) return;
+    append(0, d);
+    _n++;
+    if( d < _min ) _min = d;
+    if( d > _max ) _max = d;
+    if( _sizes[0] >= capacity(0) ) compress();
+  }
+
+  /** Add the same value {@code cnt} times, without adding it one at a time:
+   *  one item is added at each level of a set bit of {@code cnt} */
+  public void add( double d, long cnt ) {
+    if( Double.isNaN(d) || cnt <= 0 ) return;
+    for( int h = 0; cnt >>> h != 0; h++ )
+      if( ((cnt >>> h) & 1) != 0 ) append(h, d);
+    _n += cnt;
+    if( d < _min ) _min = d;
+    if( d > _max ) _max = d;
+    compress();
+  }
+
+  /** Merge another sketch into this one */
+  public KllSketch merge( KllSketch kll ) {
+    if( kll == null || kll._n == 0 ) return this;
+    for( int h = 0; h < kll._sizes.length; h++ )
+      for( int i = 0; i < kll._sizes[h]; i++ )
+        append(h, kll._levels[h][i]);
+    _n += kll._n;
+    _min = Math.min(_min, kll._min);
+    _max = Math.max(_max, kll._max);
+    compress();
+    return this;
+  }
+
+  /** @return the approximate value at the given quantile, NaN for an empty sketch */
+  public double quantile( double q ) { return quantiles(new double[]{q})[0]; }
+
+  /** @param qs quantiles to compute, in [0,1]
+   *  @return the approximate values at the given quantiles, NaNs for an empty sketch */
+  public double[] quantiles( double[] qs ) {
+    double[] res = new double[qs.length];
+    if( _n == 0 ) { Arrays.fill(res, Double.NaN); return res; }
+    // All the items, sorted, with their weights
+    int len = 0;
+    for( int s : _sizes ) len += s;
+    double[] vals = new double[len];
+    long[] wts = new long[len];
+    for( int h = 0, j = 0; h < _sizes.length; h++ )
+      for( int i = 0; i < _sizes[h]; i++, j++ ) {
+        vals[j] = _levels[h][i];
+        wts[j] = 1L << h;
+      }
+    Integer[] order = new Integer[len];
+    for( int i = 0; i < len; i++ ) order[i] = i;
+    Arrays.sort(order, (a, b) -> Double.compare(vals[a], vals[b]));
+    for( int i = 0; i < qs.length; i++ ) {
+      double q = qs[i];
+      if( !(q >= 0 && q <= 1) ) throw new IllegalArgumentException("Quantile must be between 0 and 1, got: " + q);
+      if( q == 0 ) { res[i] = _min; continue; }
+      if( q == 1 ) { res[i] = _max; continue; }
+      double rank = q * _n;
+      long cum = 0;
+      res[i] = _max;
+      for( int o : order ) {
+        cum += wts[o];
+        if( cum >= rank ) { res[i] = vals[o]; break; }
+      }
+    }
+    return res;
+  }
+
+  private int capacity( int h ) {
+    int depth = _sizes.length - 1 - h;
+    return Math.max(2, (int) Math.ceil(_k * Math.pow(2.0 / 3.0, depth)));
+  }
+
+  private void append( int h, double d ) {
+    while( h >= _sizes.length ) {
+      _levels = Arrays.copyOf(_levels, _levels.length + 1);
+      _levels[_levels.length - 1] = new double[2];
+      _sizes = Arrays.copyOf(_sizes, _sizes.length + 1);
+    }
+    double[] lv = _levels[h];
+    if( _sizes[h] == lv.length ) _levels[h] = lv = Arrays.copyOf(lv, lv.length << 1);
+    lv[_sizes[h]++] = d;
+  }
+
+  // Compact every level over capacity, from the bottom up; a compaction only
+  // adds items to the level above, which is checked next
+  private void compress() {
+    for( int h = 0; h < _sizes.length; h++ ) {
+      int n = _sizes[h];
+      if( n < capacity(h) ) continue;
+      double[] lv = _levels[h];
+      Arrays.sort(lv, 0, n);
+      int even = n & ~1;        // An odd item out stays at this level
+      _coins += 0x9E3779B97F4A7C15L;
+      boolean odd = HyperLogLog.mix64(_coins) < 0;
+      for( int i = odd ? 1 : 0; i < even; i += 2 )
+        append(h + 1, lv[i]);
+      lv = _levels[h];
+      if( even < n ) { lv[0] = lv[n - 1]; _sizes[h] = 1; }
+      else _sizes[h] = 0;
+    }
+  }
+}
@@ -3,6 +3,11 @@ package water.util;
 import sun.misc.Unsafe;
 import water.nbhm.UtilUnsafe;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+
 public class UnsafeUtils {
   private static final Unsafe _unsafe = UtilUnsafe.getUnsafe();
   private static final long _Bbase  = _unsafe.arrayBaseOffset(byte[].class);
@@ -22,4 +27,31 @@ public class UnsafeUtils {
 
   public static void copyMemory( byte[] srcBase, long srcOff, byte[] dstBase, long dstOff, long len )
   { _unsafe.copyMemory(srcBase,_Bbase+srcOff,dstBase,_Bbase+dstOff,len); }
+
+  // Raw native (off-heap) memory; addresses are owned and freed by the caller
+  public static long allocateMemory( long len ) { return _unsafe.allocateMemory(len); }
+  public static void freeMemory( long addr ) { _unsafe.freeMemory(addr); }
+  public static void copyToNative  ( byte[] src, int srcOff, long dstAddr, long len ) { _unsafe.copyMemory(src,_Bbase+srcOff,null,dstAddr,len); }
+  public static void copyFromNative( long srcAddr, byte[] dst, int dstOff, long len ) { _unsafe.copyMemory(null,srcAddr,dst,_Bbase+dstOff,len); }
+
+  // Unsafe.invokeCleaner only exists on JDK 9+; looked up once, null if missing
+  private static final MethodHandle _invokeCleaner = invokeCleanerHandle();
+  private static MethodHandle invokeCleanerHandle() {
+    try {
+      return MethodHandles.lookup()
+              .findVirtual(_unsafe.getClass(), "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+              .bindTo(_unsafe);
+    } catch( ReflectiveOperationException e ) {
+      return null;
+    }
+  }
+  /** Release the native memory of a direct (or mapped) buffer right away.
+   *  Returns false if the JVM has no Unsafe.invokeCleaner. */
+  public static boolean invokeCleaner( ByteBuffer bb ) {
+    if( _invokeCleaner == null ) return false;
+    try { _invokeCleaner.invokeExact(bb); }
+    catch( RuntimeException | Error e ) { throw e; }
+    catch( Throwable t ) { throw new RuntimeException(t); }
+    return true;
+  }
 }
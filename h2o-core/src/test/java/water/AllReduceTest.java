@@ -0,0 +1,83 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AllReduceTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  // Each node contributes its index plus a ramp
+  private static double[] local(int len) {
+    double[] arr = new double[len];
+    for (int i = 0; i < len; i++) arr[i] = H2O.SELF.index() + i * 0.5;
+    return arr;
+  }
+
+  private static double expected(int i) {
+    int n = H2O.CLOUD.size();
+    return n * (n - 1) / 2.0 + n * i * 0.5;
+  }
+
+  @Test public void testSum() {
+    for (final int len : new int[]{0, 1, 3, 100003}) {
+      final Key key = Key.make();
+      new MRTask() {
+        @Override protected void setupLocal() {
+          if (H2O.ARGS.client) return;
+          double[] arr = AllReduce.sum(key, local(len));
+          assertEquals(len, arr.length);
+          for (int i = 0; i < len; i++) assertEquals(expected(i), arr[i], 0);
+        }
+      }.doAllNodes();
+    }
+  }
+
+  @Test public void testReduceScatter() {
+    final int len = 50001;
+    final Key key = Key.make();
+    new MRTask() {
+      @Override protected void setupLocal() {
+        if (H2O.ARGS.client) return;
+        double[] arr = local(len);
+        int[] range = AllReduce.reduceScatter(key, arr);
+        assertEquals(len / (double) H2O.CLOUD.size(), range[1] - range[0], 1);
+        for (int i = range[0]; i < range[1]; i++) assertEquals(expected(i), arr[i], 0);
+      }
+    }.doAllNodes();
+  }
+
+  @Test public void testLengthMismatch() {
+    final Key key = Key.make();
+    try {
+      new MRTask() {
+        @Override protected void setupLocal() {
+          if (H2O.ARGS.client) return;
+          AllReduce.sum(key, local(1000 + H2O.SELF.index() * 100));
+        }
+      }.doAllNodes();
+      assertEquals("A single node has nothing to check", 1, H2O.CLOUD.size());
+    } catch (RuntimeException e) {
+      assertTrue(e.toString(), e.toString().contains("different lengths"));
+    }
+  }
+
+  @Test public void testLateAbortIgnored() {
+    final Key key = Key.make();
+    new MRTask() {
+      @Override protected void setupLocal() {
+        if (H2O.ARGS.client) return;
+        AllReduce.sum(key, local(10));
+      }
+    }.doAllNodes();
+    // An abort arriving after every node is done makes no ring again
+    for (H2ONode node : H2O.CLOUD._memary)
+      if (node != H2O.SELF) RPC.call(node, new AllReduce.Segment(key, -1, null, H2O.SELF.index())).get();
+    new MRTask() {
+      @Override protected void setupLocal() {
+        assertFalse("Ring left over on " + H2O.SELF, AllReduce.inProgress(key));
+      }
+    }.doAllNodes();
+  }
+}
@@ -23,7 +23,7 @@ public class AutoBufferTest extends TestUtil {
     ab.putA8(arr);
     assertTrue(ab._bb.hasArray());
     assertFalse(ab._bb.isDirect());
-    assertEquals(ab._bb.array().length, 16);
+    assertEquals(ab._bb.array().length, AutoBuffer.BBP_SML._size);
 
   }
 
@@ -35,7 +35,7 @@ public class AutoBufferTest extends TestUtil {
     ab.putA8(arr);
     assertTrue(ab._bb.hasArray());
     assertFalse(ab._bb.isDirect());
-    assertEquals(ab._bb.array().length, 16);
+    assertEquals(ab._bb.array().length, AutoBuffer.BBP_SML._size);
   }
 
   @Test
@@ -48,6 +48,34 @@ public class AutoBufferTest extends TestUtil {
     assertTrue(ab._bb.isDirect());
   }
 
+  @Test
+  public void testSmallMessageBuffersArePooled() {
+    // A received small message: its buffer goes back to the pool on close
+    java.nio.ByteBuffer bb = AutoBuffer.BBP_SML.make();
+    bb.put((byte) UDP.udp.ackack.ordinal());
+    AutoBuffer ab = new AutoBuffer(H2O.SELF, bb, 16);
+    assertEquals(UDP.udp.ackack.ordinal(), ab.getCtrl());
+    assertFalse(isPooled(bb));
+    ab.close();
+    assertTrue(isPooled(bb));
+    // A message outgrowing its small buffer moves to a big one, and frees the small one
+    AutoBuffer ab2 = new AutoBuffer(H2O.SELF, (byte) 1);
+    java.nio.ByteBuffer small = ab2._bb;
+    assertFalse(isPooled(small));
+    ab2.putA1(new byte[AutoBuffer.BBP_SML._size * 2]);
+    assertTrue(ab2._bb.isDirect());
+    assertTrue(isPooled(small));
+    ab2.drainClose();
+  }
+
+  private static boolean isPooled(java.nio.ByteBuffer bb) {
+    synchronized (AutoBuffer.BBP_SML._bbs) {
+      for (java.nio.ByteBuffer x : AutoBuffer.BBP_SML._bbs)
+        if (x == bb) return true;
+      return false;
+    }
+  }
+
   @Test
   public void testOutputStreamBigDataBigChunks() {
     // don't run if the JVM doesn't have enough memory
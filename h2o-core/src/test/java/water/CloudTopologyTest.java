@@ -0,0 +1,97 @@
+package water;
+
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class CloudTopologyTest {
+
+  // Nodes on hosts 10.0.<rack>.<host>, several JVMs per host
+  private static InetAddress[] cloud(int... rackHostJvms) throws UnknownHostException {
+    InetAddress[] addrs = new InetAddress[0];
+    for (int i = 0; i < rackHostJvms.length; i += 3)
+      for (int j = 0; j < rackHostJvms[i + 2]; j++) {
+        addrs = Arrays.copyOf(addrs, addrs.length + 1);
+        addrs[addrs.length - 1] = InetAddress.getByAddress(new byte[]{10, 0, (byte) rackHostJvms[i], (byte) rackHostJvms[i + 1]});
+      }
+    return addrs;
+  }
+
+  private static void assertContiguous(InetAddress[] addrs, int[] order, boolean racks) {
+    for (int i = 0; i < order.length; i++)
+      for (int j = i + 2; j < order.length; j++) {
+        Object a = key(addrs[order[i]], racks), b = key(addrs[order[j]], racks);
+        if (a.equals(b))
+          assertEquals("Group split at " + i + ".." + j, a, key(addrs[order[j - 1]], racks));
+      }
+  }
+
+  private static Object key(InetAddress addr, boolean racks) {
+    return racks ? Arrays.toString(CloudTopology.rack(addr)) : addr;
+  }
+
+  @Test
+  public void testOrder() throws UnknownHostException {
+    // Interleave racks and hosts, as sorted node keys of a real cloud would not be
+    InetAddress[] addrs = cloud(2, 1, 2, 1, 5, 1, 2, 1, 1, 1, 7, 2, 2, 3, 3);
+    for (int root = 0; root < addrs.length; root++) {
+      int[] order = CloudTopology.order(addrs, root);
+      assertEquals(root, order[0]);
+      int[] sorted = order.clone();
+      Arrays.sort(sorted);
+      for (int i = 0; i < sorted.length; i++) assertEquals(i, sorted[i]);
+      assertContiguous(addrs, order, true);
+      assertContiguous(addrs, order, false);
+      // The root's host, then the root's rack, come first
+      int i = 1;
+      while (i < order.length && addrs[order[i]].equals(addrs[root])) i++;
+      for (int j = i; j < order.length; j++) assertNotEquals(addrs[root], addrs[order[j]]);
+      while (i < order.length && Arrays.equals(CloudTopology.rack(addrs[order[i]]), CloudTopology.rack(addrs[root]))) i++;
+      for (int j = i; j < order.length; j++)
+        assertFalse(Arrays.equals(CloudTopology.rack(addrs[root]), CloudTopology.rack(addrs[order[j]])));
+    }
+  }
+
+  @Test
+  public void testSplit() throws UnknownHostException {
+    // Racks 1 and 2 with 2 hosts of 2 JVMs each, rack 3 with one host of 4 JVMs
+    InetAddress[] addrs = cloud(1, 1, 2, 1, 2, 2, 2, 1, 2, 2, 2, 2, 3, 1, 4);
+    int[] order = CloudTopology.order(addrs, 0);
+    // 3 racks: one part per rack
+    assertArrayEquals(new int[]{1, 4, 8, 12}, CloudTopology.split(addrs, order, 1, 12, 3));
+    assertArrayEquals(new int[]{1, 4, 8, 12}, CloudTopology.split(addrs, order, 1, 12, 4));
+    // 2 ways: racks are merged, never cut
+    int[] parts = CloudTopology.split(addrs, order, 1, 12, 2);
+    assertEquals(3, parts.length);
+    assertTrue(parts[1] == 4 || parts[1] == 8);
+    // Within a rack, one part per host
+    assertArrayEquals(new int[]{4, 6, 8}, CloudTopology.split(addrs, order, 4, 8, 4));
+    // Within a host, evenly
+    assertArrayEquals(new int[]{8, 10, 12}, CloudTopology.split(addrs, order, 8, 12, 2));
+    assertArrayEquals(new int[]{8, 9, 10, 12}, CloudTopology.split(addrs, order, 8, 12, 3));
+    assertArrayEquals(new int[]{10, 11}, CloudTopology.split(addrs, order, 10, 11, 3));
+  }
+
+  @Test
+  public void testSplitCovers() throws UnknownHostException {
+    InetAddress[] addrs = cloud(1, 1, 3, 1, 2, 1, 2, 1, 5, 3, 4, 1, 4, 1, 2, 4, 2, 1);
+    for (int fanout = 2; fanout <= 5; fanout++)
+      for (int root = 0; root < addrs.length; root++) {
+        int[] order = CloudTopology.order(addrs, root);
+        for (int lo = 1; lo < addrs.length; lo++)
+          for (int hi = lo + 1; hi <= addrs.length; hi++) {
+            int[] parts = CloudTopology.split(addrs, order, lo, hi, fanout);
+            assertEquals(lo, parts[0]);
+            assertEquals(hi, parts[parts.length - 1]);
+            assertTrue(parts.length >= 2 && parts.length - 1 <= fanout);
+            for (int i = 1; i < parts.length; i++) assertTrue(parts[i - 1] < parts[i]);
+            if (hi - lo >= 2) assertTrue(parts.length > 2); // Always some fanout
+          }
+      }
+  }
+
+}
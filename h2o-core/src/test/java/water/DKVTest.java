@@ -97,6 +97,141 @@ public class DKVTest extends TestUtil {
     }
   }
 
+  // Reads the key on every node, which must see the expected value
+  private static class CheckValue extends MRTask<CheckValue> {
+    final Key _key;
+    final int _expected;
+    CheckValue(Key key, int expected) { _key = key; _expected = expected; }
+    @Override protected void setupLocal() {
+      IcedInt val = DKV.getGet(_key);
+      assertEquals(_expected, val._val);
+    }
+  }
+
+  private static class SetLeaseMs extends MRTask<SetLeaseMs> {
+    final int _ms;
+    SetLeaseMs(int ms) { _ms = ms; }
+    @Override protected void setupLocal() { Value.LEASE_MS = _ms; }
+  }
+
+  @Test
+  public void testReadLeases() throws InterruptedException {
+    final int leaseMs = Value.LEASE_MS;
+    new SetLeaseMs(500).doAllNodes();
+    Key k = Key.make(H2O.SELF);
+    try {
+      final int remotes = H2O.CLOUD.size() - 1;
+      DKV.put(k, new IcedInt(1));
+      new CheckValue(k, 1).doAllNodes();  // Every remote node caches a leased copy
+      DKV.Stats stats = DKV.stats(k, DKV.get(k));
+      long invalidates = stats._invalidates.get(), skipped = stats._skipped.get();
+      DKV.put(k, new IcedInt(2));         // Leases still live: revoked
+      assertEquals(invalidates + remotes, stats._invalidates.get());
+      new CheckValue(k, 2).doAllNodes();
+      Thread.sleep(700);
+      DKV.put(k, new IcedInt(3));         // Leases ended: nothing to invalidate
+      assertEquals(invalidates + remotes, stats._invalidates.get());
+      assertEquals(skipped + remotes, stats._skipped.get());
+      new CheckValue(k, 3).doAllNodes();  // The stale copies are not served
+    } finally {
+      DKV.remove(k);
+      new SetLeaseMs(leaseMs).doAllNodes();
+    }
+  }
+
+  // Checks no node holds a copy of the key
+  private static class CheckRemoved extends MRTask<CheckRemoved> {
+    final Key _key;
+    CheckRemoved(Key key) { _key = key; }
+    @Override protected void setupLocal() {
+      Value val = H2O.STORE.get(_key);
+      assertTrue("Stale copy left on " + H2O.SELF, val == null || val.isNull());
+    }
+  }
+
+  @Test
+  public void testRemoveInvalidatesExpiredLeases() throws InterruptedException {
+    final int leaseMs = Value.LEASE_MS;
+    new SetLeaseMs(500).doAllNodes();
+    Key k = Key.make(H2O.SELF);
+    try {
+      final int remotes = H2O.CLOUD.size() - 1;
+      DKV.put(k, new IcedInt(1));
+      new CheckValue(k, 1).doAllNodes();
+      DKV.Stats stats = DKV.stats(k, DKV.get(k));
+      long invalidates = stats._invalidates.get();
+      Thread.sleep(700);
+      DKV.remove(k);                      // Leases ended, but the copies still go
+      assertEquals(invalidates + remotes, stats._invalidates.get());
+      new CheckRemoved(k).doAllNodes();
+    } finally {
+      DKV.remove(k);
+      new SetLeaseMs(leaseMs).doAllNodes();
+    }
+  }
+
+  @Test
+  public void testGetAllPutAll() {
+    final int n = 1000;
+    Key[] keys = new Key[n + 1];
+    Value[] vals = new Value[n + 1];
+    for (int i = 0; i < n; i++)
+      vals[i] = new Value(keys[i] = Key.make(H2O.CLOUD._memary[i % H2O.CLOUD.size()]), new IcedInt(i));
+    keys[n] = keys[0];            // A 2nd put of the same key wins
+    vals[n] = new Value(keys[n], new IcedInt(-1));
+    try {
+      Futures fs = new Futures();
+      DKV.putAll(keys, vals, fs);
+      fs.blockForPending();
+      // Every node sees all the puts, fetched in batches
+      new MRTask() {
+        @Override protected void setupLocal() {
+          Key[] ks = Arrays.copyOf(keys, n + 1);
+          ks[n] = null;           // No value for a null key
+          Value[] vs = DKV.getAll(ks);
+          assertEquals(-1, ((IcedInt) vs[0].get())._val);
+          for (int i = 1; i < n; i++) assertEquals(i, ((IcedInt) vs[i].get())._val);
+          assertNull(vs[n]);
+        }
+      }.doAllNodes();
+      // Removes in a batch
+      DKV.putAll(Arrays.copyOf(keys, n), new Value[n], fs);
+      fs.blockForPending();
+      for (Value v : DKV.getAll(Arrays.copyOf(keys, n))) assertNull(v);
+    } finally {
+      for (int i = 0; i < n; i++) DKV.remove(keys[i]);
+    }
+  }
+
+  @Test
+  public void testGetAllInParts() {
+    // More bytes than a home node ships back at once
+    final Key[] keys = new Key[3 * TaskGetKeys.MAX_BYTES / (1 << 20)];
+    Value[] vals = new Value[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      byte[] b = new byte[1 << 20];
+      Arrays.fill(b, (byte) i);
+      vals[i] = new Value(keys[i] = Key.make(H2O.CLOUD._memary[H2O.CLOUD.size() - 1]), b);
+    }
+    try {
+      Futures fs = new Futures();
+      DKV.putAll(keys, vals, fs);
+      fs.blockForPending();
+      new MRTask() {
+        @Override protected void setupLocal() {
+          Value[] vs = DKV.getAll(keys);
+          for (int i = 0; i < keys.length; i++) {
+            byte[] b = vs[i].memOrLoad();
+            assertEquals(1 << 20, b.length);
+            assertEquals((byte) i, b[b.length - 1]);
+          }
+        }
+      }.doAllNodes();
+    } finally {
+      for (Key k : keys) DKV.remove(k);
+    }
+  }
+
   class Bytes extends Iced<Bytes> {
     public byte[] _b;
     Bytes(byte[] b) { _b = b; }
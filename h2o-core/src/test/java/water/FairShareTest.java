@@ -0,0 +1,139 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class FairShareTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  private static class SetEnabled extends MRTask<SetEnabled> {
+    final boolean _enabled;
+    SetEnabled(boolean enabled) { _enabled = enabled; }
+    @Override protected void setupLocal() { FairShare.ENABLED = _enabled; }
+  }
+
+  // Checks the tenant of every map call, and burns some CPU
+  private static class CheckTenant extends MRTask<CheckTenant> {
+    final Key _expected;
+    boolean _mismatch;
+    double _sum;
+    CheckTenant(Key expected) { _expected = expected; }
+    @Override public void map(Chunk c) {
+      if (!_expected.equals(FairShare.current())) _mismatch = true;
+      for (int n = 0; n < 20; n++)
+        for (int i = 0; i < c._len; i++) _sum += c.atd(i) / 20;
+    }
+    @Override public void reduce(CheckTenant mrt) { _mismatch |= mrt._mismatch; _sum += mrt._sum; }
+  }
+
+  private static CheckTenant runInJob(final Job<Frame> job, final Vec v) {
+    final CheckTenant[] res = new CheckTenant[1];
+    job.start(new H2O.H2OCountedCompleter() {
+      @Override public void compute2() {
+        res[0] = new CheckTenant(job._key).doAll(v);
+        tryComplete();
+      }
+    }, 1).get();
+    return res[0];
+  }
+
+  @Test public void testJobIsTenantOnAllNodes() {
+    final boolean enabled = FairShare.ENABLED;
+    Vec v = Vec.makeCon(1.0, 1 << 16, 10);
+    try {
+      new SetEnabled(true).doAllNodes();
+      Job<Frame> job = new Job<>(Key.make(), Frame.class.getName(), "Fair share test");
+      CheckTenant res = runInJob(job, v);
+      assertFalse("Work not charged to its job", res._mismatch);
+      assertEquals(v.length(), res._sum, 1e-6);
+      assertTrue(FairShare.statsReport(), FairShare.statsReport().contains(job._key.toString()));
+    } finally {
+      new SetEnabled(enabled).doAllNodes();
+      v.remove();
+    }
+  }
+
+  @Test public void testOverShare() {
+    final boolean enabled = FairShare.ENABLED;
+    FairShare.ENABLED = true;
+    Key a = Key.make(), b = Key.make();
+    AtomicInteger qa = null, qb = null;
+    try {
+      qa = FairShare.start(a, 10);
+      FairShare.charge(a, 100000000);
+      assertFalse("Alone, a tenant has the whole node", FairShare.overShare(a));
+      qb = FairShare.start(b, 1);
+      FairShare.charge(b, 1000000);
+      assertTrue(FairShare.overShare(a));
+      assertFalse(FairShare.overShare(b));
+      FairShare.started(b, qb);
+      assertFalse("No chunk of b waits for a thread", FairShare.overShare(a));
+      FairShare.end(a, qa);
+      qa = null;
+      assertFalse(FairShare.overShare(b));
+    } finally {
+      if (qa != null) FairShare.end(a, qa);
+      if (qb != null) FairShare.end(b, qb);
+      FairShare.ENABLED = enabled;
+    }
+  }
+
+  @Test public void testBusyJobPreempted() {
+    final boolean enabled = FairShare.ENABLED;
+    Vec v = Vec.makeCon(1.0, 1 << 18, 10);
+    // Another tenant with chunks waiting, which got little CPU so far
+    Key other = Key.make();
+    AtomicInteger queued = null;
+    try {
+      new SetEnabled(true).doAllNodes();
+      queued = FairShare.start(other, 1);
+      FairShare.charge(other, 1000000);
+      Job<Frame> job = new Job<>(Key.make(), Frame.class.getName(), "Fair share test");
+      CheckTenant res = runInJob(job, v);
+      assertEquals(v.length(), res._sum, 1e-6);
+      String report = FairShare.statsReport();
+      boolean found = false;
+      for (String line : report.split("\n"))
+        if (line.contains(job._key.toString())) {
+          found = true;
+          assertFalse("Job was never preempted: " + report, line.contains(" deferred=0 "));
+        }
+      assertTrue(report, found);
+    } finally {
+      if (queued != null) FairShare.end(other, queued);
+      new SetEnabled(enabled).doAllNodes();
+      v.remove();
+    }
+  }
+
+  @Test public void testIdleTenantNotWaitedFor() {
+    final boolean enabled = FairShare.ENABLED;
+    Vec v = Vec.makeCon(1.0, 1 << 18, 10);
+    // Another tenant with a task running, but no chunk to map
+    Key other = Key.make();
+    AtomicInteger queued = null;
+    try {
+      new SetEnabled(true).doAllNodes();
+      queued = FairShare.start(other, 0);
+      FairShare.charge(other, 1000000);
+      Job<Frame> job = new Job<>(Key.make(), Frame.class.getName(), "Fair share test");
+      CheckTenant res = runInJob(job, v);
+      assertEquals(v.length(), res._sum, 1e-6);
+      String report = FairShare.statsReport();
+      for (String line : report.split("\n"))
+        if (line.contains(job._key.toString()))
+          assertTrue("Job preempted for an idle tenant: " + report, line.contains(" deferred=0 "));
+    } finally {
+      if (queued != null) FairShare.end(other, queued);
+      new SetEnabled(enabled).doAllNodes();
+      v.remove();
+    }
+  }
+}
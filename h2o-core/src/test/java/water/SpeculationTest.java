@@ -0,0 +1,96 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+
+import static org.junit.Assert.*;
+
+public class SpeculationTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  private static class SetFlags extends MRTask<SetFlags> {
+    final boolean _enabled, _steal;
+    final long _minMs;
+    SetFlags(boolean enabled, boolean steal, long minMs) { _enabled = enabled; _steal = steal; _minMs = minMs; }
+    @Override protected void setupLocal() {
+      Speculation.ENABLED = _enabled;
+      Speculation.STEAL = _steal;
+      Speculation.MIN_MS = _minMs;
+    }
+  }
+
+  // Pull a copy of every chunk to every node
+  private static class CacheChunks extends MRTask<CacheChunks> {
+    final Key<Vec> _key;
+    CacheChunks(Key<Vec> key) { _key = key; }
+    @Override protected void setupLocal() {
+      Vec v = _key.get();
+      for (int i = 0; i < v.nChunks(); i++) v.chunkForChunkIdx(i);
+    }
+  }
+
+  // Sum of a column; the node with the first chunk does not start mapping
+  // until it gave some of its chunks away, or for 10s at most
+  private static class SlowSum extends MRTask<SlowSum> {
+    final int _slow;
+    double _sum;
+    int _chunks;
+    SlowSum(int slow) { _slow = slow; }
+    @Override protected boolean isMapReadOnly() { return true; }
+    @Override protected void setupLocal() {
+      if (H2O.SELF.index() != _slow || _run == null) return;
+      long end = System.currentTimeMillis() + 10000;
+      while (System.currentTimeMillis() < end) {
+        synchronized (_run) {
+          if (_run._given > 0) return;
+        }
+        try { Thread.sleep(10); } catch (InterruptedException ignore) { }
+      }
+    }
+    @Override public void map(Chunk c) {
+      for (int i = 0; i < c._len; i++) _sum += c.atd(i);
+      _chunks++;
+    }
+    @Override public void reduce(SlowSum mrt) { _sum += mrt._sum; _chunks += mrt._chunks; }
+  }
+
+  @Test public void testStragglerChunksMappedElsewhere() {
+    final boolean enabled = Speculation.ENABLED, steal = Speculation.STEAL;
+    final long minMs = Speculation.MIN_MS;
+    Vec v = Vec.makeCon(1.0, 1 << 16, 10);
+    try {
+      new CacheChunks(v._key).doAllNodes();
+      new SetFlags(true, false, 100).doAllNodes();
+      int slow = v.chunkKey(0).home_node().index();
+      SlowSum sum = new SlowSum(slow).profile().doAll(v);
+      assertEquals(v.length(), sum._sum, 0);
+      assertEquals("Every chunk mapped exactly once", v.nChunks(), sum._chunks);
+      if (H2O.CLOUD.size() > 1)
+        assertTrue(sum.profString(), sum.profString().contains("Chunks moved: "));
+    } finally {
+      new SetFlags(enabled, steal, minMs).doAllNodes();
+      v.remove();
+    }
+  }
+
+  @Test public void testChunksStolenFromBusyNode() {
+    final boolean enabled = Speculation.ENABLED, steal = Speculation.STEAL;
+    final long minMs = Speculation.MIN_MS;
+    Vec v = Vec.makeCon(1.0, 1 << 16, 10);
+    try {
+      new SetFlags(false, true, minMs).doAllNodes();
+      int slow = v.chunkKey(0).home_node().index();
+      SlowSum sum = new SlowSum(slow).profile().doAll(v);
+      assertEquals(v.length(), sum._sum, 0);
+      assertEquals("Every chunk mapped exactly once", v.nChunks(), sum._chunks);
+      assertTrue(sum.profString(), sum.profString().contains("Map time by node: 0: "));
+      if (H2O.CLOUD.size() > 1)
+        assertTrue(sum.profString(), sum.profString().contains("Chunks moved: "));
+    } finally {
+      new SetFlags(enabled, steal, minMs).doAllNodes();
+      v.remove();
+    }
+  }
+}
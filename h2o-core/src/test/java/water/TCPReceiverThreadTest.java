@@ -5,10 +5,18 @@ import water.network.SocketChannelFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.channels.ByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -48,6 +56,54 @@ public class TCPReceiverThreadTest extends TestUtil {
     }
   }
 
+  @Test
+  public void testSmallMessagesSelector() throws Exception {
+    final LinkedBlockingQueue<byte[]> received = new LinkedBlockingQueue<>();
+    try (ServerSocketChannel server = ServerSocketChannel.open()) {
+      server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      SocketChannel client = SocketChannel.open(server.getLocalAddress());
+      SocketChannel accepted = server.accept();
+      TCPReceiverThread.SmallMessagesSelectorThread.get().register(new TCPReceiverThread.SmallMessagesConn(H2O.SELF, accepted) {
+        @Override void handle(AutoBuffer ab) {
+          byte[] msg = new byte[ab._bb.remaining()];
+          ab._bb.get(msg);
+          received.add(msg);
+          ab.close();
+        }
+      });
+      byte[][] msgs = {{1, 2, 3}, new byte[1400], {9}};
+      Arrays.fill(msgs[1], (byte) 7);
+      ByteBuffer bb = ByteBuffer.allocate(2000).order(ByteOrder.nativeOrder());
+      for (byte[] msg : msgs)
+        bb.putChar((char) msg.length).put(msg).put((byte) 0xef);
+      bb.flip();
+      // The first message a byte at a time, the others in one go
+      for (int i = 0; i < 2 + 3 + 1; i++) {
+        client.write(ByteBuffer.wrap(new byte[]{bb.get()}));
+        Thread.sleep(10);
+      }
+      assertArrayEquals(msgs[0], received.poll(10, TimeUnit.SECONDS));
+      client.write(bb);
+      assertArrayEquals(msgs[1], received.poll(10, TimeUnit.SECONDS));
+      assertArrayEquals(msgs[2], received.poll(10, TimeUnit.SECONDS));
+      // A message out of sync closes the channel
+      client.write(ByteBuffer.wrap(new byte[]{1, 0, 5, 0}));
+      client.configureBlocking(true);
+      long deadline = System.currentTimeMillis() + 10000;
+      int res = 0;
+      while (res >= 0 && System.currentTimeMillis() < deadline) {
+        try {
+          res = client.read(ByteBuffer.allocate(1));
+        } catch (IOException e) {
+          res = -1;             // Connection reset
+        }
+      }
+      assertEquals(-1, res);
+      assertTrue(received.isEmpty());
+      client.close();
+    }
+  }
+
   @Test
   @Ignore // test only passes individually
   public void testConnectFromClientWhenClientsDisabled() throws Exception {
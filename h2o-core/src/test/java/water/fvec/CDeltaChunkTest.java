@@ -0,0 +1,71 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.IcedUtils;
+import water.TestUtil;
+
+import static org.junit.Assert.*;
+
+public class CDeltaChunkTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static Chunk checkChunk(long[] vals, int expectedLog) {
+    NewChunk nc = new NewChunk(null, 0);
+    for (long v : vals) {
+      if (v == Long.MIN_VALUE) nc.addNA();
+      else nc.addNum(v, 0);
+    }
+    Chunk c = nc.compress();
+    assertTrue(c.getClass().getSimpleName(), c instanceof CDeltaChunk);
+    assertEquals(CDeltaChunk.computeByteSize(vals.length, expectedLog), c._mem.length);
+    for (Chunk cc : new Chunk[]{c, IcedUtils.deepCopy(c)}) {
+      assertEquals(vals.length, cc._len);
+      for (int i = 0; i < vals.length; i++) {
+        assertEquals(vals[i] == Long.MIN_VALUE, cc.isNA(i));
+        if (vals[i] != Long.MIN_VALUE) assertEquals(vals[i], cc.at8(i));
+      }
+      long[] longs = cc.getLongs(new long[vals.length - 10], 5, vals.length - 5, Long.MIN_VALUE);
+      for (int i = 5; i < vals.length - 5; i++)
+        assertEquals(vals[i], longs[i - 5]);
+      double[] dense = cc.getDoubles(new double[vals.length], 0, vals.length);
+      for (int i = 0; i < vals.length; i++)
+        assertEquals(vals[i] == Long.MIN_VALUE ? Double.NaN : vals[i], dense[i], 0);
+      NewChunk nc2 = cc.extractRows(new NewChunk(null, 0), 0, vals.length);
+      for (int i = 0; i < vals.length; i++)
+        if (vals[i] != Long.MIN_VALUE) assertEquals(vals[i], nc2.at8(i));
+    }
+    return c;
+  }
+
+  @Test
+  public void testSortedTimestamps() {
+    long[] vals = new long[10001];
+    long t = 1500000000000L;
+    for (int i = 0; i < vals.length; i++) {
+      t += (i * 31) % 97; // up to ~100ms between events
+      vals[i] = i % 101 == 0 ? Long.MIN_VALUE : t;
+    }
+    checkChunk(vals, 1);
+  }
+
+  @Test
+  public void testSequenceIds() {
+    long[] vals = new long[4000];
+    for (int i = 0; i < vals.length; i++)
+      vals[i] = 100000 + 2 * i;
+    Chunk c = checkChunk(vals, 0);
+    assertTrue(c._mem.length < vals.length * 4 / 3); // vs 4 bytes per value in C4Chunk
+  }
+
+  @Test
+  public void testSetNA() {
+    long[] vals = new long[1000];
+    for (int i = 0; i < vals.length; i++)
+      vals[i] = 5000000000L + i;
+    Chunk c = checkChunk(vals, 0);
+    assertTrue(c.setNA_impl(10));
+    assertTrue(c.isNA(10));
+    assertEquals(vals[11], c.at8(11));
+  }
+}
@@ -0,0 +1,77 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.IcedUtils;
+import water.TestUtil;
+
+import static org.junit.Assert.*;
+
+public class CRLEChunkTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static void checkChunk(double[] vals, Chunk c) {
+    assertEquals(vals.length, c._len);
+    for (int i = 0; i < vals.length; i++) { // sequential access
+      assertEquals(Double.isNaN(vals[i]), c.isNA(i));
+      assertEquals(vals[i], c.atd(i), 0);
+    }
+    for (int i = vals.length - 1; i >= 0; i -= 7) // random access
+      assertEquals(vals[i], c.atd(i), 0);
+    int from = 17, to = vals.length - 3;
+    double[] dense = c.getDoubles(new double[to - from], from, to, -1);
+    for (int i = from; i < to; i++)
+      assertEquals(Double.isNaN(vals[i]) ? -1 : vals[i], dense[i - from], 0);
+    NewChunk nc = c.extractRows(new NewChunk(null, 0), 0, c._len);
+    for (int i = 0; i < vals.length; i++)
+      assertEquals(vals[i], nc.atd(i), 0);
+    Chunk copy = IcedUtils.deepCopy(c);
+    assertEquals(c.getClass(), copy.getClass());
+    for (int i = 0; i < vals.length; i++)
+      assertEquals(vals[i], copy.atd(i), 0);
+  }
+
+  @Test
+  public void testIntegerRuns() {
+    double[] vals = new double[10000];
+    for (int i = 0; i < vals.length; i++)
+      vals[i] = i < 500 ? Double.NaN : i < 3000 ? 0 : 1000000 + i / 1000 * 100000;
+    Chunk c = new NewChunk(vals).compress();
+    assertTrue(c instanceof CRLEChunk);
+    assertFalse(c.hasFloat());
+    assertEquals(9, ((CRLEChunk) c).numRuns());
+    checkChunk(vals, c);
+    long[] longs = c.getLongs(new long[vals.length], 0, vals.length, Long.MIN_VALUE);
+    for (int i = 500; i < vals.length; i++)
+      assertEquals((long) vals[i], longs[i]);
+    assertEquals(1900000, c.at8(vals.length - 1));
+  }
+
+  @Test
+  public void testDoubleRuns() {
+    double[] vals = new double[5000];
+    for (int i = 0; i < vals.length; i++)
+      vals[i] = i % 1000 < 10 ? Double.NaN : Math.PI * (i / 250);
+    Chunk c = new NewChunk(vals).compress();
+    assertTrue(c instanceof CRLEChunk);
+    assertTrue(c.hasFloat());
+    checkChunk(vals, c);
+  }
+
+  @Test
+  public void testSetInflates() {
+    double[] vals = new double[1000];
+    java.util.Arrays.fill(vals, 500, 1000, 7);
+    Vec v = Vec.makeVec(vals, Vec.newKey());
+    try {
+      assertTrue(v.chunkForChunkIdx(0) instanceof CRLEChunk);
+      Vec.Writer w = v.open();
+      w.set(10, 3);
+      w.close();
+      assertEquals(3, v.at8(10));
+      assertEquals(7, v.at8(700));
+    } finally {
+      v.remove();
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.IcedUtils;
+import water.TestUtil;
+import water.parser.BufferedString;
+
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class CStrDictChunkTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() { stall_till_cloudsize(1); }
+
+  private static final String[] WORDS = new String[]{
+          "GET /index.html", "  padded value ", "xxMiXeD cAsExx", "", "   ", "x", "POST /api/v3/Frames", "tab\tseparated\t"
+  };
+
+  private static String value(int i) {
+    return i % 13 == 5 ? null : WORDS[i % WORDS.length];
+  }
+
+  private static NewChunk makeNewChunk(int len) {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < len; i++)
+      nc.addStr(value(i));
+    return nc;
+  }
+
+  // same data in the plain string layout, as a reference for the dictionary chunk
+  private static CStrChunk makePlainChunk(int len) {
+    NewChunk nc = makeNewChunk(len);
+    int[] is = new int[len];
+    for (int i = 0; i < len; i++)
+      is[i] = nc.is(i);
+    return new CStrChunk(nc._sslen, nc._ss, len, len, null, is);
+  }
+
+  private static void assertSameStrings(Chunk exp, Chunk act) {
+    assertEquals(exp._len, act._len);
+    BufferedString e = new BufferedString(), a = new BufferedString();
+    for (int i = 0; i < exp._len; i++) {
+      assertEquals("row " + i, exp.isNA(i), act.isNA(i));
+      if (!exp.isNA(i))
+        assertEquals("row " + i, exp.atStr(e, i).toString(), act.atStr(a, i).toString());
+    }
+  }
+
+  private static void assertSameNumbers(Chunk exp, Chunk act) {
+    assertEquals(exp._len, act._len);
+    for (int i = 0; i < exp._len; i++) {
+      assertEquals("row " + i, exp.isNA(i), act.isNA(i));
+      if (!exp.isNA(i))
+        assertEquals("row " + i, exp.atd(i), act.atd(i), 1e-10);
+    }
+  }
+
+  @Test
+  public void testRoundTrip() {
+    int len = 10000;
+    Chunk c = makeNewChunk(len).compress();
+    assertTrue(c instanceof CStrDictChunk);
+    assertEquals(WORDS.length, ((CStrDictChunk) c).dictSize());
+    CStrChunk plain = makePlainChunk(len);
+    assertTrue(c._mem.length < plain._mem.length / 3);
+    assertSameStrings(plain, c);
+
+    Chunk copy = IcedUtils.deepCopy(c);
+    assertTrue(copy instanceof CStrDictChunk);
+    assertSameStrings(plain, copy);
+
+    NewChunk nc = c.extractRows(new NewChunk(null, 0), 0, len);
+    Chunk recompressed = nc.compress();
+    assertTrue(recompressed instanceof CStrDictChunk);
+    assertArrayEquals(c._mem, recompressed._mem);
+  }
+
+  @Test
+  public void testWideDictionary() {
+    int len = 20000;
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < len; i++)
+      nc.addStr(i % 7 == 0 ? null : "value" + (i % 1000));
+    Chunk c = nc.compress();
+    assertTrue(c instanceof CStrDictChunk);
+    assertEquals(1000, ((CStrDictChunk) c).dictSize());
+    BufferedString bs = new BufferedString();
+    for (int i = 0; i < len; i++) {
+      if (i % 7 == 0) assertTrue(c.isNA(i));
+      else assertEquals("value" + (i % 1000), c.atStr(bs, i).toString());
+    }
+  }
+
+  @Test
+  public void testSparse() {
+    int len = 5000;
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < len; i++)
+      nc.addStr(i % 100 == 3 ? WORDS[i % 3] : null);
+    Chunk c = nc.compress();
+    assertTrue(c instanceof CStrDictChunk);
+    BufferedString bs = new BufferedString();
+    for (int i = 0; i < len; i++) {
+      if (i % 100 == 3) assertEquals(WORDS[i % 3], c.atStr(bs, i).toString());
+      else assertTrue(c.isNA(i));
+    }
+  }
+
+  @Test
+  public void testHighCardinalityStaysPlain() {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < 1000; i++)
+      nc.addStr("unique" + i);
+    assertEquals(CStrChunk.class, nc.compress().getClass());
+  }
+
+  @Test
+  public void testAsciiOperationsPerEntry() {
+    int len = 3001;
+    CStrChunk plain = makePlainChunk(len);
+    CStrDictChunk dict = (CStrDictChunk) makeNewChunk(len).compress();
+
+    assertSameStrings(plain.asciiToLower(new NewChunk(null, 0)).compress(), dict.asciiToLower(new NewChunk(null, 0)).compress());
+    assertSameStrings(plain.asciiToUpper(new NewChunk(null, 0)).compress(), dict.asciiToUpper(new NewChunk(null, 0)).compress());
+    assertSameStrings(plain.asciiSubstring(new NewChunk(null, 0), 2, 6).compress(), dict.asciiSubstring(new NewChunk(null, 0), 2, 6).compress());
+    assertSameStrings(plain.asciiLStrip(new NewChunk(null, 0), "x ").compress(), dict.asciiLStrip(new NewChunk(null, 0), "x ").compress());
+    assertSameStrings(plain.asciiRStrip(new NewChunk(null, 0), "x\t").compress(), dict.asciiRStrip(new NewChunk(null, 0), "x\t").compress());
+    assertSameNumbers(plain.asciiLength(new NewChunk(null, 0)).compress(), dict.asciiLength(new NewChunk(null, 0)).compress());
+    assertSameNumbers(plain.asciiEntropy(new NewChunk(null, 0)).compress(), dict.asciiEntropy(new NewChunk(null, 0)).compress());
+
+    Chunk trimmed = dict.asciiTrim(new NewChunk(null, 0)).compress();
+    assertTrue(trimmed instanceof CStrDictChunk); // output shares one copy of each string
+    BufferedString bs = new BufferedString();
+    for (int i = 0; i < len; i++) {
+      String exp = value(i);
+      if (exp == null) assertTrue(trimmed.isNA(i));
+      else assertEquals(exp.trim(), trimmed.atStr(bs, i).toString());
+    }
+  }
+
+  @Test
+  public void testMapStrings() {
+    int len = 2000;
+    CStrDictChunk dict = (CStrDictChunk) makeNewChunk(len).compress();
+    Function<String, String> fun = s -> s.isEmpty() ? null : s.replaceAll("[aeiou]", "_");
+    Chunk mapped = dict.mapStrings(new NewChunk(null, 0), fun).compress();
+    assertTrue(mapped instanceof CStrDictChunk);
+    BufferedString bs = new BufferedString();
+    for (int i = 0; i < len; i++) {
+      String exp = value(i) == null ? null : fun.apply(value(i));
+      if (exp == null) assertTrue(mapped.isNA(i));
+      else assertEquals(exp, mapped.atStr(bs, i).toString());
+    }
+    Chunk lengths = dict.mapToNumbers(new NewChunk(null, 0), s -> s.length()).compress();
+    for (int i = 0; i < len; i++) {
+      if (value(i) == null) assertTrue(lengths.isNA(i));
+      else assertEquals(value(i).length(), lengths.at8(i));
+    }
+  }
+
+}
@@ -0,0 +1,148 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+import water.util.UnsafeUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the chunk-specialized bulk decoders against the generic visitor based implementation.
+ */
+public class ChunkBulkDecodeTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() { stall_till_cloudsize(1); }
+
+  private static final int LEN = 1003; // not a multiple of 8 - exercises CBSChunk partial bytes
+
+  private static Chunk makeChunk(double[] vals, Class<? extends Chunk> expected) {
+    Chunk c = new NewChunk(vals).compress();
+    assertEquals(expected, c.getClass());
+    return c;
+  }
+
+  private static void checkDoubles(Chunk c) {
+    for (int[] range : new int[][]{{0, c._len}, {0, 5}, {3, 17}, {13, c._len}, {c._len - 1, c._len}}) {
+      int from = range[0], to = range[1];
+      for (double na : new double[]{Double.NaN, -1}) {
+        double[] exp = c.processRows(new ChunkVisitor.DoubleAryVisitor(new double[to - from], na), from, to).vals;
+        double[] act = c.getDoubles(new double[to - from], from, to, na);
+        assertArrayEquals(c.getClass().getSimpleName() + " [" + from + "," + to + ")", exp, act, 0);
+      }
+    }
+    int[] ids = new int[]{0, 2, 5, 17, 100, c._len - 1};
+    double[] exp = c.processRows(new ChunkVisitor.DoubleAryVisitor(new double[ids.length]), ids).vals;
+    assertArrayEquals(exp, c.getDoubles(new double[ids.length], ids), 0);
+  }
+
+  private static void checkSparse(Chunk c) {
+    double[] expVals = new double[c._len];
+    int[] expIds = new int[c._len];
+    ChunkVisitor.SparseDoubleAryVisitor v = c.processRows(
+            new ChunkVisitor.SparseDoubleAryVisitor(expVals, expIds, c.isSparseNA(), -1), 0, c._len);
+    double[] vals = new double[c._len];
+    int[] ids = new int[c._len];
+    int n = c.getSparseDoubles(vals, ids, -1);
+    assertEquals(v.sparseLen(), n);
+    for (int i = 0; i < n; i++) {
+      assertEquals(expIds[i], ids[i]);
+      assertEquals(expVals[i], vals[i], 0);
+    }
+  }
+
+  private static void checkLongs(Chunk c) {
+    long[] act = c.getLongs(new long[c._len - 3], 3, c._len, Long.MIN_VALUE);
+    for (int i = 3; i < c._len; i++)
+      assertEquals(c.isNA(i) ? Long.MIN_VALUE : c.at8(i), act[i - 3]);
+  }
+
+  @Test
+  public void testC4FChunk() {
+    // not produced by NewChunk compression anymore, but still readable
+    byte[] mem = new byte[LEN << 2];
+    for (int i = 0; i < LEN; i++)
+      UnsafeUtils.set4f(mem, i << 2, i % 11 == 0 ? Float.NaN : (float) Math.sqrt(i));
+    checkDoubles(new C4FChunk(mem));
+  }
+
+  @Test
+  public void testCBSChunk() {
+    double[] vals = new double[LEN];
+    for (int i = 0; i < LEN; i++)
+      vals[i] = i % 2;
+    checkDoubles(makeChunk(vals, CBSChunk.class)); // 1 bit per value
+    for (int i = 0; i < LEN; i++)
+      vals[i] = i % 3 == 0 ? Double.NaN : i % 2;
+    checkDoubles(makeChunk(vals, CBSChunk.class)); // 2 bits per value
+  }
+
+  @Test
+  public void testSparseChunks() {
+    double[] vals = new double[LEN];
+    for (int i = 0; i < LEN; i++)
+      vals[i] = i % 50 == 3 ? i : 0;
+    vals[103] = Double.NaN;
+    Chunk cxi = makeChunk(vals, CXIChunk.class);
+    checkDoubles(cxi);
+    checkSparse(cxi);
+    checkLongs(cxi);
+    for (int i = 0; i < LEN; i++)
+      vals[i] = i % 50 == 3 ? Math.PI * i : 0;
+    vals[103] = Double.NaN;
+    Chunk cxf = makeChunk(vals, CXFChunk.class);
+    checkDoubles(cxf);
+    checkSparse(cxf);
+  }
+
+  @Test
+  public void testConstChunks() {
+    double[] vals = new double[LEN];
+    java.util.Arrays.fill(vals, 7);
+    Chunk c0l = makeChunk(vals, C0LChunk.class);
+    checkDoubles(c0l);
+    checkLongs(c0l);
+    java.util.Arrays.fill(vals, 2.5);
+    checkDoubles(makeChunk(vals, C0DChunk.class));
+    java.util.Arrays.fill(vals, Double.NaN);
+    checkDoubles(makeChunk(vals, C0DChunk.class));
+  }
+
+  @Test
+  public void testIntegerChunkLongs() {
+    double[] vals = new double[LEN];
+    for (int i = 0; i < LEN; i++)
+      vals[i] = i % 7 == 0 ? Double.NaN : i % 200;
+    checkLongs(makeChunk(vals, C1Chunk.class));
+    for (int i = 0; i < LEN; i++)
+      vals[i] = i % 7 == 0 ? Double.NaN : (i * 7919) % 30000 - 15000;
+    checkLongs(makeChunk(vals, C2Chunk.class));
+    for (int i = 0; i < LEN; i++)
+      vals[i] = i % 7 == 0 ? Double.NaN : i * 2000003L - 1000000001;
+    checkLongs(makeChunk(vals, C4Chunk.class));
+    for (int i = 0; i < LEN; i++)
+      vals[i] = i % 7 == 0 ? Double.NaN : i * 30000000007L + 1;
+    checkLongs(makeChunk(vals, C8Chunk.class));
+  }
+
+  @Test
+  public void testChunkBuffers() {
+    double[] a = ChunkBuffers.doubles(100);
+    double[] b = ChunkBuffers.doubles(100);
+    assertNotSame(a, b);
+    assertEquals(100, a.length);
+    ChunkBuffers.release(a);
+    assertSame(a, ChunkBuffers.doubles(100));
+    assertNotSame(a, ChunkBuffers.doubles(100));
+    ChunkBuffers.release(b);
+    assertNotSame(b, ChunkBuffers.doubles(99));
+    int[] ints = ChunkBuffers.ints(10);
+    ChunkBuffers.release(ints);
+    assertSame(ints, ChunkBuffers.ints(10));
+    long[] longs = ChunkBuffers.longs(10);
+    ChunkBuffers.release(longs);
+    assertSame(longs, ChunkBuffers.longs(10));
+  }
+
+}
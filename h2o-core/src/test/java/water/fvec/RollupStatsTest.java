@@ -0,0 +1,253 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.MRTask;
+import water.TestUtil;
+import water.Value;
+import water.util.HyperLogLog;
+import water.util.KllSketch;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RollupStatsTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() { stall_till_cloudsize(1); }
+
+  private static final int NCHUNKS = 20;
+  private static final int CHUNK_LEN = 100;
+
+  private static Frame makeFrame() {
+    double[] vals = new double[NCHUNKS * CHUNK_LEN];
+    for (int i = 0; i < vals.length; i++)
+      vals[i] = i % 31 == 0 ? Double.NaN : (i * 7919) % 1000 - 300;
+    long[] layout = new long[NCHUNKS];
+    Arrays.fill(layout, CHUNK_LEN);
+    return new TestFrameBuilder()
+            .withVecTypes(Vec.T_NUM)
+            .withDataForCol(0, vals)
+            .withChunkLayout(layout)
+            .build();
+  }
+
+  private static RollupStats.ChunkRollups chunkRollups(Vec vec) {
+    Value val = DKV.get(vec.chunkRollupsKey());
+    return val == null ? null : val.<RollupStats.ChunkRollups>get();
+  }
+
+  // rollups computed from scratch on a copy of the Vec
+  private static void assertSameRollups(Vec vec) {
+    Vec exp = vec.doCopy();
+    DKV.put(exp);
+    try {
+      assertEquals(exp.min(), vec.min(), 0);
+      assertEquals(exp.max(), vec.max(), 0);
+      assertArrayEquals(exp.mins(), vec.mins(), 0);
+      assertArrayEquals(exp.maxs(), vec.maxs(), 0);
+      assertEquals(exp.mean(), vec.mean(), 1e-10);
+      assertEquals(exp.sigma(), vec.sigma(), 1e-10);
+      assertEquals(exp.naCnt(), vec.naCnt());
+      assertEquals(exp.nzCnt(), vec.nzCnt());
+      assertEquals(exp.isInt(), vec.isInt());
+      assertEquals(exp.checksum(true), vec.checksum(true));
+    } finally {
+      exp.remove();
+    }
+  }
+
+  // tag the per-chunk rollups in the DKV, to tell the kept ones from the ones
+  // rolled up again later: the rollups of a single chunk have no percentiles
+  private static void tagChunkRollups(Vec vec) {
+    RollupStats[] chunks = chunkRollups(vec)._chunks.clone();
+    for (int i = 0; i < chunks.length; i++) {
+      chunks[i] = (RollupStats) chunks[i].clone();
+      chunks[i]._pctiles = new double[0];
+    }
+    DKV.put(vec.chunkRollupsKey(), new RollupStats.ChunkRollups(chunks));
+  }
+
+  // exactly the given chunks were rolled up again since the last tagChunkRollups
+  private static void assertRolledUp(Vec vec, int... cidxs) {
+    RollupStats[] chunks = chunkRollups(vec)._chunks;
+    int rolled = 0;
+    for (RollupStats rs : chunks)
+      if (rs._pctiles == null) rolled++;
+    assertEquals(cidxs.length, rolled);
+    for (int c : cidxs)
+      assertNull(chunks[c]._pctiles);
+  }
+
+  @Test
+  public void testSingleChunkUpdate() {
+    Frame fr = makeFrame();
+    Vec vec = fr.anyVec();
+    try {
+      assertEquals(-300, vec.min(), 0);
+      RollupStats.ChunkRollups crs = chunkRollups(vec);
+      assertNotNull(crs);
+      assertEquals(NCHUNKS, crs._chunks.length);
+      assertEquals(0, crs.dirtyCnt());
+      RollupStats before = crs._chunks[0];
+      tagChunkRollups(vec);
+
+      vec.set(5 * CHUNK_LEN + 3, -1e6);
+      vec.set(5 * CHUNK_LEN + 4, Double.NaN);
+      crs = chunkRollups(vec);
+      assertEquals(1, crs.dirtyCnt());
+      assertNull(crs._chunks[5]);
+
+      assertEquals(-1e6, vec.min(), 0);
+      assertSameRollups(vec);
+      crs = chunkRollups(vec);
+      assertEquals(0, crs.dirtyCnt());
+      assertRolledUp(vec, 5);                            // Only the dirty chunk rolled up again
+      assertEquals(before._rows, crs._chunks[0]._rows); // kept as is
+      assertEquals(before._mean, crs._chunks[0]._mean, 0);
+
+      tagChunkRollups(vec);
+      vec.set(19 * CHUNK_LEN + 99, 12345.5);
+      assertEquals(12345.5, vec.max(), 0);
+      assertFalse(vec.isInt());
+      assertSameRollups(vec);
+      assertRolledUp(vec, 19);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testTaskClearsOnlyWrittenChunks() {
+    Frame fr = makeFrame();
+    Vec vec = fr.anyVec();
+    try {
+      vec.mean();
+      tagChunkRollups(vec);
+      new MRTask() {
+        @Override public void map(Chunk c) {
+          if (c.cidx() == 3 || c.cidx() == 7)
+            c.set(0, 1e6);
+        }
+      }.doAll(vec);
+      RollupStats.ChunkRollups crs = chunkRollups(vec);
+      assertEquals(2, crs.dirtyCnt());
+      assertNull(crs._chunks[3]);
+      assertNull(crs._chunks[7]);
+      assertEquals(1e6, vec.max(), 0);
+      assertSameRollups(vec);
+      assertRolledUp(vec, 3, 7);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testBulkWriteDropsChunkRollups() {
+    Frame fr = makeFrame();
+    Vec vec = fr.anyVec();
+    try {
+      vec.mean();
+      new MRTask() {
+        @Override public void map(Chunk c) {
+          for (int i = 0; i < c._len; i += 10)
+            c.set(i, c.atd(i) * 2);
+        }
+      }.doAll(vec);
+      assertNull(chunkRollups(vec)._chunks);
+      assertSameRollups(vec);
+      assertEquals(0, chunkRollups(vec).dirtyCnt());
+    } finally {
+      fr.delete();
+    }
+    assertNull(DKV.get(vec.chunkRollupsKey()));
+  }
+
+  @Test
+  public void testSketches() {
+    Frame fr = makeFrame();
+    Vec vec = fr.anyVec();
+    try {
+      assertNull(vec.lazy_bins());
+      // (i * 7919) % 1000 takes every value in [0,1000) twice, less the NAs
+      long exact = 0;
+      for (int v = 0; v < 1000; v++) {
+        boolean seen = false;
+        for (int i = 0; i < NCHUNKS * CHUNK_LEN && !seen; i++)
+          seen = i % 31 != 0 && (i * 7919) % 1000 == v;
+        if (seen) exact++;
+      }
+      assertEquals(exact, vec.approxCardinality(), exact * 0.02);
+      assertNotNull(vec.lazy_bins()); // cached with the histogram
+
+      double[] sorted = new double[(int) (vec.length() - vec.naCnt())];
+      for (int i = 0, j = 0; i < vec.length(); i++)
+        if (!vec.isNA(i)) sorted[j++] = vec.at(i);
+      Arrays.sort(sorted);
+      double[] qs = vec.approxQuantiles(0, 0.1, 0.5, 0.9, 1);
+      assertEquals(sorted[0], qs[0], 0);
+      assertEquals(sorted[sorted.length - 1], qs[4], 0);
+      for (int i = 1; i < 4; i++)
+        assertEquals(sorted[(int) (new double[]{0, 0.1, 0.5, 0.9}[i] * sorted.length)], qs[i], 1000 * 0.02);
+
+      // recomputed after a write
+      vec.set(0, 1e6);
+      assertEquals(1e6, vec.approxQuantiles(1)[0], 0);
+      assertEquals(exact + 1, vec.approxCardinality(), exact * 0.02);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testSketchMerge() {
+    Random rnd = new Random(0xCAFE);
+    HyperLogLog hll = new HyperLogLog(), hll1 = new HyperLogLog(), hll2 = new HyperLogLog();
+    KllSketch kll = new KllSketch(), kll1 = new KllSketch(), kll2 = new KllSketch();
+    int n = 200000;
+    double[] vals = new double[n];
+    for (int i = 0; i < n; i++) {
+      vals[i] = rnd.nextGaussian();
+      double d = i % 4 == 0 ? 0 : vals[i];
+      hll.add(d);
+      kll.add(d);
+      (i < n / 3 ? hll1 : hll2).add(d);
+      (i < n / 3 ? kll1 : kll2).add(d);
+      vals[i] = d;
+    }
+    assertEquals(hll.estimate(), hll1.merge(hll2).estimate());
+    long distinct = Arrays.stream(vals).distinct().count();
+    assertEquals(distinct, hll.estimate(), distinct * 0.05);
+
+    kll1.merge(kll2);
+    assertEquals(n, kll.count());
+    assertEquals(n, kll1.count());
+    Arrays.sort(vals);
+    for (double q : new double[]{0.01, 0.25, 0.5, 0.75, 0.99})
+      for (KllSketch k : new KllSketch[]{kll, kll1}) {
+        double v = k.quantile(q);
+        assertTrue(Arrays.binarySearch(vals, v) >= 0); // the sketch only keeps actual values
+        assertRank(vals, v, q, 0.02);
+      }
+    // repeated values, added at once
+    KllSketch zeros = new KllSketch();
+    zeros.add(0.0, 1000000);
+    zeros.add(1.0);
+    assertEquals(1000001, zeros.count());
+    assertEquals(0, zeros.quantile(0.999), 0);
+    assertEquals(1, zeros.quantile(1), 0);
+  }
+
+  // v is at quantile q of the sorted values, within eps; a quarter of the values are tied zeros
+  private static void assertRank(double[] sorted, double v, double q, double eps) {
+    int lo = 0;
+    while (lo < sorted.length && sorted[lo] < v) lo++;
+    int hi = lo;
+    while (hi < sorted.length && sorted[hi] == v) hi++;
+    assertTrue("rank of " + v + " is not " + q, (double) lo / sorted.length - eps <= q && q <= (double) hi / sorted.length + eps);
+  }
+
+}
@@ -8,6 +8,7 @@ import org.junit.runner.RunWith;
 import water.DKV;
 import water.Key;
 import water.Scope;
+import water.Value;
 import water.fvec.Frame;
 import water.fvec.Vec;
 import water.runner.CloudSize;
@@ -15,9 +16,12 @@ import water.runner.H2ORunner;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static water.TestUtil.*;
 
 @RunWith(H2ORunner.class)
@@ -91,6 +95,56 @@ public class FramePersistTest {
         }
     }
 
+    @Test
+    public void testSaveAndLoadLazy() throws IOException {
+        Scope.enter();
+        try {
+            Frame f = Scope.track(createTestFrame());
+            Frame copy = Scope.track(f.deepCopy("lazy_copy"));
+            File dest = temp.newFolder();
+            new FramePersist(f).saveTo(dest.getAbsolutePath(), false).get();
+            f.remove(true);
+            for (int i = 0; i < 2; i++) { // loading twice checks that removing a lazy frame keeps the snapshot intact
+                Frame loaded = FramePersist.loadFrom(f._key, dest.getAbsolutePath(), true).get();
+                Value chunkVal = DKV.get(loaded.anyVec().chunkKey(0));
+                assertTrue(chunkVal.isPersisted());
+                assertFrameEquals(copy, loaded, 0);
+                loaded.remove(true);
+            }
+        } finally {
+            Scope.exit();
+        }
+    }
+
+    @Test
+    public void testLoadLegacyFormat() throws IOException {
+        Scope.enter();
+        try {
+            Frame f = Scope.track(createTestFrame());
+            Frame copy = Scope.track(f.deepCopy("legacy_copy"));
+            File dest = temp.newFolder();
+            String[] files = new FramePersist(f).saveToAndWait(dest.getAbsolutePath(), false);
+            // Rewrite the chunk groups as older versions saved them
+            for (int cidx = 0; cidx < files.length - 1; cidx++) {
+                final Vec[] vecs = f.vecs();
+                final int c = cidx;
+                PersistUtils.write(new URI(files[cidx + 1]), ab -> {
+                    for (Vec v : vecs) ab.put(v.chunkForChunkIdx(c));
+                });
+            }
+            f.remove(true);
+            for (boolean lazy : new boolean[]{false, true}) {
+                Frame loaded = FramePersist.loadFrom(f._key, dest.getAbsolutePath(), lazy).get();
+                assertFrameEquals(copy, loaded, 0);
+                loaded.remove(true);
+            }
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        } finally {
+            Scope.exit();
+        }
+    }
+
     private static Frame createTestFrame() {
         CreateFrame cf = new CreateFrame();
         cf.rows = 10_000;
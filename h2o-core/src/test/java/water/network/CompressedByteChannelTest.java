@@ -0,0 +1,125 @@
+package water.network;
+
+import org.junit.Test;
+import water.util.LZ4Codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompressedByteChannelTest {
+
+  // Bytes written are buffered, and read back in pieces of at most _maxRead bytes
+  private static class MemChannel implements ByteChannel {
+    final ByteArrayOutputStream _out = new ByteArrayOutputStream();
+    ByteBuffer _in;
+    int _maxRead = Integer.MAX_VALUE;
+    @Override public int write(ByteBuffer src) {
+      int n = Math.min(src.remaining(), 1000); // short writes
+      byte[] b = new byte[n];
+      src.get(b);
+      _out.write(b, 0, n);
+      return n;
+    }
+    @Override public int read(ByteBuffer dst) {
+      if (_in == null) _in = ByteBuffer.wrap(_out.toByteArray());
+      if (!_in.hasRemaining()) return -1;
+      int n = Math.min(Math.min(dst.remaining(), _in.remaining()), _maxRead);
+      for (int i = 0; i < n; i++) dst.put(_in.get());
+      return n;
+    }
+    @Override public boolean isOpen() { return true; }
+    @Override public void close() {}
+  }
+
+  private static byte[] doubles(int n, boolean random) {
+    ByteBuffer bb = ByteBuffer.allocate(n * 8);
+    Random rnd = new Random(42);
+    for (int i = 0; i < n; i++)
+      bb.putDouble(random ? rnd.nextDouble() : (i % 100) * 0.5);
+    return bb.array();
+  }
+
+  private static byte[] roundTrip(byte[] data) {
+    LZ4Codec codec = new LZ4Codec();
+    byte[] comp = new byte[LZ4Codec.maxCompressedLength(data.length)];
+    int clen = codec.compress(data, 0, data.length, comp, 0);
+    byte[] res = new byte[data.length];
+    LZ4Codec.decompress(comp, 0, clen, res, 0, data.length);
+    return res;
+  }
+
+  @Test
+  public void testCodec() {
+    byte[][] inputs = {
+        new byte[0], new byte[]{7}, "abcabcabcabcabcabc".getBytes(), new byte[70000],
+        doubles(8000, false), doubles(8000, true)
+    };
+    for (byte[] data : inputs)
+      assertArrayEquals(data, roundTrip(data));
+    // Long literal runs and long matches need the extra length bytes
+    byte[] data = new byte[5000];
+    new Random(1).nextBytes(data);
+    System.arraycopy(data, 0, data, 2500, 2500);
+    assertArrayEquals(data, roundTrip(data));
+
+    byte[] zeros = new byte[60000];
+    byte[] comp = new byte[LZ4Codec.maxCompressedLength(zeros.length)];
+    assertTrue(new LZ4Codec().compress(zeros, 0, zeros.length, comp, 0) < 300);
+    try {
+      LZ4Codec.decompress(comp, 0, 10, new byte[zeros.length], 0, zeros.length);
+      fail("truncated block");
+    } catch (IllegalArgumentException expected) {}
+  }
+
+  @Test
+  public void testChannel() throws IOException {
+    MemChannel mem = new MemChannel();
+    CompressedByteChannel out = new CompressedByteChannel(mem);
+    byte[] smooth = doubles(30000, false), rnd = doubles(30000, true), tiny = {1, 2, 3};
+    out.startMessage("test:smooth");
+    assertEquals(smooth.length, out.write(ByteBuffer.wrap(smooth)));
+    out.startMessage("test:random");
+    out.write(ByteBuffer.wrap(rnd));
+    out.write(ByteBuffer.wrap(tiny));
+    assertTrue(CompressedByteChannel.compressionRatio("test:smooth") > 4);
+    assertEquals(1, CompressedByteChannel.compressionRatio("test:random"), 0.01);
+    assertTrue(mem._out.size() < smooth.length / 4 + rnd.length + 100);
+    assertTrue(CompressedByteChannel.statsReport().contains("test:smooth"));
+
+    mem._maxRead = 777;
+    CompressedByteChannel in = new CompressedByteChannel(mem);
+    ByteBuffer res = ByteBuffer.allocate(smooth.length + rnd.length + tiny.length);
+    ByteBuffer part = ByteBuffer.allocate(5000);
+    int n;
+    while ((n = in.read(part)) != -1) {
+      assertTrue(n > 0);
+      part.flip();
+      res.put(part);
+      part.clear();
+    }
+    assertFalse(res.hasRemaining());
+    byte[] all = res.array();
+    assertArrayEquals(smooth, Arrays.copyOfRange(all, 0, smooth.length));
+    assertArrayEquals(rnd, Arrays.copyOfRange(all, smooth.length, smooth.length + rnd.length));
+    assertArrayEquals(tiny, Arrays.copyOfRange(all, smooth.length + rnd.length, all.length));
+  }
+
+  @Test(expected = EOFException.class)
+  public void testTruncatedStream() throws IOException {
+    MemChannel mem = new MemChannel();
+    new CompressedByteChannel(mem).write(ByteBuffer.wrap(doubles(1000, false)));
+    byte[] wire = mem._out.toByteArray();
+    mem._in = ByteBuffer.wrap(wire, 0, wire.length - 1);
+    CompressedByteChannel in = new CompressedByteChannel(mem);
+    ByteBuffer bb = ByteBuffer.allocate(8000);
+    while (in.read(bb) != -1) bb.clear();
+  }
+
+}
@@ -0,0 +1,167 @@
+package water.parser;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Iced;
+import water.Key;
+import water.TestUtil;
+import water.fvec.FVecFactory;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The fast path of the CSV parser (the clean lines parsed off a structural
+ * index) must send the same calls to the ParseWriter as the state machine.
+ */
+public class CsvParserSwarTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  private static final String[] TOKENS = {
+      "", " ", "\t", "0", "12", "-3.5", "+7", "1e5", "1E-3", "2.5e+10", "1e-+2", "-", "+", ".", "-.5", "1.2.3",
+      "12abc", "1e", "1e+", "abc", " x y ", "12 ", " 12 34", "\t7\t", "NA", "na", "été",
+      "99999999999999999999", "-123456789012345678901.5", "1234567890123.4567890123e3", "12345678901234567890e-5",
+      "1.0000000000000000000001", "0.1 %", "$5", "5%", "\"q,uoted\"", "\"a\"\"b\"", "'s'", "a\\b", "x\u0000y", "#c",
+  };
+  private static final String[] EOLS = {"\n", "\n", "\n", "\r\n", "\r"};
+
+  private static String randomCsv(Random r, byte sep, int ncols, int nlines) {
+    StringBuilder sb = new StringBuilder();
+    for (int l = 0; l < nlines; l++) {
+      switch (r.nextInt(20)) {
+        case 0: sb.append(EOLS[r.nextInt(EOLS.length)]); continue;                   // Empty line
+        case 1: sb.append(r.nextBoolean() ? "#" : "  #").append("1,\"2");           // Comment
+          sb.append(EOLS[r.nextInt(EOLS.length)]); continue;
+        case 2: sb.append(" \t "); sb.append(EOLS[r.nextInt(EOLS.length)]); continue; // Whitespace only
+      }
+      int n = r.nextInt(10) == 0 ? 1 + r.nextInt(ncols + 2) : ncols;
+      boolean clean = r.nextInt(4) != 0;
+      for (int c = 0; c < n; c++) {
+        if (c > 0) sb.append((char) sep);
+        String t = TOKENS[r.nextInt(clean ? 31 : TOKENS.length)];
+        sb.append(t);
+      }
+      sb.append(EOLS[r.nextInt(EOLS.length)]);
+    }
+    return sb.toString();
+  }
+
+  // Records the calls made by the parser
+  private static class Recorder extends Iced implements ParseWriter {
+    final List<String> _calls = new ArrayList<>();
+    final boolean[] _strings;
+    Recorder(boolean[] strings) { _strings = strings; }
+    @Override public void setColumnNames(String[] names) { }
+    @Override public void newLine() { _calls.add("newLine"); }
+    @Override public boolean isString(int colIdx) { return colIdx < _strings.length && _strings[colIdx]; }
+    @Override public void addNumCol(int colIdx, long number, int exp) { _calls.add("num " + colIdx + " " + number + "e" + exp); }
+    @Override public void addNumCol(int colIdx, double d) { _calls.add("num " + colIdx + " " + d); }
+    @Override public void addInvalidCol(int colIdx) { _calls.add("invalid " + colIdx); }
+    @Override public void addNAs(int colIdx, int nrow) { _calls.add("NAs " + colIdx + " " + nrow); }
+    @Override public void addStrCol(int colIdx, BufferedString str) { _calls.add("str " + colIdx + " [" + str + "]"); }
+    @Override public void rollbackLine() { _calls.add("rollbackLine"); }
+    @Override public void invalidLine(ParseErr err) { _calls.add("invalidLine " + err); }
+    @Override public void addError(ParseErr err) { _calls.add("error " + err); }
+    @Override public void setIsAllASCII(int colIdx, boolean b) { _calls.add("ascii " + colIdx + " " + b); }
+    @Override public boolean hasErrors() { return false; }
+    @Override public ParseErr[] removeErrors() { return new ParseErr[0]; }
+    @Override public long lineNum() { return 0; }
+  }
+
+  // The bytes cut into chunks
+  private static class Chunks implements ParseReader {
+    final byte[][] _chunks;
+    Chunks(byte[][] chunks) { _chunks = chunks; }
+    @Override public byte[] getChunkData(int cidx) { return cidx < _chunks.length ? _chunks[cidx] : null; }
+    @Override public int getChunkDataStart(int cidx) { return -1; }
+    @Override public void setChunkDataStart(int cidx, int offset) { }
+    @Override public long getGlobalByteOffset() { return 0; }
+  }
+
+  private static List<String> parse(ParseSetup ps, Chunks chunks, boolean[] strings, boolean swar) {
+    final boolean old = CsvParser.SWAR;
+    CsvParser.SWAR = swar;
+    try {
+      Recorder rec = new Recorder(strings);
+      for (int cidx = 0; cidx < chunks._chunks.length; cidx++) {
+        new CsvParser(ps, null).parseChunk(cidx, chunks, rec);
+        rec._calls.add("-- end of chunk " + cidx);
+      }
+      return rec._calls;
+    } finally {
+      CsvParser.SWAR = old;
+    }
+  }
+
+  @Test public void testSameCallsAsStateMachine() {
+    final byte[] seps = {',', '\t', ';', '|', CsvParser.HIVE_SEP};
+    for (int seed = 0; seed < 300; seed++) {
+      Random r = new Random(seed);
+      byte sep = seps[r.nextInt(seps.length)];
+      int ncols = 1 + r.nextInt(8);
+      byte[] bits = StringUtils.bytesOf(randomCsv(r, sep, ncols, 1 + r.nextInt(60)));
+      // Cut in 1 to 4 chunks, anywhere (including between CR and LF)
+      int nchunks = 1 + r.nextInt(Math.min(4, bits.length));
+      int[] cuts = new int[nchunks + 1];
+      cuts[nchunks] = bits.length;
+      for (int i = 1; i < nchunks; i++) cuts[i] = cuts[i - 1] + 1 + r.nextInt(bits.length - cuts[i - 1] - (nchunks - i));
+      byte[][] chunks = new byte[nchunks][];
+      for (int i = 0; i < nchunks; i++)
+        chunks[i] = java.util.Arrays.copyOfRange(bits, cuts[i], cuts[i + 1]);
+
+      ParseSetup ps = new ParseSetup();
+      ps._parse_type = DefaultParserProviders.CSV_INFO;
+      ps._separator = sep;
+      ps._single_quotes = r.nextInt(4) == 0;
+      ps._check_header = r.nextBoolean() ? ParseSetup.HAS_HEADER : ParseSetup.NO_HEADER;
+      ps._number_columns = ncols;
+      if (ncols > 1 && r.nextBoolean()) ps._skipped_columns = new int[]{r.nextInt(ncols)};
+      if (r.nextBoolean()) ps._escapechar = '\\';
+      if (r.nextBoolean()) {
+        ps._na_strings = new String[ncols][];
+        for (int i = 0; i < ncols; i++) ps._na_strings[i] = new String[]{"NA"};
+      }
+      boolean[] strings = new boolean[ncols];
+      for (int i = 0; i < ncols; i++) strings[i] = r.nextInt(5) == 0;
+
+      List<String> expected = parse(ps, new Chunks(chunks), strings, false);
+      List<String> actual = parse(ps, new Chunks(chunks), strings, true);
+      assertEquals("seed " + seed + ", csv: " + new String(bits), expected, actual);
+    }
+  }
+
+  @Test public void testSameFrameWithForcedTypes() {
+    StringBuilder sb = new StringBuilder();
+    Random r = new Random(42);
+    for (int l = 0; l < 2000; l++)
+      sb.append(r.nextInt(100)).append(',').append(r.nextGaussian()).append(',').append(r.nextInt(10))
+          .append(",s").append(r.nextInt(50)).append(l % 3 == 0 ? "\r\n" : "\n");
+    final String csv = sb.toString();
+    final boolean old = CsvParser.SWAR;
+    Frame[] frames = new Frame[2];
+    try {
+      for (int i = 0; i < 2; i++) {
+        CsvParser.SWAR = i == 1;
+        Key k = FVecFactory.makeByteVec(csv.substring(0, csv.length() / 3), csv.substring(csv.length() / 3));
+        ParseSetup ps = ParseSetup.guessSetup(new Key[]{k}, false, ParseSetup.NO_HEADER);
+        ps._column_types[0] = Vec.T_STR;
+        ps._column_types[2] = Vec.T_CAT;
+        frames[i] = ParseDataset.parse(Key.make(), new Key[]{k}, true, ps);
+      }
+      assertEquals(2000, frames[1].numRows());
+      assertTrue(frames[1].vec(0).isString());
+      assertTrue(frames[1].vec(2).isCategorical());
+      assertArrayEquals(frames[0].vec(2).domain(), frames[1].vec(2).domain());
+      assertFrameEquals(frames[0], frames[1], 0);
+    } finally {
+      CsvParser.SWAR = old;
+      for (Frame f : frames) if (f != null) f.delete();
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package water.parser;
+
+import org.junit.Test;
+import water.Key;
+import water.TestUtil;
+import water.fvec.FVecFactory;
+import water.fvec.Frame;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FastFloatTest extends TestUtil {
+
+  private static void check(long m, int e) {
+    double expected = Double.parseDouble(m + "E" + e);
+    double actual = FastFloat.toDouble(m, e);
+    assertEquals(m + "E" + e, Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual));
+  }
+
+  // The mantissa and exponent of a decimal string, as the parser would give them
+  private static void check(String s) {
+    BigDecimal bd = new BigDecimal(s);
+    check(bd.unscaledValue().longValueExact(), -bd.scale());
+  }
+
+  @Test public void testEdgeCases() {
+    check(0, 0);
+    check(1, 0);
+    check(-1, 0);
+    check(Long.MAX_VALUE, 0);
+    check(Long.MIN_VALUE, 0);
+    check(Long.MIN_VALUE, -300);
+    check(1L << 53, 0);
+    check((1L << 53) + 1, 0);   // Half-way: rounds to even
+    check((1L << 53) + 3, 0);
+    check(9007199254740993L, -16);
+    check(1, 308);
+    check(17976931348623157L, 292);  // Double.MAX_VALUE
+    check(17976931348623159L, 292);  // Infinity
+    check(49, -325);            // Subnormals
+    check(22250738585072011L, -324);
+    check(22250738585072014L, -324);
+    check(1, -400);
+    check(1, 400);
+    check("0.1");
+    check("0.3");
+    check("123456789012345.678");
+    check("0.12345678901234567");
+    check("-2.2250738585072014E-308");
+    check("4.9406564584124654E-324");
+    check("7.2057594037927933E16");
+    check("9007199254740992.5");
+    check("1.7976931348623157E308");
+    for (int e = -350; e <= 350; e++) check(1, e);
+    for (int e = -350; e <= 350; e++) check(123456789012345678L, e);
+  }
+
+  @Test public void testRandomDoubles() {
+    Random r = new Random(0xF1);
+    for (int i = 0; i < 200000; i++) {
+      double d;
+      switch (i % 4) {
+        case 0: d = Double.longBitsToDouble(r.nextLong()); break;   // Any double
+        case 1: d = r.nextDouble(); break;
+        case 2: d = r.nextGaussian() * 1e6; break;
+        default: d = (r.nextInt(2000000) - 1000000) / 1000.0;
+      }
+      if (Double.isNaN(d) || Double.isInfinite(d)) continue;
+      check(Double.toString(d));
+      check(String.format(Locale.ROOT, "%.16e", d));     // 17 digits, not always the shortest
+      check(String.format(Locale.ROOT, "%.12e", d));
+    }
+    for (int i = 0; i < 200000; i++)        // Any 18-digit mantissa
+      check(r.nextLong() / 100, r.nextInt(700) - 350);
+  }
+
+  @Test public void testParsedHighPrecisionColumn() {
+    stall_till_cloudsize(1);
+    Random r = new Random(17);
+    double[] expected = new double[5000];
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < expected.length; i++) {
+      String s = String.format(Locale.ROOT, "%.16e", r.nextGaussian() * 100);
+      expected[i] = Double.parseDouble(s);
+      sb.append(s).append(',').append(i).append('\n');
+    }
+    Key k = FVecFactory.makeByteVec(sb.toString());
+    Frame fr = ParseDataset.parse(Key.make(), k);
+    try {
+      assertEquals(expected.length, fr.numRows());
+      for (int i = 0; i < expected.length; i++)
+        assertEquals("row " + i, Double.doubleToRawLongBits(expected[i]),
+            Double.doubleToRawLongBits(fr.vec(0).at(i)));
+    } finally {
+      fr.delete();
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package water.parser;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.Key;
+import water.TestUtil;
+import water.fvec.FVecFactory;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+import static org.junit.Assert.*;
+
+public class ParseAppendTest extends TestUtil {
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  @Test public void testAppend() {
+    Key[] base = {FVecFactory.makeByteVec(
+        "id,cat,x,s\n" +
+        "1,b,1.5,foo\n" +
+        "2,a,2.5,bar\n")};
+    ParseSetup ps = ParseSetup.guessSetup(base, false, ParseSetup.HAS_HEADER);
+    ps._column_types = new byte[]{Vec.T_NUM, Vec.T_CAT, Vec.T_NUM, Vec.T_STR};
+    Frame fr = ParseDataset.parse(Key.make(), base, true, ps);
+    try {
+      Key[] keys = fr.keys().clone();
+      assertEquals(2.0, fr.vec("x").mean(), 0);   // Rollups of the first chunk
+      ParseDataset.append(fr._key, FVecFactory.makeByteVec(
+          "id,cat,x,s\n" +
+          "3,c,3.5,baz\n" +
+          "4,a,,qux\n"));
+      ParseDataset.append(fr._key, FVecFactory.makeByteVec("5,d,5.5,z\n"));
+      fr = DKV.getGet(fr._key);
+
+      assertArrayEquals(keys, fr.keys());
+      assertArrayEquals(new String[]{"id", "cat", "x", "s"}, fr.names());
+      assertEquals(5, fr.numRows());
+      assertEquals(3, fr.anyVec().nChunks());
+      Vec id = fr.vec("id"), cat = fr.vec("cat"), x = fr.vec("x"), s = fr.vec("s");
+      assertTrue(cat.isCategorical());
+      assertTrue(s.isString());
+      // The old levels keep their numbers, the new ones are added at the end
+      assertArrayEquals(new String[]{"a", "b", "c", "d"}, cat.domain());
+      String[] cats = {"b", "a", "c", "a", "d"};
+      String[] strs = {"foo", "bar", "baz", "qux", "z"};
+      for (int i = 0; i < 5; i++) {
+        assertEquals(i + 1, id.at8(i));
+        assertEquals(cats[i], cat.domain()[(int) cat.at8(i)]);
+        assertEquals(strs[i], s.atStr(new BufferedString(), i).toString());
+      }
+      assertTrue(x.isNA(3));
+      assertEquals(1, x.naCnt());
+      assertEquals((1.5 + 2.5 + 3.5 + 5.5) / 4, x.mean(), 1e-12);
+      assertEquals(5, id.max(), 0);
+      assertEquals(3, cat.max(), 0);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test public void testAppendToAllMissingColumn() {
+    Frame fr = ParseDataset.parse(Key.make(), FVecFactory.makeByteVec("a,b\n1,\n2,\n"));
+    try {
+      assertTrue(fr.vec("b").isBad());
+      Key[] keys = {FVecFactory.makeByteVec("3,x\n4,y\n")};
+      ParseSetup ps = ParseSetup.guessSetup(keys, false, ParseSetup.NO_HEADER);
+      ps._column_types = new byte[]{Vec.T_NUM, Vec.T_CAT};
+      ParseDataset.append(fr._key, keys, true, ps);
+      fr = DKV.getGet(fr._key);
+      assertEquals(4, fr.numRows());
+      Vec b = fr.vec("b");
+      assertTrue(b.isCategorical());
+      assertArrayEquals(new String[]{"x", "y"}, b.domain());
+      assertTrue(b.isNA(0));
+      assertTrue(b.isNA(1));
+      assertEquals("y", b.domain()[(int) b.at8(3)]);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test public void testAppendToDuplicatedVec() {
+    Frame fr = ParseDataset.parse(Key.make(), FVecFactory.makeByteVec("a,b\n1,2\n3,4\n"));
+    try {
+      fr.add("c", fr.vec("b"));
+      DKV.put(fr);
+      Key k = FVecFactory.makeByteVec("5,6,6\n");
+      try {
+        ParseDataset.append(fr._key, k);
+        fail("Expected an IllegalArgumentException");
+      } catch (IllegalArgumentException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("also column 'b'"));
+      } finally {
+        k.remove();
+      }
+      fr = DKV.getGet(fr._key);
+      assertEquals(2, fr.numRows());
+      assertEquals(4, fr.vec("c").at8(1));
+      fr.remove("c");
+      DKV.put(fr);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test public void testAppendMismatch() {
+    Frame fr = ParseDataset.parse(Key.make(), FVecFactory.makeByteVec("a,b\n1,2\n3,4\n"));
+    try {
+      Key k = FVecFactory.makeByteVec("1,2,3\n4,5,6\n");
+      try {
+        ParseDataset.append(fr._key, k);
+        fail("Expected an IllegalArgumentException");
+      } catch (IllegalArgumentException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("columns"));
+      } finally {
+        k.remove();
+      }
+      fr = DKV.getGet(fr._key);
+      assertEquals(2, fr.numRows());
+      assertEquals(4, fr.vec("b").at8(1));
+    } finally {
+      fr.delete();
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package water.parser;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.Key;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.NFSFileVec;
+import water.fvec.Vec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class ParseGzipMembersTest extends TestUtil {
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private static String[] lines(int n) {
+    Random rnd = new Random(42);
+    String[] cats = {"red", "green", "blue", "cyan", "magenta"};
+    String[] lines = new String[n];
+    for (int i = 0; i < n; i++)
+      lines[i] = i + "," + (rnd.nextInt(100000) / 100.0) + "," + cats[rnd.nextInt(cats.length)] + "\n";
+    return lines;
+  }
+
+  // One gzip member per group of lines, the groups being of the given sizes in turn
+  private static byte[] gzipMembers(String[] lines, int[] sizes) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    for (int i = 0, k = 0; i < lines.length; k++) {
+      StringBuilder sb = new StringBuilder();
+      for (int j = 0; j < sizes[k % sizes.length] && i < lines.length; j++) sb.append(lines[i++]);
+      ByteArrayOutputStream member = new ByteArrayOutputStream();
+      try (GZIPOutputStream gz = new GZIPOutputStream(member)) {
+        gz.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+      }
+      bos.write(member.toByteArray());
+    }
+    return bos.toByteArray();
+  }
+
+  // BGZF: members of 64K at most, with the block size in an extra header field
+  private static byte[] bgzf(byte[] data) {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    byte[] buf = new byte[1 << 16];
+    for (int off = 0; off <= data.length; off += 0xFF00) {
+      int len = Math.min(0xFF00, data.length - off); // Ends with an empty member
+      Deflater def = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+      def.setInput(data, off, len);
+      def.finish();
+      int clen = def.deflate(buf);
+      def.end();
+      CRC32 crc = new CRC32();
+      crc.update(data, off, len);
+      int bsize = 18 + clen + 8 - 1;
+      bos.write(new byte[]{0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0,
+          (byte) bsize, (byte) (bsize >> 8)}, 0, 18);
+      bos.write(buf, 0, clen);
+      for (long v : new long[]{crc.getValue(), len})
+        for (int i = 0; i < 4; i++) bos.write((int) (v >> (8 * i)));
+      if (len == 0) break;
+    }
+    return bos.toByteArray();
+  }
+
+  private NFSFileVec file(byte[] bits) throws IOException {
+    File f = tmp.newFile();
+    try (FileOutputStream fos = new FileOutputStream(f)) {
+      fos.write(bits);
+    }
+    return NFSFileVec.make(f);
+  }
+
+  private static Frame parse(NFSFileVec nfs, int chunkSize) {
+    Key[] keys = {nfs._key};
+    ParseSetup ps = ParseSetup.guessSetup(keys, false, ParseSetup.NO_HEADER);
+    ps._column_types = new byte[]{Vec.T_NUM, Vec.T_NUM, Vec.T_CAT};
+    ps._chunk_size = chunkSize;
+    return ParseDataset.parse(Key.make(), keys, true, ps);
+  }
+
+  // Parses the gzip file in parallel, serially and uncompressed: all the same
+  private void checkParse(String[] lines, byte[] gz, int chunkSize, int minChunks) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (String l : lines) sb.append(l);
+    byte[] csv = sb.toString().getBytes(StandardCharsets.UTF_8);
+    Frame gold = null, par = null, ser = null;
+    try {
+      gold = parse(file(csv), chunkSize);
+      par = parse(file(gz), chunkSize);
+      GzipMembers.PARALLEL = false;
+      ser = parse(file(gz), chunkSize);
+      assertEquals(lines.length, par.numRows());
+      assertTrue("chunks: " + par.anyVec().nChunks(), par.anyVec().nChunks() >= minChunks);
+      assertBitIdentical(gold, par);
+      assertBitIdentical(ser, par);
+      assertArrayEquals(new String[]{"blue", "cyan", "green", "magenta", "red"}, par.vec(2).domain());
+    } finally {
+      GzipMembers.PARALLEL = true;
+      if (gold != null) gold.delete();
+      if (par != null) par.delete();
+      if (ser != null) ser.delete();
+    }
+  }
+
+  @Test public void testConcatenatedMembers() throws IOException {
+    String[] lines = lines(50000);
+    byte[] gz = gzipMembers(lines, new int[]{500, 37, 1200, 1});
+    assertTrue(GzipMembers.isMultiMember(gz));
+    checkParse(lines, gz, 1 << 14, 4);
+  }
+
+  @Test public void testBgzf() throws IOException {
+    String[] lines = lines(50000);
+    StringBuilder sb = new StringBuilder();
+    for (String l : lines) sb.append(l);
+    byte[] gz = bgzf(sb.toString().getBytes(StandardCharsets.UTF_8));
+    assertTrue(GzipMembers.isMultiMember(gz));
+    checkParse(lines, gz, 1 << 15, 4);
+  }
+
+  @Test public void testMemberSpanningChunks() throws IOException {
+    // A member spans whole chunks, which are then inflated to nothing
+    String[] lines = lines(30000);
+    checkParse(lines, gzipMembers(lines, new int[]{100, 25000}), 1 << 12, 1);
+  }
+
+  @Test public void testSingleMember() throws IOException {
+    String[] lines = lines(2000);
+    byte[] gz = gzipMembers(lines, new int[]{lines.length});
+    assertFalse(GzipMembers.isMultiMember(gz));
+    assertEquals(-1, GzipMembers.chunkSize(gz, 1 << 12));
+  }
+}
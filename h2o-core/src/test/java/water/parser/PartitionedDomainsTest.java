@@ -0,0 +1,102 @@
+package water.parser;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Key;
+import water.TestUtil;
+import water.fvec.FVecFactory;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PartitionedDomainsTest extends TestUtil {
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  // One chunk per 1000 lines
+  private static Frame parse(String[] lines) {
+    String[] chunks = new String[(lines.length + 999) / 1000];
+    for (int c = 0; c < chunks.length; c++) {
+      StringBuilder sb = new StringBuilder();
+      for (int i = c * 1000; i < Math.min(lines.length, (c + 1) * 1000); i++) sb.append(lines[i]).append('\n');
+      chunks[c] = sb.toString();
+    }
+    Key[] keys = {FVecFactory.makeByteVec(chunks)};
+    ParseSetup ps = ParseSetup.guessSetup(keys, false, ParseSetup.NO_HEADER);
+    ps._column_types = new byte[]{Vec.T_NUM, Vec.T_CAT, Vec.T_CAT, Vec.T_CAT};
+    return ParseDataset.parse(Key.make(), keys, true, ps);
+  }
+
+  // Parses with the partitioned domains and with the gathered ones: the same
+  private static Frame checkParse(String[] lines) {
+    Frame gathered = null;
+    try {
+      PartitionedDomains.ENABLED = false;
+      gathered = parse(lines);
+    } finally {
+      PartitionedDomains.ENABLED = true;
+    }
+    Frame fr = parse(lines);
+    try {
+      assertBitIdentical(gathered, fr);
+    } catch (Throwable t) {
+      fr.delete();
+      throw t;
+    } finally {
+      gathered.delete();
+    }
+    return fr;
+  }
+
+  @Test public void testHighCardinality() {
+    Random rnd = new Random(0xdecaf);
+    int n = 20000;
+    String[] ids = new String[n], colors = new String[n], lines = new String[n];
+    for (int i = 0; i < n; i++) {
+      ids[i] = "user" + rnd.nextInt(1 << 20);
+      colors[i] = new String[]{"red", "green", "blue"}[rnd.nextInt(3)];
+      lines[i] = i + "," + ids[i] + "," + colors[i] + "," + (i % 5 == 0 ? "" : "x");
+    }
+    Frame fr = checkParse(lines);
+    try {
+      assertTrue(fr.anyVec().nChunks() > 1);
+      String[] dom = fr.vec(1).domain();
+      String[] expected = new java.util.TreeSet<>(Arrays.asList(ids)).toArray(new String[0]);
+      assertArrayEquals(expected, dom);
+      assertArrayEquals(new String[]{"blue", "green", "red"}, fr.vec(2).domain());
+      assertArrayEquals(new String[]{"x"}, fr.vec(3).domain());
+      for (int i = 0; i < n; i++) {
+        assertEquals(ids[i], dom[(int) fr.vec(1).at8(i)]);
+        assertEquals(colors[i], fr.vec(2).domain()[(int) fr.vec(2).at8(i)]);
+        assertEquals(i % 5 == 0, fr.vec(3).isNA(i));
+      }
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test public void testCodesAlreadyGlobal() {
+    // Levels first seen in sorted order, in a single chunk, have their final
+    // codes from the start
+    String[] lines = new String[1000];
+    for (int i = 0; i < lines.length; i++)
+      lines[i] = i + "," + String.format("a%02d", i / 20) + "," + (i < 3 ? "abc".charAt(i) : 'b') + ",";
+    Frame fr = checkParse(lines);
+    try {
+      assertEquals(50, fr.vec(1).cardinality());
+      assertTrue(fr.vec(3).isBad());
+      for (int i = 0; i < lines.length; i++) {
+        assertEquals(String.format("a%02d", i / 20), fr.vec(1).domain()[(int) fr.vec(1).at8(i)]);
+        assertEquals(i < 3 ? "abc".substring(i, i + 1) : "b", fr.vec(2).domain()[(int) fr.vec(2).at8(i)]);
+      }
+    } finally {
+      fr.delete();
+    }
+  }
+}
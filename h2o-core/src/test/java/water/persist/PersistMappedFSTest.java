@@ -0,0 +1,126 @@
+package water.persist;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.*;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.junit.Assert.*;
+
+public class PersistMappedFSTest extends TestUtil {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Before
+  public void setUp() {
+    stall_till_cloudsize(1);
+  }
+
+  private static Value makeValue(int len) {
+    byte[] bytes = new byte[len];
+    for (int i = 0; i < len; i++)
+      bytes[i] = (byte) (i * 17 + len);
+    return new Value(Key.make(), bytes);
+  }
+
+  private static Value store(Persist p, Value v) throws Exception {
+    p.store(v);
+    v.setDsk();
+    return v;
+  }
+
+  @Test
+  public void testStoreLoadAcrossSegments() throws Exception {
+    PersistMappedFS p = new PersistMappedFS(new PersistFS(tmp.newFolder()), 2500);
+    try {
+      Value[] vs = new Value[7];
+      for (int i = 0; i < vs.length; i++)
+        vs[i] = store(p, makeValue(1000 + i));
+      // 2 Values fit into a segment => 4 segments; the first 3 are sealed & mapped
+      assertEquals(4, p.segmentCount());
+      for (Value v : vs)
+        assertArrayEquals(v.memOrLoad(), p.load(v));
+    } finally {
+      p.cleanUp();
+    }
+    assertEquals(0, p.segmentCount());
+  }
+
+  @Test
+  public void testSegmentReclaimedWhenAllValuesDeleted() throws Exception {
+    PersistMappedFS p = new PersistMappedFS(new PersistFS(tmp.newFolder()), 2500);
+    try {
+      Value v1 = store(p, makeValue(1000));
+      Value v2 = store(p, makeValue(1000));
+      Value v3 = store(p, makeValue(1000)); // Seals the first segment
+      assertEquals(2, p.segmentCount());
+      p.delete(v1);
+      assertEquals(2, p.segmentCount());
+      assertArrayEquals(v2.memOrLoad(), p.load(v2));
+      p.delete(v2);
+      assertEquals(1, p.segmentCount());
+      assertArrayEquals(v3.memOrLoad(), p.load(v3));
+    } finally {
+      p.cleanUp();
+    }
+  }
+
+  @Test
+  public void testMostlyDeadSegmentCompacted() throws Exception {
+    PersistMappedFS p = new PersistMappedFS(new PersistFS(tmp.newFolder()), 2500);
+    try {
+      Value v1 = store(p, makeValue(1500));
+      Value v2 = store(p, makeValue(800));
+      Value v3 = store(p, makeValue(1000)); // Seals the first segment
+      assertEquals(2, p.segmentCount());
+      p.delete(v1);                         // Less than half of the first segment live
+      long deadline = System.currentTimeMillis() + 10000;
+      while (p.segmentCount() > 1 && System.currentTimeMillis() < deadline)
+        Thread.sleep(10);                   // Compacted in the background: v2 moved over
+      assertEquals(1, p.segmentCount());
+      for (Value v : new Value[]{v2, v3})
+        assertArrayEquals(v.memOrLoad(), p.load(v));
+    } finally {
+      p.cleanUp();
+    }
+  }
+
+  @Test
+  public void testPathApiGoesToFS() throws Exception {
+    PersistMappedFS p = new PersistMappedFS(new PersistFS(tmp.newFolder()), 2500);
+    File dir = new File(tmp.getRoot(), "export");
+    String path = new File(dir, "model.bin").toURI().toString();
+    assertFalse(p.exists(path));
+    try (OutputStream os = p.create(path, false)) {
+      os.write(new byte[]{1, 2, 3});
+    }
+    assertTrue(p.exists(path));
+    assertTrue(p.isDirectory(dir.toURI().toString()));
+    assertEquals(1, p.list(dir.toURI().toString()).length);
+    try (InputStream is = p.open(path)) {
+      assertEquals(1, is.read());
+    }
+    assertTrue(p.delete(path));
+    assertFalse(p.exists(path));
+  }
+
+  @Test
+  public void testValueLargerThanSegment() throws Exception {
+    PersistMappedFS p = new PersistMappedFS(new PersistFS(tmp.newFolder()), 100);
+    try {
+      Value big = store(p, makeValue(1000));
+      Value small = store(p, makeValue(10));
+      assertArrayEquals(big.memOrLoad(), p.load(big));
+      assertArrayEquals(small.memOrLoad(), p.load(small));
+    } finally {
+      p.cleanUp();
+    }
+  }
+
+}
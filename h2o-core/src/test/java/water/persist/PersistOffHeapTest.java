@@ -0,0 +1,95 @@
+package water.persist;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.*;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.junit.Assert.*;
+
+public class PersistOffHeapTest extends TestUtil {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Before
+  public void setUp() {
+    stall_till_cloudsize(1);
+  }
+
+  private static Value makeValue(int len) {
+    byte[] bytes = new byte[len];
+    for (int i = 0; i < len; i++)
+      bytes[i] = (byte) (i * 31 + len);
+    return new Value(Key.make(), bytes);
+  }
+
+  @Test
+  public void testStoreLoadDelete() throws Exception {
+    PersistOffHeap tier = new PersistOffHeap(H2O.getPM().getIce(), 1 << 20);
+    Value v = makeValue(1000);
+    byte[] expected = v.memOrLoad().clone();
+    tier.store(v);
+    assertTrue(tier.isOffHeap(v));
+    assertEquals(1000, tier.usedBytes());
+    assertArrayEquals(expected, tier.load(v));
+    tier.delete(v);
+    assertFalse(tier.isOffHeap(v));
+    assertEquals(0, tier.usedBytes());
+  }
+
+  @Test
+  public void testOverflowFallsThroughToDisk() throws Exception {
+    PersistOffHeap tier = new PersistOffHeap(H2O.getPM().getIce(), 1500);
+    Value v1 = makeValue(1000);
+    Value v2 = makeValue(1000);
+    try {
+      tier.store(v1);
+      tier.store(v2);
+      v2.setDsk();
+      assertTrue(tier.isOffHeap(v1));
+      assertFalse(tier.isOffHeap(v2));
+      assertEquals(1000, tier.usedBytes());
+      assertArrayEquals(v2.memOrLoad(), tier.load(v2));
+    } finally {
+      tier.delete(v1);
+      tier.delete(v2);
+    }
+    assertEquals(0, tier.usedBytes());
+  }
+
+  @Test
+  public void testCleanUpReleasesNativeMemory() throws Exception {
+    PersistOffHeap tier = new PersistOffHeap(new PersistFS(tmp.newFolder()), 1 << 20);
+    tier.store(makeValue(100));
+    tier.store(makeValue(200));
+    assertEquals(300, tier.usedBytes());
+    tier.cleanUp();
+    assertEquals(0, tier.usedBytes());
+  }
+
+  @Test
+  public void testPathApiGoesToDisk() throws Exception {
+    PersistOffHeap tier = new PersistOffHeap(new PersistFS(tmp.newFolder()), 1 << 20);
+    File dir = new File(tmp.getRoot(), "export");
+    String path = new File(dir, "model.bin").toURI().toString();
+    assertFalse(tier.exists(path));
+    try (OutputStream os = tier.create(path, false)) {
+      os.write(new byte[]{1, 2, 3});
+    }
+    assertTrue(tier.exists(path));
+    assertTrue(tier.isDirectory(dir.toURI().toString()));
+    assertEquals(1, tier.list(dir.toURI().toString()).length);
+    try (InputStream is = tier.open(path)) {
+      assertEquals(1, is.read());
+    }
+    assertTrue(tier.delete(path));
+    assertFalse(tier.exists(path));
+  }
+
+}
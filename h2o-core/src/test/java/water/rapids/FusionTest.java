@@ -0,0 +1,151 @@
+package water.rapids;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.Key;
+import water.TestUtil;
+import water.fvec.*;
+import water.rapids.ast.AstExec;
+import water.rapids.ast.AstFused;
+import water.rapids.ast.AstRoot;
+
+import static org.junit.Assert.*;
+
+public class FusionTest extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  private static final int LEN = 1000;
+
+  private static Frame makeFrame(String name) {
+    double[] a = new double[LEN], b = new double[LEN];
+    for (int i = 0; i < LEN; i++) {
+      a[i] = i % 17 == 0 ? Double.NaN : (i % 5) - 2 + i * 0.01;
+      b[i] = (i * 7919) % 101 - 50;
+    }
+    return new TestFrameBuilder()
+            .withName(name)
+            .withColNames("a", "b")
+            .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+            .withDataForCol(0, a)
+            .withDataForCol(1, b)
+            .withChunkLayout(400, 400, 200)
+            .build();
+  }
+
+  private static Frame tmp(String key) {
+    return DKV.getGet(Key.make(key));
+  }
+
+  @Test
+  public void testOptimizer() {
+    AstRoot ast = Fusion.optimize(Rapids.parse("(* (ifelse (> x 0) (log x) 0) w)"));
+    assertTrue(ast instanceof AstFused);
+    assertEquals(4, ((AstFused) ast).numOps());
+    assertEquals(Rapids.parse("(* (ifelse (> x 0) (log x) 0) w)").str(), ast.str());
+
+    // a single prim is left alone, chains below other prims are fused
+    ast = Fusion.optimize(Rapids.parse("(tmp= py_1 (cols (log (+ fr 1)) 0))"));
+    assertFalse(ast instanceof AstFused);
+    AstRoot cols = ((AstExec) ast)._asts[2];
+    assertFalse(cols instanceof AstFused);
+    assertTrue(((AstExec) cols)._asts[1] instanceof AstFused);
+
+    // ifelse branches with side effects are not evaluated eagerly
+    ast = Fusion.optimize(Rapids.parse("(+ (ifelse (> x 0) (tmp= py_2 x) 0) 1)"));
+    assertFalse(ast instanceof AstFused);
+    assertFalse(((AstExec) ast)._asts[1] instanceof AstFused);
+  }
+
+  @Test
+  public void testFusedMatchesStepwise() {
+    Frame fr = makeFrame("fuse_fr");
+    Frame res = null;
+    Session ses = new Session();
+    try {
+      res = Rapids.exec("(* (ifelse (> (cols fuse_fr 0) 0) (log (cols fuse_fr 0)) 0) (cols fuse_fr 1))").getFrame();
+      // the same computation one prim at a time
+      Rapids.exec("(tmp= py_1 (cols fuse_fr 0))", ses);
+      Rapids.exec("(tmp= py_2 (> py_1 0))", ses);
+      Rapids.exec("(tmp= py_3 (log py_1))", ses);
+      Rapids.exec("(tmp= py_4 (ifelse py_2 py_3 0))", ses);
+      Rapids.exec("(tmp= py_5 (* py_4 (cols fuse_fr 1)))", ses);
+      Frame exp = tmp("py_5");
+      assertArrayEquals(exp.names(), res.names());
+      assertVecEquals(exp.vec(0), res.vec(0), 1e-10);
+    } finally {
+      ses.end(null);
+      if (res != null) res.delete();
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testNamesAndWidening() {
+    Frame fr = makeFrame("fuse_fr2");
+    Frame res1 = null, res2 = null;
+    Session ses = new Session();
+    try {
+      res1 = Rapids.exec("(log (+ (is.na fuse_fr2) (cols fuse_fr2 1)))").getFrame();
+      assertArrayEquals(new String[]{"log(isNA(a))", "log(isNA(b))"}, res1.names());
+      Rapids.exec("(tmp= py_1 (is.na fuse_fr2))", ses);
+      Rapids.exec("(tmp= py_2 (log (+ py_1 (cols fuse_fr2 1))))", ses);
+      assertFrameEquals(tmp("py_2"), res1, 1e-10);
+
+      // a 1-column frame on the left takes the names of the right frame
+      res2 = Rapids.exec("(- (sqrt (cols fuse_fr2 1)) (abs fuse_fr2))").getFrame();
+      assertArrayEquals(new String[]{"abs(a)", "abs(b)"}, res2.names());
+      Rapids.exec("(tmp= py_3 (sqrt (cols fuse_fr2 1)))", ses);
+      Rapids.exec("(tmp= py_4 (- py_3 (abs fuse_fr2)))", ses);
+      assertFrameEquals(tmp("py_4"), res2, 1e-10);
+    } finally {
+      ses.end(null);
+      if (res1 != null) res1.delete();
+      if (res2 != null) res2.delete();
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testUnfusedFallback() {
+    Frame fr = makeFrame("fuse_fr3");
+    Frame res = null;
+    try {
+      // scalar results
+      assertEquals(7, Rapids.exec("(+ (* 2 3) 1)").getNum(), 0);
+      assertEquals(1, Rapids.exec("(is.na (log -1))").getNum(), 0);
+      // a single row broadcast over the frame
+      res = Rapids.exec("(+ (* fuse_fr3 2) (rows fuse_fr3 1))").getFrame();
+      assertEquals(LEN, res.numRows());
+      for (int i = 0; i < LEN; i += 37)
+        for (int c = 0; c < 2; c++)
+          assertEquals(fr.vec(c).at(i) * 2 + fr.vec(c).at(1), res.vec(c).at(i), 1e-10);
+    } finally {
+      if (res != null) res.delete();
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testLazy() {
+    Frame fr = makeFrame("fuse_fr4");
+    Frame exp = null;
+    Session ses = new Session();
+    ses.setProperty(LazyExpr.PROPERTY, "true");
+    try {
+      String expr = "(ifelse (is.na (cols fuse_fr4 0)) -1 (+ (cols fuse_fr4 0) (cols fuse_fr4 1)))";
+      exp = Rapids.exec(expr).getFrame();
+      Rapids.exec("(tmp= py_1 " + expr + ")", ses);
+      Vec v = tmp("py_1").vec(0);
+      assertTrue(LazyExpr.isLazy(v));
+      assertVecEquals(exp.vec(0), v, 1e-10);
+      assertEquals(-1, v.at(0), 0);
+      assertEquals(exp.vec(0).mean(), v.mean(), 1e-10);
+    } finally {
+      ses.end(null);
+      if (exp != null) exp.delete();
+      fr.delete();
+    }
+  }
+
+}
@@ -0,0 +1,173 @@
+package water.rapids;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.Key;
+import water.TestUtil;
+import water.fvec.*;
+
+import static org.junit.Assert.*;
+
+public class LazyExprTest extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  private static final int LEN = 1000;
+
+  private static Frame makeFrame(String name) {
+    double[] a = new double[LEN], b = new double[LEN];
+    for (int i = 0; i < LEN; i++) {
+      a[i] = i % 17 == 0 ? Double.NaN : i * 0.5;
+      b[i] = (i * 7919) % 101 - 50;
+    }
+    return new TestFrameBuilder()
+            .withName(name)
+            .withColNames("a", "b")
+            .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+            .withDataForCol(0, a)
+            .withDataForCol(1, b)
+            .withChunkLayout(400, 400, 200)
+            .build();
+  }
+
+  private static Session lazySession() {
+    Session ses = new Session();
+    ses.setProperty(LazyExpr.PROPERTY, "true");
+    return ses;
+  }
+
+  // Evaluate the expression without lazy evaluation, as a reference
+  private static Frame eager(String rapids) {
+    return Rapids.exec(rapids).getFrame();
+  }
+
+  private static Frame tmp(String key) {
+    return DKV.getGet(Key.make(key));
+  }
+
+  @Test
+  public void testFusedExpressions() {
+    Frame fr = makeFrame("lazy_fr");
+    Key<Vec>[] base = fr.keys();
+    Frame exp1 = null, exp2 = null;
+    Session ses = lazySession();
+    try {
+      String expr1 = "(+ (cols lazy_fr 0) (* (cols lazy_fr 1) 3))";
+      Rapids.exec("(tmp= py_1 " + expr1 + ")", ses);
+      Rapids.exec("(tmp= py_2 (log (- py_1 (cols lazy_fr 1))))", ses);
+      exp1 = eager(expr1);
+      exp2 = eager("(log (- " + expr1 + " (cols lazy_fr 1)))");
+
+      Vec v1 = tmp("py_1").vec(0), v2 = tmp("py_2").vec(0);
+      assertTrue(LazyExpr.isLazy(v1));
+      assertTrue(LazyExpr.isLazy(v2));
+      // nested expressions are inlined, both read just the base columns
+      assertArrayEquals(base, ((TransformWrappedVec) v2).getMasterVecKeys());
+      assertEquals("log(a)", tmp("py_2").name(0));
+      assertVecEquals(exp1.vec(0), v1, 1e-10);
+      assertVecEquals(exp2.vec(0), v2, 1e-10);
+      assertEquals(exp2.vec(0).mean(), v2.mean(), 1e-10);
+
+      // the base columns stay alive as long as a lazy column reads them
+      Rapids.exec("(rm lazy_fr)", ses);
+      Rapids.exec("(rm py_1)", ses);
+      assertNotNull(DKV.get(base[0]));
+      assertVecEquals(exp2.vec(0), tmp("py_2").vec(0), 1e-10);
+      Rapids.exec("(rm py_2)", ses);
+      assertNull(DKV.get(base[0]));
+      assertNull(DKV.get(base[1]));
+    } finally {
+      ses.end(null);
+      if (exp1 != null) exp1.delete();
+      if (exp2 != null) exp2.delete();
+      if (DKV.get(fr._key) != null) fr.delete();
+    }
+  }
+
+  @Test
+  public void testMaterializedWhenLeavingSession() {
+    Frame fr = makeFrame("lazy_fr2");
+    Frame res = null, exp = null;
+    Session ses = lazySession();
+    try {
+      exp = eager("(sqrt (* lazy_fr2 2))");
+      Rapids.exec("(assign lazy_out (sqrt (* lazy_fr2 2)))", ses);
+      Frame out = tmp("lazy_out");
+      for (Vec v : out.vecs())
+        assertFalse(LazyExpr.isLazy(v));
+      assertFrameEquals(exp, out, 1e-10);
+      out.delete();
+
+      res = ses.end(ses.exec(Rapids.parse("(sqrt (* lazy_fr2 2))"), null)).getFrame();
+      for (Vec v : res.vecs())
+        assertFalse(LazyExpr.isLazy(v));
+      assertFrameEquals(exp, res, 1e-10);
+    } finally {
+      if (res != null) res.delete();
+      if (exp != null) exp.delete();
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testReturnedWithItsMaster() {
+    Frame fr = makeFrame("lazy_fr5");
+    Frame res = null, exp = null;
+    Session ses = lazySession();
+    try {
+      // t1 is a session temp, so its column dies with the session unless returned
+      Rapids.exec("(tmp= t1 (cumsum (cols lazy_fr5 1) 0))", ses);
+      exp = eager("(cbind (cumsum (cols lazy_fr5 1) 0) (+ (cumsum (cols lazy_fr5 1) 0) 1))");
+      res = ses.end(ses.exec(Rapids.parse("(cbind t1 (+ t1 1))"), null)).getFrame();
+      for (Vec v : res.vecs())
+        assertFalse(LazyExpr.isLazy(v));
+      assertFrameEquals(exp, res, 1e-10);
+    } finally {
+      if (res != null) res.delete();
+      if (exp != null) exp.delete();
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testCopyOnWrite() {
+    Frame fr = makeFrame("lazy_fr3");
+    Frame exp = null;
+    Session ses = lazySession();
+    try {
+      Rapids.exec("(tmp= py_1 (- lazy_fr3 1))", ses);
+      Rapids.exec("(tmp= py_2 (:= py_1 -1 0 [0:3]))", ses);
+      exp = eager("(- lazy_fr3 1)");
+      Frame py2 = tmp("py_2");
+      assertFalse(LazyExpr.isLazy(py2.vec(0)));
+      for (int i = 0; i < LEN; i++)
+        assertEquals(i < 3 ? -1 : exp.vec(0).at(i), py2.vec(0).at(i), 1e-10);
+      assertVecEquals(exp.vec(0), tmp("py_1").vec(0), 1e-10); // not modified
+    } finally {
+      ses.end(null);
+      if (exp != null) exp.delete();
+      fr.delete();
+    }
+  }
+
+  @Test
+  public void testBulkDecode() {
+    Frame fr = makeFrame("lazy_fr4");
+    Session ses = lazySession();
+    try {
+      Rapids.exec("(tmp= py_1 (round (/ (cols lazy_fr4 0) (+ (cols lazy_fr4 1) 0.5)) 2))", ses);
+      Vec v = tmp("py_1").vec(0);
+      Chunk c = v.chunkForChunkIdx(1);
+      double[] vals = c.getDoubles(new double[c._len - 10], 5, c._len - 5, -1);
+      for (int i = 5; i < c._len - 5; i++)
+        assertEquals(c.isNA(i) ? -1 : c.atd(i), vals[i - 5], 0);
+      NewChunk nc = c.extractRows(new NewChunk(null, 0), 0, c._len);
+      for (int i = 0; i < c._len; i++)
+        assertEquals(c.atd(i), nc.atd(i), 0);
+    } finally {
+      ses.end(null);
+      fr.delete();
+    }
+  }
+
+}